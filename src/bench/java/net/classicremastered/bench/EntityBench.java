@@ -0,0 +1,117 @@
+package net.classicremastered.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import net.classicremastered.minecraft.Entity;
+import net.classicremastered.minecraft.level.Level;
+
+/**
+ * {@code BlockMap} bookkeeping under churn: cheap wandering entities on a finite level,
+ * a share of which die and are replaced every tick, followed by a TNT-style kill of many
+ * at once.
+ * <p>
+ * Takes {@code [entities=5000] [ticks=400] [churn=250] [seed=1]}. Half of each tick's
+ * deaths flag themselves removed and are dropped by the tick; the rest go through
+ * {@link Level#removeEntity}. Prints milliseconds per tick, the mass-kill and clear
+ * times, and a checksum of the survivors' positions.
+ */
+public final class EntityBench {
+
+    private static final int SIZE = 256;
+
+    /** Walks a step in a random direction each tick. */
+    static final class Walker extends Entity {
+        private static final long serialVersionUID = 0L;
+        private final Random random;
+
+        Walker(Level level, long seed) {
+            super(level);
+            this.random = new Random(seed);
+            this.makeStepSound = false;
+        }
+
+        @Override
+        public void tick() {
+            float nx = Math.max(1, Math.min(SIZE - 1, this.x + (this.random.nextFloat() - 0.5F) * 0.5F));
+            float nz = Math.max(1, Math.min(SIZE - 1, this.z + (this.random.nextFloat() - 0.5F) * 0.5F));
+            this.setPos(nx, this.y, nz);
+        }
+    }
+
+    public static void main(String[] args) {
+        int entities = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int churn = args.length > 2 ? Integer.parseInt(args[2]) : 250;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+
+        System.out.println("=== EntityBench: " + entities + " entities, " + ticks + " ticks, " + churn
+                + " deaths per tick ===");
+        for (int run = 0; run < 3; run++)
+            run(entities, ticks, churn, seed, run == 2);
+    }
+
+    private static void run(int entities, int ticks, int churn, long seed, boolean report) {
+        Random rnd = new Random(seed);
+        Level level = new Level();
+        level.setData(SIZE, 64, SIZE, new byte[SIZE * 64 * SIZE]);
+        List<Walker> alive = new ArrayList<>();
+        long nextSeed = seed;
+        for (int i = 0; i < entities; i++)
+            alive.add(spawn(level, rnd, nextSeed++));
+
+        long[] tickNanos = new long[ticks];
+        for (int t = 0; t < ticks; t++) {
+            long t0 = System.nanoTime();
+            for (int i = 0; i < churn; i++) {
+                Walker w = alive.remove(rnd.nextInt(alive.size()));
+                if ((i & 1) == 0)
+                    w.remove();
+                else
+                    level.removeEntity(w);
+                alive.add(spawn(level, rnd, nextSeed++));
+            }
+            level.tickEntities();
+            tickNanos[t] = System.nanoTime() - t0;
+        }
+
+        // TNT: a tenth of the population dies in one tick
+        long t0 = System.nanoTime();
+        for (int i = 0; i < entities / 10; i++)
+            alive.remove(rnd.nextInt(alive.size())).remove();
+        level.tickEntities();
+        long killNanos = System.nanoTime() - t0;
+
+        long checksum = 0;
+        for (Walker w : alive)
+            checksum = checksum * 31 + Float.floatToIntBits(w.x) * 17 + Float.floatToIntBits(w.z);
+        int stored = level.blockMap.all.size();
+
+        t0 = System.nanoTime();
+        for (Walker w : alive)
+            level.removeEntity(w);
+        long clearNanos = System.nanoTime() - t0;
+
+        if (!report)
+            return;
+        long[] sorted = tickNanos.clone();
+        Arrays.sort(sorted);
+        long sum = 0;
+        for (long n : tickNanos)
+            sum += n;
+        System.out.printf("ms/tick mean %.3f  p50 %.3f  p99 %.3f%n", sum / 1e6 / ticks, sorted[ticks / 2] / 1e6,
+                sorted[Math.min(ticks - 1, (int) (ticks * 0.99))] / 1e6);
+        System.out.printf("mass kill of %d: %.3f ms  remove all %d: %.3f ms%n", entities / 10, killNanos / 1e6,
+                alive.size(), clearNanos / 1e6);
+        System.out.printf("stored %d  left %d  checksum %016x%n", stored, level.blockMap.all.size(), checksum);
+    }
+
+    private static Walker spawn(Level level, Random rnd, long seed) {
+        Walker w = new Walker(level, seed);
+        w.setPos(1 + rnd.nextFloat() * (SIZE - 2), 33.0F, 1 + rnd.nextFloat() * (SIZE - 2));
+        level.addEntity(w);
+        return w;
+    }
+}
@@ -0,0 +1,110 @@
+package net.classicremastered.bench;
+
+import java.lang.management.ManagementFactory;
+
+import com.mcraft.api.event.Event;
+import com.mcraft.api.event.EventBus;
+import com.mcraft.api.event.SubscribeEvent;
+import com.mcraft.api.event.events.BlockEvent;
+import com.mcraft.api.event.events.ChatEvent;
+import com.mcraft.api.event.events.LifecycleEvents;
+import com.mcraft.api.event.events.RenderEvent;
+import com.mcraft.api.event.events.TickEvent;
+
+/**
+ * Cost of {@link EventBus#post} with 0, 1 and 50 listeners for the posted event. Each
+ * count runs on a bare bus, where the empty case is what every hook pays when no mod is
+ * loaded, and again on a bus where a {@link Mod} also handles seven of the API's own
+ * events, as a loaded mod would.
+ * <p>
+ * Arguments {@code [posts=2000000] [runs=8]} (the 50-listener case posts a twentieth as
+ * many). Prints the best nanoseconds and bytes allocated per post for each case, and
+ * exits with status 1 if any listener missed a post.
+ */
+public final class EventBusBench {
+
+    static class Ping extends Event {
+        int value = 1;
+    }
+
+    /** Private, as mod handlers often are: {@link EventBus#register} must still find it. */
+    public static class Counter {
+        long seen;
+
+        @SubscribeEvent
+        private void on(Ping e) {
+            seen += e.value;
+        }
+    }
+
+    /** Listens to everything but the benchmark's event. */
+    public static class Mod {
+        @SubscribeEvent
+        public void on(BlockEvent.Place e) {
+        }
+
+        @SubscribeEvent
+        public void on(BlockEvent.Break e) {
+        }
+
+        @SubscribeEvent
+        public void on(ChatEvent.Send e) {
+        }
+
+        @SubscribeEvent
+        public void on(RenderEvent.HUD e) {
+        }
+
+        @SubscribeEvent
+        public void on(RenderEvent.World e) {
+        }
+
+        @SubscribeEvent
+        public void on(TickEvent.Client e) {
+        }
+
+        @SubscribeEvent
+        public void on(LifecycleEvents.LevelLoaded e) {
+        }
+    }
+
+    public static void main(String[] args) {
+        int posts = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+
+        System.out.println("=== EventBusBench ===");
+        boolean ok = true;
+        for (int c = 0; c < 6; c++) {
+            int listeners = new int[] { 0, 1, 50 }[c % 3];
+            boolean mod = c >= 3;
+            EventBus bus = new EventBus();
+            if (mod)
+                bus.register(new Mod());
+            Counter[] counters = new Counter[listeners];
+            for (int i = 0; i < listeners; i++)
+                bus.register(counters[i] = new Counter());
+            int n = listeners >= 50 ? posts / 20 : posts;
+            Ping ping = new Ping();
+            long bestNanos = Long.MAX_VALUE, bestAlloc = Long.MAX_VALUE;
+            for (int r = 0; r < runs; r++) {
+                long a0 = threads.getThreadAllocatedBytes(tid);
+                long t0 = System.nanoTime();
+                for (int i = 0; i < n; i++)
+                    bus.post(ping);
+                bestNanos = Math.min(bestNanos, System.nanoTime() - t0);
+                bestAlloc = Math.min(bestAlloc, threads.getThreadAllocatedBytes(tid) - a0);
+            }
+            for (Counter counter : counters)
+                ok &= counter.seen == (long) n * runs;
+            System.out.printf("%2d listeners%-10s %8.1f ns/post  %6.1f bytes/post%n", listeners, mod ? " + mod:" : ":",
+                    (double) bestNanos / n, (double) bestAlloc / n);
+        }
+        if (!ok) {
+            System.out.println("FAILED: a listener missed posts");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package net.classicremastered.bench;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+
+import net.classicremastered.minecraft.GameSettings;
+import net.classicremastered.minecraft.Minecraft;
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.tile.Block;
+
+/**
+ * Finite-water flow through a cave system carved in stone: the lower half is flooded at
+ * once, then water is poured in from the top and ticked.
+ * <p>
+ * {@code FloodBench [size=128] [ticks=600] [seed=1]} prints the heap the flooded caves
+ * hold over the dry level, ticks per second while the poured water spreads, and a
+ * checksum of every liquid cell's flow level to compare builds.
+ */
+public final class FloodBench {
+
+    private static final int DEPTH = 64;
+    private static final int ROCK = 48;
+
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 128;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 600;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+
+        Minecraft mc = new Minecraft(null, null, 854, 480, false);
+        File dir = Files.createTempDirectory("floodbench").toFile();
+        mc.settings = new GameSettings(mc, dir);
+        mc.settings.finiteWater = true;
+
+        System.out.println("=== FloodBench: " + size + "x" + DEPTH + "x" + size + ", " + ticks + " ticks ===");
+        for (int run = 0; run < 3; run++)
+            run(mc, size, ticks, seed, run == 2);
+        new File(dir, "options.txt").delete();
+        dir.delete();
+        System.exit(0);
+    }
+
+    private static void run(Minecraft mc, int size, int ticks, long seed, boolean report) throws Exception {
+        Random rnd = new Random(seed);
+        Level level = new Level();
+        level.setData(size, DEPTH, size, caves(size, rnd));
+        level.minecraft = mc;
+        level.random = new Random(seed);
+        // random block updates are driven by randId, which initTransient seeds from the clock
+        java.lang.reflect.Field randId = Level.class.getDeclaredField("randId");
+        randId.setAccessible(true);
+        randId.setInt(level, (int) seed);
+        level.doDayNightCycle = false;
+        level.waterLevel = 0;
+
+        long before = usedHeap();
+        int flooded = 0;
+        for (int y = 1; y < ROCK / 2; y++) {
+            for (int z = 1; z < size - 1; z++) {
+                for (int x = 1; x < size - 1; x++) {
+                    if (level.getTile(x, y, z) == 0 && level.setTileNoUpdate(x, y, z, Block.WATER.id))
+                        flooded++;
+                }
+            }
+        }
+        long held = usedHeap() - before;
+
+        // pour from the upper tunnels
+        for (int i = 0; i < 64; i++) {
+            int x = 1 + rnd.nextInt(size - 2), z = 1 + rnd.nextInt(size - 2);
+            for (int y = ROCK - 1; y > ROCK / 2; y--) {
+                if (level.getTile(x, y, z) == 0) {
+                    level.setTile(x, y, z, Block.WATER.id);
+                    break;
+                }
+            }
+        }
+        long t0 = System.nanoTime();
+        for (int t = 0; t < ticks; t++)
+            level.tick();
+        long nanos = System.nanoTime() - t0;
+
+        long checksum = 0;
+        int liquid = 0;
+        for (int y = 0; y < DEPTH; y++) {
+            for (int z = 0; z < size; z++) {
+                for (int x = 0; x < size; x++) {
+                    int f = level.getFlowLevel(x, y, z);
+                    if (f >= 0) {
+                        liquid++;
+                        checksum = checksum * 31 + ((x * 31 + y) * 31 + z) * 16 + f;
+                    }
+                }
+            }
+        }
+        if (report) {
+            System.out.printf("flooded %d cells  heap held %.1f MB%n", flooded, held / 1048576.0);
+            System.out.printf("ticks/s %.1f  ms/tick %.3f%n", ticks * 1e9 / nanos, nanos / 1e6 / ticks);
+            System.out.printf("liquid cells %d  checksum %016x%n", liquid, checksum);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    // solid stone up to ROCK, worm tunnels carved through it
+    private static byte[] caves(int size, Random rnd) {
+        byte[] blocks = new byte[size * DEPTH * size];
+        for (int y = 0; y < ROCK; y++) {
+            for (int z = 0; z < size; z++) {
+                for (int x = 0; x < size; x++) {
+                    blocks[(y * size + z) * size + x] = (byte) (y == 0 ? Block.BEDROCK.id : Block.STONE.id);
+                }
+            }
+        }
+        int worms = size * size / 256;
+        for (int w = 0; w < worms; w++) {
+            double x = rnd.nextInt(size), y = 2 + rnd.nextInt(ROCK - 4), z = rnd.nextInt(size);
+            double yaw = rnd.nextDouble() * Math.PI * 2, pitch = 0;
+            for (int step = 0; step < 120; step++) {
+                yaw += (rnd.nextDouble() - 0.5) * 0.6;
+                pitch = Math.max(-0.6, Math.min(0.6, pitch + (rnd.nextDouble() - 0.5) * 0.4));
+                x += Math.cos(yaw) * Math.cos(pitch);
+                z += Math.sin(yaw) * Math.cos(pitch);
+                y += Math.sin(pitch);
+                carve(blocks, size, x, y, z, 2.5);
+            }
+        }
+        return blocks;
+    }
+
+    private static void carve(byte[] blocks, int size, double cx, double cy, double cz, double r) {
+        for (int y = (int) (cy - r); y <= cy + r; y++) {
+            for (int z = (int) (cz - r); z <= cz + r; z++) {
+                for (int x = (int) (cx - r); x <= cx + r; x++) {
+                    if (x < 1 || z < 1 || y < 1 || x >= size - 1 || z >= size - 1 || y >= ROCK - 1)
+                        continue;
+                    double dx = x - cx, dy = y - cy, dz = z - cz;
+                    if (dx * dx + dy * dy + dz * dz <= r * r)
+                        blocks[(y * size + z) * size + x] = 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package net.classicremastered.bench;
+
+import java.util.zip.CRC32;
+
+import net.classicremastered.minecraft.ProgressBarDisplay;
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.generator.LevelGenerator;
+
+/**
+ * Checks that {@link LevelGenerator} is deterministic across thread counts, and times
+ * how it scales: each map size is generated from one seed at every thread count, and
+ * the block arrays must match.
+ * <p>
+ * {@code GenBench [seed=1] [sizes=512,1024] [threads=1,2,4,8] [runs=2]} prints the best
+ * time and the CRC32 of the blocks per run, and exits with status 1 on any mismatch.
+ */
+public final class GenBench {
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1L;
+        int[] sizes = parse(args.length > 1 ? args[1] : "512,1024");
+        int[] threads = parse(args.length > 2 ? args[2] : "1,2,4,8");
+        int runs = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+
+        System.out.println("=== GenBench: seed " + seed + ", " + Runtime.getRuntime().availableProcessors()
+                + " cores ===");
+        boolean ok = true;
+        for (int size : sizes) {
+            long expected = -1;
+            double base = 0;
+            for (int t : threads) {
+                long best = Long.MAX_VALUE;
+                long crc = 0;
+                for (int r = 0; r < runs; r++) {
+                    long t0 = System.nanoTime();
+                    Level level = new LevelGenerator(new Silent(), seed, t).generate("bench", size, size, 64);
+                    best = Math.min(best, System.nanoTime() - t0);
+                    crc = checksum(level.blocks);
+                }
+                if (expected == -1) {
+                    expected = crc;
+                    base = best;
+                }
+                boolean same = crc == expected;
+                ok &= same;
+                System.out.printf("%4dx%-4d threads %d: %8.1f ms  x%.2f  crc %08x%s%n", size, size, t, best / 1e6,
+                        base / best, crc, same ? "" : "  MISMATCH");
+            }
+        }
+        if (!ok) {
+            System.out.println("FAILED: blocks differ between thread counts");
+            System.exit(1);
+        }
+    }
+
+    private static long checksum(byte[] blocks) {
+        CRC32 crc = new CRC32();
+        crc.update(blocks);
+        return crc.getValue();
+    }
+
+    private static int[] parse(String list) {
+        String[] parts = list.split(",");
+        int[] out = new int[parts.length];
+        for (int i = 0; i < parts.length; i++)
+            out[i] = Integer.parseInt(parts[i].trim());
+        return out;
+    }
+
+    /** Progress sink without a client window. */
+    private static final class Silent extends ProgressBarDisplay {
+        Silent() {
+            super(null);
+        }
+
+        @Override
+        public void setTitle(String s) {
+        }
+
+        @Override
+        public void setText(String s) {
+        }
+
+        @Override
+        public void setProgress(int pct) {
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package net.classicremastered.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.classicremastered.minecraft.Entity;
+import net.classicremastered.minecraft.level.BlockMap;
+import net.classicremastered.minecraft.level.Level;
+
+/**
+ * {@link BlockMap} under a crowd: entities spread over a 512x512 area drift a little
+ * every tick, then each one asks for its neighbours within 24 blocks, the range
+ * {@code EndermanAI} scans. Run once with the map in infinite mode and once finite.
+ * <p>
+ * {@code GridBench [entities=2000] [ticks=40]}. Prints the best tick time (all moves
+ * plus all queries), the total number of neighbours found, which must not depend on
+ * the mode, and how many entities a full-area query sees after half are removed.
+ */
+public final class GridBench {
+
+    private static final int AREA = 512;
+    private static final float RANGE = 24.0F;
+
+    static final class Body extends Entity {
+        private static final long serialVersionUID = 0L;
+
+        Body(Level level) {
+            super(level);
+            this.setSize(0.6F, 1.8F);
+        }
+    }
+
+    public static void main(String[] args) {
+        int entities = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+
+        Level level = new Level();
+        level.setData(16, 16, 16, new byte[16 * 16 * 16]);
+        System.out.println("=== GridBench: " + entities + " entities, " + ticks + " ticks ===");
+        for (boolean infinite : new boolean[] { true, false, true, false })
+            run(level, entities, ticks, infinite);
+    }
+
+    private static void run(Level level, int entities, int ticks, boolean infinite) {
+        BlockMap map = infinite ? new BlockMap(1, 1, 1) : new BlockMap(AREA, 64, AREA);
+        map.infiniteMode = infinite;
+        Random rnd = new Random(3);
+        List<Body> bodies = new ArrayList<>(entities);
+        for (int i = 0; i < entities; i++) {
+            Body b = new Body(level);
+            b.setPos(rnd.nextFloat() * AREA, 30 + rnd.nextFloat() * 20, rnd.nextFloat() * AREA);
+            bodies.add(b);
+            map.insert(b);
+        }
+
+        List<Entity> out = new ArrayList<>();
+        long found = 0, best = Long.MAX_VALUE;
+        for (int t = 0; t < ticks; t++) {
+            long t0 = System.nanoTime();
+            for (Body b : bodies) {
+                float x = Math.max(0.5F, Math.min(AREA - 0.5F, b.x + (rnd.nextFloat() - 0.5F) * 2));
+                float z = Math.max(0.5F, Math.min(AREA - 0.5F, b.z + (rnd.nextFloat() - 0.5F) * 2));
+                b.setPos(x, b.y, z);
+                map.moved(b);
+            }
+            for (Body b : bodies) {
+                out.clear();
+                map.getEntities(b, b.x - RANGE, b.y - RANGE, b.z - RANGE, b.x + RANGE, b.y + RANGE, b.z + RANGE, out);
+                found += out.size();
+            }
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+
+        for (int i = 0; i < entities / 2; i++)
+            map.remove(bodies.get(i));
+        out.clear();
+        map.getEntities(null, -10, -10, -10, AREA + 10, 100, AREA + 10, out);
+        System.out.printf("%-8s best tick %8.3f ms  neighbours %d  left after removing half %d%n",
+                infinite ? "infinite" : "finite", best / 1e6, found, out.size());
+    }
+}
@@ -0,0 +1,136 @@
+package net.classicremastered.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import net.classicremastered.minecraft.ProgressBarDisplay;
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.MobSpawner;
+import net.classicremastered.minecraft.level.generator.LevelGenerator;
+import net.classicremastered.minecraft.level.liquid.LiquidType;
+import net.classicremastered.minecraft.level.structure.StructureRegistry;
+import net.classicremastered.minecraft.level.tile.Block;
+
+/**
+ * Surface queries through the {@code HeightMap} against the column scan that
+ * {@link Level#getHighestTile} used to do, on a generated map. The scan runs in a
+ * {@link Level} subclass that overrides only {@code getHighestTile}, so structure
+ * placement and the mob spawner run unchanged on top of either.
+ * <p>
+ * {@code HeightBench [size=256] [runs=5] [seed=1]} times, for each way of finding the
+ * surface, 2M lookups of random columns, {@link StructureRegistry#placeAll} and 16
+ * mob-spawn passes of 64 batches at midnight, each from the same seeded level and
+ * randoms. It then compares every column's height from the map with a scan of the same
+ * level, the blocks both ways left and how many mobs each spawned. Any difference exits
+ * with status 1.
+ */
+public final class HeightBench {
+
+    private static final int DEPTH = 64;
+    private static final int LOOKUPS = 2_000_000;
+    private static final int SPAWN_PASSES = 16;
+
+    /** getHighestTile as it was: walk down from the top past air and liquid. */
+    static final class ScanLevel extends Level {
+        private static final long serialVersionUID = 0L;
+
+        @Override
+        public int getHighestTile(int x, int z) {
+            return scan(this, x, z);
+        }
+    }
+
+    static int scan(Level level, int x, int z) {
+        int y;
+        for (y = level.depth; (level.getTile(x, y - 1, z) == 0
+                || Block.blocks[level.getTile(x, y - 1, z)].getLiquidType() != LiquidType.NOT_LIQUID) && y > 0; --y) {
+        }
+        return y;
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+
+        Level generated = new LevelGenerator(new Silent(), seed, 1).generate("bench", size, size, DEPTH);
+        StructureRegistry.INSTANCE.bootstrapDefaults();
+        System.out.println("=== HeightBench: " + size + "x" + DEPTH + "x" + size + ", seed " + seed + " ===");
+
+        String[] names = { "column scan", "heightmap" };
+        long[][] best = new long[2][3];
+        for (long[] b : best)
+            Arrays.fill(b, Long.MAX_VALUE);
+        Level[] last = new Level[2];
+        int[] mobs = new int[2];
+        for (int r = 0; r < runs; r++) {
+            for (int way = 0; way < 2; way++) {
+                Level level = way == 0 ? new ScanLevel() : new Level();
+                level.waterLevel = generated.waterLevel;
+                level.setData(size, DEPTH, size, generated.blocks.clone());
+                level.random = new Random(seed);
+                level.setTime(18000);
+                // setData picks a spawn point from the clock; the spawner keeps away from it
+                level.setSpawnPos(size / 2, scan(level, size / 2, size / 2), size / 2, 0.0F);
+
+                Random rnd = new Random(seed);
+                long sum = 0, t0 = System.nanoTime();
+                for (int i = 0; i < LOOKUPS; i++)
+                    sum += level.getHighestTile(rnd.nextInt(size), rnd.nextInt(size));
+                best[way][0] = Math.min(best[way][0], System.nanoTime() - t0);
+                if (sum == 0)
+                    System.out.println("empty level");
+
+                t0 = System.nanoTime();
+                StructureRegistry.INSTANCE.placeAll(level, new Random(seed));
+                best[way][1] = Math.min(best[way][1], System.nanoTime() - t0);
+
+                MobSpawner spawner = new MobSpawner(level);
+                mobs[way] = 0;
+                t0 = System.nanoTime();
+                for (int p = 0; p < SPAWN_PASSES; p++)
+                    mobs[way] += spawner.spawn(64, null, null);
+                best[way][2] = Math.min(best[way][2], System.nanoTime() - t0);
+                last[way] = level;
+            }
+        }
+        for (int way = 0; way < 2; way++) {
+            System.out.printf("%-12s lookups %7.1f ms  placeAll %6.2f ms  spawn %6.2f ms (%d mobs)%n", names[way],
+                    best[way][0] / 1e6, best[way][1] / 1e6, best[way][2] / 1e6, mobs[way]);
+        }
+
+        int differ = 0;
+        Level map = last[1];
+        for (int z = 0; z < size; z++) {
+            for (int x = 0; x < size; x++) {
+                if (map.getHighestTile(x, z) != scan(map, x, z) || map.getHighestTile(x, z) != scan(last[0], x, z))
+                    differ++;
+            }
+        }
+        boolean sameBlocks = Arrays.equals(last[0].blocks, last[1].blocks);
+        System.out.println("columns differing " + differ + ", blocks " + (sameBlocks ? "identical" : "MISMATCH")
+                + (differ == 0 ? "" : "  MISMATCH"));
+        if (differ != 0 || !sameBlocks || mobs[0] != mobs[1]) {
+            System.out.println("FAILED: the heightmap disagrees with the column scan");
+            System.exit(1);
+        }
+    }
+
+    private static final class Silent extends ProgressBarDisplay {
+        Silent() {
+            super(null);
+        }
+
+        @Override
+        public void setTitle(String s) {
+        }
+
+        @Override
+        public void setText(String s) {
+        }
+
+        @Override
+        public void setProgress(int pct) {
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package net.classicremastered.bench;
+
+import java.util.Random;
+
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.tile.Block;
+import net.classicremastered.minecraft.render.ChunkMesher;
+import net.classicremastered.minecraft.render.ChunkSnapshot;
+import net.classicremastered.minecraft.render.MeshBuffer;
+
+/**
+ * Chunk rebuild cost on a lava-heavy finite map: lava lakes on the surface and a cave
+ * layer floored with lava pools, so most exposed faces sit within a few blocks of a
+ * light source.
+ * <p>
+ * Arguments {@code [size=256] [runs=5] [seed=1]}. Two passes over every chunk, best of
+ * {@code runs}:
+ * <ul>
+ * <li>face lighting: one {@link Level#getBrightness} per face that
+ * {@link Block#canRenderSide} lets through, which is the lighting a rebuild asks of
+ * the level. The face count must not change between builds;</li>
+ * <li>full rebuild: {@link ChunkSnapshot#capture} plus {@link ChunkMesher#mesh}, what
+ * {@code Chunk.update()} now runs.</li>
+ * </ul>
+ */
+public final class LightBench {
+
+    private static final int DEPTH = 64;
+    private static final int GROUND = 32;
+    private static final int CAVE_FLOOR = 10, CAVE_ROOF = 15;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+
+        Level level = new Level();
+        level.setData(size, DEPTH, size, lavaMap(size, new Random(seed)));
+        level.doDayNightCycle = false;
+        int lava = 0;
+        for (byte b : level.blocks) {
+            if (b == Block.LAVA.id || b == Block.STATIONARY_LAVA.id)
+                lava++;
+        }
+        int chunks = (size / 16) * (DEPTH / 16) * (size / 16);
+        System.out.println("=== LightBench: " + size + "x" + DEPTH + "x" + size + ", " + chunks + " chunks, " + lava
+                + " lava blocks ===");
+
+        long best = Long.MAX_VALUE, faces = 0;
+        double light = 0;
+        for (int r = 0; r < runs; r++) {
+            long t0 = System.nanoTime();
+            faces = 0;
+            light = 0;
+            for (int y0 = 0; y0 < DEPTH; y0 += 16) {
+                for (int z0 = 0; z0 < size; z0 += 16) {
+                    for (int x0 = 0; x0 < size; x0 += 16) {
+                        for (int x = x0; x < x0 + 16; x++) {
+                            for (int y = y0; y < y0 + 16; y++) {
+                                for (int z = z0; z < z0 + 16; z++) {
+                                    int id = level.getTile(x, y, z);
+                                    if (id == 0)
+                                        continue;
+                                    Block b = Block.blocks[id];
+                                    for (int side = 0; side < 6; side++) {
+                                        int nx = x + (side == 4 ? -1 : side == 5 ? 1 : 0);
+                                        int ny = y + (side == 0 ? -1 : side == 1 ? 1 : 0);
+                                        int nz = z + (side == 2 ? -1 : side == 3 ? 1 : 0);
+                                        if (b.canRenderSide(level, nx, ny, nz, side)) {
+                                            faces++;
+                                            light += level.getBrightness(nx, ny, nz);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        System.out.printf("face lighting  %.3f ms/chunk  (%d faces, mean brightness %.3f)%n", best / 1e6 / chunks,
+                faces, light / faces);
+
+        MeshBuffer out = new MeshBuffer();
+        best = Long.MAX_VALUE;
+        long vertices = 0;
+        for (int r = 0; r < runs; r++) {
+            long t0 = System.nanoTime();
+            vertices = 0;
+            for (int y0 = 0; y0 < DEPTH; y0 += 16) {
+                for (int z0 = 0; z0 < size; z0 += 16) {
+                    for (int x0 = 0; x0 < size; x0 += 16) {
+                        ChunkMesher.mesh(ChunkSnapshot.capture(level, x0, y0, z0), out);
+                        for (int pass = 0; pass < MeshBuffer.PASSES; pass++)
+                            vertices += out.getVertexCount(pass);
+                        out.reset();
+                    }
+                }
+            }
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        System.out.printf("full rebuild   %.3f ms/chunk  (%d vertices)%n", best / 1e6 / chunks, vertices);
+    }
+
+    // stone and grass up to GROUND, a lava-floored cave layer, lava lakes on top
+    private static byte[] lavaMap(int size, Random rnd) {
+        byte[] blocks = new byte[size * DEPTH * size];
+        for (int z = 0; z < size; z++) {
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y <= GROUND; y++) {
+                    int id = y == 0 ? Block.BEDROCK.id : y == GROUND ? Block.GRASS.id : Block.STONE.id;
+                    boolean pillar = (x % 12) < 2 && (z % 12) < 2;
+                    if (y > CAVE_FLOOR && y < CAVE_ROOF && !pillar)
+                        id = 0;
+                    blocks[(y * size + z) * size + x] = (byte) id;
+                }
+            }
+        }
+        // pools on the cave floor and lakes in the surface
+        for (int i = 0; i < size * size / 96; i++)
+            pool(blocks, size, rnd.nextInt(size), CAVE_FLOOR, rnd.nextInt(size), 2 + rnd.nextInt(4));
+        for (int i = 0; i < size * size / 1024; i++)
+            pool(blocks, size, rnd.nextInt(size), GROUND, rnd.nextInt(size), 3 + rnd.nextInt(6));
+        return blocks;
+    }
+
+    private static void pool(byte[] blocks, int size, int cx, int y, int cz, int r) {
+        for (int z = Math.max(0, cz - r); z <= Math.min(size - 1, cz + r); z++) {
+            for (int x = Math.max(0, cx - r); x <= Math.min(size - 1, cx + r); x++) {
+                int dx = x - cx, dz = z - cz;
+                if (dx * dx + dz * dz <= r * r)
+                    blocks[(y * size + z) * size + x] = (byte) Block.STATIONARY_LAVA.id;
+            }
+        }
+    }
+}
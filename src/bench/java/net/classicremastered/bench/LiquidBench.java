@@ -0,0 +1,111 @@
+package net.classicremastered.bench;
+
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.tile.Block;
+
+/**
+ * Instant (non-finite) liquid flow on a flat stone floor split by a low wall with gaps
+ * in it: a still lava lake fills one side and water is poured on the other, meeting the
+ * lava in the gaps. Sand hangs over the water side and drops into the flood as it
+ * passes. A water source's first update floods its whole side in one tick, so this also
+ * shows that a flood no longer needs a deep stack.
+ * <p>
+ * {@code LiquidBench [size=256] [ticks=100] [runs=3]}. After every run the level is
+ * checked: where the two liquids met, one of them must have turned to stone, and every
+ * block of sand must still be there. A water cell left touching lava, no stone at all or
+ * missing sand prints MISMATCH and exits with status 1. Prints the best time for the
+ * run, the liquid cells of each kind and the stone made.
+ */
+public final class LiquidBench {
+
+    private static final int DEPTH = 32;
+    private static final int FLOOR = 8;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        System.out.println("=== LiquidBench: " + size + "x" + DEPTH + "x" + size + ", " + ticks + " ticks ===");
+        long best = Long.MAX_VALUE;
+        boolean ok = true;
+        for (int r = 0; r < runs; r++) {
+            Level level = floor(size);
+            long t0 = System.nanoTime();
+            for (int t = 0; t < ticks; t++)
+                level.tick();
+            best = Math.min(best, System.nanoTime() - t0);
+            ok &= check(level, size, r == runs - 1);
+        }
+        System.out.printf("best %.0f ms  %.3f ms/tick%n", best / 1e6, best / 1e6 / ticks);
+        if (!ok) {
+            System.out.println("FAILED: the flood overwrote blocks it met");
+            System.exit(1);
+        }
+    }
+
+    // stone up to FLOOR and a one-high wall a third of the way across, with a gap every
+    // 32 blocks; lava fills the near side of it and water is poured on the far side, under
+    // sand hung one block up every 8
+    private static Level floor(int size) {
+        byte[] blocks = new byte[size * DEPTH * size];
+        for (int y = 0; y < FLOOR; y++) {
+            for (int z = 0; z < size; z++) {
+                for (int x = 0; x < size; x++)
+                    blocks[(y * size + z) * size + x] = (byte) (y == 0 ? Block.BEDROCK.id : Block.STONE.id);
+            }
+        }
+        for (int z = 0; z < size; z++) {
+            for (int x = 0; x < size / 3; x++)
+                blocks[(FLOOR * size + z) * size + x] = (byte) Block.STATIONARY_LAVA.id;
+            if (z % 32 != 16)
+                blocks[(FLOOR * size + z) * size + size / 3] = (byte) Block.STONE.id;
+            for (int x = size / 3 + 4; z % 8 == 4 && x < size; x += 8)
+                blocks[((FLOOR + 1) * size + z) * size + x] = (byte) Block.SAND.id;
+        }
+        Level level = new Level();
+        level.setData(size, DEPTH, size, blocks);
+        level.doDayNightCycle = false;
+        for (int z = 8; z < size; z += 32)
+            level.setTile(size - 2, FLOOR, z, Block.WATER.id);
+        return level;
+    }
+
+    private static boolean check(Level level, int size, boolean report) {
+        int water = 0, lava = 0, stone = -(size - size / 32), sand = 0, touching = 0; // less the wall
+        for (int y = FLOOR; y < DEPTH; y++) {
+            for (int z = 0; z < size; z++) {
+                for (int x = 0; x < size; x++) {
+                    int id = level.getTile(x, y, z);
+                    if (id == Block.STONE.id) {
+                        stone++;
+                    } else if (id == Block.SAND.id) {
+                        sand++;
+                    } else if (isLava(id)) {
+                        lava++;
+                    } else if (isWater(id)) {
+                        water++;
+                        if (isLava(level.getTile(x - 1, y, z)) || isLava(level.getTile(x + 1, y, z))
+                                || isLava(level.getTile(x, y - 1, z)) || isLava(level.getTile(x, y + 1, z))
+                                || isLava(level.getTile(x, y, z - 1)) || isLava(level.getTile(x, y, z + 1)))
+                            touching++;
+                    }
+                }
+            }
+        }
+        int hung = (size / 8) * ((size - size / 3 - 4 + 7) / 8);
+        boolean ok = touching == 0 && stone > 0 && sand == hung;
+        if (report || !ok)
+            System.out.printf("water %d  lava %d  stone %d  sand %d/%d  water touching lava %d%s%n", water, lava, stone,
+                    sand, hung, touching, ok ? "" : "  MISMATCH");
+        return ok;
+    }
+
+    private static boolean isWater(int id) {
+        return id == Block.WATER.id || id == Block.STATIONARY_WATER.id;
+    }
+
+    private static boolean isLava(int id) {
+        return id == Block.LAVA.id || id == Block.STATIONARY_LAVA.id;
+    }
+}
@@ -0,0 +1,254 @@
+package net.classicremastered.bench;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.classicremastered.minecraft.net.PacketType;
+import net.classicremastered.toolkit.server.ClassicServer;
+
+/**
+ * Load-test harness for {@link ClassicServer}: simulated local clients that join,
+ * walk at 20 Hz and chat, plus a few stalled clients that never read.
+ * <p>
+ * Usage: {@code LoadTest [clients=500] [seconds=30] [stalled=5] [host:port]}. Without
+ * a host an in-process server is started on a free port. Clients past the 128 player
+ * ids are turned away by the server and counted as rejected. Process CPU up to the
+ * last join is reported, which is mostly server join work when run in-process.
+ */
+public final class LoadTest {
+
+    private final String host;
+    private final int port;
+    private final long endAt;
+
+    private final AtomicInteger joined = new AtomicInteger();
+    private final AtomicInteger rejected = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger stalledDropped = new AtomicInteger();
+    private final AtomicLong packetsIn = new AtomicLong();
+    private final List<Long> joinNanos = Collections.synchronizedList(new ArrayList<>());
+    private final List<Long> chatNanos = Collections.synchronizedList(new ArrayList<>());
+    private final long cpuAtStart = processCpuNanos();
+    private volatile long cpuAtLastJoin = -1L;
+
+    private LoadTest(String host, int port, long endAt) {
+        this.host = host;
+        this.port = port;
+        this.endAt = endAt;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int stalled = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        ClassicServer server = null;
+        String host = "127.0.0.1";
+        int port;
+        if (args.length > 3) {
+            String[] hp = args[3].split(":");
+            host = hp[0];
+            port = Integer.parseInt(hp[1]);
+        } else {
+            server = new ClassicServer();
+            server.start(0);
+            port = server.getPort();
+        }
+
+        LoadTest t = new LoadTest(host, port, System.nanoTime() + seconds * 1_000_000_000L);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients + stalled; i++) {
+            final int n = i;
+            final boolean stall = i < stalled;
+            Thread th = new Thread(() -> t.runClient(n, stall), "LoadTest-" + i);
+            th.setDaemon(true);
+            threads.add(th);
+            th.start();
+        }
+        for (Thread th : threads) {
+            th.join(seconds * 1000L + 30_000L);
+        }
+        t.report(clients, stalled, seconds);
+        if (server != null) {
+            System.out.println("level snapshot: " + server.getSnapshotStats());
+            server.stop();
+        }
+        System.exit(0);
+    }
+
+    private void runClient(int n, boolean stall) {
+        long start = System.nanoTime();
+        try (Socket s = new Socket()) {
+            if (stall)
+                s.setReceiveBufferSize(4096);
+            s.setTcpNoDelay(true);
+            s.connect(new InetSocketAddress(host, port), 10_000);
+            OutputStream out = s.getOutputStream();
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream(), 8192));
+            String name = (stall ? "stall" : "bot") + n;
+
+            byte[] ident = new byte[1 + PacketType.IDENTIFICATION.length];
+            ident[0] = 0;
+            ident[1] = 7;
+            putString(ident, 2, name);
+            putString(ident, 66, "-");
+            out.write(ident);
+            out.flush();
+
+            // read until our own spawn (id -1) arrives
+            while (true) {
+                int op = in.read();
+                if (op < 0)
+                    throw new EOFException();
+                if (op == 14) {
+                    rejected.incrementAndGet();
+                    return;
+                }
+                byte[] body = readBody(in, op);
+                if (op == 7 && body[0] == -1)
+                    break;
+            }
+            joinNanos.add(System.nanoTime() - start);
+            joined.incrementAndGet();
+            cpuAtLastJoin = processCpuNanos();
+
+            if (stall) {
+                // never read again; the server should drop us once our queue stalls
+                while (System.nanoTime() < endAt) {
+                    Thread.sleep(200L);
+                    try {
+                        out.write(positionPacket(n, 0));
+                        out.flush();
+                    } catch (IOException e) {
+                        stalledDropped.incrementAndGet();
+                        return;
+                    }
+                }
+                return;
+            }
+
+            Thread reader = new Thread(() -> readLoop(in), "LoadTest-read-" + n);
+            reader.setDaemon(true);
+            reader.start();
+
+            int tick = 0;
+            while (System.nanoTime() < endAt && reader.isAlive()) {
+                out.write(positionPacket(n, tick));
+                if (tick % 100 == n % 100) {
+                    byte[] chat = new byte[1 + PacketType.CHAT_MESSAGE.length];
+                    chat[0] = 13;
+                    chat[1] = -1;
+                    putString(chat, 2, "t " + System.nanoTime());
+                    out.write(chat);
+                }
+                out.flush();
+                tick++;
+                Thread.sleep(50L);
+            }
+        } catch (Exception e) {
+            if (stall)
+                stalledDropped.incrementAndGet();
+            else
+                failed.incrementAndGet();
+        }
+    }
+
+    private void readLoop(DataInputStream in) {
+        try {
+            while (System.nanoTime() < endAt) {
+                int op = in.read();
+                if (op < 0)
+                    return;
+                byte[] body = readBody(in, op);
+                packetsIn.incrementAndGet();
+                if (op == 13) {
+                    String msg = new String(body, 1, 64, StandardCharsets.UTF_8).trim();
+                    int i = msg.lastIndexOf("t ");
+                    if (i >= 0 && msg.startsWith("<")) {
+                        try {
+                            chatNanos.add(System.nanoTime() - Long.parseLong(msg.substring(i + 2).trim()));
+                        } catch (NumberFormatException ignored) {}
+                    }
+                }
+            }
+        } catch (IOException ignored) {}
+    }
+
+    private static byte[] readBody(DataInputStream in, int op) throws IOException {
+        PacketType type = PacketType.packets[op];
+        if (type == null)
+            throw new IOException("bad opcode " + op);
+        byte[] body = new byte[type.length];
+        in.readFully(body);
+        return body;
+    }
+
+    private static byte[] positionPacket(int n, int tick) {
+        byte[] p = new byte[1 + PacketType.POSITION_ROTATION.length];
+        int x = (128 * 32) + ((n * 37 + tick) % 256) - 128;
+        int z = (128 * 32) + ((n * 53 + tick * 3) % 256) - 128;
+        p[0] = 8;
+        p[1] = -1;
+        p[2] = (byte) (x >> 8);
+        p[3] = (byte) x;
+        p[4] = (byte) (1076 >> 8);
+        p[5] = (byte) 1076;
+        p[6] = (byte) (z >> 8);
+        p[7] = (byte) z;
+        p[8] = (byte) tick;
+        p[9] = 0;
+        return p;
+    }
+
+    private static void putString(byte[] dst, int off, String s) {
+        Arrays.fill(dst, off, off + 64, (byte) ' ');
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(b, 0, dst, off, Math.min(64, b.length));
+    }
+
+    private void report(int clients, int stalled, int seconds) {
+        System.out.println("=== LoadTest: " + clients + " clients + " + stalled + " stalled, " + seconds + " s ===");
+        System.out.println("joined " + joined.get() + ", rejected (server full) " + rejected.get() + ", failed " + failed.get());
+        System.out.println("stalled clients dropped by server: " + stalledDropped.get() + "/" + stalled);
+        System.out.println("join time ms    " + percentiles(joinNanos));
+        if (cpuAtLastJoin >= 0 && joined.get() > 0) {
+            System.out.printf("process CPU until last join: %.1f ms total, %.2f ms per join%n",
+                    (cpuAtLastJoin - cpuAtStart) / 1e6, (cpuAtLastJoin - cpuAtStart) / 1e6 / joined.get());
+        }
+        System.out.println("chat latency ms " + percentiles(chatNanos) + " over " + chatNanos.size() + " deliveries");
+        System.out.println("packets received: " + packetsIn.get() + " (" + packetsIn.get() / Math.max(1, seconds) + "/s)");
+    }
+
+    private static long processCpuNanos() {
+        java.lang.management.OperatingSystemMXBean os = java.lang.management.ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean sun)
+            return sun.getProcessCpuTime();
+        return -1L;
+    }
+
+    private static String percentiles(List<Long> nanos) {
+        long[] v;
+        synchronized (nanos) {
+            v = new long[nanos.size()];
+            for (int i = 0; i < v.length; i++)
+                v[i] = nanos.get(i);
+        }
+        if (v.length == 0)
+            return "n/a";
+        Arrays.sort(v);
+        return String.format("p50 %.1f  p99 %.1f  max %.1f", v[v.length / 2] / 1e6,
+                v[Math.min(v.length - 1, (int) (v.length * 0.99))] / 1e6, v[v.length - 1] / 1e6);
+    }
+}
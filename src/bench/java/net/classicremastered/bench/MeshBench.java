@@ -0,0 +1,115 @@
+package net.classicremastered.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.classicremastered.minecraft.ProgressBarDisplay;
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.generator.LevelGenerator;
+import net.classicremastered.minecraft.render.ChunkMesher;
+import net.classicremastered.minecraft.render.ChunkSnapshot;
+import net.classicremastered.minecraft.render.MeshBuffer;
+
+/**
+ * Meshing throughput of {@link ChunkMesher} off the GL thread, in chunks per second per
+ * core, on a generated map.
+ * <p>
+ * {@code MeshBench [size=256] [threads=1,2,4] [runs=3] [seed=1]}. Every chunk is
+ * captured up front, as the GL thread would, and the best capture time is printed on
+ * its own. The snapshots are then shared out among each thread count's workers, and
+ * the best wall time is turned into chunks per second, overall and per core used. The
+ * vertex total must be the same at every thread count.
+ */
+public final class MeshBench {
+
+    private static final int DEPTH = 64;
+
+    public static void main(String[] args) throws InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        String[] threadArg = (args.length > 1 ? args[1] : "1,2,4").split(",");
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        Level level = new LevelGenerator(new Silent(), seed, 1).generate("bench", size, size, DEPTH);
+        List<ChunkSnapshot> snaps = new ArrayList<>();
+        long captureNanos = Long.MAX_VALUE;
+        for (int r = 0; r < runs; r++) {
+            snaps.clear();
+            long t0 = System.nanoTime();
+            for (int y0 = 0; y0 < DEPTH; y0 += 16) {
+                for (int z0 = 0; z0 < size; z0 += 16) {
+                    for (int x0 = 0; x0 < size; x0 += 16)
+                        snaps.add(ChunkSnapshot.capture(level, x0, y0, z0));
+                }
+            }
+            captureNanos = Math.min(captureNanos, System.nanoTime() - t0);
+        }
+        System.out.println("=== MeshBench: " + snaps.size() + " chunks, " + cores + " cores ===");
+        System.out.printf("capture %.3f ms/chunk%n", captureNanos / 1e6 / snaps.size());
+
+        MeshBuffer warm = new MeshBuffer();
+        for (ChunkSnapshot snap : snaps) {
+            ChunkMesher.mesh(snap, warm);
+            warm.reset();
+        }
+
+        long expected = -1;
+        for (String arg : threadArg) {
+            int threads = Integer.parseInt(arg.trim());
+            long best = Long.MAX_VALUE, vertices = 0;
+            for (int r = 0; r < runs; r++) {
+                AtomicInteger next = new AtomicInteger();
+                long[] counts = new long[threads];
+                Thread[] workers = new Thread[threads];
+                for (int t = 0; t < threads; t++) {
+                    final int id = t;
+                    workers[t] = new Thread(() -> {
+                        MeshBuffer out = new MeshBuffer();
+                        int i;
+                        while ((i = next.getAndIncrement()) < snaps.size()) {
+                            ChunkMesher.mesh(snaps.get(i), out);
+                            for (int pass = 0; pass < MeshBuffer.PASSES; pass++)
+                                counts[id] += out.getVertexCount(pass);
+                            out.reset();
+                        }
+                    }, "Mesh-Bench-" + t);
+                }
+                long s = System.nanoTime();
+                for (Thread w : workers)
+                    w.start();
+                for (Thread w : workers)
+                    w.join();
+                best = Math.min(best, System.nanoTime() - s);
+                vertices = 0;
+                for (long c : counts)
+                    vertices += c;
+            }
+            if (expected == -1)
+                expected = vertices;
+            double perSecond = snaps.size() * 1e9 / best;
+            System.out.printf("threads %d: %8.0f chunks/s  %8.0f chunks/s/core  %.3f ms/chunk  %d vertices%s%n",
+                    threads, perSecond, perSecond / Math.min(threads, cores), best / 1e6 / snaps.size(), vertices,
+                    vertices == expected ? "" : "  MISMATCH");
+        }
+    }
+
+    private static final class Silent extends ProgressBarDisplay {
+        Silent() {
+            super(null);
+        }
+
+        @Override
+        public void setTitle(String s) {
+        }
+
+        @Override
+        public void setText(String s) {
+        }
+
+        @Override
+        public void setProgress(int pct) {
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package net.classicremastered.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import net.classicremastered.minecraft.Entity;
+import net.classicremastered.minecraft.level.BlockMap;
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.mob.Mob;
+import net.classicremastered.minecraft.mob.Villager;
+import net.classicremastered.minecraft.mob.Zombie;
+import net.classicremastered.minecraft.mob.ai.BasicAI;
+import net.classicremastered.minecraft.player.Player;
+
+/**
+ * Entity tick cost with real mobs: zombies chasing a circling player through pillars at
+ * night while villagers flee them, on a finite level.
+ * <p>
+ * Arguments {@code [mobs=500] [ticks=400] [threads=1,2,4,8] [seed=1]}. The same seeded
+ * world is rebuilt and ticked for each {@link BlockMap#senseThreads} value, serial
+ * first whether or not it is listed. Each pass prints milliseconds per tick and a hash of
+ * every mob's final position and health. A hash that differs from the serial one means
+ * parallel sensing changed what the mobs did; it prints MISMATCH and exits with status 1.
+ */
+public final class MobBench {
+
+    private static final int SIZE = 128;
+    private static final int DEPTH = 64;
+    private static final int GROUND = 31;
+
+    public static void main(String[] args) {
+        int mobs = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        String[] threads = (args.length > 2 ? args[2] : "1,2,4,8").split(",");
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+
+        System.out.println("=== MobBench: " + mobs + " mobs, " + ticks + " ticks, "
+                + Runtime.getRuntime().availableProcessors() + " cpus ===");
+        List<Integer> counts = new ArrayList<>();
+        counts.add(1);
+        for (String t : threads) {
+            int n = Integer.parseInt(t.trim());
+            if (!counts.contains(n))
+                counts.add(n);
+        }
+        long serial = 0;
+        boolean ok = true;
+        for (int n : counts) {
+            BlockMap.senseThreads = n;
+            // one untimed pass to warm up, then the measured one
+            run(mobs, ticks / 4, seed, 0);
+            long hash = run(mobs, ticks, seed, n == 1 ? 0 : serial);
+            if (n == 1)
+                serial = hash;
+            else
+                ok &= hash == serial;
+        }
+        if (!ok) {
+            System.out.println("FAILED: parallel sensing diverged from the serial tick");
+            System.exit(1);
+        }
+    }
+
+    /** Returns the hash of the mobs' final state; {@code expected} 0 skips the comparison. */
+    private static long run(int mobs, int ticks, long seed, long expected) {
+        Random rnd = new Random(seed);
+        Level level = new Level();
+        level.setData(SIZE, DEPTH, SIZE, terrain(rnd));
+        level.random = new Random(seed);
+        level.setTime(18000); // midnight, so zombies do not burn
+        Player player = new Player(level, false);
+        level.player = player;
+
+        Mob[] all = new Mob[mobs];
+        for (int i = 0; i < mobs; i++) {
+            float x = 2 + rnd.nextInt(SIZE - 4) + 0.5F, z = 2 + rnd.nextInt(SIZE - 4) + 0.5F;
+            float y = GROUND + 1 + 1.62F;
+            Mob m = i % 4 == 0 ? new Villager(level, x, y, z) : new Zombie(level, x, y, z);
+            if (m.ai instanceof BasicAI)
+                ((BasicAI) m.ai).random = new Random(seed * 31 + i);
+            level.addEntity(m);
+            all[i] = m;
+        }
+
+        long[] tickNanos = new long[ticks];
+        for (int t = 0; t < ticks; t++) {
+            double a = t * 0.02;
+            player.setPos(SIZE / 2 + (float) Math.cos(a) * 40, GROUND + 1 + 1.62F, SIZE / 2 + (float) Math.sin(a) * 40);
+            player.health = 20;
+            long t0 = System.nanoTime();
+            level.tickEntities();
+            tickNanos[t] = System.nanoTime() - t0;
+            level.tickCount++;
+        }
+
+        long hash = 0;
+        int alive = 0;
+        for (Entity e : all) {
+            Mob m = (Mob) e;
+            if (!m.removed)
+                alive++;
+            hash = hash * 31 + Float.floatToIntBits(m.x);
+            hash = hash * 31 + Float.floatToIntBits(m.y);
+            hash = hash * 31 + Float.floatToIntBits(m.z);
+            hash = hash * 31 + m.health;
+        }
+        long[] sorted = tickNanos.clone();
+        Arrays.sort(sorted);
+        long sum = 0;
+        for (long n : tickNanos)
+            sum += n;
+        System.out.printf("threads %d  ms/tick mean %.3f  p50 %.3f  p99 %.3f  alive %d  hash %016x%s%n",
+                BlockMap.senseThreads, sum / 1e6 / ticks, sorted[ticks / 2] / 1e6,
+                sorted[Math.min(ticks - 1, (int) (ticks * 0.99))] / 1e6, alive, hash,
+                expected == 0 || hash == expected ? "" : "  MISMATCH");
+        return hash;
+    }
+
+    // flat grass with scattered two-high stone pillars to break line of sight
+    private static byte[] terrain(Random rnd) {
+        byte[] blocks = new byte[SIZE * DEPTH * SIZE];
+        for (int y = 0; y <= GROUND; y++) {
+            for (int z = 0; z < SIZE; z++) {
+                for (int x = 0; x < SIZE; x++) {
+                    blocks[(y * SIZE + z) * SIZE + x] = (byte) (y == GROUND ? 2 : 1);
+                }
+            }
+        }
+        for (int i = 0; i < SIZE * SIZE / 24; i++) {
+            int x = rnd.nextInt(SIZE), z = rnd.nextInt(SIZE);
+            for (int y = GROUND + 1; y <= GROUND + 2; y++)
+                blocks[(y * SIZE + z) * SIZE + x] = 1;
+        }
+        return blocks;
+    }
+}
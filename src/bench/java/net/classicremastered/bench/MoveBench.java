@@ -0,0 +1,113 @@
+package net.classicremastered.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.classicremastered.minecraft.Entity;
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.tile.Block;
+
+/**
+ * {@link Entity#move} over mixed terrain: bumpy stone scattered with slabs, flowers,
+ * water, glass and cactus, walked by player-sized bodies that wander and now and then
+ * jump.
+ * <p>
+ * Every run first replays a fixed 150-body, 400-tick walk and hashes each position and
+ * collision flag along the way. The hash must equal {@link #GOLDEN}, recorded with the
+ * collision sweep that allocated an {@code ArrayList} and an {@code AABB} per block; a
+ * mismatch exits with status 1. A deliberate change to movement has to re-record it.
+ * <p>
+ * Then {@code MoveBench [bodies=150] [ticks=400] [runs=5]} times the same kind of walk
+ * and prints the best nanoseconds and bytes allocated per move.
+ */
+public final class MoveBench {
+
+    static final long GOLDEN = 0x49dee39ceff757dfL;
+
+    private static final int SIZE = 64, DEPTH = 32;
+
+    static final class Body extends Entity {
+        private static final long serialVersionUID = 0L;
+
+        Body(Level level) {
+            super(level);
+            this.footSize = 0.5F;
+            this.heightOffset = 1.62F;
+            this.setSize(0.6F, 1.8F);
+        }
+    }
+
+    public static void main(String[] args) {
+        int bodies = args.length > 0 ? Integer.parseInt(args[0]) : 150;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        Level level = terrain();
+        long hash = walk(level, 150, 400);
+        System.out.printf("=== MoveBench: golden walk %016x%s ===%n", hash, hash == GOLDEN ? "" : "  MISMATCH");
+        if (hash != GOLDEN) {
+            System.out.println("FAILED: trajectory differs from the recorded one");
+            System.exit(1);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        long moves = (long) bodies * ticks;
+        long bestNanos = Long.MAX_VALUE, bestAlloc = Long.MAX_VALUE;
+        for (int r = 0; r < runs; r++) {
+            long a0 = threads.getThreadAllocatedBytes(tid);
+            long t0 = System.nanoTime();
+            walk(level, bodies, ticks);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - t0);
+            bestAlloc = Math.min(bestAlloc, threads.getThreadAllocatedBytes(tid) - a0);
+        }
+        System.out.printf("%d bodies x %d ticks: %.0f ns/move  %.1f bytes/move%n", bodies, ticks,
+                (double) bestNanos / moves, (double) bestAlloc / moves);
+    }
+
+    private static long walk(Level level, int count, int ticks) {
+        Random rnd = new Random(11);
+        List<Body> bodies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Body b = new Body(level);
+            b.setPos(4 + rnd.nextInt(SIZE - 8) + 0.5F, 28, 4 + rnd.nextInt(SIZE - 8) + 0.5F);
+            bodies.add(b);
+        }
+        long h = 0;
+        for (int t = 0; t < ticks; t++) {
+            for (Body b : bodies) {
+                float dx = (rnd.nextFloat() - 0.5F) * 0.6F, dz = (rnd.nextFloat() - 0.5F) * 0.6F;
+                b.yd -= 0.08F;
+                if (b.onGround && rnd.nextInt(20) == 0)
+                    b.yd = 0.42F;
+                b.move(dx, b.yd, dz);
+                h = h * 31 + Float.floatToIntBits(b.x);
+                h = h * 31 + Float.floatToIntBits(b.y);
+                h = h * 31 + Float.floatToIntBits(b.z);
+                h = h * 31 + (b.onGround ? 1 : 0) + (b.horizontalCollision ? 2 : 0);
+            }
+        }
+        return h;
+    }
+
+    private static Level terrain() {
+        Level level = new Level();
+        level.setData(SIZE, DEPTH, SIZE, new byte[SIZE * DEPTH * SIZE]);
+        Random rnd = new Random(7);
+        int[] tops = { Block.STONE.id, Block.SLAB.id, Block.DANDELION.id, Block.WATER.id, Block.GLASS.id,
+                Block.CACTUS.id };
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                int h = 8 + rnd.nextInt(3);
+                for (int y = 0; y < h; y++)
+                    level.setTileNoUpdate(x, y, z, Block.STONE.id);
+                if (rnd.nextInt(4) == 0)
+                    level.setTileNoUpdate(x, h, z, tops[rnd.nextInt(tops.length)]);
+            }
+        }
+        return level;
+    }
+}
@@ -0,0 +1,77 @@
+package net.classicremastered.bench;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.classicremastered.minecraft.sound.SoundData;
+import net.classicremastered.minecraft.sound.SoundReader;
+
+/**
+ * Decode throughput of {@link SoundReader}, run over every .ogg under a directory (by
+ * default the downloaded sound and music resources).
+ * <p>
+ * Arguments: {@code [dir=~/.mcraft/client/resources] [runs=5]}. Each run decodes every
+ * file once. The best run is reported as time and samples per second, with the bytes
+ * the thread allocated and a sample checksum to diff two builds' output.
+ */
+public final class OggBench {
+
+    public static void main(String[] args) throws Exception {
+        File dir = new File(args.length > 0 ? args[0]
+                : System.getProperty("user.home", ".") + "/.mcraft/client/resources");
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        List<File> files = new ArrayList<File>();
+        collect(dir, files);
+        if (files.isEmpty()) {
+            System.out.println("no .ogg files under " + dir.getAbsolutePath());
+            return;
+        }
+        long bytes = 0;
+        for (File f : files)
+            bytes += f.length();
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        long bestNanos = Long.MAX_VALUE, bestAlloc = Long.MAX_VALUE;
+        long samples = 0, checksum = 0;
+
+        System.out.printf("=== OggBench: %d files, %d KB ===%n", files.size(), bytes / 1024);
+        for (int r = 0; r < runs; r++) {
+            System.gc();
+            samples = 0;
+            checksum = 0;
+            long a0 = threads.getThreadAllocatedBytes(tid);
+            long t0 = System.nanoTime();
+            for (File f : files) {
+                SoundData d = SoundReader.read(f.toURI().toURL());
+                samples += d.data.length;
+                for (short s : d.data)
+                    checksum = checksum * 31 + s;
+            }
+            long nanos = System.nanoTime() - t0;
+            long alloc = threads.getThreadAllocatedBytes(tid) - a0;
+            System.out.printf("run %d %8.1f ms  alloc %7.1f MB%n", r, nanos / 1e6, alloc / 1048576.0);
+            bestNanos = Math.min(bestNanos, nanos);
+            bestAlloc = Math.min(bestAlloc, alloc);
+        }
+        System.out.printf("best %8.1f ms  %6.2f Msamples/s  alloc %7.1f MB  samples %d  checksum %016x%n",
+                bestNanos / 1e6, samples * 1e3 / bestNanos, bestAlloc / 1048576.0, samples, checksum);
+    }
+
+    private static void collect(File dir, List<File> out) {
+        File[] list = dir.listFiles();
+        if (list == null)
+            return;
+        java.util.Arrays.sort(list);
+        for (File f : list) {
+            if (f.isDirectory())
+                collect(f, out);
+            else if (f.getName().toLowerCase().endsWith(".ogg"))
+                out.add(f);
+        }
+    }
+}
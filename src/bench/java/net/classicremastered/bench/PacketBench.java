@@ -0,0 +1,386 @@
+package net.classicremastered.bench;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+import net.classicremastered.minecraft.net.PacketType;
+import net.classicremastered.net.PacketCodec;
+import net.classicremastered.net.PacketHandler;
+
+/**
+ * Client decode cost: a server-to-client capture replayed through {@link PacketCodec}
+ * and through the older boxed path ({@code readObject} into an {@code Object[]}, then a
+ * chain over {@link PacketType}), each fed the way the client tick feeds it.
+ * <p>
+ * {@code PacketBench [packets=10000] [runs=20] [capture]}. With no capture file a session
+ * is synthesised: a map download, players joining, then mostly movement with some block
+ * changes and chat. Each tick appends one read's worth of bytes and decodes up to 100
+ * packets. Prints the best time and allocation per packet; exits with status 1 if the
+ * two paths disagree.
+ */
+public final class PacketBench {
+
+    private static final int READ_BYTES = 1460 * 4;
+    private static final int PACKETS_PER_TICK = 100;
+
+    public static void main(String[] args) throws Exception {
+        int packets = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        byte[] capture = args.length > 2 ? Files.readAllBytes(Paths.get(args[2])) : synthesise(packets, 1L);
+
+        Checksum typed = new Checksum();
+        Checksum boxed = new Checksum();
+        PacketCodec codec = new PacketCodec();
+        ByteBuffer in = ByteBuffer.allocate(1048576);
+        Step typedStep = () -> replayTyped(capture, in, codec, typed);
+        Step boxedStep = () -> replayBoxed(capture, in, boxed);
+
+        System.out.println("=== PacketBench: " + capture.length / 1024 + " KB capture ===");
+        measure("typed", runs, typed, typedStep);
+        measure("boxed", runs, boxed, boxedStep);
+        if (typed.packets != boxed.packets || typed.hash != boxed.hash) {
+            System.out.println("FAILED: typed and boxed decoders disagree");
+            System.exit(1);
+        }
+    }
+
+    private interface Step {
+        void run() throws Exception;
+    }
+
+    private static void measure(String what, int runs, Checksum sum, Step step) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        long bestNanos = Long.MAX_VALUE, bestAlloc = Long.MAX_VALUE;
+        for (int r = 0; r < runs; r++) {
+            sum.reset();
+            long a0 = threads.getThreadAllocatedBytes(tid);
+            long t0 = System.nanoTime();
+            step.run();
+            bestNanos = Math.min(bestNanos, System.nanoTime() - t0);
+            bestAlloc = Math.min(bestAlloc, threads.getThreadAllocatedBytes(tid) - a0);
+        }
+        System.out.printf("%-6s %6d packets %8.3f ms  %6.1f ns/packet  %7.1f B/packet  hash %016x%n", what,
+                sum.packets, bestNanos / 1e6, (double) bestNanos / sum.packets, (double) bestAlloc / sum.packets,
+                sum.hash);
+    }
+
+    // --- replay, as NetworkHandler.receive does it ---
+
+    private static void replayTyped(byte[] capture, ByteBuffer in, PacketCodec codec, PacketHandler h)
+            throws Exception {
+        in.clear();
+        int fed = 0;
+        while (fed < capture.length || in.position() > 0) {
+            int n = Math.min(READ_BYTES, Math.min(in.remaining(), capture.length - fed));
+            in.put(capture, fed, n);
+            fed += n;
+            in.flip();
+            for (int p = 0; p < PACKETS_PER_TICK && codec.decode(in, h); p++)
+                ;
+            in.compact();
+        }
+    }
+
+    // --- replay, as the client tick did before PacketCodec ---
+
+    private static void replayBoxed(byte[] capture, ByteBuffer in, PacketHandler h) throws Exception {
+        in.clear();
+        byte[] stringBytes = new byte[64];
+        int fed = 0;
+        while (fed < capture.length || in.position() > 0) {
+            int n = Math.min(READ_BYTES, Math.min(in.remaining(), capture.length - fed));
+            in.put(capture, fed, n);
+            fed += n;
+            int count = 0;
+            while (in.position() > 0 && count++ != PACKETS_PER_TICK) {
+                in.flip();
+                byte op = in.get(0);
+                PacketType type = PacketType.packets[op];
+                if (type == null)
+                    throw new java.io.IOException("Bad command: " + op);
+                if (in.remaining() < type.length + 1) {
+                    in.compact();
+                    break;
+                }
+                in.get();
+                Object[] v = new Object[type.params.length];
+                for (int i = 0; i < v.length; i++)
+                    v[i] = readObject(in, type.params[i], stringBytes);
+                dispatchBoxed(type, v, h);
+                in.compact();
+            }
+        }
+    }
+
+    private static Object readObject(ByteBuffer in, Class<?> c, byte[] stringBytes) throws Exception {
+        if (c == Long.TYPE)
+            return Long.valueOf(in.getLong());
+        if (c == Integer.TYPE)
+            return Integer.valueOf(in.getInt());
+        if (c == Short.TYPE)
+            return Short.valueOf(in.getShort());
+        if (c == Byte.TYPE)
+            return Byte.valueOf(in.get());
+        if (c == Double.TYPE)
+            return Double.valueOf(in.getDouble());
+        if (c == Float.TYPE)
+            return Float.valueOf(in.getFloat());
+        if (c == String.class) {
+            in.get(stringBytes);
+            return new String(stringBytes, "UTF-8").trim();
+        }
+        if (c == byte[].class) {
+            byte[] b = new byte[1024];
+            in.get(b);
+            return b;
+        }
+        return null;
+    }
+
+    private static void dispatchBoxed(PacketType t, Object[] v, PacketHandler h) {
+        if (t == PacketType.IDENTIFICATION)
+            h.onIdentification((Byte) v[0], (String) v[1], (String) v[2], (Byte) v[3]);
+        else if (t == PacketType.packets[1])
+            h.onPing();
+        else if (t == PacketType.LEVEL_INIT)
+            h.onLevelInit();
+        else if (t == PacketType.LEVEL_DATA)
+            h.onLevelData((Short) v[0], (byte[]) v[1], (Byte) v[2]);
+        else if (t == PacketType.LEVEL_FINALIZE)
+            h.onLevelFinalize((Short) v[0], (Short) v[1], (Short) v[2]);
+        else if (t == PacketType.PLAYER_SET_BLOCK)
+            h.onSetBlock((Short) v[0], (Short) v[1], (Short) v[2], (Byte) v[3], (Byte) v[4]);
+        else if (t == PacketType.BLOCK_CHANGE)
+            h.onBlockChange((Short) v[0], (Short) v[1], (Short) v[2], (Byte) v[3]);
+        else if (t == PacketType.SPAWN_PLAYER)
+            h.onSpawnPlayer((Byte) v[0], (String) v[1], (Short) v[2], (Short) v[3], (Short) v[4], (Byte) v[5],
+                    (Byte) v[6]);
+        else if (t == PacketType.POSITION_ROTATION)
+            h.onPositionRotation((Byte) v[0], (Short) v[1], (Short) v[2], (Short) v[3], (Byte) v[4], (Byte) v[5]);
+        else if (t == PacketType.POSITION_ROTATION_UPDATE)
+            h.onPositionRotationUpdate((Byte) v[0], (Byte) v[1], (Byte) v[2], (Byte) v[3], (Byte) v[4],
+                    (Byte) v[5]);
+        else if (t == PacketType.ROTATION_UPDATE)
+            h.onRotationUpdate((Byte) v[0], (Byte) v[1], (Byte) v[2]);
+        else if (t == PacketType.POSITION_UPDATE)
+            h.onPositionUpdate((Byte) v[0], (Byte) v[1], (Byte) v[2], (Byte) v[3]);
+        else if (t == PacketType.DESPAWN_PLAYER)
+            h.onDespawnPlayer((Byte) v[0]);
+        else if (t == PacketType.CHAT_MESSAGE)
+            h.onChatMessage((Byte) v[0], (String) v[1]);
+        else if (t == PacketType.DISCONNECT)
+            h.onDisconnect((String) v[0]);
+        else if (t == PacketType.UPDATE_PLAYER_TYPE)
+            h.onUpdatePlayerType((Byte) v[0]);
+    }
+
+    // --- synthetic session ---
+
+    private static byte[] synthesise(int packets, long seed) {
+        Random rnd = new Random(seed);
+        ByteBuffer out = ByteBuffer.allocate(packets * 1100 + 4096);
+        int players = 32;
+        byte[] map = new byte[1024];
+        int written = 0;
+
+        PacketCodec.writeIdentification(out, 7, "Bench server", "Replay capture", 0);
+        PacketCodec.writeLevelInit(out);
+        written += 2;
+        int chunks = Math.max(1, packets / 100);
+        for (int i = 0; i < chunks; i++, written++) {
+            rnd.nextBytes(map);
+            PacketCodec.writeLevelData(out, map, 0, i == chunks - 1 ? 517 : 1024, (i + 1) * 100 / chunks);
+        }
+        PacketCodec.writeLevelFinalize(out, 256, 64, 256);
+        written++;
+        for (int id = 0; id < players; id++, written++)
+            PacketCodec.writeSpawnPlayer(out, id, "player" + id, rnd.nextInt(8192), 2100, rnd.nextInt(8192),
+                    rnd.nextInt(256), rnd.nextInt(256));
+        PacketCodec.writeSpawnPlayer(out, -1, "me", 4096, 2100, 4096, 0, 0);
+        written++;
+
+        for (; written < packets; written++) {
+            int id = rnd.nextInt(players);
+            int kind = rnd.nextInt(100);
+            if (kind < 60)
+                PacketCodec.writePositionRotationUpdate(out, id, rnd.nextInt(9) - 4, rnd.nextInt(3) - 1,
+                        rnd.nextInt(9) - 4, rnd.nextInt(256), rnd.nextInt(256));
+            else if (kind < 75)
+                PacketCodec.writePositionUpdate(out, id, rnd.nextInt(9) - 4, 0, rnd.nextInt(9) - 4);
+            else if (kind < 85)
+                PacketCodec.writeRotationUpdate(out, id, rnd.nextInt(256), rnd.nextInt(256));
+            else if (kind < 93)
+                PacketCodec.writeBlockChange(out, rnd.nextInt(256), rnd.nextInt(64), rnd.nextInt(256),
+                        rnd.nextInt(50));
+            else if (kind < 97)
+                PacketCodec.writePositionRotation(out, id, rnd.nextInt(8192), 2100, rnd.nextInt(8192),
+                        rnd.nextInt(256), rnd.nextInt(256));
+            else if (kind < 99)
+                PacketCodec.writeChatMessage(out, id, "<player" + id + "> message " + written);
+            else
+                PacketCodec.writePing(out);
+        }
+        return Arrays.copyOf(out.array(), out.position());
+    }
+
+    /** Folds every decoded field into one hash so both paths can be compared. */
+    private static final class Checksum implements PacketHandler {
+        long hash;
+        int packets;
+
+        void reset() {
+            hash = 0;
+            packets = 0;
+        }
+
+        private void mix(long v) {
+            hash = (hash ^ v) * 0x100000001B3L;
+        }
+
+        private void mix(String s) {
+            mix(s.hashCode());
+        }
+
+        private void packet(int op) {
+            packets++;
+            mix(op);
+        }
+
+        @Override
+        public void onIdentification(byte protocol, String name, String motd, byte userType) {
+            packet(0);
+            mix(protocol);
+            mix(name);
+            mix(motd);
+            mix(userType);
+        }
+
+        @Override
+        public void onPing() {
+            packet(1);
+        }
+
+        @Override
+        public void onLevelInit() {
+            packet(2);
+        }
+
+        @Override
+        public void onLevelData(short length, byte[] data, byte percent) {
+            packet(3);
+            mix(length);
+            for (int i = 0; i < length; i += 61) // sampled; the whole chunk would swamp the timing
+                mix(data[i]);
+            mix(percent);
+        }
+
+        @Override
+        public void onLevelFinalize(short width, short depth, short height) {
+            packet(4);
+            mix(width);
+            mix(depth);
+            mix(height);
+        }
+
+        @Override
+        public void onSetBlock(short x, short y, short z, byte mode, byte block) {
+            packet(5);
+            mix(x);
+            mix(y);
+            mix(z);
+            mix(mode);
+            mix(block);
+        }
+
+        @Override
+        public void onBlockChange(short x, short y, short z, byte block) {
+            packet(6);
+            mix(x);
+            mix(y);
+            mix(z);
+            mix(block);
+        }
+
+        @Override
+        public void onSpawnPlayer(byte id, String name, short x, short y, short z, byte yaw, byte pitch) {
+            packet(7);
+            mix(id);
+            mix(name);
+            mix(x);
+            mix(y);
+            mix(z);
+            mix(yaw);
+            mix(pitch);
+        }
+
+        @Override
+        public void onPositionRotation(byte id, short x, short y, short z, byte yaw, byte pitch) {
+            packet(8);
+            mix(id);
+            mix(x);
+            mix(y);
+            mix(z);
+            mix(yaw);
+            mix(pitch);
+        }
+
+        @Override
+        public void onPositionRotationUpdate(byte id, byte dx, byte dy, byte dz, byte yaw, byte pitch) {
+            packet(9);
+            mix(id);
+            mix(dx);
+            mix(dy);
+            mix(dz);
+            mix(yaw);
+            mix(pitch);
+        }
+
+        @Override
+        public void onPositionUpdate(byte id, byte dx, byte dy, byte dz) {
+            packet(10);
+            mix(id);
+            mix(dx);
+            mix(dy);
+            mix(dz);
+        }
+
+        @Override
+        public void onRotationUpdate(byte id, byte yaw, byte pitch) {
+            packet(11);
+            mix(id);
+            mix(yaw);
+            mix(pitch);
+        }
+
+        @Override
+        public void onDespawnPlayer(byte id) {
+            packet(12);
+            mix(id);
+        }
+
+        @Override
+        public void onChatMessage(byte id, String message) {
+            packet(13);
+            mix(id);
+            mix(message);
+        }
+
+        @Override
+        public void onDisconnect(String reason) {
+            packet(14);
+            mix(reason);
+        }
+
+        @Override
+        public void onUpdatePlayerType(byte userType) {
+            packet(15);
+            mix(userType);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package net.classicremastered.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.path.Path;
+import net.classicremastered.minecraft.path.PathService;
+
+/**
+ * A crowd of chasers on a walled maze re-planning toward a wandering target every tick
+ * through {@link PathService}, as mob AI does.
+ * <p>
+ * Takes {@code [chasers=200] [ticks=600] [seed=1]}. A chaser steps one cell of its route
+ * per tick and waits in place when its search is refused for budget. Prints milliseconds
+ * per tick and the service counters.
+ */
+public final class PathBench {
+
+    private static final int SIZE = 128;
+    private static final int DEPTH = 64;
+    private static final int GROUND = 31;
+
+    public static void main(String[] args) {
+        int chasers = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 600;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+        Random rnd = new Random(seed);
+
+        Level level = new Level();
+        level.setData(SIZE, DEPTH, SIZE, maze(rnd));
+        PathService paths = level.getPathService();
+        PathService.Agent agent = new PathService.Agent(1, 2, 1, true);
+
+        int[] cx = new int[chasers], cz = new int[chasers];
+        int[] cy = new int[chasers];
+        Path[] route = new Path[chasers];
+        int[] step = new int[chasers];
+        for (int i = 0; i < chasers; i++) {
+            do {
+                cx[i] = 1 + rnd.nextInt(SIZE - 2);
+                cz[i] = 1 + rnd.nextInt(SIZE - 2);
+            } while (!paths.canStand(agent, cx[i], GROUND + 1, cz[i]));
+            cy[i] = GROUND + 1;
+        }
+        int tx = SIZE / 2, tz = SIZE / 2;
+
+        long[] tickNanos = new long[ticks];
+        long found = 0, busy = 0, none = 0;
+        for (int t = 0; t < ticks; t++) {
+            // the target wanders one cell every few ticks
+            if (t % 4 == 0) {
+                int nx = Math.max(1, Math.min(SIZE - 2, tx + rnd.nextInt(3) - 1));
+                int nz = Math.max(1, Math.min(SIZE - 2, tz + rnd.nextInt(3) - 1));
+                if (paths.canStand(agent, nx, GROUND + 1, nz)) {
+                    tx = nx;
+                    tz = nz;
+                }
+            }
+
+            long t0 = System.nanoTime();
+            for (int i = 0; i < chasers; i++) {
+                Path p = paths.find(cx[i], cy[i], cz[i], tx, PathService.ANY_Y, tz, agent, 24, 1500, true);
+                if (p == PathService.BUSY) {
+                    busy++;
+                } else if (p == null || p.length() == 0) {
+                    none++;
+                } else {
+                    found++;
+                    route[i] = p;
+                    step[i] = 0;
+                }
+                if (route[i] != null && step[i] < route[i].length()) {
+                    cx[i] = route[i].getX(step[i]);
+                    cy[i] = route[i].getY(step[i]);
+                    cz[i] = route[i].getZ(step[i]);
+                    step[i]++;
+                }
+            }
+            tickNanos[t] = System.nanoTime() - t0;
+            level.tickCount++;
+        }
+
+        long[] sorted = tickNanos.clone();
+        Arrays.sort(sorted);
+        long sum = 0;
+        for (long n : tickNanos)
+            sum += n;
+        int arrived = 0;
+        for (int i = 0; i < chasers; i++) {
+            if (Math.abs(cx[i] - tx) + Math.abs(cz[i] - tz) <= 2)
+                arrived++;
+        }
+        System.out.println("=== PathBench: " + chasers + " chasers, " + ticks + " ticks ===");
+        System.out.printf("ms/tick mean %.3f  p50 %.3f  p99 %.3f  max %.3f%n", sum / 1e6 / ticks,
+                sorted[ticks / 2] / 1e6, sorted[Math.min(ticks - 1, (int) (ticks * 0.99))] / 1e6,
+                sorted[ticks - 1] / 1e6);
+        System.out.println("requests: " + found + " routed, " + none + " no route, " + busy + " busy; "
+                + arrived + " chasers at the target");
+        System.out.println("service: " + paths.getStats());
+    }
+
+    // flat ground with a grid of walls, each wall cut by a few doorways
+    private static byte[] maze(Random rnd) {
+        byte[] blocks = new byte[SIZE * DEPTH * SIZE];
+        for (int y = 0; y <= GROUND; y++) {
+            for (int z = 0; z < SIZE; z++) {
+                for (int x = 0; x < SIZE; x++) {
+                    blocks[(y * SIZE + z) * SIZE + x] = (byte) (y == GROUND ? 2 : 1);
+                }
+            }
+        }
+        for (int w = 8; w < SIZE; w += 16) {
+            for (int i = 0; i < SIZE; i++) {
+                boolean doorX = rnd.nextInt(12) == 0;
+                boolean doorZ = rnd.nextInt(12) == 0;
+                for (int y = GROUND + 1; y <= GROUND + 3; y++) {
+                    if (!doorX)
+                        blocks[(y * SIZE + i) * SIZE + w] = 1;
+                    if (!doorZ)
+                        blocks[(y * SIZE + w) * SIZE + i] = 1;
+                }
+            }
+        }
+        return blocks;
+    }
+}
@@ -0,0 +1,85 @@
+package net.classicremastered.bench;
+
+import java.util.Random;
+
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.tile.Block;
+import net.classicremastered.minecraft.player.Player;
+import net.classicremastered.minecraft.util.Profiler;
+
+/**
+ * Random block ticking on a large finite level of stone under dirt, with patches of
+ * grass left to spread and a scatter of flowers.
+ * <p>
+ * Arguments: {@code [size=1024] [ticks=200] [seed=1]}. The level is ticked once with no
+ * player, so every section is simulated, and once with a player at the centre, so only
+ * sections within the simulation radius are. Each pass prints the random-update share
+ * of the tick from the {@link Profiler} and how much dirt the grass took over, which
+ * shows whether the per-block rate holds.
+ */
+public final class RandomTickBench {
+
+    private static final int DEPTH = 64;
+    private static final int GROUND = 32;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+
+        System.out.println("=== RandomTickBench: " + size + "x" + DEPTH + "x" + size + ", " + ticks + " ticks ===");
+        Level level = new Level();
+        level.setData(size, DEPTH, size, terrain(size, new Random(seed)));
+        level.doDayNightCycle = false;
+        Profiler.enabled = true;
+
+        run(level, null, ticks / 4, seed, false);
+        run(level, null, ticks, seed, true);
+        Player player = new Player(level, false);
+        player.setPos(size / 2 + 0.5F, GROUND + 1 + 1.62F, size / 2 + 0.5F);
+        run(level, player, ticks, seed, true);
+    }
+
+    private static void run(Level level, Player player, int ticks, long seed, boolean report) {
+        level.player = player;
+        level.random = new Random(seed);
+        int grassBefore = count(level, Block.GRASS.id);
+        Profiler.reset();
+        long t0 = System.nanoTime();
+        for (int t = 0; t < ticks; t++) {
+            level.tick();
+            Profiler.endTick();
+        }
+        long nanos = System.nanoTime() - t0;
+        if (!report)
+            return;
+        System.out.printf("%-10s tick %.3f ms  random updates mean %.3f ms  p99 %.3f ms  grass spread %d%n",
+                player == null ? "no player" : "player", nanos / 1e6 / ticks, Profiler.RANDOM_UPDATES.mean() / 1e6,
+                Profiler.RANDOM_UPDATES.percentile(0.99) / 1e6, count(level, Block.GRASS.id) - grassBefore);
+    }
+
+    private static int count(Level level, int id) {
+        int n = 0;
+        for (byte b : level.blocks) {
+            if (b == id)
+                n++;
+        }
+        return n;
+    }
+
+    private static byte[] terrain(int size, Random rnd) {
+        byte[] blocks = new byte[size * DEPTH * size];
+        for (int z = 0; z < size; z++) {
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < GROUND; y++)
+                    blocks[(y * size + z) * size + x] = (byte) (y == 0 ? Block.BEDROCK.id : Block.STONE.id);
+                // grass in one 8x8 patch of every 64x64, dirt elsewhere
+                boolean grass = (x & 63) < 8 && (z & 63) < 8;
+                blocks[(GROUND * size + z) * size + x] = (byte) (grass ? Block.GRASS.id : Block.DIRT.id);
+                if (rnd.nextInt(64) == 0)
+                    blocks[((GROUND + 1) * size + z) * size + x] = (byte) Block.DANDELION.id;
+            }
+        }
+        return blocks;
+    }
+}
@@ -0,0 +1,113 @@
+package net.classicremastered.bench;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.LevelIO;
+import net.classicremastered.minecraft.level.LevelInfiniteTerrain;
+import net.classicremastered.minecraft.level.infinite.SimpleChunkManager;
+import net.classicremastered.minecraft.level.tile.Block;
+
+/**
+ * Region storage for infinite worlds, checked and then timed.
+ * <p>
+ * The check edits blocks in a near and a far chunk, saves, edits again, then pages
+ * every chunk out to the region files. It reads the edits back twice: by touching the
+ * chunks again, and through a fresh {@link LevelIO#load}. A wrong block exits with
+ * status 1, since it means an edit was dropped or the chunk was regenerated from noise.
+ * <p>
+ * The timing part, {@code RegionBench [chunks=10000] [runs=3]}, generates a square world
+ * of about {@code chunks} chunks. It saves it with every chunk edited, then again with a
+ * single chunk edited, and prints the best of each and the bytes on disk.
+ */
+public final class RegionBench {
+
+    private static final int DEPTH = 64;
+
+    public static void main(String[] args) throws Exception {
+        int chunks = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        File dir = Files.createTempDirectory("regionbench").toFile();
+        try {
+            if (!check(new File(dir, "check.dat"))) {
+                System.out.println("FAILED: edits did not survive unload and reload");
+                System.exit(1);
+            }
+            bench(new File(dir, "bench.dat"), chunks, runs);
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    private static boolean check(File file) {
+        LevelIO io = new LevelIO(null);
+        LevelInfiniteTerrain level = new LevelInfiniteTerrain(42L, DEPTH);
+        level.setTile(5, 60, 5, Block.GOLD_BLOCK.id);
+        level.setTile(100, 61, -300, Block.STONE.id);
+        if (!io.save(level, file))
+            return false;
+        level.setTile(5, 62, 5, Block.GLASS.id); // after the save: must be written on unload
+
+        SimpleChunkManager chunks = level.chunks();
+        int loaded = chunks.getAllChunks().size();
+        int unloaded = chunks.unloadInactive(Long.MAX_VALUE / 2, 1, Integer.MAX_VALUE);
+        boolean paged = expect(level, "paged back in", Block.GLASS.id);
+        // the glass went to the region files on unload but the level file predates it
+        boolean loadedOk = expect(io.load(file), "loaded from disk", Block.GLASS.id);
+        System.out.println("=== RegionBench check: unloaded " + unloaded + " of " + loaded + " chunks ===");
+        return unloaded == loaded && paged && loadedOk;
+    }
+
+    private static boolean expect(Level level, String how, int glass) {
+        int gold = level.getTile(5, 60, 5), far = level.getTile(100, 61, -300), pane = level.getTile(5, 62, 5);
+        boolean ok = gold == Block.GOLD_BLOCK.id && far == Block.STONE.id && pane == glass;
+        System.out.println(how + ": " + gold + " " + far + " " + pane + (ok ? "" : "  MISMATCH"));
+        return ok;
+    }
+
+    private static void bench(File file, int chunks, int runs) {
+        int side = (int) Math.ceil(Math.sqrt(chunks));
+        LevelIO io = new LevelIO(null);
+        LevelInfiniteTerrain level = new LevelInfiniteTerrain(7L, DEPTH);
+        SimpleChunkManager manager = level.chunks();
+        long t0 = System.nanoTime();
+        for (int cz = 0; cz < side; cz++) {
+            for (int cx = 0; cx < side; cx++)
+                manager.getOrCreate(cx - side / 2, cz - side / 2);
+        }
+        System.out.printf("=== RegionBench: %d chunks, generated in %.0f ms ===%n", side * side,
+                (System.nanoTime() - t0) / 1e6);
+
+        long full = Long.MAX_VALUE, incremental = Long.MAX_VALUE;
+        for (int r = 0; r < runs; r++) {
+            for (int cz = 0; cz < side; cz++) {
+                for (int cx = 0; cx < side; cx++)
+                    manager.setBlock((cx - side / 2) * 16, 1, (cz - side / 2) * 16, (byte) (r % 2 == 0 ? 1 : 3));
+            }
+            t0 = System.nanoTime();
+            io.save(level, file);
+            full = Math.min(full, System.nanoTime() - t0);
+
+            manager.setBlock(3, 3, 3, (byte) (r % 2 == 0 ? 4 : 1));
+            t0 = System.nanoTime();
+            io.save(level, file);
+            incremental = Math.min(incremental, System.nanoTime() - t0);
+        }
+        long regionBytes = 0;
+        for (File f : LevelIO.regionDirFor(file).listFiles())
+            regionBytes += f.length();
+        System.out.printf("save, all dirty  %8.1f ms%n", full / 1e6);
+        System.out.printf("save, one dirty  %8.1f ms%n", incremental / 1e6);
+        System.out.printf("on disk: regions %.1f MB, level file %d bytes%n", regionBytes / 1048576.0, file.length());
+    }
+
+    private static void deleteAll(File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File c : children)
+                deleteAll(c);
+        }
+        f.delete();
+    }
+}
@@ -0,0 +1,173 @@
+package net.classicremastered.bench;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.LevelIO;
+import net.classicremastered.minecraft.level.LevelInfiniteTerrain;
+import net.classicremastered.minecraft.level.infinite.SimpleChunk;
+import net.classicremastered.minecraft.mob.Mob;
+import net.classicremastered.minecraft.mob.MobRegistry;
+import net.classicremastered.nbt.CompoundTag;
+import net.classicremastered.nbt.FloatTag;
+import net.classicremastered.nbt.ListTag;
+import net.classicremastered.nbt.NBTIO;
+
+/**
+ * Times {@link LevelIO} saving and loading an infinite terrain world of about
+ * {@code chunks} chunks and {@code mobs} mobs, against a load of the same world in the
+ * older single-file form with every chunk inline in the NBT.
+ * <p>
+ * Arguments are {@code [chunks=2000] [mobs=500] [runs=3]}. The best run is printed with
+ * the bytes the thread allocated and the peak heap sampled above the post-GC baseline.
+ */
+public final class SaveBench {
+
+    public static void main(String[] args) throws Exception {
+        int chunks = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int mobs = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        LevelInfiniteTerrain level = new LevelInfiniteTerrain(1L, 64);
+        int side = (int) Math.ceil(Math.sqrt(chunks));
+        for (int cx = 0; cx < side; cx++)
+            for (int cz = 0; cz < side; cz++)
+                level.chunks().getOrCreate(cx - side / 2, cz - side / 2);
+        MobRegistry.bootstrapDefaults();
+        java.util.Random rnd = new java.util.Random(1);
+        for (int i = 0; i < mobs; i++) {
+            Mob m = MobRegistry.create(MobRegistry.idOfName("Pig"), level, rnd.nextInt(side * 16) - side * 8, 40,
+                    rnd.nextInt(side * 16) - side * 8);
+            if (m != null)
+                level.addEntity(m);
+        }
+        int loaded = level.chunks().getAllChunks().size();
+        int spawned = 0;
+        for (Object o : level.blockMap.all)
+            if (o instanceof Mob)
+                spawned++;
+        // one edit per chunk before every save, so each save writes the whole world
+        Step editAll = () -> {
+            for (SimpleChunk c : level.chunks().getAllChunks().values())
+                level.setTile(c.cx * 16 + 8, 62, c.cz * 16 + 8, level.getTile(c.cx * 16 + 8, 62, c.cz * 16 + 8) == 1 ? 4 : 1);
+        };
+
+        File dir = java.nio.file.Files.createTempDirectory("savebench").toFile();
+        File file = new File(dir, "world.dat");
+        File legacy = new File(dir, "legacy.dat");
+        writeLegacy(level, legacy);
+        LevelIO io = new LevelIO(null);
+
+        System.out.println("=== SaveBench: " + loaded + " chunks, " + spawned + " mobs ===");
+        measure("save", runs, editAll, () -> {
+            if (!io.save(level, file))
+                throw new IOException("save failed");
+        });
+        System.out.printf("  file %d KB + regions %d KB%n", file.length() / 1024,
+                size(LevelIO.regionDirFor(file)) / 1024);
+        measure("load", runs, null, () -> {
+            if (io.load(file) == null)
+                throw new IOException("load failed");
+        });
+        System.out.printf("legacy inline file %d KB%n", legacy.length() / 1024);
+        measure("load legacy", runs, null, () -> {
+            Level l = io.load(legacy);
+            if (l == null)
+                throw new IOException("load failed");
+        });
+        System.exit(0);
+    }
+
+    private interface Step {
+        void run() throws Exception;
+    }
+
+    private static void measure(String what, int runs, Step prep, Step step) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        long bestNanos = Long.MAX_VALUE, bestAlloc = Long.MAX_VALUE, bestPeak = Long.MAX_VALUE;
+        for (int r = 0; r < runs; r++) {
+            if (prep != null)
+                prep.run();
+            System.gc();
+            Runtime rt = Runtime.getRuntime();
+            long base = rt.totalMemory() - rt.freeMemory();
+            long[] peak = { base };
+            Thread sampler = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    peak[0] = Math.max(peak[0], rt.totalMemory() - rt.freeMemory());
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            sampler.setDaemon(true);
+            sampler.start();
+            long a0 = threads.getThreadAllocatedBytes(tid);
+            long t0 = System.nanoTime();
+            step.run();
+            long nanos = System.nanoTime() - t0;
+            long alloc = threads.getThreadAllocatedBytes(tid) - a0;
+            sampler.interrupt();
+            sampler.join();
+            bestNanos = Math.min(bestNanos, nanos);
+            bestAlloc = Math.min(bestAlloc, alloc);
+            bestPeak = Math.min(bestPeak, peak[0] - base);
+        }
+        System.out.printf("%-12s %8.1f ms  alloc %7.1f MB  peak +%6.1f MB%n", what, bestNanos / 1e6,
+                bestAlloc / 1048576.0, bestPeak / 1048576.0);
+    }
+
+    // the pre-region layout: one NBT tree with every chunk inline
+    private static void writeLegacy(LevelInfiniteTerrain level, File f) throws IOException {
+        CompoundTag root = new CompoundTag("InfiniteLevel");
+        root.putByte("FormatVersion", (byte) 1);
+        root.putString("TerrainType", "Terrain");
+        root.putLong("Seed", level.randomSeed);
+        root.putInt("Depth", level.depth);
+        ListTag chunks = new ListTag("Chunks", (byte) 10);
+        for (Map.Entry<Long, SimpleChunk> e : level.chunks().getAllChunks().entrySet()) {
+            CompoundTag c = new CompoundTag(null);
+            c.putLong("Key", e.getKey());
+            c.putByteArray("Blocks", e.getValue().blocks);
+            chunks.add(c);
+        }
+        root.put(chunks);
+        ListTag entities = new ListTag("Entities", (byte) 10);
+        for (Object o : level.blockMap.all) {
+            if (!(o instanceof Mob m))
+                continue;
+            CompoundTag t = new CompoundTag(null);
+            t.putShort("Id", MobRegistry.idOf(m));
+            ListTag pos = new ListTag("Pos", (byte) 5);
+            pos.add(new FloatTag(null, m.x));
+            pos.add(new FloatTag(null, m.y));
+            pos.add(new FloatTag(null, m.z));
+            t.put(pos);
+            t.putInt("Health", m.health);
+            entities.add(t);
+        }
+        root.put(entities);
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new FileOutputStream(f)))) {
+            NBTIO.write(root, out);
+        }
+    }
+
+    private static long size(File dir) {
+        long n = 0;
+        File[] files = dir.listFiles();
+        if (files != null)
+            for (File f : files)
+                n += f.length();
+        return n;
+    }
+}
@@ -0,0 +1,79 @@
+package net.classicremastered.bench;
+
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.tile.Block;
+
+/**
+ * Scheduled-tick throughput with a large backlog: {@code liquids} moving-water cells,
+ * each sealed in its own stone pocket, are all scheduled at once and the level is ticked
+ * until every one has had its update and settled to still water.
+ * <p>
+ * Arguments {@code [liquids=100000] [runs=3]}. A pocket's update finds nowhere to flow,
+ * so no tick schedules another and the backlog only drains. Prints the time to schedule
+ * the backlog, the ticks it took to drain, and the mean and worst tick time while
+ * draining.
+ */
+public final class TickBench {
+
+    private static final int DEPTH = 16;
+    private static final int FLOOR = 8;
+
+    public static void main(String[] args) {
+        int liquids = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        System.out.println("=== TickBench: " + liquids + " pending liquid ticks ===");
+        for (int r = 0; r < runs; r++)
+            run(liquids, r == runs - 1);
+    }
+
+    private static void run(int liquids, boolean report) {
+        // water on every other cell of a checkerboard, so no two pockets touch
+        int size = (int) Math.ceil(Math.sqrt(liquids * 2.0)) + 2;
+        byte[] blocks = new byte[size * DEPTH * size];
+        for (int y = 0; y <= FLOOR; y++) {
+            for (int z = 0; z < size; z++) {
+                for (int x = 0; x < size; x++)
+                    blocks[(y * size + z) * size + x] = (byte) (y == 0 ? Block.BEDROCK.id : Block.STONE.id);
+            }
+        }
+        int[] cells = new int[liquids * 2];
+        int n = 0;
+        for (int z = 1; z < size - 1 && n < liquids; z++) {
+            for (int x = 1 + (z & 1); x < size - 1 && n < liquids; x += 2) {
+                blocks[(FLOOR * size + z) * size + x] = (byte) Block.WATER.id;
+                cells[n * 2] = x;
+                cells[n * 2 + 1] = z;
+                n++;
+            }
+        }
+        Level level = new Level();
+        level.setData(size, DEPTH, size, blocks);
+        level.doDayNightCycle = false;
+
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n; i++)
+            level.addToTickNextTick(cells[i * 2], FLOOR, cells[i * 2 + 1], Block.WATER.id);
+        long scheduleNanos = System.nanoTime() - t0;
+
+        int ticks = 0, settled = 0;
+        long total = 0, worst = 0;
+        while (settled < n && ticks < 10_000) {
+            long s = System.nanoTime();
+            level.tick();
+            long took = System.nanoTime() - s;
+            total += took;
+            worst = Math.max(worst, took);
+            ticks++;
+            settled = 0;
+            for (int i = 0; i < n; i++) {
+                if (level.getTile(cells[i * 2], FLOOR, cells[i * 2 + 1]) == Block.STATIONARY_WATER.id)
+                    settled++;
+            }
+        }
+        if (!report)
+            return;
+        System.out.printf("schedule %.1f ms  drained %d/%d in %d ticks  tick mean %.3f ms  max %.3f ms  total %.0f ms%n",
+                scheduleNanos / 1e6, settled, n, ticks, total / 1e6 / ticks, worst / 1e6, total / 1e6);
+    }
+}
@@ -0,0 +1,161 @@
+package net.classicremastered.bench;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+import net.classicremastered.minecraft.Entity;
+import net.classicremastered.minecraft.ProgressBarDisplay;
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.generator.LevelGenerator;
+import net.classicremastered.minecraft.level.tile.Block;
+
+/**
+ * A 50-TNT chain reaction on a generated map, once through {@link Level#explode}, which
+ * lands each crater with {@link Level#applyEdits}, and once through a copy of the old
+ * explosion that cleared the crater with one {@link Level#setTile} per block.
+ * <p>
+ * The TNT is buried three blocks apart, so every power-4 crater takes its neighbours
+ * with it. The chain goes off in a fixed order: each TNT block a crater destroys is
+ * detonated in turn, as its primed entity would be, without the fuse or the random
+ * nudge. The level is in creative mode, so nothing drops.
+ * <p>
+ * {@code TntBench [size=256] [runs=30] [seed=1]} prints the best time for the whole
+ * chain on each path, and exits with status 1 if either path fires a different number
+ * of TNT or the two leave different blocks.
+ */
+public final class TntBench {
+
+    private static final int DEPTH = 64;
+    private static final int COUNT = 50;
+    private static final int SPACING = 3;
+    private static final float POWER = 4.0F;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+
+        byte[] map = new LevelGenerator(new Silent(), seed, 1).generate("bench", size, size, DEPTH).blocks;
+        System.out.println("=== TntBench: " + COUNT + " TNT on " + size + "x" + DEPTH + "x" + size + " ===");
+
+        byte[][] result = new byte[2][];
+        int[] fired = new int[2];
+        long[] best = { Long.MAX_VALUE, Long.MAX_VALUE };
+        for (int r = 0; r < runs; r++) {
+            for (int path = 0; path < 2; path++) {
+                Level level = prepare(map, size);
+                long t0 = System.nanoTime();
+                fired[path] = chain(level, path == 0);
+                long nanos = System.nanoTime() - t0;
+                result[path] = level.blocks;
+                best[path] = Math.min(best[path], nanos);
+            }
+        }
+        boolean same = Arrays.equals(result[0], result[1]);
+        System.out.printf("applyEdits       %8.2f ms  fired %d%n", best[0] / 1e6, fired[0]);
+        System.out.printf("setTile per block %7.2f ms  fired %d%n", best[1] / 1e6, fired[1]);
+        System.out.println("blocks " + (same ? "identical" : "MISMATCH"));
+        if (!same || fired[0] != COUNT || fired[1] != COUNT) {
+            System.out.println("FAILED: the two paths did not leave the same crater");
+            System.exit(1);
+        }
+    }
+
+    // a 10x5 grid of TNT under the middle of the map, first one at (x0, Y, z0)
+    private static final int Y = DEPTH / 2 - 6;
+
+    private static Level prepare(byte[] map, int size) {
+        Level level = new Level();
+        level.setData(size, DEPTH, size, map.clone());
+        level.creativeMode = true;
+        level.doDayNightCycle = false;
+        int x0 = size / 2 - 10 * SPACING / 2, z0 = size / 2 - 5 * SPACING / 2;
+        for (int i = 0; i < COUNT; i++)
+            level.setTile(x0 + i % 10 * SPACING, Y, z0 + i / 10 * SPACING, Block.TNT.id);
+        return level;
+    }
+
+    // detonates the first TNT and every TNT its craters reach; returns how many went off
+    private static int chain(Level level, boolean batched) {
+        int x0 = level.width / 2 - 10 * SPACING / 2, z0 = level.height / 2 - 5 * SPACING / 2;
+        ArrayDeque<int[]> pending = new ArrayDeque<>();
+        pending.add(new int[] { x0, Y, z0 });
+        level.setTile(x0, Y, z0, 0);
+        int fired = 0, r = (int) POWER + 1;
+        while (!pending.isEmpty()) {
+            int[] at = pending.poll();
+            int[] tnt = new int[64 * 3];
+            int found = 0;
+            for (int x = at[0] - r; x <= at[0] + r; x++) {
+                for (int y = at[1] - r; y <= at[1] + r; y++) {
+                    for (int z = at[2] - r; z <= at[2] + r; z++) {
+                        if (level.getTile(x, y, z) == Block.TNT.id) {
+                            tnt[found * 3] = x;
+                            tnt[found * 3 + 1] = y;
+                            tnt[found * 3 + 2] = z;
+                            found++;
+                        }
+                    }
+                }
+            }
+            float cx = at[0] + 0.5F, cy = at[1] + 0.5F, cz = at[2] + 0.5F;
+            if (batched)
+                level.explode(null, cx, cy, cz, POWER);
+            else
+                explodePerBlock(level, cx, cy, cz, POWER);
+            fired++;
+            for (int i = 0; i < found; i++) {
+                if (level.getTile(tnt[i * 3], tnt[i * 3 + 1], tnt[i * 3 + 2]) == 0)
+                    pending.add(new int[] { tnt[i * 3], tnt[i * 3 + 1], tnt[i * 3 + 2] });
+            }
+        }
+        return fired;
+    }
+
+    /** {@link Level#explode} as it was before batching: one setTile per destroyed block. */
+    private static void explodePerBlock(Level level, float x, float y, float z, float power) {
+        int x0 = (int) (x - power - 1.0F), x1 = (int) (x + power + 1.0F);
+        int y0 = (int) (y - power - 1.0F), y1 = (int) (y + power + 1.0F);
+        int z0 = (int) (z - power - 1.0F), z1 = (int) (z + power + 1.0F);
+        for (int bx = x0; bx < x1; ++bx) {
+            for (int by = y1 - 1; by >= y0; --by) {
+                for (int bz = z0; bz < z1; ++bz) {
+                    float dx = bx + 0.5F - x, dy = by + 0.5F - y, dz = bz + 0.5F - z;
+                    int id;
+                    if (bx >= 0 && by >= 0 && bz >= 0 && bx < level.width && by < level.depth && bz < level.height
+                            && dx * dx + dy * dy + dz * dz < power * power && (id = level.getTile(bx, by, bz)) > 0
+                            && Block.blocks[id].canExplode()) {
+                        Block.blocks[id].dropItems(level, bx, by, bz, 0.3F);
+                        level.setTile(bx, by, bz, 0);
+                        Block.blocks[id].explode(level, bx, by, bz);
+                    }
+                }
+            }
+        }
+        List<Entity> hit = level.blockMap.getEntities(null, x0, y0, z0, x1, y1, z1);
+        for (Entity e : hit) {
+            float d = e.distanceTo(x, y, z) / power;
+            if (d <= 1.0F)
+                e.hurt(null, (int) ((1.0F - d) * 15.0F + 1.0F));
+        }
+    }
+
+    private static final class Silent extends ProgressBarDisplay {
+        Silent() {
+            super(null);
+        }
+
+        @Override
+        public void setTitle(String s) {
+        }
+
+        @Override
+        public void setText(String s) {
+        }
+
+        @Override
+        public void setProgress(int pct) {
+        }
+    }
+}
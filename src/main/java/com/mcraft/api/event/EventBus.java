@@ -1,58 +1,167 @@
 package com.mcraft.api.event;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
 public final class EventBus {
+    private static final H[] NONE = new H[0];
+    // one compiled invoker per handler method, shared by every instance of the listener class
+    private static final ClassValue<Map<Method, BiConsumer<Object, Event>>> COMPILED = new ClassValue<>() {
+        @Override
+        protected Map<Method, BiConsumer<Object, Event>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
     private static final class H {
         final Object o;
-        final Method m;
+        final BiConsumer<Object, Event> call;
         final int p;
         final Class<?> t;
+        final long seq; // registration order, breaks priority ties
 
-        H(Object o, Method m, int p, Class<?> t) {
+        H(Object o, BiConsumer<Object, Event> call, int p, Class<?> t, long seq) {
             this.o = o;
-            this.m = m;
+            this.call = call;
             this.p = p;
             this.t = t;
+            this.seq = seq;
         }
     }
 
-    private final Map<Class<?>, List<H>> map = new HashMap<>();
+    private final List<H> handlers = new ArrayList<>(); // guarded by this
+    private long seq;
+    // concrete event class -> handlers for it and its supertypes, highest priority first
+    private volatile Map<Class<?>, H[]> cache = new ConcurrentHashMap<>();
+    private volatile boolean empty = true;
 
-    public void register(Object listener) {
-        for (Method m : listener.getClass().getMethods()) {
-            if (!m.isAnnotationPresent(SubscribeEvent.class))
-                continue;
+    public synchronized void register(Object listener) {
+        for (Method m : subscribers(listener.getClass())) {
             Class<?>[] ps = m.getParameterTypes();
             if (ps.length != 1 || !Event.class.isAssignableFrom(ps[0]))
                 continue;
             m.setAccessible(true);
             SubscribeEvent a = m.getAnnotation(SubscribeEvent.class);
-            map.computeIfAbsent(ps[0], k -> new ArrayList<>()).add(new H(listener, m, a.priority(), ps[0]));
+            handlers.add(new H(listener, COMPILED.get(m.getDeclaringClass()).computeIfAbsent(m, EventBus::compile), a.priority(), ps[0], seq++));
+        }
+        invalidate();
+    }
+
+    // @SubscribeEvent methods of any visibility, declared on the class or inherited from a
+    // superclass, plus public interface defaults; an override is only registered once
+    private static List<Method> subscribers(Class<?> type) {
+        List<Method> out = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Method m : c.getDeclaredMethods())
+                addSubscriber(m, out, seen);
         }
-        for (List<H> hs : map.values())
-            hs.sort((a, b) -> Integer.compare(b.p, a.p));
+        for (Method m : type.getMethods())
+            addSubscriber(m, out, seen);
+        return out;
     }
 
-    public void unregister(Object listener) {
-        for (List<H> hs : map.values())
-            hs.removeIf(h -> h.o == listener);
+    private static void addSubscriber(Method m, List<Method> out, Set<String> seen) {
+        if (m.isBridge() || m.isSynthetic() || !m.isAnnotationPresent(SubscribeEvent.class))
+            return;
+        int mod = m.getModifiers();
+        // private and static methods are not overridden, so they are keyed by their class too
+        String key = (Modifier.isPrivate(mod) || Modifier.isStatic(mod) ? m.getDeclaringClass().getName() + "#" : "")
+                + m.getName() + Arrays.toString(m.getParameterTypes());
+        if (seen.add(key))
+            out.add(m);
+    }
+
+    public synchronized void unregister(Object listener) {
+        handlers.removeIf(h -> h.o == listener);
+        invalidate();
+    }
+
+    /** True if posting an event of this class would reach anyone; lets hooks skip building it. */
+    public boolean hasListeners(Class<? extends Event> type) {
+        return !empty && handlersFor(type).length > 0;
     }
 
     public void post(Event e) {
-        Class<?> c = e.getClass();
+        if (empty)
+            return;
 // deliver to exact type and superclasses up to Event
-        for (Map.Entry<Class<?>, List<H>> en : map.entrySet()) {
-            if (!en.getKey().isAssignableFrom(c))
-                continue;
-            for (H h : en.getValue()) {
-                try {
-                    h.m.invoke(h.o, e);
-                } catch (Throwable t) {
-                    t.printStackTrace();
-                }
+        for (H h : handlersFor(e.getClass())) {
+            try {
+                h.call.accept(h.o, e);
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+        }
+    }
+
+    private H[] handlersFor(Class<?> c) {
+        H[] hs = cache.get(c);
+        return hs != null ? hs : resolve(c);
+    }
+
+    private synchronized H[] resolve(Class<?> c) {
+        H[] hs = cache.get(c);
+        if (hs != null)
+            return hs;
+        List<H> out = new ArrayList<>();
+        for (H h : handlers) {
+            if (h.t.isAssignableFrom(c))
+                out.add(h);
+        }
+        out.sort((a, b) -> a.p != b.p ? Integer.compare(b.p, a.p) : Long.compare(a.seq, b.seq));
+        hs = out.isEmpty() ? NONE : out.toArray(NONE);
+        cache.put(c, hs);
+        return hs;
+    }
+
+    private void invalidate() {
+        cache = new ConcurrentHashMap<>();
+        empty = handlers.isEmpty();
+    }
+
+    // Direct call site via LambdaMetafactory, defined in the listener's own class loader;
+    // falls back to a method handle for static or otherwise unsupported methods.
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Event> compile(Method m) {
+        if (!Modifier.isStatic(m.getModifiers())) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(m.getDeclaringClass(), MethodHandles.lookup());
+                MethodHandle target = lookup.unreflect(m);
+                CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        target,
+                        MethodType.methodType(void.class, m.getDeclaringClass(), m.getParameterTypes()[0]));
+                return (BiConsumer<Object, Event>) site.getTarget().invoke();
+            } catch (Throwable ignored) {
             }
         }
+        MethodHandle mh;
+        try {
+            mh = MethodHandles.lookup().unreflect(m);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access event handler " + m, e);
+        }
+        if (Modifier.isStatic(m.getModifiers()))
+            mh = MethodHandles.dropArguments(mh, 0, Object.class);
+        MethodHandle call = mh.asType(MethodType.methodType(void.class, Object.class, Event.class));
+        return (o, e) -> {
+            try {
+                call.invokeExact(o, e);
+            } catch (RuntimeException | Error x) {
+                throw x;
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -34,7 +34,7 @@ public final class Hooks {
 
 // Return true to cancel sending
     public static boolean onChatSend(Minecraft mc, String text) {
-        if (LOADER == null)
+        if (LOADER == null || !LOADER.events().hasListeners(ChatEvent.Send.class))
             return false;
         ChatEvent.Send e = new ChatEvent.Send(mc, text);
         LOADER.events().post(e);
@@ -50,7 +50,7 @@ public final class Hooks {
 // Return true to cancel place
     public static boolean onBlockPlace(Level level, int x, int y, int z, int blockId,
             net.classicremastered.minecraft.player.Player player) {
-        if (LOADER == null)
+        if (LOADER == null || !LOADER.events().hasListeners(BlockEvent.Place.class))
             return false;
         BlockEvent.Place e = new BlockEvent.Place(level, x, y, z, blockId, player);
         LOADER.events().post(e);
@@ -59,7 +59,7 @@ public final class Hooks {
 
 // Return true to cancel break
     public static boolean onBlockBreak(Level level, int x, int y, int z, net.classicremastered.minecraft.player.Player player) {
-        if (LOADER == null)
+        if (LOADER == null || !LOADER.events().hasListeners(BlockEvent.Break.class))
             return false;
         BlockEvent.Break e = new BlockEvent.Break(level, x, y, z, player);
         LOADER.events().post(e);
@@ -67,13 +67,13 @@ public final class Hooks {
     }
 
     public static void onRenderHUD(Minecraft mc, float partialTicks) {
-        if (LOADER == null)
+        if (LOADER == null || !LOADER.events().hasListeners(RenderEvent.HUD.class))
             return;
         LOADER.events().post(new RenderEvent.HUD(mc, partialTicks));
     }
 
     public static void onRenderWorld(Object levelRenderer, float partialTicks) {
-        if (LOADER == null)
+        if (LOADER == null || !LOADER.events().hasListeners(RenderEvent.World.class))
             return;
         LOADER.events().post(new RenderEvent.World(levelRenderer, partialTicks));
     }
@@ -130,6 +130,36 @@ public class ByteArrayBitInputStream implements BitInputStream {
    }
 
    public int getInt(HuffmanNode root) throws IOException {
+      final int[] table=root.table;
+      if(table!=null && endian==LITTLE_ENDIAN) {
+         // peek tableBits bits and resolve short codewords in one lookup
+         final int bits=root.tableBits;
+         int ix=byteIndex, bi=bitIndex, cb=currentByte&0xff;
+         if(bi>7) {
+            bi=0;
+            ix++;
+            cb=ix<source.length?source[ix]&0xff:0;
+         }
+         if((source.length-ix)*8-bi>=bits) {
+            int window=cb>>>bi;
+            for(int have=8-bi, k=ix+1; have<bits; have+=8) {
+               window|=(source[k++]&0xff)<<have;
+            }
+            final int entry=table[window&((1<<bits)-1)];
+            if(entry!=0) {
+               // leave the same position getBit() would: bitIndex 1..8 within byteIndex
+               final int end=bi+(entry&31)-1;
+               ix+=end>>3;
+               if(ix!=byteIndex) {
+                  byteIndex=ix;
+                  currentByte=source[ix];
+               }
+               bitIndex=(end&7)+1;
+               return entry>>>5;
+            }
+         }
+         // longer codeword, or too close to the end of the packet
+      }
       while(root.value==null) {
          if(bitIndex>7) {
             bitIndex=0;
@@ -38,6 +38,11 @@ final public class HuffmanNode {
    protected Integer value;
    private boolean full=false;
 
+   // root only: codewords of up to tableBits bits, indexed by the next tableBits
+   // bits of the stream (first bit lowest), as (value<<5)|length; 0 means walk the tree
+   protected int[] table;
+   protected int tableBits;
+
 	/**
 	 *   creates a new Huffman tree root node
 	 */ 
@@ -104,6 +109,44 @@ final public class HuffmanNode {
       this.value=value;
    }
 
+	/**
+	 *  builds the lookup table used by <code>BitInputStream.getInt(HuffmanNode)</code>
+	 *  on this root node, so that codewords of up to <code>maxBits</code> bits are read
+	 *  in one step instead of one node per bit
+	 *
+	 *  @param maxBits the longest codeword length resolved by the table
+	 */
+
+   public void buildTable(int maxBits) {
+      int bits=Math.min(maxBits, maxDepth(this));
+      table=new int[1<<bits];
+      tableBits=bits;
+      fillTable(this, 0, 0);
+   }
+
+   private static int maxDepth(HuffmanNode node) {
+      if(node==null || node.value!=null) {
+         return 0;
+      }
+      return 1+Math.max(maxDepth(node.o0), maxDepth(node.o1));
+   }
+
+   private void fillTable(HuffmanNode node, int depth, int code) {
+      if(node==null) {
+         return;
+      }
+      if(node.value!=null) {
+         int entry=(node.value.intValue()<<5)|depth;
+         for(int i=code; i<table.length; i+=1<<depth) {
+            table[i]=entry;
+         }
+      }
+      else if(depth<tableBits) {
+         fillTable(node.o0, depth+1, code);
+         fillTable(node.o1, depth+1, code|(1<<depth));
+      }
+   }
+
 	/**
 	 *  creates a new tree node at the first free location at the given
 	 *  depth, and assigns the value to it
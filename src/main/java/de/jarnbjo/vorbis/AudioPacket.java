@@ -114,8 +114,20 @@ class AudioPacket {
       channelFloors=new Floor[channels];
       noResidues=new boolean[channels];
 
-      pcm=new float[channels][n];
-      pcmInt=new int[channels][n];
+      // take over the buffers of a packet the stream no longer needs
+      final AudioPacket spare=vorbis.takeSpareAudioPacket(blockFlag);
+      final boolean reused=spare!=null && spare.pcm.length==channels;
+      if(reused) {
+         pcm=spare.pcm;
+         pcmInt=spare.pcmInt;
+         for(int i=0; i<channels; i++) {
+            Arrays.fill(pcm[i], 0.0f);
+         }
+      }
+      else {
+         pcm=new float[channels][n];
+         pcmInt=new int[channels][n];
+      }
 
       boolean allFloorsEmpty=true;
 
@@ -131,6 +143,11 @@ class AudioPacket {
       }
 
       if(allFloorsEmpty) {
+         if(reused) {
+            for(int i=0; i<channels; i++) {
+               Arrays.fill(pcmInt[i], 0);
+            }
+         }
          return;
       }
 
@@ -224,6 +241,10 @@ class AudioPacket {
       return w;
    }
 
+   protected boolean getBlockFlag() {
+      return blockFlag;
+   }
+
    protected int getNumberOfSamples() {
       return rightWindowStart-leftWindowStart;
    }
@@ -151,6 +151,9 @@ class CodeBook {
 
    private static long totalTime=0;
 
+   // codewords up to this length are decoded with a single table lookup
+   private static final int LOOKUP_BITS = 10;
+
    private boolean createHuffmanTree(int[] entryLengths) {
       huffmanRoot=new HuffmanNode();
       for(int i=0; i<entryLengths.length; i++) {
@@ -161,6 +164,7 @@ class CodeBook {
             }
          }
       }
+      huffmanRoot.buildTable(LOOKUP_BITS);
       return true;
    }
 
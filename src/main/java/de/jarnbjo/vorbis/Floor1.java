@@ -40,7 +40,10 @@ class Floor1 extends Floor implements Cloneable {
    private int[] xList;
    private int[] yList;
    private int[] lowNeighbours, highNeighbours;
-   //private boolean[] step2Flags;
+
+   // computeFloor scratch, shared with every clone; packets of a stream decode one at a time
+   private int[] xList2;
+   private boolean[] step2Flags;
 
    private static final int[] RANGES = {256, 128, 86, 64};
 
@@ -123,6 +126,9 @@ class Floor1 extends Floor implements Cloneable {
          lowNeighbours[i]=Util.lowNeighbour(xList, i);
          highNeighbours[i]=Util.highNeighbour(xList, i);
       }
+
+      xList2=new int[xList.length];
+      step2Flags=new boolean[xList.length];
    }
 
    protected int getType() {
@@ -199,7 +205,8 @@ class Floor1 extends Floor implements Cloneable {
 
       int n=vector.length;
       final int values=xList.length;
-      final boolean[] step2Flags=new boolean[values];
+      final boolean[] step2Flags=this.step2Flags;
+      Arrays.fill(step2Flags, false);
 
       final int range=RANGES[multiplier-1];
 
@@ -235,24 +242,18 @@ class Floor1 extends Floor implements Cloneable {
          }
       }
 
-      final int[] xList2=new int[values];
+      final int[] xList2=this.xList2;
 
       System.arraycopy(xList, 0, xList2, 0, values);
       sort(xList2, yList, step2Flags);
 
       int hx=0, hy=0, lx=0, ly=yList[0]*multiplier;
 
-      float[] vector2=new float[vector.length];
-      float[] vector3=new float[vector.length];
-      Arrays.fill(vector2, 1.0f);
-      System.arraycopy(vector, 0, vector3, 0, vector.length);
-
       for(int i=1; i<values; i++) {
          if(step2Flags[i]) {
             hy=yList[i]*multiplier;
             hx=xList2[i];
             Util.renderLine(lx, ly, hx, hy, vector);
-            Util.renderLine(lx, ly, hx, hy, vector2);
             lx=hx;
             ly=hy;
          }
@@ -276,6 +277,8 @@ class Floor1 extends Floor implements Cloneable {
       clone.yList=yList;
       clone.lowNeighbours=lowNeighbours;
       clone.highNeighbours=highNeighbours;
+      clone.xList2=xList2;
+      clone.step2Flags=step2Flags;
       return clone;
    }
 
@@ -46,6 +46,8 @@ public class VorbisStream {
    private SetupHeader setupHeader;
 
    private AudioPacket lastAudioPacket, nextAudioPacket;
+   // packets replaced as lastAudioPacket, per block size, whose pcm buffers the next packet reuses
+   private AudioPacket[] spareAudioPackets=new AudioPacket[2];
    private LinkedList audioPackets=new LinkedList();
    private byte[] currentPcm;
    private int currentPcmIndex;
@@ -146,16 +148,12 @@ public class VorbisStream {
                return 0;
             }
             currentPcmIndex=0;
+            recycle(lastAudioPacket);
             lastAudioPacket=ap;
          }
-         int written=0;
-         int i=0;
-         int arrIx=0;
-         for(i=currentPcmIndex; i<currentPcmLimit && arrIx<length; i++) {
-            buffer[offset+arrIx++]=currentPcm[i];
-            written++;
-         }
-         currentPcmIndex=i;
+         int written=Math.min(currentPcmLimit-currentPcmIndex, length);
+         System.arraycopy(currentPcm, currentPcmIndex, buffer, offset, written);
+         currentPcmIndex+=written;
          return written;
       }
    }
@@ -178,6 +176,17 @@ public class VorbisStream {
       return res;
    }
 
+   private void recycle(AudioPacket ap) {
+      spareAudioPackets[ap.getBlockFlag()?1:0]=ap;
+   }
+
+   protected AudioPacket takeSpareAudioPacket(boolean blockFlag) {
+      int ix=blockFlag?1:0;
+      AudioPacket res=spareAudioPackets[ix];
+      spareAudioPackets[ix]=null;
+      return res;
+   }
+
    public long getCurrentGranulePosition() {
       return currentGranulePosition;
    }
@@ -232,6 +241,7 @@ public class VorbisStream {
             java.util.Arrays.fill(res, (byte)0);
          }
 
+         recycle(lastAudioPacket);
          lastAudioPacket=ap;
 
          return res;
@@ -8,12 +8,12 @@ import net.classicremastered.minecraft.level.tile.Tile$SoundType;
 import net.classicremastered.minecraft.model.Vec3D;
 import net.classicremastered.minecraft.net.PositionUpdate;
 import net.classicremastered.minecraft.phys.AABB;
+import net.classicremastered.minecraft.phys.CollisionBuffer;
 import net.classicremastered.minecraft.player.Player;
 import net.classicremastered.minecraft.render.TextureManager;
 import net.classicremastered.util.MathHelper;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 
 public abstract class Entity implements Serializable {
 
@@ -50,6 +50,9 @@ public abstract class Entity implements Serializable {
     public float xOld;
     public float yOld;
     public float zOld;
+    // slots in blockMap's entity store and grid cell, kept up to date by them
+    public transient int storeId = -1;
+    public transient int gridSlot;
     public int textureId = 0;
     public float ySlideOffset = 0.0F;
     public float footSize = 0.0F;
@@ -408,7 +411,8 @@ public abstract class Entity implements Serializable {
             float var6 = var1;
             float var7 = var2;
             float var8 = var3;
-            AABB var9 = this.bb.copy();
+            CollisionBuffer var10 = CollisionBuffer.get();
+            AABB var9 = var10.start.set(this.bb);
 
             // --- Sneak edge clamp: trim motion that would step over air when on ground ---
             if (this instanceof net.classicremastered.minecraft.player.Player) {
@@ -452,11 +456,8 @@ public abstract class Entity implements Serializable {
                 }
             }
 
-            ArrayList var10 = this.level.getCubes(this.bb.expand(var1, var2, var3));
-
-            for (int var11 = 0; var11 < var10.size(); ++var11) {
-                var2 = ((AABB) var10.get(var11)).clipYCollide(this.bb, var2);
-            }
+            this.level.getCubes(this.bb.expand(var1, var2, var3, var10.query), var10);
+            var2 = var10.clipY(this.bb, var2);
 
             this.bb.move(0.0F, var2, 0.0F);
             if (!this.slide && var7 != var2) {
@@ -467,10 +468,7 @@ public abstract class Entity implements Serializable {
 
             boolean var16 = this.onGround || var7 != var2 && var7 < 0.0F;
 
-            int var12;
-            for (var12 = 0; var12 < var10.size(); ++var12) {
-                var1 = ((AABB) var10.get(var12)).clipXCollide(this.bb, var1);
-            }
+            var1 = var10.clipX(this.bb, var1);
 
             this.bb.move(var1, 0.0F, 0.0F);
             if (!this.slide && var6 != var1) {
@@ -479,9 +477,7 @@ public abstract class Entity implements Serializable {
                 var1 = 0.0F;
             }
 
-            for (var12 = 0; var12 < var10.size(); ++var12) {
-                var3 = ((AABB) var10.get(var12)).clipZCollide(this.bb, var3);
-            }
+            var3 = var10.clipZ(this.bb, var3);
 
             this.bb.move(0.0F, 0.0F, var3);
             if (!this.slide && var8 != var3) {
@@ -498,14 +494,10 @@ public abstract class Entity implements Serializable {
                 var1 = var6;
                 var2 = this.footSize;
                 var3 = var8;
-                AABB var14 = this.bb.copy();
-                this.bb = var9.copy();
-                var10 = this.level.getCubes(this.bb.expand(var6, var2, var8));
-
-                int var15;
-                for (var15 = 0; var15 < var10.size(); ++var15) {
-                    var2 = ((AABB) var10.get(var15)).clipYCollide(this.bb, var2);
-                }
+                AABB var14 = var10.stepped.set(this.bb);
+                this.bb.set(var9);
+                this.level.getCubes(this.bb.expand(var6, var2, var8, var10.query), var10);
+                var2 = var10.clipY(this.bb, var2);
 
                 this.bb.move(0.0F, var2, 0.0F);
                 if (!this.slide && var7 != var2) {
@@ -514,9 +506,7 @@ public abstract class Entity implements Serializable {
                     var1 = 0.0F;
                 }
 
-                for (var15 = 0; var15 < var10.size(); ++var15) {
-                    var1 = ((AABB) var10.get(var15)).clipXCollide(this.bb, var1);
-                }
+                var1 = var10.clipX(this.bb, var1);
 
                 this.bb.move(var1, 0.0F, 0.0F);
                 if (!this.slide && var6 != var1) {
@@ -525,9 +515,7 @@ public abstract class Entity implements Serializable {
                     var1 = 0.0F;
                 }
 
-                for (var15 = 0; var15 < var10.size(); ++var15) {
-                    var3 = ((AABB) var10.get(var15)).clipZCollide(this.bb, var3);
-                }
+                var3 = var10.clipZ(this.bb, var3);
 
                 this.bb.move(0.0F, 0.0F, var3);
                 if (!this.slide && var8 != var3) {
@@ -540,7 +528,7 @@ public abstract class Entity implements Serializable {
                     var1 = var18;
                     var2 = var17;
                     var3 = var13;
-                    this.bb = var14.copy();
+                    this.bb.set(var14);
                 } else {
                     this.ySlideOffset = (float) ((double) this.ySlideOffset + 0.5D);
                 }
@@ -30,8 +30,6 @@ import net.classicremastered.minecraft.model.ModelManager;
 import net.classicremastered.minecraft.model.ModelPart;
 import net.classicremastered.minecraft.model.Vec3D;
 import net.classicremastered.minecraft.net.NetworkManager;
-import net.classicremastered.minecraft.net.NetworkPlayer;
-import net.classicremastered.minecraft.net.PacketType;
 import net.classicremastered.minecraft.particle.Particle;
 import net.classicremastered.minecraft.particle.ParticleManager;
 import net.classicremastered.minecraft.particle.WaterDropParticle;
@@ -47,6 +45,7 @@ import net.classicremastered.minecraft.render.texture.TextureWaterFX;
 import net.classicremastered.minecraft.sound.PaulsCodeSoundManager;
 import net.classicremastered.minecraft.sound.SoundManager;
 import net.classicremastered.minecraft.sound.SoundPlayer;
+import net.classicremastered.minecraft.util.Profiler;
 import net.classicremastered.minecraft.util.Screenshot;
 import net.classicremastered.net.NetworkHandler;
 import net.classicremastered.util.MathHelper;
@@ -713,6 +712,7 @@ public final class Minecraft implements Runnable {
                         }
 
                         try {
+                            long frameStart = Profiler.start();
                             Timer t = this.timer;
                             long nowMs;
                             long sysDeltaMs = (nowMs = System.currentTimeMillis()) - t.lastSysClock;
@@ -750,10 +750,15 @@ public final class Minecraft implements Runnable {
 
                             for (int i = 0; i < this.timer.elapsedTicks; ++i) {
                                 ++this.ticks;
+                                long tickStart = Profiler.start();
                                 this.tick();
+                                Profiler.end(Profiler.TICK, tickStart);
+                                Profiler.endTick();
                             }
                             if (this.levelRenderer != null) {
+                                long chunkStart = Profiler.start();
                                 this.levelRenderer.updateSomeChunks();
+                                Profiler.end(Profiler.CHUNK_UPDATES, chunkStart);
                             }
 
                             // Let mods tick once per frame (after LWJGL is ready)
@@ -1001,23 +1006,24 @@ public final class Minecraft implements Runnable {
                                             // Handle finite vs infinite worlds safely
                                             boolean isInfinite = (this.level instanceof LevelInfiniteFlat);
 
-                                            // Finite worlds: clip visible chunks and rebuild a small budget each frame
+                                            if (levelRendererRef != null) {
+                                                levelRendererRef.clip(frRef);
+                                            }
+
+                                            // Finite worlds: rebuild a small budget each frame
                                             if (!isInfinite && levelRendererRef != null
                                                     && levelRendererRef.chunkCache != null) {
-                                                for (int ic = 0; ic < levelRendererRef.chunkCache.length; ++ic) {
-                                                    levelRendererRef.chunkCache[ic].clip(frRef);
-                                                }
 
                                                 // Rebuild a few dirty chunks (closest last in list)
                                                 Collections.sort(levelRendererRef.chunks,
                                                         new ChunkDirtyDistanceComparator(camPlayer));
-                                                int toRebuild = Math.min(3, levelRendererRef.chunks.size());
+                                                int toRebuild = Math.min(8, levelRendererRef.chunks.size());
                                                 for (int kk = 0; kk < toRebuild; ++kk) {
                                                     int idxLast = levelRendererRef.chunks.size() - 1;
                                                     if (idxLast < 0)
                                                         break;
                                                     Chunk ch = (Chunk) levelRendererRef.chunks.remove(idxLast);
-                                                    ch.update();
+                                                    levelRendererRef.rebuild(ch);
                                                     ch.loaded = false;
                                                 }
                                             }
@@ -1240,7 +1246,9 @@ public final class Minecraft implements Runnable {
                                             }
                                             if (xTile > 0) {
                                                 GL11.glBindTexture(3553, lr.textureManager.load("/terrain.png"));
+                                                lr.lightMap.enable();
                                                 GL11.glCallLists(lr.buffer);
+                                                lr.lightMap.disable();
                                             }
                                             GL11.glDepthMask(true);
                                             GL11.glDisable(3042);
@@ -1438,9 +1446,12 @@ public final class Minecraft implements Runnable {
                             }
 
                             checkGLError("Post render");
+                            Profiler.end(Profiler.FRAME, frameStart);
+                            Profiler.endFrame();
                             ++framesThisSecond;
                             while (System.currentTimeMillis() >= fpsTimerStartMs + 1000L) {
-                                this.debug = framesThisSecond + " fps, " + Chunk.chunkUpdates + " chunk updates";
+                                this.debug = framesThisSecond + " fps, " + Chunk.chunkUpdates + " chunk updates"
+                                        + (this.levelRenderer != null ? this.levelRenderer.getCacheStats() : "");
                                 Chunk.chunkUpdates = 0;
                                 fpsTimerStartMs += 1000L;
                                 framesThisSecond = 0;
@@ -1790,256 +1801,11 @@ public final class Minecraft implements Runnable {
                 if (this.networkManager.successful) {
                     NetworkHandler var18 = var20.netHandler;
                     if (var20.netHandler.connected) {
+                        long netStart = Profiler.start();
                         try {
                             NetworkHandler var22 = var20.netHandler;
                             var20.netHandler.channel.read(var22.in);
-                            var4 = 0;
-
-                            while (var22.in.position() > 0 && var4++ != 100) {
-                                var22.in.flip();
-                                byte var5 = var22.in.get(0);
-                                PacketType var6;
-                                if ((var6 = PacketType.packets[var5]) == null) {
-                                    throw new IOException("Bad command: " + var5);
-                                }
-
-                                if (var22.in.remaining() < var6.length + 1) {
-                                    var22.in.compact();
-                                    break;
-                                }
-
-                                var22.in.get();
-                                Object[] var7 = new Object[var6.params.length];
-
-                                for (var8 = 0; var8 < var7.length; ++var8) {
-                                    var7[var8] = var22.readObject(var6.params[var8]);
-                                }
-
-                                NetworkManager var42 = var22.netManager;
-                                if (var22.netManager.successful) {
-                                    if (var6 == PacketType.IDENTIFICATION) {
-                                        var42.minecraft.progressBar.setTitle(var7[1].toString());
-                                        var42.minecraft.progressBar.setText(var7[2].toString());
-                                        var42.minecraft.player.userType = ((Byte) var7[3]).byteValue();
-                                    } else if (var6 == PacketType.LEVEL_INIT) {
-                                        var42.minecraft.setLevel((Level) null);
-                                        var42.levelData = new ByteArrayOutputStream();
-                                    } else if (var6 == PacketType.LEVEL_DATA) {
-                                        short var11 = ((Short) var7[0]).shortValue();
-                                        byte[] var12 = (byte[]) ((byte[]) var7[1]);
-                                        byte var13 = ((Byte) var7[2]).byteValue();
-                                        var42.minecraft.progressBar.setProgress(var13);
-                                        var42.levelData.write(var12, 0, var11);
-                                    } else if (var6 == PacketType.LEVEL_FINALIZE) {
-                                        try {
-                                            var42.levelData.close();
-                                        } catch (IOException var14) {
-                                            var14.printStackTrace();
-                                        }
-
-                                        byte[] var51 = LevelIO
-                                                .decompress(new ByteArrayInputStream(var42.levelData.toByteArray()));
-                                        var42.levelData = null;
-                                        short var55 = ((Short) var7[0]).shortValue();
-                                        short var63 = ((Short) var7[1]).shortValue();
-                                        short var21 = ((Short) var7[2]).shortValue();
-                                        Level var30;
-                                        (var30 = new Level()).setNetworkMode(true);
-                                        var30.setData(var55, var63, var21, var51);
-                                        var42.minecraft.setLevel(var30);
-                                        var42.minecraft.online = false;
-                                        var42.levelLoaded = true;
-                                    } else if (var6 == PacketType.BLOCK_CHANGE) {
-                                        if (var42.minecraft.level != null) {
-                                            short bx = ((Short) var7[0]).shortValue();
-                                            short by = ((Short) var7[1]).shortValue();
-                                            short bz = ((Short) var7[2]).shortValue();
-                                            byte blockId = ((Byte) var7[3]).byteValue();
-                                            
-                                            int oldBlockId = var42.minecraft.level.getTile(bx, by, bz);
-                                            
-                                            if (var42.minecraft.level.netSetTile(bx, by, bz, blockId)) {
-                                                if (oldBlockId > 0 && blockId == 0) { // Broken
-                                                    Block block = Block.blocks[oldBlockId];
-                                                    if (block != null) {
-                                                        if (block.stepsound != net.classicremastered.minecraft.level.tile.Tile$SoundType.none) {
-                                                            float vol = (block.stepsound.getVolume() + 1.0F) / 2.0F;
-                                                            float pitch = block.stepsound.getPitch() * 0.8F;
-                                                            var42.minecraft.level.playSound(block.stepsound.pool, (float)bx + 0.5F, (float)by + 0.5F, (float)bz + 0.5F, vol, pitch);
-                                                        }
-                                                        if (var42.minecraft.particleManager != null) {
-                                                            block.spawnBreakParticles(var42.minecraft.level, bx, by, bz, var42.minecraft.particleManager);
-                                                        }
-                                                    }
-                                                } else if (blockId > 0) { // Placed
-                                                    Block block = Block.blocks[blockId];
-                                                    if (block != null && block.stepsound != net.classicremastered.minecraft.level.tile.Tile$SoundType.none) {
-                                                        float vol = (block.stepsound.getVolume() + 1.0F) / 2.0F;
-                                                        float pitch = block.stepsound.getPitch() * 0.8F;
-                                                        var42.minecraft.level.playSound(block.stepsound.pool, (float)bx + 0.5F, (float)by + 0.5F, (float)bz + 0.5F, vol, pitch);
-                                                    }
-                                                }
-                                            }
-                                        }
-                                    } else {
-                                        byte var9;
-                                        String var34;
-                                        NetworkPlayer var33;
-                                        short var36;
-                                        short var10004;
-                                        byte var10001;
-                                        short var47;
-                                        short var10003;
-                                        if (var6 == PacketType.SPAWN_PLAYER) {
-                                            var10001 = ((Byte) var7[0]).byteValue();
-                                            String var10002 = (String) var7[1];
-                                            var10003 = ((Short) var7[2]).shortValue();
-                                            var10004 = ((Short) var7[3]).shortValue();
-                                            short var10005 = ((Short) var7[4]).shortValue();
-                                            byte var10006 = ((Byte) var7[5]).byteValue();
-                                            byte var58 = ((Byte) var7[6]).byteValue();
-                                            var9 = var10006;
-                                            short var10 = var10005;
-                                            var47 = var10004;
-                                            var36 = var10003;
-                                            var34 = var10002;
-                                            var5 = var10001;
-                                            if (var5 >= 0) {
-                                                var9 = (byte) (var9 + 128);
-                                                var47 = (short) (var47 - 22);
-                                                var33 = new NetworkPlayer(var42.minecraft, var5, var34, var36, var47,
-                                                        var10, (float) (var9 * 360) / 256.0F,
-                                                        (float) (var58 * 360) / 256.0F);
-                                                var42.players.put(Byte.valueOf(var5), var33);
-                                                var42.minecraft.level.addEntity(var33);
-                                            } else {
-                                                var42.minecraft.level.setSpawnPos(var36 / 32, var47 / 32, var10 / 32,
-                                                        (float) (var9 * 320 / 256));
-                                                var42.minecraft.player.moveTo((float) var36 / 32.0F,
-                                                        (float) var47 / 32.0F, (float) var10 / 32.0F,
-                                                        (float) (var9 * 360) / 256.0F, (float) (var58 * 360) / 256.0F);
-                                            }
-                                        } else {
-                                            byte var53;
-                                            NetworkPlayer var61;
-                                            byte var69;
-                                            if (var6 == PacketType.POSITION_ROTATION) {
-                                                var10001 = ((Byte) var7[0]).byteValue();
-                                                short var66 = ((Short) var7[1]).shortValue();
-                                                var10003 = ((Short) var7[2]).shortValue();
-                                                var10004 = ((Short) var7[3]).shortValue();
-                                                var69 = ((Byte) var7[4]).byteValue();
-                                                var9 = ((Byte) var7[5]).byteValue();
-                                                var53 = var69;
-                                                var47 = var10004;
-                                                var36 = var10003;
-                                                short var38 = var66;
-                                                var5 = var10001;
-                                                if (var5 < 0) {
-                                                    var42.minecraft.player.moveTo((float) var38 / 32.0F,
-                                                            (float) var36 / 32.0F, (float) var47 / 32.0F,
-                                                            (float) (var53 * 360) / 256.0F,
-                                                            (float) (var9 * 360) / 256.0F);
-                                                } else {
-                                                    var53 = (byte) (var53 + 128);
-                                                    var36 = (short) (var36 - 22);
-                                                    if ((var61 = (NetworkPlayer) var42.players
-                                                            .get(Byte.valueOf(var5))) != null) {
-                                                        var61.teleport(var38, var36, var47,
-                                                                (float) (var53 * 360) / 256.0F,
-                                                                (float) (var9 * 360) / 256.0F);
-                                                    }
-                                                }
-                                            } else {
-                                                byte var37;
-                                                byte var44;
-                                                byte var49;
-                                                byte var65;
-                                                byte var67;
-                                                if (var6 == PacketType.POSITION_ROTATION_UPDATE) {
-                                                    var10001 = ((Byte) var7[0]).byteValue();
-                                                    var67 = ((Byte) var7[1]).byteValue();
-                                                    var65 = ((Byte) var7[2]).byteValue();
-                                                    byte var64 = ((Byte) var7[3]).byteValue();
-                                                    var69 = ((Byte) var7[4]).byteValue();
-                                                    var9 = ((Byte) var7[5]).byteValue();
-                                                    var53 = var69;
-                                                    var49 = var64;
-                                                    var44 = var65;
-                                                    var37 = var67;
-                                                    var5 = var10001;
-                                                    if (var5 >= 0) {
-                                                        var53 = (byte) (var53 + 128);
-                                                        if ((var61 = (NetworkPlayer) var42.players
-                                                                .get(Byte.valueOf(var5))) != null) {
-                                                            var61.queue(var37, var44, var49,
-                                                                    (float) (var53 * 360) / 256.0F,
-                                                                    (float) (var9 * 360) / 256.0F);
-                                                        }
-                                                    }
-                                                } else if (var6 == PacketType.ROTATION_UPDATE) {
-                                                    var10001 = ((Byte) var7[0]).byteValue();
-                                                    var67 = ((Byte) var7[1]).byteValue();
-                                                    var44 = ((Byte) var7[2]).byteValue();
-                                                    var37 = var67;
-                                                    var5 = var10001;
-                                                    if (var5 >= 0) {
-                                                        var37 = (byte) (var37 + 128);
-                                                        NetworkPlayer var54;
-                                                        if ((var54 = (NetworkPlayer) var42.players
-                                                                .get(Byte.valueOf(var5))) != null) {
-                                                            var54.queue((float) (var37 * 360) / 256.0F,
-                                                                    (float) (var44 * 360) / 256.0F);
-                                                        }
-                                                    }
-                                                } else if (var6 == PacketType.POSITION_UPDATE) {
-                                                    var10001 = ((Byte) var7[0]).byteValue();
-                                                    var67 = ((Byte) var7[1]).byteValue();
-                                                    var65 = ((Byte) var7[2]).byteValue();
-                                                    var49 = ((Byte) var7[3]).byteValue();
-                                                    var44 = var65;
-                                                    var37 = var67;
-                                                    var5 = var10001;
-                                                    NetworkPlayer var59;
-                                                    if (var5 >= 0 && (var59 = (NetworkPlayer) var42.players
-                                                            .get(Byte.valueOf(var5))) != null) {
-                                                        var59.queue(var37, var44, var49);
-                                                    }
-                                                } else if (var6 == PacketType.DESPAWN_PLAYER) {
-                                                    var5 = ((Byte) var7[0]).byteValue();
-                                                    if (var5 >= 0 && (var33 = (NetworkPlayer) var42.players
-                                                            .remove(Byte.valueOf(var5))) != null) {
-                                                        var33.clear();
-                                                        var42.minecraft.level.removeEntity(var33);
-                                                    }
-                                                } else if (var6 == PacketType.CHAT_MESSAGE) {
-                                                    var10001 = ((Byte) var7[0]).byteValue();
-                                                    var34 = (String) var7[1];
-                                                    var5 = var10001;
-                                                    if (var5 < 0) {
-                                                        var42.minecraft.hud.addChat("&e" + var34);
-                                                    } else {
-                                                        var42.players.get(Byte.valueOf(var5));
-                                                        var42.minecraft.hud.addChat(var34);
-                                                    }
-                                                } else if (var6 == PacketType.DISCONNECT) {
-                                                    var42.netHandler.close();
-                                                    var42.minecraft.setCurrentScreen(
-                                                            new ErrorScreen("Connection lost", (String) var7[0]));
-                                                } else if (var6 == PacketType.UPDATE_PLAYER_TYPE) {
-                                                    var42.minecraft.player.userType = ((Byte) var7[0]).byteValue();
-                                                }
-                                            }
-                                        }
-                                    }
-                                }
-
-                                if (!var22.connected) {
-                                    break;
-                                }
-
-                                var22.in.compact();
-                            }
+                            var22.receive(var20.handler, 100);
 
                             if (var22.out.position() > 0) {
                                 var22.out.flip();
@@ -2054,6 +1820,7 @@ public final class Minecraft implements Runnable {
                             var20.netHandler.close();
                             var20.minecraft.networkManager = null;
                         }
+                        Profiler.end(Profiler.NETWORK, netStart);
                     }
                 }
 
@@ -2065,9 +1832,7 @@ public final class Minecraft implements Runnable {
                     var40 = (int) (var28.z * 32.0F);
                     var46 = (int) (var28.yRot * 256.0F / 360.0F) & 255;
                     var45 = (int) (var28.xRot * 256.0F / 360.0F) & 255;
-                    var20.netHandler.send(PacketType.POSITION_ROTATION,
-                            new Object[] { Integer.valueOf(-1), Integer.valueOf(var24), Integer.valueOf(var4),
-                                    Integer.valueOf(var40), Integer.valueOf(var46), Integer.valueOf(var45) });
+                    var20.netHandler.sendPositionRotation(-1, var24, var4, var40, var46, var45);
                 }
             }
         }
@@ -2272,7 +2037,9 @@ public final class Minecraft implements Runnable {
             ++this.levelRenderer.ticks;
             if (skyRenderer != null)
                 skyRenderer.tick();
+            long entityStart = Profiler.start();
             this.level.tickEntities();
+            Profiler.end(Profiler.ENTITIES, entityStart);
             net.classicremastered.minecraft.level.itemstack.TelekinesisItem.processArmedImpacts(this.level); // added
             if (this.player != null && (this.player.inventory.getSelected() - 256 != 11)) {
                 if (net.classicremastered.minecraft.level.itemstack.GravityGunItem.grabbedMobs.containsKey(this.player)) {
@@ -2281,16 +2048,17 @@ public final class Minecraft implements Runnable {
             }
             if (this.level != null) {
                 this.level.tickTime();
-                if (this.levelRenderer != null) {
-                    this.levelRenderer.onTimeOfDayMaybeChanged();
-                }
             }
 
             if (!this.isOnline()) {
+                long levelStart = Profiler.start();
                 this.level.tick();
+                Profiler.end(Profiler.LEVEL, levelStart);
             }
 
+            long particleStart = Profiler.start();
             this.particleManager.tick();
+            Profiler.end(Profiler.PARTICLES, particleStart);
         }
 
     }
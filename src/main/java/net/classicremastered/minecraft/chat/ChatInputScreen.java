@@ -5,7 +5,6 @@ import org.lwjgl.input.Mouse;
 
 import net.classicremastered.minecraft.chat.commands.CommandManager;
 import net.classicremastered.minecraft.gui.GuiScreen;
-import net.classicremastered.minecraft.net.PacketType;
 
 import java.awt.*;
 import java.awt.datatransfer.*;
@@ -105,7 +104,7 @@ public class ChatInputScreen extends GuiScreen {
 
                     if (minecraft != null && minecraft.networkManager != null && minecraft.networkManager.netHandler != null && minecraft.player != null) {
                         // Send to server only if player exists
-                        minecraft.networkManager.netHandler.send(PacketType.CHAT_MESSAGE, new Object[]{-1, msg});
+                        minecraft.networkManager.netHandler.sendChatMessage(-1, msg);
                     } else if (minecraft != null && minecraft.hud != null) {
                         minecraft.hud.addChat(prefix + msg);
                     }
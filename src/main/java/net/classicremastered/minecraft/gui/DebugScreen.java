@@ -1,14 +1,17 @@
 package net.classicremastered.minecraft.gui;
 
 import java.io.File;
+import java.util.List;
 
 import net.classicremastered.minecraft.Minecraft;
+import net.classicremastered.minecraft.util.Profiler;
 
 public final class DebugScreen extends GuiScreen {
 
     private static final int ID_CLEAR_LOGS = 0;
     private static final int ID_CLEAR_SHOTS = 1;
     private static final int ID_BACK = 2;
+    private static final int ID_PROFILER = 3;
 
     @Override
     public void onOpen() {
@@ -18,7 +21,8 @@ public final class DebugScreen extends GuiScreen {
 
         this.buttons.add(new Button(ID_CLEAR_LOGS, x, y + 0, "Clear Crash Logs"));
         this.buttons.add(new Button(ID_CLEAR_SHOTS, x, y + 24, "Clear Screenshots"));
-        this.buttons.add(new Button(ID_BACK, x, y + 60, "Back"));
+        this.buttons.add(new Button(ID_PROFILER, x, y + 48, profilerLabel()));
+        this.buttons.add(new Button(ID_BACK, x, y + 84, "Back"));
     }
 
     @Override
@@ -52,6 +56,13 @@ public final class DebugScreen extends GuiScreen {
             }
             return;
 
+        case ID_PROFILER:
+            if (!Profiler.enabled)
+                Profiler.reset();
+            Profiler.enabled = !Profiler.enabled;
+            b.text = profilerLabel();
+            return;
+
         case ID_BACK:
             this.minecraft.setCurrentScreen(new MainMenuScreen());
             return;
@@ -66,10 +77,48 @@ public final class DebugScreen extends GuiScreen {
         System.out.println("[DebugScreen] " + msg.replace('&', '§'));
     }
 
+    private static String profilerLabel() {
+        return "Profiler: " + (Profiler.enabled ? "ON" : "OFF");
+    }
+
     @Override
     public void render(int mx, int my) {
         drawFadingBox(0, 0, this.width, this.height, 0x80000000, 0xA0000000);
         drawCenteredString(this.fontRenderer, "Debug Utilities", this.width / 2, 40, 0xFFFFFF);
         super.render(mx, my);
+        renderProfiler(this.fontRenderer, this.width / 2 - 100, this.height / 4 + 112, this.height - 4);
+    }
+
+    /**
+     * Draw the profiler's sections (mean, p50 and p99 in ms) and the costliest entity
+     * classes from (x, y), stopping above {@code maxY}. Also used by the HUD.
+     */
+    public static void renderProfiler(FontRenderer font, int x, int y, int maxY) {
+        if (!Profiler.enabled)
+            return;
+        font.render("&7Profiler, ms: mean / p50 / p99", x, y, 0xFFFFFF);
+        y += 10;
+        for (Profiler.Section s : Profiler.sections()) {
+            if (y + 9 > maxY)
+                return;
+            String indent = "  ".repeat(s.depth);
+            font.render(indent + s.name + ": &e" + ms(s.mean()) + " &7/ &e" + ms(s.percentile(0.5)) + " &7/ &e"
+                    + ms(s.percentile(0.99)), x, y, 0xFFFFFF);
+            y += 9;
+        }
+        List<Profiler.EntityClass> classes = Profiler.entityClasses();
+        if (!classes.isEmpty() && y + 9 <= maxY) {
+            font.render("&7entity ticks by class:", x, y, 0xFFFFFF);
+            y += 9;
+        }
+        for (int i = 0; i < classes.size() && i < 6 && y + 9 <= maxY; i++) {
+            Profiler.EntityClass c = classes.get(i);
+            font.render("  " + c.name + " x" + c.count + ": &e" + ms(c.mean()), x, y, 0xFFFFFF);
+            y += 9;
+        }
+    }
+
+    private static String ms(long nanos) {
+        return String.format("%.2f", nanos / 1e6);
     }
 }
@@ -140,7 +140,7 @@ public final class GenerateLevelScreen extends GuiScreen {
                         level = FlatLevelGenerator.makeFlatLevel(sizeIndex);
                     } else {
                         String creator = this.minecraft.session != null ? this.minecraft.session.username : "anonymous";
-                        level = new LevelGenerator(this.minecraft.progressBar)
+                        level = new LevelGenerator(this.minecraft.progressBar, seed)
                                 .generate(creator, 128 << sizeIndex, 128 << sizeIndex, 64);
                     }
                     break;
@@ -220,6 +220,10 @@ public final class HUDScreen extends Screen {
      if (this.mc.settings.showFrameRate) {
          font.render("&7Minecraft &6Classic &bRCT June 26 Build", 2, 2, 0xFFFFFF);
          font.render(this.mc.debug, 2, 22, 0xFFFFFF);
+         if (this.mc.level instanceof net.classicremastered.minecraft.level.LevelInfiniteTerrain terrain) {
+             font.render(terrain.chunks().getGenerationStats(), 2, 32, 0xFFFFFF);
+         }
+         DebugScreen.renderProfiler(font, 2, 44, this.height - 60);
      }
      if(this.mc.settings.showFrameRate) {
          font.render(this.mc.debug, 2, 22, 16777215);
@@ -0,0 +1,9 @@
+package net.classicremastered.minecraft.level;
+
+/**
+ * Told about every block a finite {@link Level} writes through its setTile family,
+ * right after the write. Used by the headless server to stream simulation results.
+ */
+public interface BlockChangeListener {
+    void blockChanged(int x, int y, int z, int id);
+}
@@ -0,0 +1,179 @@
+package net.classicremastered.minecraft.level;
+
+import java.util.Arrays;
+
+/**
+ * Block writes collected for {@link Level#applyEdits}, which applies them in one pass:
+ * light depths are recomputed once per column, block light in one propagation,
+ * neighbours are notified once each and every touched render chunk is queued once.
+ * <p>
+ * Writes apply in the order they were added; a cell written twice ends up with the
+ * last id. A batch may be cleared and reused; it keeps its buffers.
+ */
+public final class BlockEditBatch {
+
+    long[] cells;
+    byte[] ids;
+    int size;
+
+    // scratch for Level.applyEdits, reused between applies
+    long[] changed = new long[64];
+    int changedCount;
+    final LongSet columns = new LongSet();
+    final LongSet renderChunks = new LongSet();
+    final LongSet neighbours = new LongSet();
+    int[] neighbourIds = new int[64];
+
+    public BlockEditBatch() {
+        this(256);
+    }
+
+    public BlockEditBatch(int capacity) {
+        capacity = Math.max(16, capacity);
+        this.cells = new long[capacity];
+        this.ids = new byte[capacity];
+    }
+
+    public void set(int x, int y, int z, int id) {
+        if (size == cells.length) {
+            cells = Arrays.copyOf(cells, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        cells[size] = Level.getCoordKey(x, y, z);
+        ids[size] = (byte) id;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getX(int i) {
+        return keyX(cells[i]);
+    }
+
+    public int getY(int i) {
+        return keyY(cells[i]);
+    }
+
+    public int getZ(int i) {
+        return keyZ(cells[i]);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /** Fallback for levels without a flat block array: one {@link Level#setTile} per write. */
+    int applyEach(Level level) {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            long c = cells[i];
+            if (level.setTile(keyX(c), keyY(c), keyZ(c), ids[i] & 0xFF))
+                n++;
+        }
+        return n;
+    }
+
+    void addChanged(long cell) {
+        if (changedCount == changed.length)
+            changed = Arrays.copyOf(changed, changedCount * 2);
+        changed[changedCount++] = cell;
+    }
+
+    void addNeighbour(long cell, int changedId) {
+        if (!neighbours.add(cell))
+            return;
+        if (neighbourIds.length < neighbours.size())
+            neighbourIds = Arrays.copyOf(neighbourIds, neighbourIds.length * 2);
+        neighbourIds[neighbours.size() - 1] = changedId;
+    }
+
+    void resetScratch() {
+        changedCount = 0;
+        columns.clear();
+        renderChunks.clear();
+        neighbours.clear();
+    }
+
+    // --- packed keys, see Level.getCoordKey ---
+
+    static int keyX(long key) {
+        return (int) (key >> 38);
+    }
+
+    static int keyY(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    static int keyZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+
+    /** Insertion-ordered set of non-negative longs; open addressing, no boxing. */
+    static final class LongSet {
+        private static final long EMPTY = -1L;
+
+        private long[] table = new long[128];
+        private long[] items = new long[64];
+        private int count;
+
+        LongSet() {
+            Arrays.fill(table, EMPTY);
+        }
+
+        boolean add(long key) {
+            if (count * 2 >= table.length)
+                grow();
+            int mask = table.length - 1;
+            int i = hash(key) & mask;
+            while (table[i] != EMPTY) {
+                if (table[i] == key)
+                    return false;
+                i = (i + 1) & mask;
+            }
+            table[i] = key;
+            if (count == items.length)
+                items = Arrays.copyOf(items, count * 2);
+            items[count++] = key;
+            return true;
+        }
+
+        int size() {
+            return count;
+        }
+
+        long get(int i) {
+            return items[i];
+        }
+
+        void clear() {
+            if (count > 0) {
+                Arrays.fill(table, EMPTY);
+                count = 0;
+            }
+        }
+
+        private void grow() {
+            long[] old = table;
+            table = new long[old.length * 2];
+            Arrays.fill(table, EMPTY);
+            int mask = table.length - 1;
+            for (int n = 0; n < count; n++) {
+                int i = hash(items[n]) & mask;
+                while (table[i] != EMPTY)
+                    i = (i + 1) & mask;
+                table[i] = items[n];
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ h >>> 32);
+        }
+    }
+}
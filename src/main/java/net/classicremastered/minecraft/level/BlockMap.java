@@ -2,7 +2,10 @@ package net.classicremastered.minecraft.level;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import net.classicremastered.minecraft.Entity;
 import net.classicremastered.minecraft.model.Vec3D;
@@ -10,55 +13,44 @@ import net.classicremastered.minecraft.phys.AABB;
 import net.classicremastered.minecraft.render.Frustrum;
 import net.classicremastered.minecraft.render.TextureManager;
 import net.classicremastered.minecraft.entity.HeldBlockEntity;
+import net.classicremastered.minecraft.mob.Mob;
 import net.classicremastered.minecraft.player.Player;
+import net.classicremastered.minecraft.util.Profiler;
 
 
 public class BlockMap implements Serializable {
 
     public static final long serialVersionUID = 0L;
-    private int width;
-    private int depth;
-    private int height;
-    private BlockMap$Slot slot = new BlockMap$Slot(this, (SyntheticClass) null);
-    private BlockMap$Slot slot2 = new BlockMap$Slot(this, (SyntheticClass) null);
-    public List[] entityGrid;
-    public List<Entity> all = new ArrayList<>();
+    // spatial index over 'all'; rebuilt from it after deserialisation
+    private transient EntityGrid grid = new EntityGrid();
+    private transient EntityStore store = new EntityStore();
+    /** Every entity, unordered; an {@link EntityStore} that saves as a plain list. */
+    public List<Entity> all = store;
     private List<Entity> tmp = new ArrayList<>();
 
-    // New: infinite toggle
+    // Infinite worlds frustum-test each entity's box as well as its cell
     public boolean infiniteMode = false;
 
+    /** Threads for the mob sensing phase of {@link #tickAll}; 1 keeps it on the ticking thread. */
+    public static int senseThreads = Runtime.getRuntime().availableProcessors();
+    // fewer mobs than this sense on the ticking thread
+    private static final int MIN_PARALLEL_SENSE = 32;
+    private static ForkJoinPool sensePool;
+    private transient Mob[] senseMobs;
+
+    /** Dimensions are accepted for compatibility; the grid is unbounded. */
     public BlockMap(int w, int d, int h) {
-        this.width = w / 16;
-        this.depth = d / 16;
-        this.height = h / 16;
-        if (this.width == 0)
-            this.width = 1;
-        if (this.depth == 0)
-            this.depth = 1;
-        if (this.height == 0)
-            this.height = 1;
-
-        this.entityGrid = new ArrayList[this.width * this.depth * this.height];
-        for (int x = 0; x < this.width; ++x) {
-            for (int y = 0; y < this.depth; ++y) {
-                for (int z = 0; z < this.height; ++z) {
-                    this.entityGrid[(z * this.depth + y) * this.width + x] = new ArrayList<>();
-                }
-            }
-        }
     }
 
     public void insert(Entity e) {
+        boolean added;
         synchronized (this.all) {
-            this.all.add(e);
+            added = this.store.add(e);
         }
-        if (infiniteMode) {
-            synchronized (this.entityGrid[0]) {
-                this.entityGrid[0].add(e);
+        if (added) {
+            synchronized (this.grid) {
+                this.grid.add(e, e.x, e.y, e.z);
             }
-        } else {
-            this.slot.init(e.x, e.y, e.z).add(e);
         }
         e.xOld = e.x;
         e.yOld = e.y;
@@ -67,30 +59,45 @@ public class BlockMap implements Serializable {
     }
 
     public void remove(Entity e) {
-        if (infiniteMode) {
-            synchronized (this.entityGrid[0]) {
-                this.entityGrid[0].remove(e);
+        boolean removed;
+        synchronized (this.all) {
+            removed = this.store.contains(e) && this.store.remove(e);
+        }
+        if (removed) {
+            synchronized (this.grid) {
+                this.grid.remove(e, e.xOld, e.yOld, e.zOld);
             }
-        } else {
-            this.slot.init(e.xOld, e.yOld, e.zOld).remove(e);
         }
+    }
+
+    /**
+     * Generation-stamped handle of {@code e}, safe to hold across ticks: {@link #resolve}
+     * gives null once {@code e} has left this map. -1 if it is not in this map.
+     */
+    public long handleOf(Entity e) {
+        synchronized (this.all) {
+            return this.store.handleOf(e);
+        }
+    }
+
+    /** The entity behind {@code handle}, or null if it has been removed since. */
+    public Entity resolve(long handle) {
         synchronized (this.all) {
-            this.all.remove(e);
+            return this.store.resolve(handle);
         }
     }
 
+    /** Re-file {@code e} if it has left the cell it was filed under. */
     public void moved(Entity e) {
-        if (infiniteMode)
-            return; // all in one bucket
-        BlockMap$Slot a = this.slot.init(e.xOld, e.yOld, e.zOld);
-        BlockMap$Slot b = this.slot2.init(e.x, e.y, e.z);
-        if (!a.equals(b)) {
-            a.remove(e);
-            b.add(e);
-            e.xOld = e.x;
-            e.yOld = e.y;
-            e.zOld = e.z;
+        if (EntityGrid.sameCell(e.xOld, e.yOld, e.zOld, e.x, e.y, e.z))
+            return;
+        synchronized (this.grid) {
+            this.grid.remove(e, e.xOld, e.yOld, e.zOld);
+            this.grid.add(e, e.x, e.y, e.z);
         }
+        e.xOld = e.x;
+        e.yOld = e.y;
+        e.zOld = e.z;
     }
 
     public List<Entity> getEntities(Entity except, float x0, float y0, float z0, float x1, float y1, float z1) {
@@ -100,70 +107,30 @@ public class BlockMap implements Serializable {
 
     public List<Entity> getEntities(Entity except, float x0, float y0, float z0, float x1, float y1, float z1,
             List<Entity> out) {
-        if (infiniteMode) {
-            Entity[] entities;
-            synchronized (this.all) {
-                entities = this.all.toArray(new Entity[0]);
-            }
-            for (Entity e : entities) {
-                if (e != null && e != except && e.intersects(x0, y0, z0, x1, y1, z1)) {
-                    out.add(e);
-                }
-            }
-            return out;
-        }
-
-        BlockMap$Slot a = this.slot.init(x0, y0, z0);
-        BlockMap$Slot b = this.slot2.init(x1, y1, z1);
-
-        for (int xs = BlockMap$Slot.getXSlot(a) - 1; xs <= BlockMap$Slot.getXSlot(b) + 1; ++xs) {
-            for (int ys = BlockMap$Slot.getYSlot(a) - 1; ys <= BlockMap$Slot.getYSlot(b) + 1; ++ys) {
-                for (int zs = BlockMap$Slot.getZSlot(a) - 1; zs <= BlockMap$Slot.getZSlot(b) + 1; ++zs) {
-                    if (xs >= 0 && ys >= 0 && zs >= 0 && xs < this.width && ys < this.depth && zs < this.height) {
-                        List<Entity> cell = this.entityGrid[(zs * this.depth + ys) * this.width + xs];
-                        Entity[] entities;
-                        synchronized (cell) {
-                            entities = cell.toArray(new Entity[0]);
-                        }
-                        for (Entity e : entities) {
-                            if (e != null && e != except && e.intersects(x0, y0, z0, x1, y1, z1)) {
-                                out.add(e);
-                            }
-                        }
-                    }
-                }
-            }
+        synchronized (this.grid) {
+            this.grid.query(except, x0, y0, z0, x1, y1, z1, out);
         }
         return out;
     }
 
     public void removeAllNonCreativeModeEntities() {
-        if (infiniteMode) {
-            synchronized (this.all) {
-                for (int i = 0; i < all.size(); i++) {
-                    Entity e = all.get(i);
-                    if (!e.isCreativeModeAllowed()) {
-                        all.remove(i--);
-                        synchronized (this.entityGrid[0]) {
-                            this.entityGrid[0].remove(e);
-                        }
+        synchronized (this.all) {
+            // backwards, so a swapped-in entity has already been looked at
+            for (int i = all.size() - 1; i >= 0; i--) {
+                Entity e = all.get(i);
+                if (!e.isCreativeModeAllowed() && this.store.contains(e)) {
+                    this.store.remove(e);
+                    synchronized (this.grid) {
+                        this.grid.remove(e, e.xOld, e.yOld, e.zOld);
                     }
                 }
             }
-            return;
-        }
-        for (List<Entity> cell : this.entityGrid) {
-            synchronized (cell) {
-                cell.removeIf(e -> !e.isCreativeModeAllowed());
-            }
         }
     }
 
     public void clear() {
-        for (List<Entity> cell : this.entityGrid) {
-            synchronized (cell) {
-                cell.clear();
-            }
+        synchronized (this.grid) {
+            this.grid.clear();
         }
         synchronized (this.all) {
             this.all.clear();
@@ -179,54 +146,155 @@ public class BlockMap implements Serializable {
         return getEntities(except, box.x0, box.y0, box.z0, box.x1, box.y1, box.z1, out);
     }
 
+    /** Occupied grid cells. */
+    public int getCellCount() {
+        synchronized (this.grid) {
+            return this.grid.getCellCount();
+        }
+    }
+
+    /** Lock-free {@link #getEntities} for {@code AI.sense}; only valid during the sensing phase. */
+    public List<Entity> senseEntities(Entity except, AABB box, List<Entity> out) {
+        this.grid.query(except, box.x0, box.y0, box.z0, box.x1, box.y1, box.z1, out);
+        return out;
+    }
+
     public void tickAll() {
-        Entity[] entities;
+        tickAll(false);
+    }
+
+    /**
+     * Ticks every entity in list order, after a sensing phase in which each mob's AI
+     * looks at the world as it stands at the start of the tick. With
+     * {@code concurrentReads} that phase is spread over {@link #senseThreads}; it only
+     * reads, so the outcome does not depend on the thread count.
+     */
+    public void tickAll(boolean concurrentReads) {
+        // entities added during the tick wait for the next one; removals are applied at the end
+        int n;
         synchronized (this.all) {
-            entities = this.all.toArray(new Entity[0]);
+            n = this.store.beginIteration();
+        }
+        try {
+            long senseStart = Profiler.start();
+            sense(n, concurrentReads);
+            Profiler.end(Profiler.SENSE, senseStart);
+            for (int i = 0; i < n && i < this.store.size(); ++i) {
+                Entity e = this.store.get(i);
+                long tickStart = Profiler.start();
+                e.tick();
+                Profiler.entity(e.getClass(), tickStart);
+                if (e.removed) {
+                    remove(e);
+                } else if (this.store.contains(e)) { // not taken out earlier this tick
+                    moved(e);
+                }
+            }
+        } finally {
+            synchronized (this.all) {
+                this.store.endIteration();
+            }
         }
-        for (int i = 0; i < entities.length; ++i) {
-            Entity e = entities[i];
-            if (e == null) continue;
-            e.tick();
-            if (e.removed) {
-                synchronized (this.all) {
-                    this.all.remove(e);
+    }
+
+    private void sense(int n, boolean concurrentReads) {
+        Mob[] mobs = this.senseMobs;
+        if (mobs == null || mobs.length < n)
+            mobs = this.senseMobs = new Mob[Math.max(n, 16)];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            Entity e = this.store.get(i);
+            if (e instanceof Mob && ((Mob) e).ai != null && !e.removed)
+                mobs[count++] = (Mob) e;
+        }
+        // hold the grid so nothing re-files an entity while workers query it
+        synchronized (this.grid) {
+            ForkJoinPool pool = concurrentReads && count >= MIN_PARALLEL_SENSE ? sensePool() : null;
+            if (pool == null) {
+                senseRange(mobs, 0, count);
+            } else {
+                Mob[] m = mobs;
+                int slices = Math.min(count, pool.getParallelism() * 4);
+                ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[slices];
+                for (int s = 0; s < slices; s++) {
+                    int from = (int) ((long) count * s / slices), to = (int) ((long) count * (s + 1) / slices);
+                    tasks[s] = pool.submit(() -> senseRange(m, from, to));
                 }
-                if (infiniteMode) {
-                    synchronized (this.entityGrid[0]) {
-                        this.entityGrid[0].remove(e);
+                // wait for every slice before the grid is released, even if one failed
+                RuntimeException failure = null;
+                for (ForkJoinTask<?> t : tasks) {
+                    try {
+                        t.join();
+                    } catch (RuntimeException ex) {
+                        if (failure == null)
+                            failure = ex;
                     }
-                } else {
-                    this.slot.init(e.xOld, e.yOld, e.zOld).remove(e);
-                }
-            } else if (!infiniteMode) {
-                int sx = (int) (e.xOld / 16.0F);
-                int sy = (int) (e.yOld / 16.0F);
-                int sz = (int) (e.zOld / 16.0F);
-                int sx2 = (int) (e.x / 16.0F);
-                int sy2 = (int) (e.y / 16.0F);
-                int sz2 = (int) (e.z / 16.0F);
-                if (sx != sx2 || sy != sy2 || sz != sz2) {
-                    moved(e);
                 }
+                if (failure != null)
+                    throw failure;
             }
         }
+        Arrays.fill(mobs, 0, count, null);
+    }
+
+    private static void senseRange(Mob[] mobs, int from, int to) {
+        for (int i = from; i < to; i++)
+            mobs[i].ai.sense(mobs[i].level, mobs[i]);
+    }
+
+    private static synchronized ForkJoinPool sensePool() {
+        int threads = senseThreads;
+        if (threads <= 1)
+            return null;
+        if (sensePool == null || sensePool.getParallelism() != threads) {
+            if (sensePool != null)
+                sensePool.shutdown();
+            sensePool = new ForkJoinPool(threads);
+        }
+        return sensePool;
     }
 
     public void render(Vec3D cam, Frustrum fr, TextureManager tex, float partial) {
-        // Render all HeldBlockEntity first, bypassing frustum check and infiniteMode check
-        Entity[] entities;
         synchronized (this.all) {
-            entities = this.all.toArray(new Entity[0]);
+            renderUnculled(tex, partial);
         }
-        for (Entity e : entities) {
+
+        synchronized (this.grid) {
+            for (EntityGrid.Cell cell : this.grid.cells()) {
+                if (cell == null)
+                    continue;
+                float x0 = (float) ((cell.x << 4) - 2);
+                float y0 = (float) ((cell.y << 4) - 2);
+                float z0 = (float) ((cell.z << 4) - 2);
+                if (!fr.isBoxInFrustrum(x0, y0, z0, x0 + 20.0F, y0 + 20.0F, z0 + 20.0F))
+                    continue;
+                for (int i = 0; i < cell.count; i++) {
+                    Entity e = cell.items[i];
+                    if (e == null || e.removed || e instanceof HeldBlockEntity || !e.shouldRender(cam))
+                        continue;
+                    if (infiniteMode) {
+                        AABB bb = e.bb;
+                        if (bb == null || !fr.isBoxInFrustrum(bb.x0, bb.y0, bb.z0, bb.x1, bb.y1, bb.z1))
+                            continue;
+                    }
+                    e.render(tex, partial);
+                }
+            }
+        }
+    }
+
+    private void renderUnculled(TextureManager tex, float partial) {
+        // Render all HeldBlockEntity first, bypassing frustum check and infiniteMode check
+        for (int i = 0; i < this.store.size(); i++) {
+            Entity e = this.store.get(i);
             if (e instanceof HeldBlockEntity && !e.removed) {
                 e.render(tex, partial);
             }
         }
 
         // Draw gravity gun and physics gun beams for grabbed mobs
-        for (Entity e : entities) {
+        for (int i = 0; i < this.store.size(); i++) {
+            Entity e = this.store.get(i);
             if (e instanceof Player) {
                 Player p = (Player) e;
                 int selId = p.inventory.getSelected();
@@ -245,57 +313,25 @@ public class BlockMap implements Serializable {
             }
         }
 
-        if (infiniteMode) {
-            for (Entity e : entities) {
-                if (e != null && !e.removed && !(e instanceof HeldBlockEntity) && e.shouldRender(cam)) {
-                    AABB bb = e.bb;
-                    if (bb != null && fr.isBoxInFrustrum(bb.x0, bb.y0, bb.z0, bb.x1, bb.y1, bb.z1)) {
-                        e.render(tex, partial);
-                    }
-                }
-            }
-            return;
-        }
-
-        // === finite path ===
-        for (int x = 0; x < this.width; ++x) {
-            float x0 = (float) ((x << 4) - 2);
-            float x1 = (float) ((x + 1 << 4) + 2);
-            for (int y = 0; y < this.depth; ++y) {
-                float y0 = (float) ((y << 4) - 2);
-                float y1 = (float) ((y + 1 << 4) + 2);
-                for (int z = 0; z < this.height; ++z) {
-                    List<Entity> cell = this.entityGrid[(z * this.depth + y) * this.width + x];
-                    if (!cell.isEmpty()) {
-                        float z0 = (float) ((z << 4) - 2);
-                        float z1 = (float) ((z + 1 << 4) + 2);
-                        if (fr.isBoxInFrustrum(x0, y0, z0, x1, y1, z1)) {
-                            Entity[] cellEntities;
-                            synchronized (cell) {
-                                cellEntities = cell.toArray(new Entity[0]);
-                            }
-                            for (Entity e : cellEntities) {
-                                if (e != null && !(e instanceof HeldBlockEntity) && e.shouldRender(cam)) {
-                                    e.render(tex, partial);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
-    }
-
-    // synthetic helpers
-    static int getWidth(BlockMap m) {
-        return m.width;
-    }
-
-    static int getDepth(BlockMap m) {
-        return m.depth;
     }
 
-    static int getHeight(BlockMap m) {
-        return m.height;
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.grid = new EntityGrid();
+        this.store = new EntityStore();
+        List<Entity> saved = this.all;
+        this.all = this.store;
+        if (this.tmp == null)
+            this.tmp = new ArrayList<>();
+        if (saved == null)
+            return;
+        for (Entity e : saved) {
+            if (e == null || !this.store.add(e))
+                continue;
+            this.grid.add(e, e.x, e.y, e.z);
+            e.xOld = e.x;
+            e.yOld = e.y;
+            e.zOld = e.z;
+        }
     }
 }
@@ -0,0 +1,228 @@
+package net.classicremastered.minecraft.level;
+
+import java.util.Arrays;
+import java.util.List;
+
+import net.classicremastered.minecraft.Entity;
+
+/**
+ * Unbounded spatial hash of entities in 16-block cells, used by {@link BlockMap}.
+ * <p>
+ * Cells are keyed by {@link Level#getCoordKey} of the cell coordinates in an
+ * open-addressing long map, so finite and infinite worlds share one layout and
+ * empty space costs nothing. Entities are filed by centre; range queries scan one
+ * extra cell on each side to catch boxes overhanging their cell. Not thread-safe,
+ * {@link BlockMap} locks around it.
+ */
+final class EntityGrid {
+
+    static final int SHIFT = 4;
+
+    private long[] keys = new long[64];
+    private Cell[] cells = new Cell[64];
+    private int size;
+    private Cell pool;
+
+    /** Entities of one cell, unordered; each knows its index through {@link Entity#gridSlot}. */
+    static final class Cell {
+        int x, y, z;
+        Entity[] items = new Entity[8];
+        int count;
+        Cell next; // pool link
+
+        void add(Entity e) {
+            if (count == items.length)
+                items = Arrays.copyOf(items, count * 2);
+            e.gridSlot = count;
+            items[count++] = e;
+        }
+
+        boolean remove(Entity e) {
+            int i = e.gridSlot;
+            if (i < 0 || i >= count || items[i] != e) {
+                for (i = 0; i < count && items[i] != e; ++i) {
+                }
+                if (i == count)
+                    return false;
+            }
+            Entity last = items[--count];
+            items[i] = last;
+            last.gridSlot = i;
+            items[count] = null;
+            return true;
+        }
+    }
+
+    static int cell(float v) {
+        return (int) Math.floor(v) >> SHIFT;
+    }
+
+    static boolean sameCell(float x0, float y0, float z0, float x1, float y1, float z1) {
+        return cell(x0) == cell(x1) && cell(y0) == cell(y1) && cell(z0) == cell(z1);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (cells[i] != null) {
+            if (keys[i] == key)
+                return i;
+            i = (i + 1) & mask;
+        }
+        return ~i;
+    }
+
+    private Cell get(int cx, int cy, int cz) {
+        int i = slot(Level.getCoordKey(cx, cy, cz));
+        return i >= 0 ? cells[i] : null;
+    }
+
+    /** File {@code e} under the cell containing (x, y, z). */
+    void add(Entity e, float x, float y, float z) {
+        int cx = cell(x), cy = cell(y), cz = cell(z);
+        long key = Level.getCoordKey(cx, cy, cz);
+        int i = slot(key);
+        Cell c;
+        if (i >= 0) {
+            c = cells[i];
+        } else {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+                i = slot(key);
+            }
+            i = ~i;
+            c = pool;
+            if (c != null) {
+                pool = c.next;
+                c.next = null;
+            } else {
+                c = new Cell();
+            }
+            c.x = cx;
+            c.y = cy;
+            c.z = cz;
+            keys[i] = key;
+            cells[i] = c;
+            size++;
+        }
+        c.add(e);
+    }
+
+    /**
+     * Unfile {@code e} from the cell containing (x, y, z), falling back to a scan of
+     * every cell if it is not there (position changed behind the grid's back).
+     */
+    boolean remove(Entity e, float x, float y, float z) {
+        int i = slot(Level.getCoordKey(cell(x), cell(y), cell(z)));
+        if (i >= 0 && cells[i].remove(e)) {
+            if (cells[i].count == 0)
+                release(i);
+            return true;
+        }
+        for (i = 0; i < cells.length; ++i) {
+            if (cells[i] != null && cells[i].remove(e)) {
+                if (cells[i].count == 0)
+                    release(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Append entities whose boxes intersect the given box, except {@code except}. */
+    void query(Entity except, float x0, float y0, float z0, float x1, float y1, float z1, List<Entity> out) {
+        int cx0 = cell(x0) - 1, cx1 = cell(x1) + 1;
+        int cy0 = cell(y0) - 1, cy1 = cell(y1) + 1;
+        int cz0 = cell(z0) - 1, cz1 = cell(z1) + 1;
+        if ((long) (cx1 - cx0 + 1) * (cy1 - cy0 + 1) * (cz1 - cz0 + 1) > size) {
+            // box covers more cells than exist, walk the table instead
+            for (Cell c : cells) {
+                if (c != null && c.x >= cx0 && c.x <= cx1 && c.y >= cy0 && c.y <= cy1 && c.z >= cz0 && c.z <= cz1)
+                    collect(c, except, x0, y0, z0, x1, y1, z1, out);
+            }
+            return;
+        }
+        for (int cx = cx0; cx <= cx1; ++cx) {
+            for (int cy = cy0; cy <= cy1; ++cy) {
+                for (int cz = cz0; cz <= cz1; ++cz) {
+                    Cell c = get(cx, cy, cz);
+                    if (c != null)
+                        collect(c, except, x0, y0, z0, x1, y1, z1, out);
+                }
+            }
+        }
+    }
+
+    private static void collect(Cell c, Entity except, float x0, float y0, float z0, float x1, float y1, float z1,
+            List<Entity> out) {
+        Entity[] items = c.items;
+        for (int i = 0, n = c.count; i < n; ++i) {
+            Entity e = items[i];
+            if (e != except && e.intersects(x0, y0, z0, x1, y1, z1))
+                out.add(e);
+        }
+    }
+
+    /** Non-empty cells, for render culling. Slots may be null. */
+    Cell[] cells() {
+        return cells;
+    }
+
+    int getCellCount() {
+        return size;
+    }
+
+    void clear() {
+        for (int i = 0; i < cells.length; ++i) {
+            while (cells[i] != null) // release may shift a later cell into i
+                release(i);
+        }
+    }
+
+    // Return slot i's cell to the pool; backward-shift deletion keeps probe chains intact.
+    private void release(int i) {
+        Cell c = cells[i];
+        Arrays.fill(c.items, 0, c.count, null);
+        c.count = 0;
+        c.next = pool;
+        pool = c;
+
+        int mask = keys.length - 1;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (cells[j] == null)
+                break;
+            int home = hash(keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                cells[i] = cells[j];
+                i = j;
+            }
+        }
+        cells[i] = null;
+        size--;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Cell[] oldCells = cells;
+        keys = new long[oldKeys.length * 2];
+        cells = new Cell[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldCells[i] == null)
+                continue;
+            int j = hash(oldKeys[i]) & mask;
+            while (cells[j] != null)
+                j = (j + 1) & mask;
+            keys[j] = oldKeys[i];
+            cells[j] = oldCells[i];
+        }
+    }
+}
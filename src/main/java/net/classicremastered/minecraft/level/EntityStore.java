@@ -0,0 +1,195 @@
+package net.classicremastered.minecraft.level;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import net.classicremastered.minecraft.Entity;
+
+/**
+ * Dense entity list behind {@link BlockMap#all}.
+ * <p>
+ * Every entity gets a slot id ({@link Entity#storeId}) that stays fixed while it is
+ * stored; the slot maps to its position in the dense array, so removal swaps the last
+ * entity into the hole in O(1) instead of shifting. Freed slots bump a generation
+ * counter, making {@link #handleOf} handles safe to hold: {@link #resolve} returns null
+ * once the entity is gone, even if its slot has been reused.
+ * <p>
+ * While {@link #beginIteration} is in effect, removals are queued and applied by
+ * {@link #endIteration}, so positions below the size at the start stay put; additions
+ * append past it. Not thread-safe; {@link BlockMap} locks around it. Serializes as a
+ * plain {@link ArrayList} so saves keep their format.
+ */
+final class EntityStore extends AbstractList<Entity> implements RandomAccess, Serializable {
+
+    private static final long serialVersionUID = 0L;
+
+    private Entity[] dense = new Entity[64];
+    private int size;
+    // by slot id: position in dense (-1 when free), generation, queued for removal
+    private int[] position = new int[64];
+    private int[] generation = new int[64];
+    private boolean[] doomed = new boolean[64];
+    private int[] freeIds = new int[64];
+    private int freeCount;
+    private int nextId;
+
+    private boolean iterating;
+    private int[] pending = new int[16];
+    private int pendingCount;
+
+    @Override
+    public Entity get(int index) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException(index + " >= " + size);
+        return dense[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(Entity e) {
+        int id = e.storeId;
+        if (stores(e)) {
+            // re-added while its removal was queued: just cancel the removal
+            if (doomed[id]) {
+                doomed[id] = false;
+                return true;
+            }
+            return false;
+        }
+        id = allocate();
+        if (size == dense.length)
+            dense = Arrays.copyOf(dense, size * 2);
+        dense[size] = e;
+        position[id] = size++;
+        e.storeId = id;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Entity) || !stores((Entity) o))
+            return false;
+        Entity e = (Entity) o;
+        if (iterating) {
+            if (!doomed[e.storeId]) {
+                doomed[e.storeId] = true;
+                if (pendingCount == pending.length)
+                    pending = Arrays.copyOf(pending, pendingCount * 2);
+                pending[pendingCount++] = e.storeId;
+            }
+            return true;
+        }
+        unlink(e);
+        return true;
+    }
+
+    @Override
+    public Entity remove(int index) {
+        Entity e = get(index);
+        remove(e);
+        return e;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Entity && stores((Entity) o) && !doomed[((Entity) o).storeId];
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            Entity e = dense[i];
+            position[e.storeId] = -1;
+            generation[e.storeId]++;
+            doomed[e.storeId] = false;
+            e.storeId = -1;
+            dense[i] = null;
+        }
+        size = 0;
+        pendingCount = 0;
+        freeCount = 0;
+        nextId = 0;
+        modCount++;
+    }
+
+    /** Handle of {@code e}: slot id and generation; -1 if it is not stored here. */
+    long handleOf(Entity e) {
+        if (!stores(e))
+            return -1L;
+        return (long) generation[e.storeId] << 32 | e.storeId;
+    }
+
+    /** The entity {@code handle} was taken from, or null if it has since left the store. */
+    Entity resolve(long handle) {
+        int id = (int) handle;
+        if (handle < 0 || id >= nextId || generation[id] != (int) (handle >>> 32) || position[id] < 0
+                || doomed[id])
+            return null;
+        return dense[position[id]];
+    }
+
+    /** Queue removals until {@link #endIteration}; returns the current size. */
+    int beginIteration() {
+        iterating = true;
+        return size;
+    }
+
+    /** Apply the removals queued since {@link #beginIteration}. */
+    void endIteration() {
+        iterating = false;
+        for (int i = 0; i < pendingCount; i++) {
+            int id = pending[i];
+            if (doomed[id]) {
+                doomed[id] = false;
+                unlink(dense[position[id]]);
+            }
+        }
+        pendingCount = 0;
+    }
+
+    private boolean stores(Entity e) {
+        int id = e.storeId;
+        return id >= 0 && id < nextId && position[id] >= 0 && dense[position[id]] == e;
+    }
+
+    private void unlink(Entity e) {
+        int id = e.storeId;
+        int at = position[id];
+        Entity last = dense[--size];
+        dense[at] = last;
+        position[last.storeId] = at;
+        dense[size] = null;
+        position[id] = -1;
+        generation[id]++;
+        e.storeId = -1;
+        if (freeCount == freeIds.length)
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        freeIds[freeCount++] = id;
+        modCount++;
+    }
+
+    private int allocate() {
+        if (freeCount > 0)
+            return freeIds[--freeCount];
+        if (nextId == position.length) {
+            int n = nextId * 2;
+            position = Arrays.copyOf(position, n);
+            generation = Arrays.copyOf(generation, n);
+            doomed = Arrays.copyOf(doomed, n);
+        }
+        position[nextId] = -1;
+        return nextId++;
+    }
+
+    private Object writeReplace() {
+        return new ArrayList<>(this);
+    }
+}
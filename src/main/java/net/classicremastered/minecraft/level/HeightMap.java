@@ -0,0 +1,131 @@
+package net.classicremastered.minecraft.level;
+
+import net.classicremastered.minecraft.level.liquid.LiquidType;
+import net.classicremastered.minecraft.level.tile.Block;
+
+/**
+ * Per-column heights over a block array laid out {@code (y * sizeZ + z) * sizeX + x},
+ * as used by {@link Level#blocks} and SimpleChunk. Each map holds one above the highest
+ * matching block of a column, 0 if there is none; {@link #update} keeps them current
+ * on every write, so a lookup never scans.
+ */
+public final class HeightMap {
+
+    /** Any non-air block. */
+    public static final int ANY = 0;
+    /** Any non-air, non-liquid block; {@link Level#getHighestTile}. */
+    public static final int SURFACE = 1;
+    /** Opaque blocks, which stop sky light; see {@link Level#isLightBlocker}. */
+    public static final int LIGHT = 2;
+    public static final int MAPS = 3;
+
+    // per block id: bit n set if it counts for map n
+    private static final byte[] MASK = new byte[256];
+
+    static {
+        for (int id = 1; id < 256; id++) {
+            Block b = Block.blocks[id];
+            int m = 1 << ANY;
+            if (b != null) {
+                if (b.getLiquidType() == LiquidType.NOT_LIQUID)
+                    m |= 1 << SURFACE;
+                if (b.isOpaque())
+                    m |= 1 << LIGHT;
+            }
+            MASK[id] = (byte) m;
+        }
+    }
+
+    public final int sizeX, sizeZ, depth;
+    private final int area;
+    private final short[] heights; // [map * area + column]
+
+    public HeightMap(int sizeX, int sizeZ, int depth) {
+        this.sizeX = sizeX;
+        this.sizeZ = sizeZ;
+        this.depth = depth;
+        this.area = sizeX * sizeZ;
+        this.heights = new short[MAPS * area];
+    }
+
+    public boolean fits(int sizeX, int sizeZ, int depth) {
+        return this.sizeX == sizeX && this.sizeZ == sizeZ && this.depth == depth;
+    }
+
+    public int get(int map, int x, int z) {
+        return heights[map * area + z * sizeX + x];
+    }
+
+    /** Recompute every column from {@code blocks}. */
+    public void rebuild(byte[] blocks) {
+        for (int col = 0; col < area; col++) {
+            int found = 0;
+            for (int y = depth - 1; y >= 0 && found != (1 << MAPS) - 1; y--) {
+                int m = MASK[blocks[y * area + col] & 0xFF] & ~found;
+                for (int map = 0; map < MAPS; map++) {
+                    if ((m >> map & 1) != 0)
+                        heights[map * area + col] = (short) (y + 1);
+                }
+                found |= m;
+            }
+            for (int map = 0; map < MAPS; map++) {
+                if ((found >> map & 1) == 0)
+                    heights[map * area + col] = 0;
+            }
+        }
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(heights, (short) 0);
+    }
+
+    /**
+     * Account for the block now stored at (x, y, z). Only a block taken off the top
+     * of a column costs a scan, down to the next matching block.
+     *
+     * @return bit n set if map n changed
+     */
+    public int update(byte[] blocks, int x, int y, int z) {
+        int col = z * sizeX + x;
+        int m = MASK[blocks[y * area + col] & 0xFF];
+        int changed = 0;
+        for (int map = 0; map < MAPS; map++) {
+            int i = map * area + col;
+            int h = heights[i];
+            if ((m >> map & 1) != 0) {
+                if (y >= h) {
+                    heights[i] = (short) (y + 1);
+                    changed |= 1 << map;
+                }
+            } else if (y == h - 1) {
+                int ny = y - 1;
+                while (ny >= 0 && (MASK[blocks[ny * area + col] & 0xFF] >> map & 1) == 0)
+                    ny--;
+                heights[i] = (short) (ny + 1);
+                changed |= 1 << map;
+            }
+        }
+        return changed;
+    }
+
+    /** All maps, for saving alongside the blocks. */
+    public int[] toIntArray() {
+        int[] out = new int[heights.length];
+        for (int i = 0; i < out.length; i++)
+            out[i] = heights[i];
+        return out;
+    }
+
+    /** Map saved by {@link #toIntArray}, or null if it does not match these dimensions. */
+    public static HeightMap fromIntArray(int sizeX, int sizeZ, int depth, int[] data) {
+        HeightMap hm = new HeightMap(sizeX, sizeZ, depth);
+        if (data == null || data.length != hm.heights.length)
+            return null;
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] < 0 || data[i] > depth)
+                return null;
+            hm.heights[i] = (short) data[i];
+        }
+        return hm;
+    }
+}
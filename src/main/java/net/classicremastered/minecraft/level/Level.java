@@ -3,14 +3,18 @@ package net.classicremastered.minecraft.level;
 import net.classicremastered.minecraft.Entity;
 import net.classicremastered.minecraft.Minecraft;
 import net.classicremastered.minecraft.MovingObjectPosition;
+import net.classicremastered.minecraft.level.liquid.FlowLevels;
 import net.classicremastered.minecraft.level.liquid.LiquidType;
 import net.classicremastered.minecraft.level.tile.Block;
 import net.classicremastered.minecraft.mob.IronGolem;
 import net.classicremastered.minecraft.model.Vec3D;
 import net.classicremastered.minecraft.particle.ParticleManager;
+import net.classicremastered.minecraft.path.PathService;
 import net.classicremastered.minecraft.phys.AABB;
+import net.classicremastered.minecraft.phys.CollisionBuffer;
 import net.classicremastered.minecraft.player.Player;
 import net.classicremastered.minecraft.render.LevelRenderer;
+import net.classicremastered.minecraft.util.Profiler;
 import net.classicremastered.util.MathHelper;
 
 import java.io.Serializable;
@@ -35,12 +39,17 @@ public class Level implements Serializable {
     public float rotSpawn;
     protected transient ArrayList listeners = new ArrayList();
     protected transient int[] blockers;
+    /** Column heights over {@link #blocks}; loaded with the level or rebuilt on demand. */
+    transient HeightMap heights;
+    transient TickSections tickSections;
     public transient Random random = new Random();
     private transient int randId;
-    private transient ArrayList tickList;
+    protected transient TickScheduler tickScheduler;
     public BlockMap blockMap;
     private boolean networkMode;
     public transient Minecraft minecraft;
+    /** Optional observer of block writes; null on the client. */
+    public transient BlockChangeListener changeListener;
     public boolean creativeMode;
     public int waterLevel;
     public int skyColor; // --- Day/Night cycle ---
@@ -67,8 +76,12 @@ public class Level implements Serializable {
     public boolean forceRainbowSky = false;
     public transient LightEngine lightEngine = new LightEngine(this);
     public final LevelHelper helper;
+    private transient PathService pathService;
+    /** Propagated block light (0..15) parallel to {@link #blocks}, filled by LightEngine. */
+    public transient byte[] blockLight;
 
-    public transient java.util.HashMap<Long, Byte> flowLevels = new java.util.HashMap<>();
+    /** Finite-liquid flow levels, packed per {@link FlowLevels} beside {@link #blocks}; null until one is stored. */
+    public transient byte[] flowLevels;
 
     public static long getCoordKey(int x, int y, int z) {
         return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | ((long) y & 0xFFFL);
@@ -81,14 +94,9 @@ public class Level implements Serializable {
             return -1;
         }
 
-        if (this.flowLevels == null) {
-            this.flowLevels = new java.util.HashMap<>();
-        }
-
-        long key = getCoordKey(x, y, z);
-        Byte val = this.flowLevels.get(key);
-        if (val != null) {
-            return val.intValue();
+        int val = this.getStoredFlow(x, y, z);
+        if (val >= 0) {
+            return val;
         }
 
         if (tile == Block.STATIONARY_WATER.id || tile == Block.STATIONARY_LAVA.id) {
@@ -101,23 +109,41 @@ public class Level implements Serializable {
         return (tile == Block.WATER.id) ? 7 : 3;
     }
 
-    protected void updateFlowLevelMap(int x, int y, int z, int id) {
+    /** Flow level stored for (x, y, z), or -1 if none. */
+    public int getStoredFlow(int x, int y, int z) {
+        if (this.flowLevels == null || !this.isInBounds(x, y, z)) {
+            return -1;
+        }
+        return FlowLevels.get(this.flowLevels, (y * this.height + z) * this.width + x);
+    }
+
+    /** Store flow level {@code level} for (x, y, z), or clear it when {@code level} is negative. */
+    public void setFlowLevel(int x, int y, int z, int level) {
+        if (!this.isInBounds(x, y, z)) {
+            return;
+        }
         if (this.flowLevels == null) {
-            this.flowLevels = new java.util.HashMap<>();
+            if (level < 0) {
+                return;
+            }
+            this.flowLevels = new byte[FlowLevels.length(this.blocks.length)];
         }
+        FlowLevels.set(this.flowLevels, (y * this.height + z) * this.width + x, level);
+    }
+
+    protected void updateFlowLevelMap(int x, int y, int z, int id) {
         if (id == Block.WATER.id || id == Block.STATIONARY_WATER.id || id == Block.LAVA.id || id == Block.STATIONARY_LAVA.id) {
-            long key = getCoordKey(x, y, z);
-            if (!this.flowLevels.containsKey(key)) {
-                this.flowLevels.put(key, (byte) 0);
+            if (this.getStoredFlow(x, y, z) < 0) {
+                this.setFlowLevel(x, y, z, 0);
             }
         } else {
-            this.flowLevels.remove(getCoordKey(x, y, z));
+            this.setFlowLevel(x, y, z, -1);
         }
     }
 
     public Level() {
         this.randId = this.random.nextInt();
-        this.tickList = new ArrayList();
+        this.tickScheduler = new TickScheduler();
         this.networkMode = false;
         this.unprocessed = 0;
         this.tickCount = 0;
@@ -195,11 +221,17 @@ public class Level implements Serializable {
             this.listeners = new ArrayList();
             this.blockers = new int[this.width * this.height];
             Arrays.fill(this.blockers, this.depth);
-            this.flowLevels = new java.util.HashMap<>();
+            if (this.flowLevels != null && this.flowLevels.length != FlowLevels.length(this.blocks.length)) {
+                this.flowLevels = null;
+            }
             this.calcLightDepths(0, 0, this.width, this.height);
+            if (this.lightEngine == null) {
+                this.lightEngine = new LightEngine(this);
+            }
+            this.lightEngine.relightAll();
             this.random = new Random();
             this.randId = this.random.nextInt();
-            this.tickList = new ArrayList();
+            this.tickScheduler = new TickScheduler();
             if (this.waterLevel == 0) {
                 this.waterLevel = this.depth / 2;
             }
@@ -254,6 +286,9 @@ public class Level implements Serializable {
         this.height = var3;
         this.depth = var2;
         this.blocks = var4;
+        this.flowLevels = null;
+        this.heights = null;
+        this.tickSections = null;
         this.blockers = new int[var1 * var3];
         Arrays.fill(this.blockers, this.depth);
         this.calcLightDepths(0, 0, var1, var3);
@@ -262,7 +297,7 @@ public class Level implements Serializable {
             ((LevelRenderer) this.listeners.get(var1)).refresh();
         }
 
-        this.tickList.clear();
+        this.tickScheduler.clear();
         this.findSpawn();
         this.initTransient();
         System.gc();
@@ -298,11 +333,7 @@ public class Level implements Serializable {
             for (int var6 = var2; var6 < var2 + var4; ++var6) {
                 int var7 = this.blockers[var5 + var6 * this.width];
 
-                int var8;
-                for (var8 = this.depth - 1; var8 > 0 && !this.isLightBlocker(var5, var8, var6); --var8) {
-                    ;
-                }
-
+                int var8 = Math.max(this.heightMap().get(HeightMap.LIGHT, var5, var6) - 1, 0);
                 this.blockers[var5 + var6 * this.width] = var8;
                 if (var7 != var8) {
                     int var9 = var7 < var8 ? var7 : var8;
@@ -330,13 +361,86 @@ public class Level implements Serializable {
         return y < 0;
     }
 
+    /** Tickable-block counts per section of {@link #blocks}, rebuilt if the level was resized. */
+    protected TickSections tickSections() {
+        TickSections ts = this.tickSections;
+        if (ts == null || !ts.fits(this.width, this.height, this.depth)) {
+            ts = new TickSections(this.width, this.height, this.depth);
+            ts.rebuild(this.blocks);
+            this.tickSections = ts;
+        }
+        return ts;
+    }
+
+    /**
+     * Random-tick section column (sx, sz) of {@code blocks}, laid out as {@code sections}
+     * describes with its origin at world (x0, z0): {@link TickSections#TICKS_PER_SECTION}
+     * random cells of every section holding a tickable block. Liquids are skipped unless
+     * {@code liquids} is set.
+     */
+    protected final void randomTickColumn(TickSections sections, byte[] blocks, int sx, int sz, int x0, int z0,
+            boolean liquids) {
+        int sizeX = sections.sizeX, sizeZ = sections.sizeZ;
+        for (int sy = 0; sy < sections.countY; ++sy) {
+            if (sections.get(sx, sy, sz) == 0) {
+                continue;
+            }
+            for (int i = 0; i < TickSections.TICKS_PER_SECTION; ++i) {
+                this.randId = this.randId * 3 + 1013904223;
+                int r = this.randId >> 2;
+                int x = sx << 4 | r & 15;
+                int y = sy << 4 | r >> 4 & 15;
+                int z = sz << 4 | r >> 8 & 15;
+                if (x >= sizeX || y >= sections.depth || z >= sizeZ) {
+                    continue;
+                }
+                int id = blocks[(y * sizeZ + z) * sizeX + x] & 0xFF;
+                if (Block.physics[id] && (liquids || Block.blocks[id].getLiquidType() == LiquidType.NOT_LIQUID)) {
+                    Block.blocks[id].update(this, x0 + x, y, z0 + z, this.random);
+                }
+            }
+        }
+    }
+
+    /** Heights of {@link #blocks}, rebuilt if the level has none or was resized. */
+    protected HeightMap heightMap() {
+        HeightMap hm = this.heights;
+        if (hm == null || !hm.fits(this.width, this.height, this.depth)) {
+            hm = new HeightMap(this.width, this.height, this.depth);
+            hm.rebuild(this.blocks);
+            this.heights = hm;
+        }
+        return hm;
+    }
+
+    /** One above the highest block in column (x, z) counting for {@code map} (see {@link HeightMap}); 0 if none. */
+    public int getColumnHeight(int map, int x, int z) {
+        if (x < 0 || z < 0 || x >= this.width || z >= this.height)
+            return 0;
+        return this.heightMap().get(map, x, z);
+    }
+
     public boolean isLightBlocker(int var1, int var2, int var3) {
         Block var4;
         return (var4 = Block.blocks[this.getTile(var1, var2, var3)]) == null ? false : var4.isOpaque();
     }
 
     public ArrayList getCubes(AABB box) {
-        ArrayList out = new ArrayList();
+        CollisionBuffer buf = CollisionBuffer.get();
+        this.getCubes(box, buf);
+        ArrayList out = new ArrayList(buf.size());
+        for (int i = 0; i < buf.size(); ++i) {
+            out.add(buf.toAABB(i));
+        }
+        return out;
+    }
+
+    /**
+     * Clear {@code out} and fill it with the collision boxes touching {@code box},
+     * without allocating. Same boxes, same order as {@link #getCubes(AABB)}.
+     */
+    public void getCubes(AABB box, CollisionBuffer out) {
+        out.clear();
 
         int x0 = (int) Math.floor(box.x0);
         int x1 = (int) Math.floor(box.x1);
@@ -348,14 +452,9 @@ public class Level implements Serializable {
         for (int x = x0; x <= x1; ++x) {
             for (int y = y0; y <= y1; ++y) {
                 for (int z = z0; z <= z1; ++z) {
-                    AABB bb;
-
                     // --- Classic behavior: bedrock outside borders or below 0 ---
                     if (y < 0 || x < 0 || z < 0 || x >= this.width || z >= this.height) {
-                        bb = Block.BEDROCK.getCollisionBox(x, y, z);
-                        if (bb != null && box.intersectsInner(bb)) {
-                            out.add(bb);
-                        }
+                        Block.BEDROCK.addCollisionBox(x, y, z, box, out);
                         continue;
                     }
 
@@ -369,14 +468,10 @@ public class Level implements Serializable {
                     if (b == null)
                         continue;
 
-                    bb = b.getCollisionBox(x, y, z);
-                    if (bb != null && box.intersectsInner(bb)) {
-                        out.add(bb);
-                    }
+                    b.addCollisionBox(x, y, z, box, out);
                 }
             }
         }
-        return out;
     }
 
     public void swap(int var1, int var2, int var3, int var4, int var5, int var6) {
@@ -407,7 +502,13 @@ public class Level implements Serializable {
                 int idx = (var2 * this.height + var3) * this.width + var1;
                 int prevId = this.blocks[idx] & 0xFF;
                 this.blocks[idx] = (byte) var4;
+                this.heightMap().update(this.blocks, var1, var2, var3);
+                this.tickSections().update(prevId, var4, var1, var2, var3);
                 this.updateFlowLevelMap(var1, var2, var3, var4);
+                if (this.changeListener != null) {
+                    // before onRemoved/onAdded, which may write this cell again
+                    this.changeListener.blockChanged(var1, var2, var3, var4);
+                }
                 if (prevId != 0) {
                     Block.blocks[prevId].onRemoved(this, var1, var2, var3);
                 }
@@ -420,6 +521,7 @@ public class Level implements Serializable {
                 }
 
                 this.calcLightDepths(var1, var3, 1, 1);
+                this.lightEngine.onBlockChanged(var1, var2, var3);
 
                 for (var4 = 0; var4 < this.listeners.size(); ++var4) {
                     ((LevelRenderer) this.listeners.get(var4)).queueChunks(var1 - 1, var2 - 1, var3 - 1, var1 + 1,
@@ -450,6 +552,133 @@ public class Level implements Serializable {
         }
     }
 
+    /**
+     * {@link #setTile} for every write in {@code batch}, with the follow-up work done
+     * once for the whole batch instead of once per block. Returns how many blocks
+     * changed. The batch is left as it was, so it may be applied elsewhere or cleared.
+     */
+    public int applyEdits(BlockEditBatch batch) {
+        if (this.networkMode || batch.size == 0) {
+            return 0;
+        }
+        batch.resetScratch();
+
+        // writes, in order; the per-block hooks still run as each block lands
+        for (int i = 0; i < batch.size; ++i) {
+            long cell = batch.cells[i];
+            int x = BlockEditBatch.keyX(cell), y = BlockEditBatch.keyY(cell), z = BlockEditBatch.keyZ(cell);
+            int id = batch.ids[i] & 0xFF;
+            if (x < 0 || y < 0 || z < 0 || x >= this.width || y >= this.depth || z >= this.height) {
+                continue;
+            }
+            if (id == 0 && (x == 0 || z == 0 || x == this.width - 1 || z == this.height - 1)
+                    && (float) y >= this.getGroundLevel() && (float) y < this.getWaterLevel()) {
+                id = Block.WATER.id;
+            }
+            int idx = (y * this.height + z) * this.width + x;
+            int prevId = this.blocks[idx] & 0xFF;
+            if (prevId == id) {
+                continue;
+            }
+            this.blocks[idx] = (byte) id;
+            this.heightMap().update(this.blocks, x, y, z);
+            this.tickSections().update(prevId, id, x, y, z);
+            this.updateFlowLevelMap(x, y, z, id);
+            if (this.changeListener != null) {
+                this.changeListener.blockChanged(x, y, z, id);
+            }
+            if (prevId != 0) {
+                Block.blocks[prevId].onRemoved(this, x, y, z);
+            }
+            if (id != 0) {
+                Block.blocks[id].onAdded(this, x, y, z);
+            }
+            batch.addChanged(cell);
+            batch.columns.add(getCoordKey(x, 0, z));
+        }
+        int changed = batch.changedCount;
+        if (changed == 0) {
+            return 0;
+        }
+
+        // light depths, once per column
+        for (int i = 0; i < batch.columns.size(); ++i) {
+            long col = batch.columns.get(i);
+            int x = BlockEditBatch.keyX(col), z = BlockEditBatch.keyZ(col);
+            int prev = this.blockers[x + z * this.width];
+            int now = Math.max(this.heightMap().get(HeightMap.LIGHT, x, z) - 1, 0);
+            if (prev != now) {
+                this.blockers[x + z * this.width] = now;
+                if (!this.listeners.isEmpty())
+                    markRenderChunks(batch, x - 1, Math.min(prev, now) - 1, z - 1, x + 1, Math.max(prev, now) + 1, z + 1);
+            }
+        }
+
+        this.lightEngine.onBlocksChanged(batch.changed, changed);
+
+        // one queue per touched render chunk
+        for (int i = 0; i < changed && !this.listeners.isEmpty(); ++i) {
+            long cell = batch.changed[i];
+            int x = BlockEditBatch.keyX(cell), y = BlockEditBatch.keyY(cell), z = BlockEditBatch.keyZ(cell);
+            markRenderChunks(batch, x - 1, y - 1, z - 1, x + 1, y + 1, z + 1);
+        }
+        for (int i = 0; i < batch.renderChunks.size(); ++i) {
+            long c = batch.renderChunks.get(i);
+            int x = BlockEditBatch.keyX(c) << 4, y = BlockEditBatch.keyY(c) << 4, z = BlockEditBatch.keyZ(c) << 4;
+            for (int l = 0; l < this.listeners.size(); ++l) {
+                ((LevelRenderer) this.listeners.get(l)).queueChunks(x, y, z, x, y, z);
+            }
+        }
+
+        // each neighbour hears about the batch once
+        for (int i = 0; i < changed; ++i) {
+            long cell = batch.changed[i];
+            int x = BlockEditBatch.keyX(cell), y = BlockEditBatch.keyY(cell), z = BlockEditBatch.keyZ(cell);
+            int id = this.getTile(x, y, z);
+            for (int d = 0; d < 6; ++d) {
+                int nx = x + (d == 0 ? -1 : d == 1 ? 1 : 0);
+                int ny = y + (d == 2 ? -1 : d == 3 ? 1 : 0);
+                int nz = z + (d == 4 ? -1 : d == 5 ? 1 : 0);
+                // air has no neighbour hook, so it is never queued
+                if (nx >= 0 && ny >= 0 && nz >= 0 && nx < this.width && ny < this.depth && nz < this.height
+                        && this.blocks[(ny * this.height + nz) * this.width + nx] != 0) {
+                    batch.addNeighbour(getCoordKey(nx, ny, nz), id);
+                }
+            }
+        }
+        for (int i = 0; i < batch.neighbours.size(); ++i) {
+            long cell = batch.neighbours.get(i);
+            this.updateTile(BlockEditBatch.keyX(cell), BlockEditBatch.keyY(cell), BlockEditBatch.keyZ(cell),
+                    batch.neighbourIds[i]);
+        }
+
+        for (int i = 0; i < changed; ++i) {
+            long cell = batch.changed[i];
+            int x = BlockEditBatch.keyX(cell), y = BlockEditBatch.keyY(cell), z = BlockEditBatch.keyZ(cell);
+            if (this.getTile(x, y, z) == Block.PUMPKIN.id) {
+                trySpawnIronGolem(x, y, z);
+            }
+        }
+        return changed;
+    }
+
+    // render chunks (16^3) overlapping the box, clamped to the level
+    private void markRenderChunks(BlockEditBatch batch, int x0, int y0, int z0, int x1, int y1, int z1) {
+        x0 = Math.max(0, x0) >> 4;
+        y0 = Math.max(0, y0) >> 4;
+        z0 = Math.max(0, z0) >> 4;
+        x1 = Math.min(this.width - 1, x1) >> 4;
+        y1 = Math.min(this.depth - 1, y1) >> 4;
+        z1 = Math.min(this.height - 1, z1) >> 4;
+        for (int cx = x0; cx <= x1; ++cx) {
+            for (int cy = y0; cy <= y1; ++cy) {
+                for (int cz = z0; cz <= z1; ++cz) {
+                    batch.renderChunks.add(getCoordKey(cx, cy, cz));
+                }
+            }
+        }
+    }
+
     // added helper
     private void trySpawnIronGolem(int x, int y, int z) {
         // check block below is iron
@@ -525,8 +754,16 @@ public class Level implements Serializable {
             if (var4 == this.blocks[(var2 * this.height + var3) * this.width + var1]) {
                 return false;
             } else {
-                 this.blocks[(var2 * this.height + var3) * this.width + var1] = (byte) var4;
+                 int idx = (var2 * this.height + var3) * this.width + var1;
+                 int prevId = this.blocks[idx];
+                 this.blocks[idx] = (byte) var4;
+                 this.heightMap().update(this.blocks, var1, var2, var3);
+                 this.tickSections().update(prevId, var4, var1, var2, var3);
                  this.updateFlowLevelMap(var1, var2, var3, var4);
+                 this.lightEngine.onBlockChanged(var1, var2, var3);
+                 if (this.changeListener != null) {
+                     this.changeListener.blockChanged(var1, var2, var3, var4);
+                 }
                  return true;
              }
         } else {
@@ -551,6 +788,31 @@ public class Level implements Serializable {
                 : true;
     }
 
+    /** True if (x,y,z) has block-light storage (in bounds / chunk loaded). */
+    public boolean hasBlockLight(int x, int y, int z) {
+        return this.blockLight != null && x >= 0 && y >= 0 && z >= 0 && x < this.width && y < this.depth
+                && z < this.height;
+    }
+
+    /** Stored block light 0..15; 0 where nothing is stored. */
+    public int getBlockLight(int x, int y, int z) {
+        return this.hasBlockLight(x, y, z) ? this.blockLight[(y * this.height + z) * this.width + x] : 0;
+    }
+
+    /** Raw store used by LightEngine; does not notify renderers. */
+    public void setBlockLight(int x, int y, int z, int value) {
+        if (this.hasBlockLight(x, y, z)) {
+            this.blockLight[(y * this.height + z) * this.width + x] = (byte) value;
+        }
+    }
+
+    /** Called by LightEngine once per update with the bounds of the cells it relit. */
+    public void onBlockLightChanged(int x0, int y0, int z0, int x1, int y1, int z1) {
+        for (int i = 0; i < this.listeners.size(); ++i) {
+            ((LevelRenderer) this.listeners.get(i)).queueChunks(x0 - 1, y0 - 1, z0 - 1, x1 + 1, y1 + 1, z1 + 1);
+        }
+    }
+
     public int getTile(int var1, int var2, int var3) {
         return var1 >= 0 && var2 >= 0 && var3 >= 0 && var1 < this.width && var2 < this.depth && var3 < this.height
                 ? this.blocks[(var2 * this.height + var3) * this.width + var1] & 255
@@ -563,7 +825,21 @@ public class Level implements Serializable {
     }
 
     public void tickEntities() {
-        this.blockMap.tickAll();
+        this.blockMap.tickAll(this.hasConcurrentReads());
+    }
+
+    /**
+     * True if getTile and entity lookups may run on several threads at once while no
+     * block changes, so mob AI can sense in parallel. Levels that load chunks on
+     * demand from getTile return false.
+     */
+    public boolean hasConcurrentReads() {
+        return true;
+    }
+
+    /** {@link #findEntities} for {@code AI.sense}: fills {@code out}, takes no lock. */
+    public List<Entity> senseEntities(Entity except, AABB box, List<Entity> out) {
+        return this.blockMap.senseEntities(except, box, out);
     }
 
 // Level fields
@@ -602,70 +878,55 @@ public class Level implements Serializable {
         if (doDayNightCycle) {
             tickTime();
             updateDayNightColorsSmooth();
-
-            // Ask LightEngine if skylight changed enough to rebuild chunks
-            if (lightEngine.shouldRefreshChunks()) {
-                for (int i = 0; i < listeners.size(); i++) {
-                    ((net.classicremastered.minecraft.render.LevelRenderer) listeners.get(i)).refresh();
-                }
-            }
-        }
-
-        int var1 = 1;
-        int var2;
-        for (var2 = 1; 1 << var1 < this.width; ++var1) {
-        }
-        while (1 << var2 < this.height) {
-            ++var2;
+            // skylight changes reach the chunks through the renderer's LightMap; no rebuild
         }
 
         // ---- Scheduled block ticks (RAM safe with cap) ----
-        int size = this.tickList.size();
+        long phase = Profiler.start();
+        TickScheduler ticks = this.tickScheduler;
         int processed = 0;
-        int maxPerTick = 500; // cap to avoid runaway
-        for (int i = 0; i < size && processed < maxPerTick; ++i) {
-            NextTickListEntry e = (NextTickListEntry) this.tickList.remove(0);
-            if (e.ticks > 0) {
-                --e.ticks;
-                this.tickList.add(e);
-            } else {
-                if (this.isInBounds(e.x, e.y, e.z)) {
-                    int id = this.blocks[(e.y * this.height + e.z) * this.width + e.x] & 0xFF;
-                    if (id == e.block && id > 0) {
-                        boolean isLiquid = (id == Block.WATER.id || id == Block.STATIONARY_WATER.id
-                                || id == Block.LAVA.id || id == Block.STATIONARY_LAVA.id);
-
-                        if (isLiquid || (this.tickCount % 5 == 0)) {
-                            Block.blocks[id].update(this, e.x, e.y, e.z, this.random);
-                        } else {
-                            // reschedule non-liquid blocks until next batch
-                            e.ticks = 1;
-                            this.tickList.add(e);
-                        }
+        int maxPerTick = 500; // cap to avoid runaway; leftovers stay due for next tick
+        while (processed < maxPerTick && ticks.poll(this.tickCount)) {
+            int x = ticks.x, y = ticks.y, z = ticks.z, block = ticks.block;
+            if (this.isInBounds(x, y, z)) {
+                int id = this.blocks[(y * this.height + z) * this.width + x] & 0xFF;
+                if (id == block && id > 0) {
+                    boolean isLiquid = (id == Block.WATER.id || id == Block.STATIONARY_WATER.id
+                            || id == Block.LAVA.id || id == Block.STATIONARY_LAVA.id);
+
+                    if (isLiquid || (this.tickCount % 5 == 0)) {
+                        Block.blocks[id].update(this, x, y, z, this.random);
+                    } else {
+                        // reschedule non-liquid blocks until next batch
+                        this.scheduleTick(x, y, z, id, 1);
                     }
                 }
             }
             processed++;
         }
-
-        // ---- Random block updates ----
-        this.unprocessed += this.width * this.height * this.depth;
-        int updates = this.unprocessed / 200;
-        this.unprocessed -= updates * 200;
-        for (int i = 0; i < updates; ++i) {
-            this.randId = this.randId * 3 + 1013904223;
-            int r = this.randId >> 2;
-            int x = r & (this.width - 1);
-            int z = (r >> var1) & (this.height - 1);
-            int y = (r >> (var1 + var2)) & (this.depth - 1);
-            int idx = (y * this.height + z) * this.width + x;
-            int id = this.blocks[idx] & 0xFF;
-            if (Block.physics[id]) {
-                Block.blocks[id].update(this, x, y, z, this.random);
+        Profiler.end(Profiler.SCHEDULED, phase);
+
+        // ---- Random block updates: non-empty sections near the player ----
+        phase = Profiler.start();
+        TickSections sections = this.tickSections();
+        int sx0 = 0, sz0 = 0, sx1 = sections.countX - 1, sz1 = sections.countZ - 1;
+        int radius = TickSections.simulationRadius;
+        if (radius > 0 && this.player != null) {
+            int px = (int) Math.floor(this.player.x) >> 4, pz = (int) Math.floor(this.player.z) >> 4;
+            sx0 = Math.max(sx0, px - radius);
+            sz0 = Math.max(sz0, pz - radius);
+            sx1 = Math.min(sx1, px + radius);
+            sz1 = Math.min(sz1, pz + radius);
+        }
+        for (int sz = sz0; sz <= sz1; ++sz) {
+            for (int sx = sx0; sx <= sx1; ++sx) {
+                this.randomTickColumn(sections, this.blocks, sx, sz, 0, 0, true);
             }
         }
+        Profiler.end(Profiler.RANDOM_UPDATES, phase);
 
         // ---- Despawn pass ----
+        phase = Profiler.start();
         if (!this.isNetworkMode() && this.blockMap != null && this.blockMap.all != null) {
             Player p = (this.player instanceof Player) ? (Player) this.player : null;
             for (int i = this.blockMap.all.size() - 1; i >= 0; --i) {
@@ -695,13 +956,16 @@ public class Level implements Serializable {
                 }
             }
         }
+        Profiler.end(Profiler.DESPAWN, phase);
 
         // ---- Universal mob spawning (RAM safe throttle) ----
         // Spawn whenever this level is authoritative (not a network-client/proxy).
         if (!this.isNetworkMode()) {
             if (this.tickCount % 20 == 0) { // once per second
+                phase = Profiler.start();
                 MobSpawner spawner = new MobSpawner(this);
                 spawner.spawn(6, this.player, null, true);
+                Profiler.end(Profiler.SPAWNER, phase);
             }
         }
     }
@@ -732,21 +996,6 @@ public class Level implements Serializable {
         return this.getWaterLevel() - 2.0F;
     }
 
-    private float lastDayFactor = -1f;
-
-// 0.25 at midnight .. 1.0 at noon (what you used inside getBrightness)
-
-    /** If daylight changed noticeably, force chunk rebuilds. */
-    private void notifyLightingDelta() {
-        float f = getDayFactor();
-        if (Math.abs(f - lastDayFactor) > 0.02f) { // ~2% step
-            lastDayFactor = f;
-            for (int i = 0; i < this.listeners.size(); i++) {
-                ((net.classicremastered.minecraft.render.LevelRenderer) this.listeners.get(i)).refresh();
-            }
-        }
-    }
-
     public float getWaterLevel() {
         return (float) this.waterLevel;
     }
@@ -868,15 +1117,30 @@ public class Level implements Serializable {
     }
 
     public void addToTickNextTick(int var1, int var2, int var3, int var4) {
-        if (!this.networkMode) {
-            NextTickListEntry var5 = new NextTickListEntry(var1, var2, var3, var4);
-            if (var4 > 0) {
-                var3 = Block.blocks[var4].getTickDelay();
-                var5.ticks = var3;
-            }
+        if (!this.networkMode && var4 > 0) {
+            this.scheduleTick(var1, var2, var3, var4, Block.blocks[var4].getTickDelay());
+        }
+    }
+
+    /**
+     * Queue a block tick {@code delay} ticks after the current one. Duplicate
+     * (x, y, z, block) entries already waiting are ignored.
+     */
+    protected void scheduleTick(int x, int y, int z, int block, int delay) {
+        this.tickScheduler.schedule(x, y, z, block, this.tickCount + delay + 1);
+    }
 
-            this.tickList.add(var5);
+    /** Scheduled-tick wheel; exposes pending/processed counters. */
+    public TickScheduler getTickScheduler() {
+        return this.tickScheduler;
+    }
+
+    /** Shared mob pathfinder for this level, created on first use. */
+    public PathService getPathService() {
+        if (this.pathService == null) {
+            this.pathService = new PathService(this);
         }
+        return this.pathService;
     }
 
     public boolean isFree(AABB var1) {
@@ -905,14 +1169,7 @@ public class Level implements Serializable {
     }
 
     public int getHighestTile(int var1, int var2) {
-        int var3;
-        for (var3 = this.depth; (this.getTile(var1, var3 - 1, var2) == 0
-                || Block.blocks[this.getTile(var1, var3 - 1, var2)].getLiquidType() != LiquidType.NOT_LIQUID)
-                && var3 > 0; --var3) {
-            ;
-        }
-
-        return var3;
+        return this.getColumnHeight(HeightMap.SURFACE, var1, var2);
     }
 
     public void setSpawnPos(int var1, int var2, int var3, float var4) {
@@ -1801,6 +2058,8 @@ public class Level implements Serializable {
         int var13;
         float var15;
         float var16;
+        BlockEditBatch edits = new BlockEditBatch();
+        int[] destroyed = new int[64];
         for (int var12 = var6; var12 < var7; ++var12) {
             for (var13 = var9 - 1; var13 >= var8; --var13) {
                 for (int var14 = var10; var14 < var11; ++var14) {
@@ -1812,13 +2071,22 @@ public class Level implements Serializable {
                             && var14 < this.height && var15 * var15 + var16 * var16 + var17 * var17 < var5 * var5
                             && (var19 = this.getTile(var12, var13, var14)) > 0 && Block.blocks[var19].canExplode()) {
                         Block.blocks[var19].dropItems(this, var12, var13, var14, 0.3F);
-                        this.setTile(var12, var13, var14, 0);
-                        Block.blocks[var19].explode(this, var12, var13, var14);
+                        if (edits.size() == destroyed.length) {
+                            destroyed = Arrays.copyOf(destroyed, destroyed.length * 2);
+                        }
+                        destroyed[edits.size()] = var19;
+                        edits.set(var12, var13, var14, 0);
                     }
                 }
             }
         }
 
+        // the whole crater as one edit: one light/neighbour/render pass instead of one per block
+        this.applyEdits(edits);
+        for (int i = 0; i < edits.size(); ++i) {
+            Block.blocks[destroyed[i]].explode(this, edits.getX(i), edits.getY(i), edits.getZ(i));
+        }
+
         List var18 = this.blockMap.getEntities(var1, (float) var6, (float) var8, (float) var10, (float) var7,
                 (float) var9, (float) var11);
 
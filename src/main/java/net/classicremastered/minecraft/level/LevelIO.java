@@ -9,6 +9,7 @@ import java.util.zip.GZIPOutputStream;
 
 import net.classicremastered.minecraft.Entity;
 import net.classicremastered.minecraft.ProgressBarDisplay;
+import net.classicremastered.minecraft.level.infinite.ChunkStorage;
 import net.classicremastered.minecraft.level.infinite.SimpleChunk;
 import net.classicremastered.minecraft.level.infinite.SimpleChunkManager;
 import net.classicremastered.nbt.*;
@@ -18,6 +19,9 @@ import net.classicremastered.nbt.*;
  *  v2 = Classic finite worlds (ObjectOutputStream(Level))
  *  v3 = Infinite flat worlds (seed + depth + modified chunks)
  *  v4 = Infinite terrain worlds (seed + depth + modified chunks)
+ *
+ * Infinite NBT saves keep their chunks in region files under {@code <file>.regions/}
+ * and only write chunks edited since the last save.
  */
 public final class LevelIO {
 
@@ -43,6 +47,11 @@ public final class LevelIO {
             if (dir != null && !dir.exists()) dir.mkdirs();
             File tmp = new File(file.getPath() + ".tmp");
 
+            SimpleChunkManager chunkMgr = chunkManagerOf(level);
+            if (chunkMgr != null) {
+                saveRegions(chunkMgr, regionDirFor(file));
+            }
+
             try (FileOutputStream fos = new FileOutputStream(tmp);
                  GZIPOutputStream gos = new GZIPOutputStream(fos);
                  DataOutputStream out = new DataOutputStream(gos)) {
@@ -69,6 +78,45 @@ public final class LevelIO {
         }
     }
 
+    // ----------------------------------------------------------------------
+    // REGIONS (infinite worlds)
+    // ----------------------------------------------------------------------
+    public static File regionDirFor(File levelFile) {
+        return new File(levelFile.getPath() + ".regions");
+    }
+
+    private static SimpleChunkManager chunkManagerOf(Level level) {
+        if (level instanceof LevelInfiniteFlat flat) return flat.chunks();
+        if (level instanceof LevelInfiniteTerrain terrain) return terrain.chunks();
+        return null;
+    }
+
+    /**
+     * Write dirty chunks into {@code regionDir}. Saving to a new location first copies the
+     * region files the world was paged from, so chunks currently unloaded come along.
+     */
+    private void saveRegions(SimpleChunkManager chunkMgr, File regionDir) throws IOException {
+        ChunkStorage current = chunkMgr.getStorage();
+        File from = current != null ? current.getDirectory() : null;
+        if (from == null || !from.getCanonicalFile().equals(regionDir.getCanonicalFile())) {
+            if (current != null) current.close();
+            File[] stale = regionDir.listFiles();
+            if (stale != null) {
+                for (File f : stale) f.delete(); // left over from an older world saved under this name
+            }
+            regionDir.mkdirs();
+            File[] src = from != null ? from.listFiles() : null;
+            if (src != null) {
+                for (File f : src) {
+                    java.nio.file.Files.copy(f.toPath(), new File(regionDir, f.getName()).toPath(),
+                            java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            chunkMgr.setStorage(new ChunkStorage(regionDir));
+        }
+        chunkMgr.saveDirty();
+    }
+
     private void saveClassic(Level level, OutputStream out) throws IOException {
         ObjectOutputStream oos = new ObjectOutputStream(out);
         oos.writeObject(level);
@@ -192,7 +240,12 @@ public final class LevelIO {
     // ----------------------------------------------------------------------
     public final Level load(File file) {
         try (FileInputStream fis = new FileInputStream(file)) {
-            return load(fis);
+            Level level = load(fis);
+            SimpleChunkManager chunkMgr = chunkManagerOf(level);
+            if (chunkMgr != null) {
+                chunkMgr.setStorage(new ChunkStorage(regionDirFor(file)));
+            }
+            return level;
         } catch (Exception ex) {
             ex.printStackTrace();
             if (progressBar != null) progressBar.setText("Failed!");
@@ -216,12 +269,12 @@ public final class LevelIO {
             }
             if (firstByte == 0x0A) {
                 pbis.unread(firstByte);
-                CompoundTag root = net.classicremastered.nbt.NBTIO.read(in);
-                String name = root.getName();
+                NBTReader r = new NBTReader(in);
+                String name = r.beginRoot();
                 if ("ClassicLevel".equals(name)) {
-                    return loadClassicNBT(root);
+                    return loadClassicNBT(r);
                 } else if ("InfiniteLevel".equals(name)) {
-                    return loadInfiniteNBT(root);
+                    return loadInfiniteNBT(r);
                 } else {
                     throw new IOException("Unknown root tag name: " + name);
                 }
@@ -236,12 +289,14 @@ public final class LevelIO {
                     case VERSION_INFINITE:     return loadInfiniteFlat(in);
                     case VERSION_TERRAIN:      return loadInfiniteTerrain(in);
                     case VERSION_CLASSIC_NBT:  {
-                        CompoundTag root = net.classicremastered.nbt.NBTIO.read(in);
-                        return loadClassicNBT(root);
+                        NBTReader r = new NBTReader(in);
+                        r.beginRoot();
+                        return loadClassicNBT(r);
                     }
                     case VERSION_INFINITE_NBT: {
-                        CompoundTag root = net.classicremastered.nbt.NBTIO.read(in);
-                        return loadInfiniteNBT(root);
+                        NBTReader r = new NBTReader(in);
+                        r.beginRoot();
+                        return loadInfiniteNBT(r);
                     }
                     default: throw new IOException("Unsupported version: " + ver);
                 }
@@ -378,109 +433,41 @@ public final class LevelIO {
     }
 
     private void saveClassicNBT(Level level, DataOutputStream out) throws IOException {
-        CompoundTag root = new CompoundTag("ClassicLevel");
-        root.putByte("FormatVersion", (byte) 1);
-        root.putString("Name", level.name);
-        root.putString("Creator", level.creator);
-        root.putLong("CreateTime", level.createTime);
-
-        CompoundTag map = new CompoundTag("Map");
-        map.putShort("Width", (short) level.width);
-        map.putShort("Height", (short) level.depth);
-        map.putShort("Length", (short) level.height);
-        map.putByteArray("Blocks", level.blocks);
-        map.putShort("WaterLevel", (short) level.waterLevel);
-        map.putByte("Creative", (byte) (level.creativeMode ? 1 : 0));
-        map.putInt("SkyColor", level.skyColor);
-        map.putInt("FogColor", level.fogColor);
-        map.putInt("CloudColor", level.cloudColor);
-        map.putInt("TimeOfDay", level.timeOfDay);
-        map.putByte("DoDayNightCycle", (byte) (level.doDayNightCycle ? 1 : 0));
-
-        ListTag spawn = new ListTag("Spawn", (byte) 3); // TAG_Int
-        spawn.add(new IntTag(null, level.xSpawn));
-        spawn.add(new IntTag(null, level.ySpawn));
-        spawn.add(new IntTag(null, level.zSpawn));
-        map.put(spawn);
-        map.putFloat("SpawnRot", level.rotSpawn);
-        root.put(map);
-
-        CompoundTag player = new CompoundTag("Player");
-        player.putString("id", "Player");
-        Entity savePlayer = level.player;
-        if (savePlayer == null && level.minecraft != null) {
-            savePlayer = level.minecraft.player;
-        }
-        if (savePlayer != null) {
-            ListTag pos = new ListTag("Pos", (byte) 5); // TAG_Float
-            pos.add(new FloatTag(null, savePlayer.x));
-            pos.add(new FloatTag(null, savePlayer.y));
-            pos.add(new FloatTag(null, savePlayer.z));
-            player.put(pos);
-
-            ListTag rot = new ListTag("Rotation", (byte) 5); // TAG_Float
-            rot.add(new FloatTag(null, savePlayer.yRot));
-            rot.add(new FloatTag(null, savePlayer.xRot));
-            player.put(rot);
-        } else {
-            ListTag pos = new ListTag("Pos", (byte) 5);
-            pos.add(new FloatTag(null, 0f));
-            pos.add(new FloatTag(null, 0f));
-            pos.add(new FloatTag(null, 0f));
-            player.put(pos);
-
-            ListTag rot = new ListTag("Rotation", (byte) 5);
-            rot.add(new FloatTag(null, 0f));
-            rot.add(new FloatTag(null, 0f));
-            rot.add(new FloatTag(null, 0f));
-            player.put(rot);
-        }
-        root.put(player);
-
-        ListTag entities = new ListTag("Entities", (byte) 10); // TAG_Compound
-        var all = level.blockMap != null ? level.blockMap.all : java.util.Collections.emptyList();
-        for (Object e : all) {
-            if (!(e instanceof net.classicremastered.minecraft.mob.Mob m)) continue;
-            if (m instanceof net.classicremastered.minecraft.player.Player) continue;
-            if (m.removed || m.health <= 0) continue;
-
-            try {
-                java.lang.reflect.Field f = m.getClass().getField("persistent");
-                if (f.getType() == boolean.class && !f.getBoolean(m))
-                    continue;
-            } catch (Throwable ignored) {}
-
-            short id = net.classicremastered.minecraft.mob.MobRegistry.idOf(m);
-            if (id < 0) continue;
-
-            CompoundTag mobTag = new CompoundTag(null);
-            mobTag.putShort("Id", id);
-            mobTag.putString("id", m.getClass().getSimpleName());
-
-            ListTag mPos = new ListTag("Pos", (byte) 5);
-            mPos.add(new FloatTag(null, m.x));
-            mPos.add(new FloatTag(null, m.y));
-            mPos.add(new FloatTag(null, m.z));
-            mobTag.put(mPos);
-
-            ListTag mRot = new ListTag("Rotation", (byte) 5);
-            mRot.add(new FloatTag(null, m.yRot));
-            mRot.add(new FloatTag(null, m.xRot));
-            mobTag.put(mRot);
-
-            mobTag.putInt("Health", m.health);
-            entities.add(mobTag);
-        }
-        root.put(entities);
-
-        net.classicremastered.nbt.NBTIO.write(root, out);
+        NBTWriter w = new NBTWriter(out);
+        w.beginCompound("ClassicLevel");
+        w.writeByte("FormatVersion", 1);
+        w.writeString("Name", level.name);
+        w.writeString("Creator", level.creator);
+        w.writeLong("CreateTime", level.createTime);
+
+        w.beginCompound("Map");
+        w.writeShort("Width", level.width);
+        w.writeShort("Height", level.depth);
+        w.writeShort("Length", level.height);
+        w.writeByteArray("Blocks", level.blocks);
+        w.writeIntArray("HeightMap", level.heightMap().toIntArray());
+        if (level.flowLevels != null) w.writeByteArray("FlowLevels", level.flowLevels);
+        w.writeShort("WaterLevel", level.waterLevel);
+        w.writeBoolean("Creative", level.creativeMode);
+        w.writeInt("SkyColor", level.skyColor);
+        w.writeInt("FogColor", level.fogColor);
+        w.writeInt("CloudColor", level.cloudColor);
+        w.writeInt("TimeOfDay", level.timeOfDay);
+        w.writeBoolean("DoDayNightCycle", level.doDayNightCycle);
+        w.beginList("Spawn", Tag.INT, 3);
+        w.writeInt(null, level.xSpawn);
+        w.writeInt(null, level.ySpawn);
+        w.writeInt(null, level.zSpawn);
+        w.endList();
+        w.writeFloat("SpawnRot", level.rotSpawn);
+        w.endCompound();
+
+        writePlayer(w, level);
+        writeMobs(w, level, true);
+        w.endCompound();
     }
 
     private void saveInfiniteNBT(Level level, DataOutputStream out) throws IOException {
-        CompoundTag root = new CompoundTag("InfiniteLevel");
-        root.putByte("FormatVersion", (byte) 1);
-        root.putString("TerrainType", level instanceof LevelInfiniteFlat ? "Flat" : "Terrain");
-
         long seed = 0;
         int depthY = 64;
         Map<Long, SimpleChunk> map = null;
@@ -495,208 +482,233 @@ public final class LevelIO {
             map = terrain.chunks().getAllChunks();
         }
 
-        root.putLong("Seed", seed);
-        root.putInt("Depth", depthY);
-        root.putInt("TimeOfDay", level.timeOfDay);
-        root.putByte("DoDayNightCycle", (byte) (level.doDayNightCycle ? 1 : 0));
+        // header first, so a streaming load knows the level before the chunks arrive
+        NBTWriter w = new NBTWriter(out);
+        w.beginCompound("InfiniteLevel");
+        w.writeByte("FormatVersion", 1);
+        w.writeString("TerrainType", level instanceof LevelInfiniteFlat ? "Flat" : "Terrain");
+        w.writeLong("Seed", seed);
+        w.writeInt("Depth", depthY);
+        w.writeInt("TimeOfDay", level.timeOfDay);
+        w.writeBoolean("DoDayNightCycle", level.doDayNightCycle);
+        writePlayer(w, level);
+
+        // Chunks live in region files (see saveRegions); the inline list is only
+        // written when no region storage is attached.
+        boolean regions = chunkManagerOf(level) != null && chunkManagerOf(level).getStorage() != null;
+        if (map != null && !regions) {
+            w.beginList("Chunks", Tag.COMPOUND, map.size());
+            for (Map.Entry<Long, SimpleChunk> e : map.entrySet()) {
+                w.beginCompound(null);
+                w.writeLong("Key", e.getKey());
+                w.writeByteArray("Blocks", e.getValue().blocks);
+                if (e.getValue().flow != null) w.writeByteArray("Flow", e.getValue().flow);
+                w.endCompound();
+            }
+        } else {
+            w.beginList("Chunks", Tag.COMPOUND, 0);
+        }
+        w.endList();
+
+        writeMobs(w, level, false);
+        w.endCompound();
+    }
 
-        CompoundTag player = new CompoundTag("Player");
-        player.putString("id", "Player");
+    private static void writePlayer(NBTWriter w, Level level) throws IOException {
+        w.beginCompound("Player");
+        w.writeString("id", "Player");
         Entity savePlayer = level.player;
         if (savePlayer == null && level.minecraft != null) {
             savePlayer = level.minecraft.player;
         }
-        if (savePlayer != null) {
-            ListTag pos = new ListTag("Pos", (byte) 5);
-            pos.add(new FloatTag(null, savePlayer.x));
-            pos.add(new FloatTag(null, savePlayer.y));
-            pos.add(new FloatTag(null, savePlayer.z));
-            player.put(pos);
-
-            ListTag rot = new ListTag("Rotation", (byte) 5);
-            rot.add(new FloatTag(null, savePlayer.yRot));
-            rot.add(new FloatTag(null, savePlayer.xRot));
-            player.put(rot);
-        } else {
-            ListTag pos = new ListTag("Pos", (byte) 5);
-            pos.add(new FloatTag(null, 0f));
-            pos.add(new FloatTag(null, 0f));
-            pos.add(new FloatTag(null, 0f));
-            player.put(pos);
-
-            ListTag rot = new ListTag("Rotation", (byte) 5);
-            rot.add(new FloatTag(null, 0f));
-            rot.add(new FloatTag(null, 0f));
-            rot.add(new FloatTag(null, 0f));
-            player.put(rot);
-        }
-        root.put(player);
-
-        ListTag chunks = new ListTag("Chunks", (byte) 10);
-        if (map != null) {
-            for (Map.Entry<Long, SimpleChunk> e : map.entrySet()) {
-                CompoundTag chunkTag = new CompoundTag(null);
-                chunkTag.putLong("Key", e.getKey());
-                chunkTag.putByteArray("Blocks", e.getValue().blocks);
-                chunks.add(chunkTag);
-            }
-        }
-        root.put(chunks);
+        w.beginList("Pos", Tag.FLOAT, 3);
+        w.writeFloat(null, savePlayer != null ? savePlayer.x : 0f);
+        w.writeFloat(null, savePlayer != null ? savePlayer.y : 0f);
+        w.writeFloat(null, savePlayer != null ? savePlayer.z : 0f);
+        w.endList();
+        w.beginList("Rotation", Tag.FLOAT, 2);
+        w.writeFloat(null, savePlayer != null ? savePlayer.yRot : 0f);
+        w.writeFloat(null, savePlayer != null ? savePlayer.xRot : 0f);
+        w.endList();
+        w.endCompound();
+    }
 
-        ListTag entities = new ListTag("Entities", (byte) 10);
+    /** The "Entities" list; {@code persistentOnly} drops mobs whose public {@code persistent} flag is off. */
+    private static void writeMobs(NBTWriter w, Level level, boolean persistentOnly) throws IOException {
+        java.util.List<net.classicremastered.minecraft.mob.Mob> mobs = new java.util.ArrayList<>();
         var all = level.blockMap != null ? level.blockMap.all : java.util.Collections.emptyList();
         for (Object e : all) {
             if (!(e instanceof net.classicremastered.minecraft.mob.Mob m)) continue;
             if (m instanceof net.classicremastered.minecraft.player.Player) continue;
             if (m.removed || m.health <= 0) continue;
 
-            short id = net.classicremastered.minecraft.mob.MobRegistry.idOf(m);
-            if (id < 0) continue;
-
-            CompoundTag mobTag = new CompoundTag(null);
-            mobTag.putShort("Id", id);
-            mobTag.putString("id", m.getClass().getSimpleName());
-
-            ListTag mPos = new ListTag("Pos", (byte) 5);
-            mPos.add(new FloatTag(null, m.x));
-            mPos.add(new FloatTag(null, m.y));
-            mPos.add(new FloatTag(null, m.z));
-            mobTag.put(mPos);
-
-            ListTag mRot = new ListTag("Rotation", (byte) 5);
-            mRot.add(new FloatTag(null, m.yRot));
-            mRot.add(new FloatTag(null, m.xRot));
-            mobTag.put(mRot);
-
-            mobTag.putInt("Health", m.health);
-            entities.add(mobTag);
-        }
-        root.put(entities);
+            if (persistentOnly) {
+                try {
+                    java.lang.reflect.Field f = m.getClass().getField("persistent");
+                    if (f.getType() == boolean.class && !f.getBoolean(m))
+                        continue;
+                } catch (Throwable ignored) {}
+            }
 
-        net.classicremastered.nbt.NBTIO.write(root, out);
+            if (net.classicremastered.minecraft.mob.MobRegistry.idOf(m) < 0) continue;
+            mobs.add(m);
+        }
+
+        w.beginList("Entities", Tag.COMPOUND, mobs.size());
+        for (net.classicremastered.minecraft.mob.Mob m : mobs) {
+            w.beginCompound(null);
+            w.writeShort("Id", net.classicremastered.minecraft.mob.MobRegistry.idOf(m));
+            w.writeString("id", m.getClass().getSimpleName());
+            w.beginList("Pos", Tag.FLOAT, 3);
+            w.writeFloat(null, m.x);
+            w.writeFloat(null, m.y);
+            w.writeFloat(null, m.z);
+            w.endList();
+            w.beginList("Rotation", Tag.FLOAT, 2);
+            w.writeFloat(null, m.yRot);
+            w.writeFloat(null, m.xRot);
+            w.endList();
+            w.writeInt("Health", m.health);
+            w.endCompound();
+        }
+        w.endList();
     }
 
-    private Level loadClassicNBT(CompoundTag root) throws IOException {
+    // ----------------------------------------------------------------------
+    // NBT load: streamed with NBTReader. Entries may come in any order (older
+    // saves wrote them in hash order), so values are gathered before use.
+    // ----------------------------------------------------------------------
+    private Level loadClassicNBT(NBTReader r) throws IOException {
         Level level = new Level();
+        int[] heightMap = null;
+        float[] playerPos = null;
+        java.util.List<Level.SavedMob> mobs = new java.util.ArrayList<>();
 
-        level.name = root.getString("Name");
-        level.creator = root.getString("Creator");
-        level.createTime = root.getLong("CreateTime");
-
-        CompoundTag map = root.getCompound("Map");
-        level.width = map.getShort("Width");
-        level.depth = map.getShort("Height");
-        level.height = map.getShort("Length");
-        level.blocks = map.getByteArray("Blocks");
-        level.waterLevel = map.getShort("WaterLevel");
-        level.creativeMode = map.getBoolean("Creative");
-        level.skyColor = map.getInt("SkyColor");
-        level.fogColor = map.getInt("FogColor");
-        level.cloudColor = map.getInt("CloudColor");
-        level.timeOfDay = map.getInt("TimeOfDay");
-        level.doDayNightCycle = map.getBoolean("DoDayNightCycle");
-
-        ListTag spawn = map.getList("Spawn");
-        if (spawn.size() >= 3) {
-            level.xSpawn = ((IntTag) spawn.get(0)).value;
-            level.ySpawn = ((IntTag) spawn.get(1)).value;
-            level.zSpawn = ((IntTag) spawn.get(2)).value;
-        }
-        level.rotSpawn = map.getFloat("SpawnRot");
-
-        ListTag entities = root.getList("Entities");
-        level.pendingEntities = new java.util.ArrayList<>();
-        for (int i = 0; i < entities.size(); i++) {
-            CompoundTag mobTag = (CompoundTag) entities.get(i);
-            short id = mobTag.getShort("Id");
-            if (mobTag.hasKey("id")) {
-                String name = mobTag.getString("id");
-                short resolved = net.classicremastered.minecraft.mob.MobRegistry.idOfName(name);
-                if (resolved >= 0) {
-                    id = resolved;
-                }
-            }
-            ListTag mPos = mobTag.getList("Pos");
-            ListTag mRot = mobTag.getList("Rotation");
-            int health = mobTag.getInt("Health");
-
-            float mx = 0f, my = 0f, mz = 0f;
-            if (mPos.size() >= 3) {
-                mx = ((FloatTag) mPos.get(0)).value;
-                my = ((FloatTag) mPos.get(1)).value;
-                mz = ((FloatTag) mPos.get(2)).value;
-            }
-            float myRot = 0f, mxRot = 0f;
-            if (mRot.size() >= 2) {
-                myRot = ((FloatTag) mRot.get(0)).value;
-                mxRot = ((FloatTag) mRot.get(1)).value;
-            }
+        for (byte t; (t = r.next()) != Tag.END;) {
+            String key = r.name();
+            if (t == Tag.STRING && key.equals("Name")) level.name = r.readString();
+            else if (t == Tag.STRING && key.equals("Creator")) level.creator = r.readString();
+            else if (t == Tag.LONG && key.equals("CreateTime")) level.createTime = r.readLong();
+            else if (t == Tag.COMPOUND && key.equals("Map")) heightMap = readClassicMap(r, level);
+            else if (t == Tag.COMPOUND && key.equals("Player")) playerPos = readPlayer(r);
+            else if (t == Tag.LIST && key.equals("Entities")) readMobs(r, mobs);
+            else r.skip(t);
+        }
 
-            level.pendingEntities.add(new Level.SavedMob(id, mx, my, mz, myRot, mxRot, health));
+        if (level.blocks == null) level.blocks = new byte[0];
+        if (heightMap != null) {
+            level.heights = HeightMap.fromIntArray(level.width, level.height, level.depth, heightMap); // null: rebuilt
         }
+        level.pendingEntities = mobs;
 
         level.initTransient();
 
-        CompoundTag player = root.getCompound("Player");
-        if (player.hasKey("Pos")) {
-            ListTag pos = player.getList("Pos");
-            ListTag rot = player.getList("Rotation");
-            float px = 0f, py = 0f, pz = 0f;
-            if (pos.size() >= 3) {
-                px = ((FloatTag) pos.get(0)).value;
-                py = ((FloatTag) pos.get(1)).value;
-                pz = ((FloatTag) pos.get(2)).value;
-            }
-            float yaw = 0f, pitch = 0f;
-            if (rot.size() >= 2) {
-                yaw = ((FloatTag) rot.get(0)).value;
-                pitch = ((FloatTag) rot.get(1)).value;
-            }
-
-            if (level.player == null) {
-                net.classicremastered.minecraft.player.Player loadedPlayer = new net.classicremastered.minecraft.player.Player(null);
-                loadedPlayer.level = level;
-                level.player = loadedPlayer;
-                loadedPlayer.moveTo(px, py, pz, yaw, pitch);
-                level.addEntity(loadedPlayer);
-            } else {
-                level.player.moveTo(px, py, pz, yaw, pitch);
-            }
+        if (playerPos != null) {
+            placePlayer(level, playerPos);
         }
         level.updateDayNightColorsSmooth();
 
         return level;
     }
 
-    private Level loadInfiniteNBT(CompoundTag root) throws IOException {
-        String type = root.getString("TerrainType");
-        long seed = root.getLong("Seed");
-        int depth = root.getInt("Depth");
-
-        Level level;
-        if ("Flat".equalsIgnoreCase(type)) {
-            level = new LevelInfiniteFlat(seed, depth);
-        } else {
-            level = new LevelInfiniteTerrain(seed, depth);
+    // fills the level's map fields; returns the saved height map, if any
+    private static int[] readClassicMap(NBTReader r, Level level) throws IOException {
+        int[] heightMap = null;
+        for (byte t; (t = r.next()) != Tag.END;) {
+            String key = r.name();
+            if (t == Tag.SHORT && key.equals("Width")) level.width = r.readShort();
+            else if (t == Tag.SHORT && key.equals("Height")) level.depth = r.readShort();
+            else if (t == Tag.SHORT && key.equals("Length")) level.height = r.readShort();
+            else if (t == Tag.BYTE_ARRAY && key.equals("Blocks")) level.blocks = r.readByteArray();
+            else if (t == Tag.BYTE_ARRAY && key.equals("FlowLevels")) level.flowLevels = r.readByteArray();
+            else if (t == Tag.INT_ARRAY && key.equals("HeightMap")) heightMap = r.readIntArray();
+            else if (t == Tag.SHORT && key.equals("WaterLevel")) level.waterLevel = r.readShort();
+            else if (t == Tag.BYTE && key.equals("Creative")) level.creativeMode = r.readBoolean();
+            else if (t == Tag.INT && key.equals("SkyColor")) level.skyColor = r.readInt();
+            else if (t == Tag.INT && key.equals("FogColor")) level.fogColor = r.readInt();
+            else if (t == Tag.INT && key.equals("CloudColor")) level.cloudColor = r.readInt();
+            else if (t == Tag.INT && key.equals("TimeOfDay")) level.timeOfDay = r.readInt();
+            else if (t == Tag.BYTE && key.equals("DoDayNightCycle")) level.doDayNightCycle = r.readBoolean();
+            else if (t == Tag.FLOAT && key.equals("SpawnRot")) level.rotSpawn = r.readFloat();
+            else if (t == Tag.LIST && key.equals("Spawn")) {
+                int n = r.beginList();
+                byte type = r.listType();
+                int[] spawn = new int[3];
+                for (int i = 0; i < n; i++) {
+                    if (type == Tag.INT && i < 3) spawn[i] = r.readInt();
+                    else r.skip(type);
+                }
+                if (type == Tag.INT && n >= 3) {
+                    level.xSpawn = spawn[0];
+                    level.ySpawn = spawn[1];
+                    level.zSpawn = spawn[2];
+                }
+            } else r.skip(t);
         }
+        return heightMap;
+    }
 
-        level.timeOfDay = root.getInt("TimeOfDay");
-        level.doDayNightCycle = root.getBoolean("DoDayNightCycle");
-
-        ListTag chunks = root.getList("Chunks");
-        SimpleChunkManager chunkMgr = null;
-        if (level instanceof LevelInfiniteFlat) {
-            chunkMgr = ((LevelInfiniteFlat) level).chunks();
-        } else if (level instanceof LevelInfiniteTerrain) {
-            chunkMgr = ((LevelInfiniteTerrain) level).chunks();
+    private Level loadInfiniteNBT(NBTReader r) throws IOException {
+        String type = "";
+        long seed = 0;
+        int depth = 0;
+        boolean hasType = false, hasSeed = false, hasDepth = false;
+        int timeOfDay = 0;
+        boolean cycle = false;
+        float[] playerPos = null;
+        java.util.List<Level.SavedMob> mobs = new java.util.ArrayList<>();
+
+        Level level = null;
+        byte[] scratch = null;
+        java.util.List<Object[]> heldChunks = new java.util.ArrayList<>(); // {Long key, byte[] blocks, byte[] flow}
+
+        for (byte t; (t = r.next()) != Tag.END;) {
+            String key = r.name();
+            if (t == Tag.STRING && key.equals("TerrainType")) { type = r.readString(); hasType = true; }
+            else if (t == Tag.LONG && key.equals("Seed")) { seed = r.readLong(); hasSeed = true; }
+            else if (t == Tag.INT && key.equals("Depth")) { depth = r.readInt(); hasDepth = true; }
+            else if (t == Tag.INT && key.equals("TimeOfDay")) timeOfDay = r.readInt();
+            else if (t == Tag.BYTE && key.equals("DoDayNightCycle")) cycle = r.readBoolean();
+            else if (t == Tag.COMPOUND && key.equals("Player")) playerPos = readPlayer(r);
+            else if (t == Tag.LIST && key.equals("Entities")) readMobs(r, mobs);
+            else if (t == Tag.LIST && key.equals("Chunks")) {
+                if (level == null && hasType && hasSeed && hasDepth) {
+                    level = newInfinite(type, seed, depth);
+                    scratch = new byte[depth * 16 * 16];
+                }
+                int n = r.beginList();
+                byte elem = r.listType();
+                for (int i = 0; i < n; i++) {
+                    if (elem != Tag.COMPOUND) { r.skip(elem); continue; }
+                    long chunkKey = 0;
+                    byte[] blocks = null, flow = null;
+                    int len = -1;
+                    for (byte ct; (ct = r.next()) != Tag.END;) {
+                        if (ct == Tag.LONG && r.name().equals("Key")) chunkKey = r.readLong();
+                        else if (ct == Tag.BYTE_ARRAY && r.name().equals("Blocks")) {
+                            // straight into the shared buffer once the level is known
+                            if (scratch != null) len = r.readByteArray(scratch);
+                            else blocks = r.readByteArray();
+                        } else if (ct == Tag.BYTE_ARRAY && r.name().equals("Flow")) flow = r.readByteArray();
+                        else r.skip(ct);
+                    }
+                    if (scratch != null && len == scratch.length) {
+                        chunkManagerOf(level).restoreChunk(chunkKey, scratch, flow);
+                    } else if (blocks != null) {
+                        heldChunks.add(new Object[] { chunkKey, blocks, flow });
+                    }
+                }
+            } else r.skip(t);
         }
 
+        if (level == null) level = newInfinite(type, seed, depth);
+        level.timeOfDay = timeOfDay;
+        level.doDayNightCycle = cycle;
+
+        SimpleChunkManager chunkMgr = chunkManagerOf(level);
         if (chunkMgr != null) {
-            for (int i = 0; i < chunks.size(); i++) {
-                CompoundTag chunkTag = (CompoundTag) chunks.get(i);
-                long key = chunkTag.getLong("Key");
-                byte[] blocks = chunkTag.getByteArray("Blocks");
-                chunkMgr.restoreChunk(key, blocks);
+            for (Object[] c : heldChunks) {
+                chunkMgr.restoreChunk((Long) c[0], (byte[]) c[1], (byte[]) c[2]);
             }
         }
 
@@ -706,66 +718,17 @@ public final class LevelIO {
             e.blockMap = level.blockMap;
         }
 
-        CompoundTag player = root.getCompound("Player");
-        if (player.hasKey("Pos")) {
-            ListTag pos = player.getList("Pos");
-            ListTag rot = player.getList("Rotation");
-            float px = 0f, py = 0f, pz = 0f;
-            if (pos.size() >= 3) {
-                px = ((FloatTag) pos.get(0)).value;
-                py = ((FloatTag) pos.get(1)).value;
-                pz = ((FloatTag) pos.get(2)).value;
-            }
-            float yaw = 0f, pitch = 0f;
-            if (rot.size() >= 2) {
-                yaw = ((FloatTag) rot.get(0)).value;
-                pitch = ((FloatTag) rot.get(1)).value;
-            }
-
-            if (level.player == null) {
-                net.classicremastered.minecraft.player.Player loadedPlayer = new net.classicremastered.minecraft.player.Player(null);
-                loadedPlayer.level = level;
-                level.player = loadedPlayer;
-                loadedPlayer.moveTo(px, py, pz, yaw, pitch);
-                level.addEntity(loadedPlayer);
-            } else {
-                level.player.moveTo(px, py, pz, yaw, pitch);
-            }
+        if (playerPos != null) {
+            placePlayer(level, playerPos);
         }
 
-        ListTag entities = root.getList("Entities");
         net.classicremastered.minecraft.mob.MobRegistry.bootstrapDefaults();
-        for (int i = 0; i < entities.size(); i++) {
-            CompoundTag mobTag = (CompoundTag) entities.get(i);
-            short id = mobTag.getShort("Id");
-            if (mobTag.hasKey("id")) {
-                String name = mobTag.getString("id");
-                short resolved = net.classicremastered.minecraft.mob.MobRegistry.idOfName(name);
-                if (resolved >= 0) {
-                    id = resolved;
-                }
-            }
-            ListTag mPos = mobTag.getList("Pos");
-            ListTag mRot = mobTag.getList("Rotation");
-            int health = mobTag.getInt("Health");
-
-            float mx = 0f, my = 0f, mz = 0f;
-            if (mPos.size() >= 3) {
-                mx = ((FloatTag) mPos.get(0)).value;
-                my = ((FloatTag) mPos.get(1)).value;
-                mz = ((FloatTag) mPos.get(2)).value;
-            }
-            float myRot = 0f, mxRot = 0f;
-            if (mRot.size() >= 2) {
-                myRot = ((FloatTag) mRot.get(0)).value;
-                mxRot = ((FloatTag) mRot.get(1)).value;
-            }
-
-            var mob = net.classicremastered.minecraft.mob.MobRegistry.create(id, level, mx, my, mz);
+        for (Level.SavedMob s : mobs) {
+            var mob = net.classicremastered.minecraft.mob.MobRegistry.create(s.id, level, s.x, s.y, s.z);
             if (mob != null) {
-                mob.yRot = myRot;
-                mob.xRot = mxRot;
-                mob.health = health;
+                mob.yRot = s.yRot;
+                mob.xRot = s.xRot;
+                mob.health = s.health;
                 level.addEntity(mob);
             }
         }
@@ -773,4 +736,77 @@ public final class LevelIO {
 
         return level;
     }
+
+    private static Level newInfinite(String type, long seed, int depth) {
+        if ("Flat".equalsIgnoreCase(type)) {
+            return new LevelInfiniteFlat(seed, depth);
+        }
+        return new LevelInfiniteTerrain(seed, depth);
+    }
+
+    // {x, y, z, yaw, pitch} of a "Player" compound, or null if it has no position
+    private static float[] readPlayer(NBTReader r) throws IOException {
+        float[] pos = null;
+        float[] rot = new float[2];
+        for (byte t; (t = r.next()) != Tag.END;) {
+            if (t == Tag.LIST && r.name().equals("Pos")) pos = readFloats(r, new float[3]);
+            else if (t == Tag.LIST && r.name().equals("Rotation")) readFloats(r, rot);
+            else r.skip(t);
+        }
+        if (pos == null) return null;
+        return new float[] { pos[0], pos[1], pos[2], rot[0], rot[1] };
+    }
+
+    private static void placePlayer(Level level, float[] p) {
+        if (level.player == null) {
+            net.classicremastered.minecraft.player.Player loadedPlayer = new net.classicremastered.minecraft.player.Player(null);
+            loadedPlayer.level = level;
+            level.player = loadedPlayer;
+            loadedPlayer.moveTo(p[0], p[1], p[2], p[3], p[4]);
+            level.addEntity(loadedPlayer);
+        } else {
+            level.player.moveTo(p[0], p[1], p[2], p[3], p[4]);
+        }
+    }
+
+    private static void readMobs(NBTReader r, java.util.List<Level.SavedMob> out) throws IOException {
+        int n = r.beginList();
+        byte elem = r.listType();
+        for (int i = 0; i < n; i++) {
+            if (elem != Tag.COMPOUND) { r.skip(elem); continue; }
+            Level.SavedMob s = new Level.SavedMob();
+            float[] pos = new float[3], rot = new float[2];
+            String name = null;
+            for (byte t; (t = r.next()) != Tag.END;) {
+                String key = r.name();
+                if (t == Tag.SHORT && key.equals("Id")) s.id = r.readShort();
+                else if (t == Tag.STRING && key.equals("id")) name = r.readString();
+                else if (t == Tag.INT && key.equals("Health")) s.health = r.readInt();
+                else if (t == Tag.LIST && key.equals("Pos")) readFloats(r, pos);
+                else if (t == Tag.LIST && key.equals("Rotation")) readFloats(r, rot);
+                else r.skip(t);
+            }
+            if (name != null) {
+                short resolved = net.classicremastered.minecraft.mob.MobRegistry.idOfName(name);
+                if (resolved >= 0) {
+                    s.id = resolved;
+                }
+            }
+            s.x = pos[0]; s.y = pos[1]; s.z = pos[2];
+            s.yRot = rot[0]; s.xRot = rot[1];
+            out.add(s);
+        }
+    }
+
+    // a float list into dst; left untouched if the list is shorter or not floats
+    private static float[] readFloats(NBTReader r, float[] dst) throws IOException {
+        int n = r.beginList();
+        byte type = r.listType();
+        boolean use = type == Tag.FLOAT && n >= dst.length;
+        for (int i = 0; i < n; i++) {
+            if (use && i < dst.length) dst[i] = r.readFloat();
+            else r.skip(type);
+        }
+        return dst;
+    }
 }
@@ -5,10 +5,12 @@ import java.util.Arrays;
 import java.util.List;
 
 import net.classicremastered.minecraft.Entity;
+import net.classicremastered.minecraft.level.infinite.SimpleChunk;
 import net.classicremastered.minecraft.level.infinite.SimpleChunkManager;
-import net.classicremastered.minecraft.level.liquid.LiquidType;
 import net.classicremastered.minecraft.level.tile.Block;
 import net.classicremastered.minecraft.phys.AABB;
+import net.classicremastered.minecraft.phys.CollisionBuffer;
+import net.classicremastered.minecraft.util.Profiler;
 
 public final class LevelInfiniteFlat extends Level {
     private final SimpleChunkManager chunks;
@@ -37,6 +39,7 @@ public final class LevelInfiniteFlat extends Level {
 
         // explicitly flat mode
         this.chunks = new SimpleChunkManager(seed, depthY, SimpleChunkManager.Mode.FLAT);
+        this.chunks.level = this;
         this.waterLevel = Math.max(1, depthY / 2);
 
         this.findSpawn();
@@ -90,6 +93,7 @@ public final class LevelInfiniteFlat extends Level {
             return false;
 
         chunks.setBlock(x, y, z, (byte) id);
+        lightEngine.onBlockChanged(x, y, z);
 
         if (old > 0 && Block.blocks[old] != null)
             Block.blocks[old].onRemoved(this, x, y, z);
@@ -113,6 +117,7 @@ public final class LevelInfiniteFlat extends Level {
             return false;
 
         chunks.setBlock(x, y, z, (byte) id);
+        lightEngine.onBlockChanged(x, y, z);
 
         if (old > 0 && Block.blocks[old] != null)
             Block.blocks[old].onRemoved(this, x, y, z);
@@ -131,10 +136,16 @@ public final class LevelInfiniteFlat extends Level {
             return false;
 
         chunks.setBlock(x, y, z, (byte) id);
+        lightEngine.onBlockChanged(x, y, z);
         markSliceAndNeighbors(x, y, z);
         return true;
     }
 
+    @Override
+    public int applyEdits(BlockEditBatch batch) {
+        return batch.applyEach(this); // chunked storage: no flat-array fast path
+    }
+
     @Override
     public boolean netSetTile(int x, int y, int z, int id) {
         return setTile(x, y, z, id);
@@ -151,6 +162,26 @@ public final class LevelInfiniteFlat extends Level {
         return y >= 0 && y < this.depth;
     }
 
+    // === Flow levels (SimpleChunk.flow) ===
+    @Override
+    public int getStoredFlow(int x, int y, int z) {
+        if (y < 0 || y >= this.depth)
+            return -1;
+        SimpleChunk c = chunks.tryGet(x >> 4, z >> 4);
+        return c == null || c.blocks == null ? -1 : c.getFlow(x & 15, y, z & 15);
+    }
+
+    @Override
+    public void setFlowLevel(int x, int y, int z, int level) {
+        if (y < 0 || y >= this.depth)
+            return;
+        SimpleChunk c = chunks.tryGet(x >> 4, z >> 4);
+        if (c == null || c.blocks == null || (c.flow == null && level < 0))
+            return;
+        c.setFlow(x & 15, y, z & 15, level);
+        c.dirty = true;
+    }
+
     @Override
     public void findSpawn() {
         this.xSpawn = 0;
@@ -178,15 +209,13 @@ public final class LevelInfiniteFlat extends Level {
     // === Terrain queries ===
     @Override
     public int getHighestTile(int x, int z) {
-        for (int y = this.depth - 1; y >= 0; --y) {
-            int id = getTile(x, y, z);
-            if (id == 0)
-                continue;
-            Block b = Block.blocks[id];
-            if (b != null && b.getLiquidType() == LiquidType.NOT_LIQUID)
-                return y + 1;
-        }
-        return 0;
+        int h = getColumnHeight(HeightMap.SURFACE, x, z);
+        return h == 0 && !this.creativeMode ? 1 : h; // y = 0 reads as bedrock in survival
+    }
+
+    @Override
+    public int getColumnHeight(int map, int x, int z) {
+        return chunks.getOrCreate(x >> 4, z >> 4).heights.get(map, x & 15, z & 15);
     }
 
     @Override
@@ -195,84 +224,92 @@ public final class LevelInfiniteFlat extends Level {
             return false;
         if (y >= this.depth)
             return true;
-        for (int yy = y + 1; yy < this.depth; yy++) {
-            int id = getTile(x, yy, z);
-            if (id > 0) {
-                Block b = Block.blocks[id];
-                if (b != null && b.isOpaque())
-                    return false;
-            }
-        }
-        return true;
+        return getColumnHeight(HeightMap.LIGHT, x, z) <= y + 1;
     }
 
+    // === Block light storage (SimpleChunk.light, filled by LightEngine) ===
     @Override
-    public float getBrightness(int x, int y, int z) {
-        if (y < 0)
-            return 0.05f;
-        if (y >= this.depth)
-            return 1.0f;
-        if (isLit(x, y, z))
-            return getDayFactorSmooth();
+    public boolean hasBlockLight(int x, int y, int z) {
+        if (y < 0 || y >= this.depth)
+            return false;
+        SimpleChunk c = chunks.tryGet(x >> 4, z >> 4);
+        return c != null && c.light != null;
+    }
 
-        int id = getTile(x, y, z);
-        if (id > 0) {
-            Block b = Block.blocks[id];
-            if (b != null && b.getLightValue() > 0)
-                return 0.8f;
-        }
+    @Override
+    public int getBlockLight(int x, int y, int z) {
+        if (y < 0 || y >= this.depth)
+            return 0;
+        SimpleChunk c = chunks.tryGet(x >> 4, z >> 4);
+        return c == null || c.light == null ? 0 : c.getLight(x & 15, y, z & 15);
+    }
 
-        final int[][] dirs = { { 1, 0, 0 }, { -1, 0, 0 }, { 0, 1, 0 }, { 0, -1, 0 }, { 0, 0, 1 }, { 0, 0, -1 } };
-        for (int[] d : dirs) {
-            int nid = getTile(x + d[0], y + d[1], z + d[2]);
-            if (nid > 0) {
-                Block b = Block.blocks[nid];
-                if (b != null && b.getLightValue() > 0)
-                    return 0.6f;
-            }
-        }
-        return 0.35f;
+    @Override
+    public void setBlockLight(int x, int y, int z, int value) {
+        if (y < 0 || y >= this.depth)
+            return;
+        SimpleChunk c = chunks.tryGet(x >> 4, z >> 4);
+        if (c != null && c.light != null)
+            c.setLight(x & 15, y, z & 15, value);
     }
 
-    // === Block ticks (fire spread, sand, liquids, etc.) ===
-    private java.util.ArrayList<NextTickListEntry> tickList = new java.util.ArrayList<>();
+    @Override
+    public void onBlockLightChanged(int x0, int y0, int z0, int x1, int y1, int z1) {
+        if (this.minecraft == null || this.minecraft.levelRenderer == null)
+            return;
+        final var lr = this.minecraft.levelRenderer;
+        for (int cx = (x0 - 1) >> 4; cx <= (x1 + 1) >> 4; cx++)
+            for (int sy = Math.max(0, y0 - 1) >> 4; sy <= (y1 + 1) >> 4; sy++)
+                for (int cz = (z0 - 1) >> 4; cz <= (z1 + 1) >> 4; cz++)
+                    lr.markDirty(cx, sy, cz);
+    }
+
+    // getTile may load or request chunks
+    @Override
+    public boolean hasConcurrentReads() {
+        return false;
+    }
 
+    // === Block ticks (fire spread, sand, liquids, etc.) ===
     @Override
     public void tick() {
         tickCount++;
 
         // --- scheduled updates (fire, fluids, TNT, etc.) ---
+        long phase = Profiler.start();
+        TickScheduler ticks = this.tickScheduler;
         int processed = 0;
         int maxPerTick = 100; // cap
-        for (int i = 0; i < tickList.size() && processed < maxPerTick; i++) {
-            NextTickListEntry e = tickList.remove(0);
-            if (e.ticks > 0) {
-                e.ticks--;
-                tickList.add(e);
-            } else {
-                int id = getTile(e.x, e.y, e.z);
-                if (id == e.block && id > 0 && Block.blocks[id] != null) {
-                    Block.blocks[id].update(this, e.x, e.y, e.z, random);
-                }
+        while (processed < maxPerTick && ticks.poll(this.tickCount)) {
+            int id = getTile(ticks.x, ticks.y, ticks.z);
+            if (id == ticks.block && id > 0 && Block.blocks[id] != null) {
+                Block.blocks[id].update(this, ticks.x, ticks.y, ticks.z, random);
             }
             processed++;
         }
+        Profiler.end(Profiler.SCHEDULED, phase);
 
-        // --- random block updates around player ---
+        // --- Random block updates: non-empty sections of loaded chunks near the player ---
+        phase = Profiler.start();
         if (player != null) {
-            int updates = 20; // smaller batch (keeps perf ok)
-            int range = 32;
-            for (int i = 0; i < updates; i++) {
-                int x = (int) player.x + random.nextInt(range) - range / 2;
-                int z = (int) player.z + random.nextInt(range) - range / 2;
-                int y = random.nextInt(this.depth);
-
-                int id = getTile(x, y, z);
-                if (id > 0 && Block.physics[id]) {
-                    Block.blocks[id].update(this, x, y, z, random);
+            int pcx = (int) Math.floor(player.x) >> 4, pcz = (int) Math.floor(player.z) >> 4;
+            int radius = TickSections.simulationRadius;
+            if (radius > 0) {
+                for (int cz = pcz - radius; cz <= pcz + radius; cz++) {
+                    for (int cx = pcx - radius; cx <= pcx + radius; cx++) {
+                        SimpleChunk c = chunks.tryGet(cx, cz);
+                        if (c != null && c.blocks != null)
+                            randomTickColumn(c.tickable, c.blocks, 0, 0, cx << 4, cz << 4, true);
+                    }
+                }
+            } else {
+                for (SimpleChunk c : new ArrayList<>(chunks.getAllChunks().values())) {
+                    if (c.blocks != null)
+                        randomTickColumn(c.tickable, c.blocks, 0, 0, c.cx << 4, c.cz << 4, true);
                 }
             }
         }
+        Profiler.end(Profiler.RANDOM_UPDATES, phase);
     }
 
     // allow FireBlock.addToTickNextTick to work
@@ -280,9 +317,7 @@ public final class LevelInfiniteFlat extends Level {
     public void addToTickNextTick(int x, int y, int z, int blockId) {
         if (blockId <= 0)
             return;
-        NextTickListEntry e = new NextTickListEntry(x, y, z, blockId);
-        e.ticks = Block.blocks[blockId].getTickDelay();
-        tickList.add(e);
+        scheduleTick(x, y, z, blockId, Block.blocks[blockId].getTickDelay());
     }
 
     // === Explosions (TNT chain fix) ===
@@ -337,8 +372,8 @@ public final class LevelInfiniteFlat extends Level {
     }
 
     @Override
-    public ArrayList getCubes(AABB box) {
-        ArrayList out = new ArrayList();
+    public void getCubes(AABB box, CollisionBuffer out) {
+        out.clear();
         int x0 = (int) Math.floor(box.x0), x1 = (int) Math.floor(box.x1);
         int y0 = (int) Math.floor(box.y0), y1 = (int) Math.floor(box.y1);
         int z0 = (int) Math.floor(box.z0), z1 = (int) Math.floor(box.z1);
@@ -354,12 +389,9 @@ public final class LevelInfiniteFlat extends Level {
                     Block b = Block.blocks[id];
                     if (b == null)
                         continue;
-                    AABB bb = b.getCollisionBox(x, y, z);
-                    if (bb != null && box.intersectsInner(bb))
-                        out.add(bb);
+                    b.addCollisionBox(x, y, z, box, out);
                 }
             }
         }
-        return out;
     }
 }
@@ -13,14 +13,13 @@ import net.classicremastered.minecraft.level.tile.Block;
 import net.classicremastered.minecraft.mob.Mob;
 import net.classicremastered.minecraft.mob.Villager;
 import net.classicremastered.minecraft.phys.AABB;
+import net.classicremastered.minecraft.phys.CollisionBuffer;
+import net.classicremastered.minecraft.util.Profiler;
 
 public final class LevelInfiniteTerrain extends Level {
     private final SimpleChunkManager chunks;
     public final long randomSeed;
 
-    // liquid/physics tick list
-    private final java.util.ArrayList<NextTickListEntry> tickList = new java.util.ArrayList<>();
-
     public LevelInfiniteTerrain(long seed, int depthY) {
         super();
         this.randomSeed = seed;
@@ -114,7 +113,7 @@ public final class LevelInfiniteTerrain extends Level {
 
     @Override
     public boolean setTileNoUpdate(int x, int y, int z, int id) {
-        if (y < 0 || y >= this.depth)
+        if (y < 0 || y >= this.depth || !isBuilt(x, z))
             return false;
         int old = getTile(x, y, z);
         if (old == id)
@@ -122,12 +121,18 @@ public final class LevelInfiniteTerrain extends Level {
 
         chunks.setBlock(x, y, z, (byte) id);
         updateFlowLevelMap(x, y, z, id);
+        lightEngine.onBlockChanged(x, y, z);
 
         // no neighbor updates or hooks; still mark chunk slices for rebuild
         markSliceAndNeighbors(x, y, z);
         return true;
     }
 
+    @Override
+    public int applyEdits(BlockEditBatch batch) {
+        return batch.applyEach(this); // chunked storage: no flat-array fast path
+    }
+
     // Add fields in SimpleChunk
     public boolean corrupted26M = false;
     public boolean corrupted30M = false;
@@ -141,41 +146,29 @@ public final class LevelInfiniteTerrain extends Level {
     // above it (surface)
     // === Terrain queries (infinite-aware) ===
 
-    // Return air Y right above the first solid, non-liquid block.
-    // Starts near expected surface instead of scanning full depth.
+    // Return air Y right above the first solid, non-liquid block (1 while the chunk generates).
     @Override
     public int getHighestTile(int x, int z) {
-        int yStart = Math.min(this.depth - 2, Math.max(2, this.waterLevel + 64));
-        for (int y = yStart; y > 0; --y) {
-            int id = getTile(x, y, z);
-            if (id == 0)
-                continue;
-            Block b = Block.blocks[id];
-            if (b != null && b.getLiquidType() == LiquidType.NOT_LIQUID) {
-                return y + 1; // air above solid
-            }
-        }
-        return 1; // safe fallback above bedrock
+        return Math.max(1, getColumnHeight(HeightMap.SURFACE, x, z));
     }
 
-    // Sky exposure with bounded upward scan so caves are actually dark.
+    @Override
+    public int getColumnHeight(int map, int x, int z) {
+        SimpleChunk c = chunks.peek(x >> 4, z >> 4);
+        if (c == null)
+            return 1; // air over bedrock until it is built
+        c.markActive(this.tickCount);
+        return c.heights.get(map, x & 15, z & 15);
+    }
+
+    // Sky exposure: nothing opaque above y, so caves are actually dark.
     @Override
     public boolean isLit(int x, int y, int z) {
         if (y < 0)
             return false;
         if (y >= this.depth)
             return true;
-        final int MAX_SCAN = 64;
-        int yMax = Math.min(this.depth - 1, y + MAX_SCAN);
-        for (int yy = y + 1; yy <= yMax; yy++) {
-            int id = getTile(x, yy, z);
-            if (id > 0) {
-                Block b = Block.blocks[id];
-                if (b != null && b.isOpaque())
-                    return false;
-            }
-        }
-        return true;
+        return getColumnHeight(HeightMap.LIGHT, x, z) <= y + 1;
     }
 
     @Override
@@ -204,54 +197,75 @@ public final class LevelInfiniteTerrain extends Level {
     private int bossBattleCounter = 0; // counts soundtrack ticks
     private boolean bossBattleWarned = false;
 
+    // getTile may load or request chunks
+    @Override
+    public boolean hasConcurrentReads() {
+        return false;
+    }
+
     // === Tick system ===
     @Override
     public void tick() {
         tickCount++;
 
+        // --- Background chunk generation ---
+        long phase = Profiler.start();
+        if (player != null) {
+            chunks.setFocus((int) Math.floor(player.x) >> 4, (int) Math.floor(player.z) >> 4);
+        }
+        chunks.integrateBuilt(8, this::onChunkReady);
+        Profiler.end(Profiler.CHUNK_LOADING, phase);
+
         // --- Scheduled block ticks ---
+        phase = Profiler.start();
+        TickScheduler ticks = this.tickScheduler;
         int processed = 0;
         int maxPerTick = 2050; // high cap for infinite terrain
-        for (int i = 0; i < tickList.size() && processed < maxPerTick; i++) {
-            NextTickListEntry e = tickList.remove(0);
-
-            if (e.ticks > 0) {
-                e.ticks--;
-                tickList.add(e);
+        while (processed < maxPerTick && ticks.poll(this.tickCount)) {
+            int x = ticks.x, y = ticks.y, z = ticks.z;
+            if (!isBuilt(x - 1, z - 1) || !isBuilt(x + 1, z - 1) || !isBuilt(x - 1, z + 1) || !isBuilt(x + 1, z + 1)) {
+                addToTickNextTick(x, y, z, ticks.block); // a neighbour column is still generating
+                processed++;
                 continue;
             }
-
-            int id = getTile(e.x, e.y, e.z);
-            if (id == e.block && id > 0 && Block.blocks[id] != null) {
-                Block.blocks[id].update(this, e.x, e.y, e.z, random);
+            int id = getTile(x, y, z);
+            if (id == ticks.block && id > 0 && Block.blocks[id] != null) {
+                Block.blocks[id].update(this, x, y, z, random);
 
                 // liquids must always keep flowing → requeue next tick
                 if (Block.blocks[id].getLiquidType() != LiquidType.NOT_LIQUID) {
-                    addToTickNextTick(e.x, e.y, e.z, id);
+                    addToTickNextTick(x, y, z, id);
                 }
             }
             processed++;
         }
+        Profiler.end(Profiler.SCHEDULED, phase);
 
-        // --- Random block updates near player ---
+        // --- Random block updates: non-empty sections of loaded chunks near the player ---
+        phase = Profiler.start();
         if (player != null) {
-            int updates = 20;
-            int range = 32;
-            for (int i = 0; i < updates; i++) {
-                int x = (int) player.x + random.nextInt(range) - range / 2;
-                int z = (int) player.z + random.nextInt(range) - range / 2;
-                int y = random.nextInt(this.depth);
-
-                int id = getTile(x, y, z);
-                if (id > 0 && Block.physics[id]) {
-                    if (Block.blocks[id].getLiquidType() == LiquidType.NOT_LIQUID) {
-                        Block.blocks[id].update(this, x, y, z, random);
+            int pcx = (int) Math.floor(player.x) >> 4, pcz = (int) Math.floor(player.z) >> 4;
+            int radius = TickSections.simulationRadius;
+            if (radius > 0) {
+                for (int cz = pcz - radius; cz <= pcz + radius; cz++) {
+                    for (int cx = pcx - radius; cx <= pcx + radius; cx++) {
+                        SimpleChunk c = chunks.tryGet(cx, cz);
+                        if (c != null && c.blocks != null)
+                            randomTickColumn(c.tickable, c.blocks, 0, 0, cx << 4, cz << 4, false);
                     }
                 }
+            } else {
+                for (SimpleChunk c : new ArrayList<>(chunks.getAllChunks().values())) {
+                    if (c.blocks != null)
+                        randomTickColumn(c.tickable, c.blocks, 0, 0, c.cx << 4, c.cz << 4, false);
+                }
             }
         }
 
+        Profiler.end(Profiler.RANDOM_UPDATES, phase);
+
         // --- Mob despawn ---
+        phase = Profiler.start();
         if (this.blockMap != null && this.blockMap.all != null) {
             final float DESPAWN_RANGE = 64f;
             final float DESPAWN_D2 = DESPAWN_RANGE * DESPAWN_RANGE;
@@ -281,12 +295,16 @@ public final class LevelInfiniteTerrain extends Level {
             }
         }
 
+        Profiler.end(Profiler.DESPAWN, phase);
+
         // --- Mob spawn pass ---
         // Spawn mobs when this level is authoritative (not network mode). Don't rely on
         // `minecraft` being present.
         if (!this.isNetworkMode() && this.tickCount % 20 == 0) {
+            phase = Profiler.start();
             MobSpawner spawner = new MobSpawner(this);
             spawner.spawn(4, this.player, null, true);
+            Profiler.end(Profiler.SPAWNER, phase);
         }
 
         // --- Cleanup old chunks ---
@@ -317,6 +335,8 @@ public final class LevelInfiniteTerrain extends Level {
                                 }
                             }
                         }
+                        c.heights.rebuild(c.blocks);
+                        c.tickable.rebuild(c.blocks);
                         c.meshed = false;
                         c.corrupted26M = true;
                     }
@@ -327,6 +347,9 @@ public final class LevelInfiniteTerrain extends Level {
                 for (SimpleChunk c : loaded) {
                     if (c.corrupted26M) {
                         gen.generateChunk(c, c.cx * SimpleChunk.SIZE, c.cz * SimpleChunk.SIZE, false, this);
+                        c.heights.rebuild(c.blocks);
+                        c.tickable.rebuild(c.blocks);
+                        lightEngine.onChunkLoaded(c);
                         c.meshed = false;
                         c.corrupted26M = false;
                     }
@@ -354,6 +377,8 @@ public final class LevelInfiniteTerrain extends Level {
                             default -> (byte) Block.GRASS.id;
                             };
                         }
+                        c.heights.rebuild(c.blocks);
+                        c.tickable.rebuild(c.blocks);
                         c.meshed = false;
                         c.corrupted30M = true;
                     }
@@ -364,6 +389,9 @@ public final class LevelInfiniteTerrain extends Level {
                 for (SimpleChunk c : loaded) {
                     if (c.corrupted30M) {
                         gen.generateChunk(c, c.cx * SimpleChunk.SIZE, c.cz * SimpleChunk.SIZE, false, this);
+                        c.heights.rebuild(c.blocks);
+                        c.tickable.rebuild(c.blocks);
+                        lightEngine.onChunkLoaded(c);
                         c.meshed = false;
                         c.corrupted30M = false;
                     }
@@ -438,19 +466,8 @@ public final class LevelInfiniteTerrain extends Level {
         // Run only once every 5 seconds (100 ticks at 20 TPS)
         if (this.tickCount % 100 != 0) return;
 
-        int removed = 0;
-        int maxPerTick = 4; // limit how many chunks get removed per cycle
-
-        var it = chunks.getAllChunks().entrySet().iterator();
-        while (it.hasNext() && removed < maxPerTick) {
-            var e = it.next();
-            SimpleChunk c = e.getValue();
-            if (!c.isActive(this.tickCount, timeout)) {
-                c.dispose(); // clear arrays before removal
-                it.remove();
-                removed++;
-            }
-        }
+        // edited chunks are written to region storage on the way out
+        chunks.unloadInactive(this.tickCount, timeout, 4);
     }
 
 
@@ -458,15 +475,13 @@ public final class LevelInfiniteTerrain extends Level {
     public void addToTickNextTick(int x, int y, int z, int blockId) {
         if (blockId <= 0)
             return;
-        NextTickListEntry e = new NextTickListEntry(x, y, z, blockId);
 
         // Liquids tick every frame (fast like Classic finite worlds)
         if (Block.blocks[blockId].getLiquidType() != LiquidType.NOT_LIQUID) {
-            e.ticks = 1;
+            scheduleTick(x, y, z, blockId, 1);
         } else {
-            e.ticks = Block.blocks[blockId].getTickDelay();
+            scheduleTick(x, y, z, blockId, Block.blocks[blockId].getTickDelay());
         }
-        tickList.add(e);
     }
 
     // === Bounds ===
@@ -475,6 +490,26 @@ public final class LevelInfiniteTerrain extends Level {
         return y >= 0 && y < this.depth;
     }
 
+    // === Flow levels (SimpleChunk.flow) ===
+    @Override
+    public int getStoredFlow(int x, int y, int z) {
+        if (y < 0 || y >= this.depth)
+            return -1;
+        SimpleChunk c = chunks.tryGet(x >> 4, z >> 4);
+        return c == null || c.blocks == null ? -1 : c.getFlow(x & 15, y, z & 15);
+    }
+
+    @Override
+    public void setFlowLevel(int x, int y, int z, int level) {
+        if (y < 0 || y >= this.depth)
+            return;
+        SimpleChunk c = chunks.tryGet(x >> 4, z >> 4);
+        if (c == null || c.blocks == null || (c.flow == null && level < 0))
+            return;
+        c.setFlow(x & 15, y, z & 15, level);
+        c.dirty = true;
+    }
+
     @Override
     public void findSpawn() {
         this.xSpawn = 0;
@@ -499,65 +534,14 @@ public final class LevelInfiniteTerrain extends Level {
         return this.depth;
     }
 
-    // Add these fields to LevelInfiniteTerrain
-    private final java.util.HashMap<Long, Float> brightnessCache = new java.util.HashMap<>();
-    private int brightnessCacheTick = -1;
-
-    // Extracted heavy brightness logic into a private helper
-    private float computeBrightnessInternal(int x, int y, int z) {
-        if (y < 0)
-            return 0.05f;
-        if (y >= this.depth)
-            return 1.0f;
-
-        int id = getTile(x, y, z);
-        if (id > 0) {
-            Block b = Block.blocks[id];
-            if (b != null) {
-                int lv = b.getLightValue();
-                if (lv > 0)
-                    return 1.0f; // 🔥 fire/lava = full bright
-            }
-        }
-
-        // --- Nearby glow (reduced radius for performance) ---
-        final int R = 3; // 🔥 much smaller radius
-        final float R2 = R * R;
-        float maxGlow = 0f;
-
-        for (int dx = -R; dx <= R; dx++) {
-            for (int dy = -R; dy <= R; dy++) {
-                for (int dz = -R; dz <= R; dz++) {
-                    int idn = getTile(x + dx, y + dy, z + dz);
-                    if (idn <= 0)
-                        continue;
-                    Block nb = Block.blocks[idn];
-                    if (nb == null)
-                        continue;
-
-                    int lv = nb.getLightValue();
-                    if (lv <= 0)
-                        continue;
-
-                    float dist2 = dx * dx + dy * dy + dz * dz;
-                    if (dist2 > R2)
-                        continue;
-
-                    float strength = (lv / 15.0f) * (1.0f - (float) Math.sqrt(dist2) / R);
-                    if (strength > maxGlow)
-                        maxGlow = strength;
-                }
-            }
-        }
-
-        if (maxGlow > 0f) {
-            return Math.min(1.0f, 0.25f + maxGlow * 0.75f);
-        }
-
-        // Default: sky/cave brightness
-        final float outside = getDayFactorSmooth();
-        final float caveBase = 0.35f;
-        return isLit(x, y, z) ? outside : caveBase;
+    /**
+     * Whether column (x, z) is generated, building it inline only next to the player (see
+     * {@link SimpleChunkManager#peek}). {@link #getTile} reads other unbuilt columns as air
+     * over bedrock, so writes there are refused; otherwise physics reacting to that air would
+     * generate the chunk inline and write over its terrain.
+     */
+    private boolean isBuilt(int x, int z) {
+        return chunks.peek(x >> 4, z >> 4) != null;
     }
 
     // === Core block access ===
@@ -565,32 +549,54 @@ public final class LevelInfiniteTerrain extends Level {
     public int getTile(int x, int y, int z) {
         if (y < 0 || y >= this.depth)
             return 0;
-        SimpleChunk c = chunks.getOrCreate(x >> 4, z >> 4);
+        SimpleChunk c = chunks.peek(x >> 4, z >> 4);
+        if (c == null)
+            return y == 0 ? Block.BEDROCK.id : 0; // still generating: air over bedrock
         c.markActive(this.tickCount);
         return c.blocks[SimpleChunk.idx(x & 15, y, z & 15, this.depth)] & 0xFF;
     }
 
-    // --- NEW light accessor ---
-    public int getLight(int x, int y, int z) {
+    // === Block light storage (SimpleChunk.light, filled by LightEngine) ===
+    @Override
+    public boolean hasBlockLight(int x, int y, int z) {
+        if (y < 0 || y >= this.depth)
+            return false;
+        SimpleChunk c = chunks.tryGet(x >> 4, z >> 4);
+        return c != null && c.light != null;
+    }
+
+    @Override
+    public int getBlockLight(int x, int y, int z) {
         if (y < 0 || y >= this.depth)
             return 0;
-        SimpleChunk c = chunks.getOrCreate(x >> 4, z >> 4);
-        return c.getLight(x & 15, y, z & 15);
+        SimpleChunk c = chunks.tryGet(x >> 4, z >> 4);
+        return c == null || c.light == null ? 0 : c.getLight(x & 15, y, z & 15);
     }
 
-    // --- NEW light setter ---
-    public void setLight(int x, int y, int z, int value) {
+    @Override
+    public void setBlockLight(int x, int y, int z, int value) {
         if (y < 0 || y >= this.depth)
             return;
-        SimpleChunk c = chunks.getOrCreate(x >> 4, z >> 4);
-        c.setLight(x & 15, y, z & 15, value);
-        markSliceAndNeighbors(x, y, z); // force rebuild for renderer
+        SimpleChunk c = chunks.tryGet(x >> 4, z >> 4);
+        if (c != null && c.light != null)
+            c.setLight(x & 15, y, z & 15, value);
+    }
+
+    @Override
+    public void onBlockLightChanged(int x0, int y0, int z0, int x1, int y1, int z1) {
+        if (this.minecraft == null || this.minecraft.levelRenderer == null)
+            return;
+        final var lr = this.minecraft.levelRenderer;
+        for (int cx = (x0 - 1) >> 4; cx <= (x1 + 1) >> 4; cx++)
+            for (int sy = Math.max(0, y0 - 1) >> 4; sy <= (y1 + 1) >> 4; sy++)
+                for (int cz = (z0 - 1) >> 4; cz <= (z1 + 1) >> 4; cz++)
+                    lr.markDirty(cx, sy, cz);
     }
 
     // === Tile setters ===
     @Override
     public boolean setTile(int x, int y, int z, int id) {
-        if (y < 0 || y >= this.depth)
+        if (y < 0 || y >= this.depth || !isBuilt(x, z))
             return false;
         int old = getTile(x, y, z);
         if (old == id)
@@ -598,18 +604,7 @@ public final class LevelInfiniteTerrain extends Level {
 
         chunks.setBlock(x, y, z, (byte) id);
         updateFlowLevelMap(x, y, z, id);
-
-        // --- update light if block emits light ---
-        if (id > 0 && Block.blocks[id] != null) {
-            int lv = Block.blocks[id].getLightValue();
-            if (lv > 0) {
-                setLight(x, y, z, lv);
-            } else {
-                setLight(x, y, z, 0);
-            }
-        } else {
-            setLight(x, y, z, 0);
-        }
+        lightEngine.onBlockChanged(x, y, z);
 
         if (old > 0 && Block.blocks[old] != null) {
             Block.blocks[old].onRemoved(this, x, y, z);
@@ -633,7 +628,8 @@ public final class LevelInfiniteTerrain extends Level {
         this.listeners = new ArrayList<>();
         this.random = new java.util.Random();
         this.tickCount = 0;
-        this.flowLevels = new java.util.HashMap<>();
+        if (this.lightEngine == null)
+            this.lightEngine = new LightEngine(this);
 
         // keep the existing infinite-aware blockMap
         if (this.blockMap == null) {
@@ -648,9 +644,6 @@ public final class LevelInfiniteTerrain extends Level {
                     e.xo = e.x;
                     e.yo = e.y;
                     e.zo = e.z;
-                    e.xOld = e.x;
-                    e.yOld = e.y;
-                    e.zOld = e.z;
                     e.removed = false;
                     e.blockMap = this.blockMap;
                 }
@@ -660,7 +653,7 @@ public final class LevelInfiniteTerrain extends Level {
 
     @Override
     public boolean setTileNoNeighborChange(int x, int y, int z, int id) {
-        if (y < 0 || y >= this.depth)
+        if (y < 0 || y >= this.depth || !isBuilt(x, z))
             return false;
         int old = getTile(x, y, z);
         if (old == id)
@@ -668,6 +661,7 @@ public final class LevelInfiniteTerrain extends Level {
 
         chunks.setBlock(x, y, z, (byte) id);
         updateFlowLevelMap(x, y, z, id);
+        lightEngine.onBlockChanged(x, y, z);
 
         if (old > 0 && Block.blocks[old] != null) {
             Block.blocks[old].onRemoved(this, x, y, z);
@@ -751,8 +745,8 @@ public final class LevelInfiniteTerrain extends Level {
     }
 
     @Override
-    public ArrayList getCubes(AABB box) {
-        ArrayList out = new ArrayList();
+    public void getCubes(AABB box, CollisionBuffer out) {
+        out.clear();
         int x0 = (int) Math.floor(box.x0), x1 = (int) Math.floor(box.x1);
         int y0 = (int) Math.floor(box.y0), y1 = (int) Math.floor(box.y1);
         int z0 = (int) Math.floor(box.z0), z1 = (int) Math.floor(box.z1);
@@ -768,16 +762,28 @@ public final class LevelInfiniteTerrain extends Level {
                     Block b = Block.blocks[id];
                     if (b == null)
                         continue;
-                    AABB bb = b.getCollisionBox(x, y, z);
-                    if (bb != null && box.intersectsInner(bb))
-                        out.add(bb);
+                    b.addCollisionBox(x, y, z, box, out);
                 }
             }
         }
-        return out;
     }
 
     // helper
+    // A background-generated chunk arrived: its column and the faces of its neighbours
+    // were meshed against air, so rebuild them.
+    private void onChunkReady(SimpleChunk c) {
+        if (this.minecraft == null || this.minecraft.levelRenderer == null)
+            return;
+        final var lr = this.minecraft.levelRenderer;
+        for (int sy = 0; sy < (this.depth + 15) >> 4; sy++) {
+            lr.markDirty(c.cx, sy, c.cz);
+            lr.markDirty(c.cx - 1, sy, c.cz);
+            lr.markDirty(c.cx + 1, sy, c.cz);
+            lr.markDirty(c.cx, sy, c.cz - 1);
+            lr.markDirty(c.cx, sy, c.cz + 1);
+        }
+    }
+
     private void markSliceAndNeighbors(int x, int y, int z) {
         if (this.minecraft == null || this.minecraft.levelRenderer == null)
             return;
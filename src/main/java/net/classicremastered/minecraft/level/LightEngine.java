@@ -1,12 +1,29 @@
 package net.classicremastered.minecraft.level;
 
+import java.util.Arrays;
+
+import net.classicremastered.minecraft.level.infinite.SimpleChunk;
 import net.classicremastered.minecraft.level.tile.Block;
 import net.classicremastered.util.MathHelper;
 
 public final class LightEngine {
 
+    /** Light lost per block step; 15 -> 10 -> 5 -> 0 matches the old 3-block glow radius. */
+    public static final int FALLOFF = 5;
+
+    private static final int[] DX = { -1, 1, 0, 0, 0, 0 };
+    private static final int[] DY = { 0, 0, -1, 1, 0, 0 };
+    private static final int[] DZ = { 0, 0, 0, 0, -1, 1 };
+
     private final Level level;
-    private float lastDayFactor = -1f;
+
+    // BFS queues (x, y, z, light) reused between updates
+    private final IntQueue addQueue = new IntQueue();
+    private final IntQueue removeQueue = new IntQueue();
+
+    // bounds of cells touched by the current update, for renderer invalidation
+    private int minX, minY, minZ, maxX, maxY, maxZ;
+    private boolean touched;
 
     public LightEngine(Level level) {
         this.level = level;
@@ -22,41 +39,23 @@ public final class LightEngine {
     }
 
     public float getBrightness(int x, int y, int z) {
-        // --- Base from static light value (fire, lava, etc.) ---
-        int id = level.getTile(x, y, z);
-        int lv = (id > 0 && Block.blocks[id] != null) ? Block.blocks[id].getLightValue() : 0;
-        float blockLight = lv > 0 ? (lv / 15.0f) : 0f;
-
-        // --- Nearby emissive scan (3-block radius) ---
-        final int R = 3;
-        final float R2 = R * R;
-        float glow = blockLight;
-        for (int dx = -R; dx <= R; dx++) {
-            for (int dy = -R; dy <= R; dy++) {
-                for (int dz = -R; dz <= R; dz++) {
-                    int bid = level.getTile(x + dx, y + dy, z + dz);
-                    if (bid <= 0)
-                        continue;
-                    Block b = Block.blocks[bid];
-                    if (b == null)
-                        continue;
-                    int lv2 = b.getLightValue();
-                    if (lv2 <= 0)
-                        continue;
-
-                    float dist2 = dx * dx + dy * dy + dz * dz;
-                    if (dist2 > R2)
-                        continue;
-                    float strength = (lv2 / 15.0f) * (1.0f - (float) Math.sqrt(dist2) / R);
-                    if (strength > glow)
-                        glow = strength;
-                }
-            }
-        }
+        return brightness(level.getBlockLight(x, y, z), level.isLit(x, y, z), getSkyLight(),
+                level.getDaylightBrightness());
+    }
+
+    /**
+     * Pure brightness formula, also used by the off-thread chunk mesher.
+     *
+     * @param blockLight propagated block light 0..15
+     * @param lit        whether the cell sees the sky
+     * @param sky        {@link #getSkyLight()}
+     * @param dayFactor  {@link Level#getDaylightBrightness()}
+     */
+    public static float brightness(int blockLight, boolean lit, float sky, float dayFactor) {
+        // --- Emissive light from the propagated block-light field (O(1)) ---
+        float glow = blockLight / 15.0f;
 
         // --- Daylight factor (make fire/lava dimmer under sun) ---
-        float sky = getSkyLight();
-        float dayFactor = level.getDaylightBrightness(); // 0.2 night .. 1.0 noon
         float nightFactor = 1.0f - (dayFactor - 0.2f) / 0.8f; // 1 at night, 0 at noon
         if (nightFactor < 0f)
             nightFactor = 0f;
@@ -67,7 +66,7 @@ public final class LightEngine {
         glow *= (0.4f + 0.6f * nightFactor);
 
         // --- Combine with skylight ---
-        float base = level.isLit(x, y, z) ? sky : 0.35f;
+        float base = lit ? sky : 0.35f;
         float result = base + (1f - base) * glow;
 
         // --- Clamp ---
@@ -78,16 +77,284 @@ public final class LightEngine {
         return result;
     }
 
-    /** Recalculate when day/night changes noticeably (~2%). */
-    public boolean shouldRefreshChunks() {
-        float f = getSkyLight();
-        boolean changed = Math.abs(f - lastDayFactor) > 0.02f;
-        if (changed)
-            lastDayFactor = f;
-        return changed;
+    // === Block light propagation ===
+
+    /** Rebuild the whole block-light field of a finite level from its emitters. */
+    public void relightAll() {
+        byte[] blocks = level.blocks;
+        if (blocks == null)
+            return;
+        int w = level.width, h = level.height, d = level.depth;
+        if (level.blockLight == null || level.blockLight.length != blocks.length) {
+            level.blockLight = new byte[blocks.length];
+        } else {
+            Arrays.fill(level.blockLight, (byte) 0);
+        }
+
+        addQueue.clear();
+        for (int y = 0; y < d; y++) {
+            for (int z = 0; z < h; z++) {
+                for (int x = 0; x < w; x++) {
+                    int lv = emission(blocks[(y * h + z) * w + x] & 0xFF);
+                    if (lv > 0) {
+                        level.blockLight[(y * h + z) * w + x] = (byte) lv;
+                        addQueue.push(x, y, z, lv);
+                    }
+                }
+            }
+        }
+        propagateAdd();
+        touched = false; // full relight: callers refresh the renderer themselves
+    }
+
+    /**
+     * Seed a freshly generated or restored infinite chunk: its own emitters plus
+     * light flowing in from already loaded neighbours. Never generates chunks.
+     */
+    public void onChunkLoaded(SimpleChunk c) {
+        if (c.blocks == null || c.light == null)
+            return;
+        Arrays.fill(c.light, (byte) 0);
+        int ox = c.cx * SimpleChunk.SIZE, oz = c.cz * SimpleChunk.SIZE;
+
+        beginUpdate();
+        for (int y = 0; y < c.height; y++) {
+            for (int z = 0; z < SimpleChunk.SIZE; z++) {
+                for (int x = 0; x < SimpleChunk.SIZE; x++) {
+                    int i = SimpleChunk.idx(x, y, z, c.height);
+                    int lv = emission(c.blocks[i] & 0xFF);
+                    if (lv > 0) {
+                        c.light[i] = (byte) lv;
+                        addQueue.push(ox + x, y, oz + z, lv);
+                    }
+                }
+            }
+        }
+
+        // border cells of the four neighbours push their light back in
+        for (int y = 0; y < c.height; y++) {
+            for (int i = 0; i < SimpleChunk.SIZE; i++) {
+                seedFrom(ox - 1, y, oz + i);
+                seedFrom(ox + SimpleChunk.SIZE, y, oz + i);
+                seedFrom(ox + i, y, oz - 1);
+                seedFrom(ox + i, y, oz + SimpleChunk.SIZE);
+            }
+        }
+        propagateAdd();
+        endUpdate();
+    }
+
+    /** Incrementally update the light field after the block at (x,y,z) changed. */
+    public void onBlockChanged(int x, int y, int z) {
+        if (!level.hasBlockLight(x, y, z))
+            return;
+        beginUpdate();
+
+        int old = level.getBlockLight(x, y, z);
+        if (old > 0) {
+            level.setBlockLight(x, y, z, 0);
+            mark(x, y, z);
+            removeQueue.push(x, y, z, old);
+            propagateRemove();
+        }
+
+        int lv = emission(level.getTile(x, y, z));
+        if (lv > 0) {
+            level.setBlockLight(x, y, z, lv);
+            mark(x, y, z);
+            addQueue.push(x, y, z, lv);
+        }
+
+        // an opened cell lets the neighbours' light flow in again
+        for (int i = 0; i < 6; i++) {
+            seedFrom(x + DX[i], y + DY[i], z + DZ[i]);
+        }
+        propagateAdd();
+        endUpdate();
+    }
+
+    /** {@link #onBlockChanged} for many cells (packed, see {@link Level#getCoordKey}) in one propagation. */
+    public void onBlocksChanged(long[] cells, int count) {
+        beginUpdate();
+        for (int i = 0; i < count; i++) {
+            int x = BlockEditBatch.keyX(cells[i]), y = BlockEditBatch.keyY(cells[i]), z = BlockEditBatch.keyZ(cells[i]);
+            if (!level.hasBlockLight(x, y, z))
+                continue;
+            int old = level.getBlockLight(x, y, z);
+            if (old > 0) {
+                level.setBlockLight(x, y, z, 0);
+                mark(x, y, z);
+                removeQueue.push(x, y, z, old);
+            }
+        }
+        propagateRemove();
+
+        for (int i = 0; i < count; i++) {
+            int x = BlockEditBatch.keyX(cells[i]), y = BlockEditBatch.keyY(cells[i]), z = BlockEditBatch.keyZ(cells[i]);
+            if (!level.hasBlockLight(x, y, z))
+                continue;
+            int lv = emission(level.getTile(x, y, z));
+            if (lv > level.getBlockLight(x, y, z)) {
+                level.setBlockLight(x, y, z, lv);
+                mark(x, y, z);
+                addQueue.push(x, y, z, lv);
+            }
+            for (int d = 0; d < 6; d++) {
+                seedFrom(x + DX[d], y + DY[d], z + DZ[d]);
+            }
+        }
+        propagateAdd();
+        endUpdate();
+    }
+
+    private void seedFrom(int x, int y, int z) {
+        if (!level.hasBlockLight(x, y, z))
+            return;
+        int l = level.getBlockLight(x, y, z);
+        if (l > FALLOFF)
+            addQueue.push(x, y, z, l);
+    }
+
+    private void propagateRemove() {
+        IntQueue q = removeQueue;
+        while (!q.isEmpty()) {
+            int x = q.pollX(), y = q.pollY(), z = q.pollZ(), l = q.pollLight();
+            q.pop();
+            for (int i = 0; i < 6; i++) {
+                int nx = x + DX[i], ny = y + DY[i], nz = z + DZ[i];
+                if (!level.hasBlockLight(nx, ny, nz))
+                    continue;
+                int nl = level.getBlockLight(nx, ny, nz);
+                if (nl == 0)
+                    continue;
+                if (nl < l) {
+                    level.setBlockLight(nx, ny, nz, 0);
+                    mark(nx, ny, nz);
+                    q.push(nx, ny, nz, nl);
+                    int lv = emission(level.getTile(nx, ny, nz));
+                    if (lv > 0) {
+                        level.setBlockLight(nx, ny, nz, lv);
+                        addQueue.push(nx, ny, nz, lv);
+                    }
+                } else {
+                    addQueue.push(nx, ny, nz, nl);
+                }
+            }
+        }
+        q.clear();
+    }
+
+    private void propagateAdd() {
+        IntQueue q = addQueue;
+        while (!q.isEmpty()) {
+            int x = q.pollX(), y = q.pollY(), z = q.pollZ();
+            q.pop();
+            int l = level.getBlockLight(x, y, z) - FALLOFF;
+            if (l <= 0)
+                continue;
+            for (int i = 0; i < 6; i++) {
+                int nx = x + DX[i], ny = y + DY[i], nz = z + DZ[i];
+                if (!level.hasBlockLight(nx, ny, nz))
+                    continue;
+                if (level.getBlockLight(nx, ny, nz) >= l)
+                    continue;
+                if (level.isLightBlocker(nx, ny, nz))
+                    continue;
+                level.setBlockLight(nx, ny, nz, l);
+                mark(nx, ny, nz);
+                q.push(nx, ny, nz, l);
+            }
+        }
+        q.clear();
+    }
+
+    private void beginUpdate() {
+        touched = false;
+    }
+
+    private void mark(int x, int y, int z) {
+        if (!touched) {
+            minX = maxX = x;
+            minY = maxY = y;
+            minZ = maxZ = z;
+            touched = true;
+            return;
+        }
+        if (x < minX) minX = x;
+        if (x > maxX) maxX = x;
+        if (y < minY) minY = y;
+        if (y > maxY) maxY = y;
+        if (z < minZ) minZ = z;
+        if (z > maxZ) maxZ = z;
+    }
+
+    private void endUpdate() {
+        if (touched) {
+            touched = false;
+            level.onBlockLightChanged(minX, minY, minZ, maxX, maxY, maxZ);
+        }
+    }
+
+    private static int emission(int id) {
+        if (id <= 0)
+            return 0;
+        Block b = Block.blocks[id];
+        return b == null ? 0 : Math.max(0, Math.min(15, b.getLightValue()));
     }
 
     private static float clamp01(float v) {
         return v < 0f ? 0f : (v > 1f ? 1f : v);
     }
+
+    /** Growable FIFO of packed (x, y, z, light) entries; no per-entry objects. */
+    private static final class IntQueue {
+        private int[] data = new int[4 * 256];
+        private int head, tail;
+
+        void push(int x, int y, int z, int light) {
+            if (tail + 4 > data.length) {
+                if (head > 0) {
+                    System.arraycopy(data, head, data, 0, tail - head);
+                    tail -= head;
+                    head = 0;
+                }
+                if (tail + 4 > data.length) {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+            }
+            data[tail] = x;
+            data[tail + 1] = y;
+            data[tail + 2] = z;
+            data[tail + 3] = light;
+            tail += 4;
+        }
+
+        boolean isEmpty() {
+            return head == tail;
+        }
+
+        int pollX() {
+            return data[head];
+        }
+
+        int pollY() {
+            return data[head + 1];
+        }
+
+        int pollZ() {
+            return data[head + 2];
+        }
+
+        int pollLight() {
+            return data[head + 3];
+        }
+
+        void pop() {
+            head += 4;
+        }
+
+        void clear() {
+            head = tail = 0;
+        }
+    }
 }
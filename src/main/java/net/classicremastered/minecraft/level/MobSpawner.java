@@ -150,7 +150,8 @@ public final class MobSpawner {
                 int pz = (near != null) ? (int) near.z : level.zSpawn;
                 x0 = px + level.random.nextInt(SIM_RADIUS * 2) - SIM_RADIUS;
                 z0 = pz + level.random.nextInt(SIM_RADIUS * 2) - SIM_RADIUS;
-                ((LevelInfiniteTerrain) level).chunks().getOrCreate(x0 >> 4, z0 >> 4);
+                // only spawn into chunks that are already there; peek queues the rest
+                if (((LevelInfiniteTerrain) level).chunks().peek(x0 >> 4, z0 >> 4) == null) continue;
             } else {
                 x0 = this.level.random.nextInt(w);
                 z0 = this.level.random.nextInt(h);
@@ -166,8 +167,8 @@ public final class MobSpawner {
 
                 if (!isInfinite) {
                     if (x < 0 || z < 0 || x >= w || z >= h) continue;
-                } else {
-                    ((LevelInfiniteTerrain) level).chunks().getOrCreate(x >> 4, z >> 4);
+                } else if (((LevelInfiniteTerrain) level).chunks().peek(x >> 4, z >> 4) == null) {
+                    continue;
                 }
 
                 boolean tryCave;
@@ -246,8 +247,8 @@ public final class MobSpawner {
 
                     if (!isInfinite) {
                         if (sx < 0 || sz < 0 || sx >= w || sz >= h) continue;
-                    } else {
-                        ((LevelInfiniteTerrain) level).chunks().getOrCreate(sx >> 4, sz >> 4);
+                    } else if (((LevelInfiniteTerrain) level).chunks().peek(sx >> 4, sz >> 4) == null) {
+                        continue;
                     }
 
                     int syFeet = findSafeFeetY(sx, feetY, sz);
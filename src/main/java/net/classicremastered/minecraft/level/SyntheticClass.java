@@ -1,6 +0,0 @@
-package net.classicremastered.minecraft.level;
-
-
-// $FF: synthetic class
-final class SyntheticClass {
-}
@@ -0,0 +1,252 @@
+package net.classicremastered.minecraft.level;
+
+import java.util.Arrays;
+
+/**
+ * Timing wheel for scheduled block ticks, shared by finite and infinite levels.
+ * <p>
+ * Entries are packed primitives (coord key from {@link Level#getCoordKey}, block id,
+ * due tick) bucketed by due tick, so waiting entries are never touched until their
+ * slot comes round. Identical (x, y, z, block) entries are only queued once.
+ * <p>
+ * Drain with {@link #poll(int)}; the polled entry is exposed through {@link #x},
+ * {@link #y}, {@link #z} and {@link #block}.
+ */
+public final class TickScheduler {
+
+    private static final int SLOTS = 64; // power of two, > any block tick delay
+    private static final int MASK = SLOTS - 1;
+
+    private final long[][] slotPos = new long[SLOTS][];
+    private final int[][] slotBlock = new int[SLOTS][];
+    private final int[][] slotDue = new int[SLOTS][];
+    private final int[] slotSize = new int[SLOTS];
+
+    // oldest tick whose slot may still hold due entries, and the scan position in it
+    private int cursor;
+    private int readIndex, writeIndex;
+    private boolean started;
+
+    private final PendingSet pending = new PendingSet();
+
+    private int countTick;
+    private int processed;
+    private int lastProcessed;
+
+    /** Last polled entry. */
+    public int x, y, z, block;
+
+    public TickScheduler() {
+        for (int i = 0; i < SLOTS; i++) {
+            slotPos[i] = new long[16];
+            slotBlock[i] = new int[16];
+            slotDue[i] = new int[16];
+        }
+    }
+
+    /**
+     * Queue a tick for (x,y,z,block) at tick {@code due}. Returns false if an identical
+     * entry is already pending.
+     */
+    public boolean schedule(int x, int y, int z, int block, int due) {
+        long pos = Level.getCoordKey(x, y, z);
+        if (!pending.add(pos, block))
+            return false;
+        if (started && due < cursor)
+            due = cursor; // never place entries behind the drain cursor
+
+        int s = due & MASK;
+        int n = slotSize[s];
+        if (n == slotPos[s].length) {
+            int cap = n * 2;
+            slotPos[s] = Arrays.copyOf(slotPos[s], cap);
+            slotBlock[s] = Arrays.copyOf(slotBlock[s], cap);
+            slotDue[s] = Arrays.copyOf(slotDue[s], cap);
+        }
+        slotPos[s][n] = pos;
+        slotBlock[s][n] = block;
+        slotDue[s][n] = due;
+        slotSize[s] = n + 1;
+        return true;
+    }
+
+    /**
+     * Pop the next entry due at or before {@code now} into {@link #x}/{@link #y}/
+     * {@link #z}/{@link #block}. Entries left over when the caller stops early stay
+     * due and are returned first on the next tick.
+     */
+    public boolean poll(int now) {
+        if (now != countTick) {
+            lastProcessed = processed;
+            processed = 0;
+            countTick = now;
+        }
+        if (!started) {
+            cursor = now;
+            readIndex = writeIndex = 0;
+            started = true;
+        } else if (now - cursor > MASK) {
+            compactCursorSlot();
+            cursor = now - MASK; // each slot filters by due tick, so skipping laps is safe
+        }
+
+        while (true) {
+            int s = cursor & MASK;
+            long[] ps = slotPos[s];
+            int[] bs = slotBlock[s];
+            int[] ds = slotDue[s];
+            // entries appended while draining land past readIndex and are seen too
+            while (readIndex < slotSize[s]) {
+                int r = readIndex++;
+                if (ds[r] > now) {
+                    // a later lap of the wheel: keep it, closing the gap left by drained entries
+                    int w = writeIndex++;
+                    if (w != r) {
+                        ps[w] = ps[r];
+                        bs[w] = bs[r];
+                        ds[w] = ds[r];
+                    }
+                    continue;
+                }
+                long pos = ps[r];
+                int b = bs[r];
+                pending.remove(pos, b);
+
+                this.x = unpackX(pos);
+                this.y = unpackY(pos);
+                this.z = unpackZ(pos);
+                this.block = b;
+                processed++;
+                return true;
+            }
+            compactCursorSlot();
+            if (cursor == now)
+                return false;
+            cursor++;
+        }
+    }
+
+    // Drop the drained gap [writeIndex, readIndex) from the cursor slot and rewind.
+    private void compactCursorSlot() {
+        int s = cursor & MASK;
+        int n = slotSize[s];
+        int tail = n - readIndex;
+        if (writeIndex != readIndex && tail > 0) {
+            System.arraycopy(slotPos[s], readIndex, slotPos[s], writeIndex, tail);
+            System.arraycopy(slotBlock[s], readIndex, slotBlock[s], writeIndex, tail);
+            System.arraycopy(slotDue[s], readIndex, slotDue[s], writeIndex, tail);
+        }
+        slotSize[s] = writeIndex + tail;
+        readIndex = writeIndex = 0;
+    }
+
+    /** Drop every pending entry. */
+    public void clear() {
+        Arrays.fill(slotSize, 0);
+        pending.clear();
+        started = false;
+        readIndex = writeIndex = 0;
+    }
+
+    /** Entries waiting in the wheel. */
+    public int getPending() {
+        return pending.size;
+    }
+
+    /** Entries polled during the current tick so far. */
+    public int getProcessed() {
+        return processed;
+    }
+
+    /** Entries polled during the previous tick. */
+    public int getLastProcessed() {
+        return lastProcessed;
+    }
+
+    static int unpackX(long key) {
+        return (int) (key >> 38);
+    }
+
+    static int unpackZ(long key) {
+        return ((int) (key >>> 12) << 6) >> 6;
+    }
+
+    static int unpackY(long key) {
+        return (int) (key & 0xFFFL);
+    }
+
+    /** Open-addressing set of pending (coord key, block) pairs. */
+    private static final class PendingSet {
+        private long[] keys = new long[256];
+        private int[] blocks = new int[256];
+        private boolean[] used = new boolean[256];
+        int size;
+
+        private static int hash(long pos, int block) {
+            long h = pos * 0x9E3779B97F4A7C15L + block;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        boolean add(long pos, int block) {
+            if ((size + 1) * 2 > keys.length)
+                grow();
+            int mask = keys.length - 1;
+            int i = hash(pos, block) & mask;
+            while (used[i]) {
+                if (keys[i] == pos && blocks[i] == block)
+                    return false;
+                i = (i + 1) & mask;
+            }
+            used[i] = true;
+            keys[i] = pos;
+            blocks[i] = block;
+            size++;
+            return true;
+        }
+
+        void remove(long pos, int block) {
+            int mask = keys.length - 1;
+            int i = hash(pos, block) & mask;
+            while (used[i]) {
+                if (keys[i] == pos && blocks[i] == block) {
+                    // backward-shift deletion keeps probe chains intact
+                    int j = i;
+                    while (true) {
+                        j = (j + 1) & mask;
+                        if (!used[j])
+                            break;
+                        int home = hash(keys[j], blocks[j]) & mask;
+                        if (((j - home) & mask) >= ((j - i) & mask)) {
+                            keys[i] = keys[j];
+                            blocks[i] = blocks[j];
+                            i = j;
+                        }
+                    }
+                    used[i] = false;
+                    size--;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+
+        void clear() {
+            Arrays.fill(used, false);
+            size = 0;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldBlocks = blocks;
+            boolean[] oldUsed = used;
+            keys = new long[oldKeys.length * 2];
+            blocks = new int[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i])
+                    add(oldKeys[i], oldBlocks[i]);
+            }
+        }
+    }
+}
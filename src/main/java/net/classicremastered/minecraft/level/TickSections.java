@@ -0,0 +1,80 @@
+package net.classicremastered.minecraft.level;
+
+import net.classicremastered.minecraft.level.tile.Block;
+
+/**
+ * Count of randomly tickable blocks ({@link Block#physics}) in each 16x16x16 section of
+ * a block array laid out like {@link HeightMap}'s, so random ticks can skip the
+ * sections with none. Kept current by {@link #update} on every write; {@link #rebuild}
+ * recounts after bulk changes.
+ */
+public final class TickSections {
+
+    public static final int SIZE = 16;
+
+    /**
+     * Random ticks per non-empty section per tick; about the one-in-200 per block that
+     * finite levels have always sampled.
+     */
+    public static final int TICKS_PER_SECTION = 20;
+
+    /**
+     * Horizontal distance, in sections, from the player's section within which blocks
+     * are randomly ticked; 0 or less ticks every section of a finite level and every
+     * loaded chunk of an infinite one.
+     */
+    public static int simulationRadius = Integer.getInteger("mcraft.simulationRadius", 8);
+
+    public final int sizeX, sizeZ, depth;
+    /** Sections along x, y and z. */
+    public final int countX, countY, countZ;
+    private final short[] counts; // [(sy * countZ + sz) * countX + sx]
+
+    public TickSections(int sizeX, int sizeZ, int depth) {
+        this.sizeX = sizeX;
+        this.sizeZ = sizeZ;
+        this.depth = depth;
+        this.countX = (sizeX + SIZE - 1) / SIZE;
+        this.countY = (depth + SIZE - 1) / SIZE;
+        this.countZ = (sizeZ + SIZE - 1) / SIZE;
+        this.counts = new short[countX * countY * countZ];
+    }
+
+    public boolean fits(int sizeX, int sizeZ, int depth) {
+        return this.sizeX == sizeX && this.sizeZ == sizeZ && this.depth == depth;
+    }
+
+    /** Tickable blocks in section (sx, sy, sz). */
+    public int get(int sx, int sy, int sz) {
+        return counts[(sy * countZ + sz) * countX + sx];
+    }
+
+    /** Recount every section from {@code blocks}. */
+    public void rebuild(byte[] blocks) {
+        clear();
+        int i = 0;
+        for (int y = 0; y < depth; y++) {
+            int row = (y / SIZE) * countZ;
+            for (int z = 0; z < sizeZ; z++) {
+                int base = (row + z / SIZE) * countX;
+                for (int x = 0; x < sizeX; x++, i++) {
+                    if (Block.physics[blocks[i] & 0xFF])
+                        counts[base + x / SIZE]++;
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(counts, (short) 0);
+    }
+
+    /** Account for block {@code oldId} at (x, y, z) having been replaced by {@code newId}. */
+    public void update(int oldId, int newId, int x, int y, int z) {
+        boolean was = Block.physics[oldId & 0xFF], is = Block.physics[newId & 0xFF];
+        if (was != is) {
+            int i = ((y / SIZE) * countZ + z / SIZE) * countX + x / SIZE;
+            counts[i] += is ? 1 : -1;
+        }
+    }
+}
@@ -10,162 +10,234 @@ import net.classicremastered.util.MathHelper;
 
 import java.util.ArrayList;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
 
 public final class LevelGenerator {
 
+   // columns per side of one parallel work unit
+   private static final int TILE = 64;
+   // caves / ore veins per parallel work unit
+   private static final int FEATURES_PER_TASK = 16;
+
+   // phase ids for seedFor: every phase draws from its own stream
+   private static final int RAISE = 1, ERODE = 2, SOIL = 3, CAVES = 4, WATER = 5, MELT = 6,
+         GROW = 7, PLANT = 8, MUSHROOMS = 9, TREES = 10, STRUCTURES = 11, ORE = 16;
+
    private ProgressBarDisplay progressBar;
+   private final long seed;
+   private final int threads;
+   private ForkJoinPool pool;
    private int width;
    private int depth;
    private int height;
-   private Random random = new Random();
    private byte[] blocks;
    private int waterLevel;
    private int[] h = new int[1048576];
 
    public LevelGenerator(ProgressBarDisplay var1) {
+      this(var1, new Random().nextLong());
+   }
+
+   public LevelGenerator(ProgressBarDisplay var1, long seed) {
+      this(var1, seed, Runtime.getRuntime().availableProcessors());
+   }
+
+   /**
+    * Every phase and every cave, vein and flood draws from a stream derived from
+    * {@code seed}, and parallel phases only touch their own columns or write
+    * order-independent values, so a seed gives the same blocks for any {@code threads}.
+    */
+   public LevelGenerator(ProgressBarDisplay var1, long seed, int threads) {
       this.progressBar = var1;
+      this.seed = seed;
+      this.threads = Math.max(1, threads);
    }
 
    public final Level generate(String var1, int var2, int var3, int var4) {
+      this.pool = this.threads > 1 ? new ForkJoinPool(this.threads) : null;
+      try {
+         return this.generateLevel(var1, var2, var3);
+      } finally {
+         if (this.pool != null) {
+            this.pool.shutdownNow();
+            this.pool = null;
+         }
+      }
+   }
+
+   private Level generateLevel(String var1, int var2, int var3) {
       this.progressBar.setTitle("Generating level");
       this.width = var2;
       this.depth = var3;
       this.height = 64;
       this.waterLevel = 32;
       this.blocks = new byte[var2 * var3 << 6];
+      int[] heights = new int[this.width * this.depth];
+
       this.progressBar.setText("Raising..");
-      LevelGenerator var5 = this;
-      CombinedNoise var6 = new CombinedNoise(new OctaveNoise(this.random, 8), new OctaveNoise(this.random, 8));
-      CombinedNoise var7 = new CombinedNoise(new OctaveNoise(this.random, 8), new OctaveNoise(this.random, 8));
-      OctaveNoise var8 = new OctaveNoise(this.random, 6);
-      int[] var9 = new int[this.width * this.depth];
-      float var10 = 1.3F;
+      this.raise(heights);
+      this.progressBar.setText("Eroding..");
+      this.erode(heights);
+      this.progressBar.setText("Soiling..");
+      this.soil(heights);
+      this.progressBar.setText("Carving..");
+      this.carve();
+      this.populateOre(Block.COAL_ORE.id, 90, 1);
+      this.populateOre(Block.IRON_ORE.id, 70, 2);
+      this.populateOre(Block.GOLD_ORE.id, 50, 3);
+      this.progressBar.setText("Watering..");
+      this.water();
+      this.progressBar.setText("Melting..");
+      this.melt();
+      this.progressBar.setText("Growing..");
+      this.grow(heights);
+      this.progressBar.setText("Planting..");
+      this.plantFlowers(heights);
+      this.plantMushrooms(heights);
 
-      int var11;
-      int var12;
-      for(var11 = 0; var11 < var5.width; ++var11) {
-         var5.setProgress(var11 * 100 / (var5.width - 1));
+      Level var65;
+      (var65 = new Level()).waterLevel = this.waterLevel;
+      var65.setData(var2, 64, var3, this.blocks);
+      var65.createTime = System.currentTimeMillis();
+      var65.creator = var1;
+      var65.name = "A Nice World";
+      this.plantTrees(var65, heights);
 
-         for(var12 = 0; var12 < var5.depth; ++var12) {
-            double var13 = var6.compute((double)((float)var11 * var10), (double)((float)var12 * var10)) / 6.0D + (double)-4;
-            double var15 = var7.compute((double)((float)var11 * var10), (double)((float)var12 * var10)) / 5.0D + 10.0D + (double)-4;
-            if(var8.compute((double)var11, (double)var12) / 8.0D > 0.0D) {
-               var15 = var13;
-            }
+      // === NEW: Structure placement ===
+      this.progressBar.setText("Building structures..");
+      try {
+         Random structRand = new Random(this.seedFor(STRUCTURES, 0L));
+         StructureRegistry.INSTANCE.bootstrapDefaults();
+         StructureRegistry.INSTANCE.placeAll(var65, structRand);
+      } catch (Throwable t) {
+         t.printStackTrace();
+      }
 
-            double var19;
-            if((var19 = Math.max(var13, var15) / 2.0D) < 0.0D) {
-               var19 *= 0.8D;
-            }
+      return var65;
+   }
 
-            var9[var11 + var12 * var5.width] = (int)var19;
-         }
-      }
+   private void raise(int[] var9) {
+      Random var5 = new Random(this.seedFor(RAISE, 0L));
+      CombinedNoise var6 = new CombinedNoise(new OctaveNoise(var5, 8), new OctaveNoise(var5, 8));
+      CombinedNoise var7 = new CombinedNoise(new OctaveNoise(var5, 8), new OctaveNoise(var5, 8));
+      OctaveNoise var8 = new OctaveNoise(var5, 6);
+      float var10 = 1.3F;
 
-      this.progressBar.setText("Eroding..");
-      int[] var42 = var9;
-      var5 = this;
-      var7 = new CombinedNoise(new OctaveNoise(this.random, 8), new OctaveNoise(this.random, 8));
-      CombinedNoise var49 = new CombinedNoise(new OctaveNoise(this.random, 8), new OctaveNoise(this.random, 8));
+      this.forEachTile((x0, z0, x1, z1) -> {
+         for(int var11 = x0; var11 < x1; ++var11) {
+            for(int var12 = z0; var12 < z1; ++var12) {
+               double var13 = var6.compute((double)((float)var11 * var10), (double)((float)var12 * var10)) / 6.0D + (double)-4;
+               double var15 = var7.compute((double)((float)var11 * var10), (double)((float)var12 * var10)) / 5.0D + 10.0D + (double)-4;
+               if(var8.compute((double)var11, (double)var12) / 8.0D > 0.0D) {
+                  var15 = var13;
+               }
 
-      int var23;
-      int var51;
-      int var54;
-      for(var51 = 0; var51 < var5.width; ++var51) {
-         var5.setProgress(var51 * 100 / (var5.width - 1));
-
-         for(var54 = 0; var54 < var5.depth; ++var54) {
-            double var21 = var7.compute((double)(var51 << 1), (double)(var54 << 1)) / 8.0D;
-            var12 = var49.compute((double)(var51 << 1), (double)(var54 << 1)) > 0.0D?1:0;
-            if(var21 > 2.0D) {
-               var23 = ((var42[var51 + var54 * var5.width] - var12) / 2 << 1) + var12;
-               var42[var51 + var54 * var5.width] = var23;
-            }
-         }
-      }
+               double var19;
+               if((var19 = Math.max(var13, var15) / 2.0D) < 0.0D) {
+                  var19 *= 0.8D;
+               }
 
-      this.progressBar.setText("Soiling..");
-      var42 = var9;
-      var5 = this;
-      int var46 = this.width;
-      int var48 = this.depth;
-      var51 = this.height;
-      OctaveNoise var53 = new OctaveNoise(this.random, 8);
-
-      int var25;
-      int var24;
-      int var27;
-      int var26;
-      int var28;
-      for(var24 = 0; var24 < var46; ++var24) {
-         var5.setProgress(var24 * 100 / (var5.width - 1));
-
-         for(var11 = 0; var11 < var48; ++var11) {
-            var12 = (int)(var53.compute((double)var24, (double)var11) / 24.0D) - 4;
-            var25 = (var23 = var42[var24 + var11 * var46] + var5.waterLevel) + var12;
-            var42[var24 + var11 * var46] = Math.max(var23, var25);
-            if(var42[var24 + var11 * var46] > var51 - 2) {
-               var42[var24 + var11 * var46] = var51 - 2;
+               var9[var11 + var12 * this.width] = (int)var19;
             }
+         }
+      });
+   }
 
-            if(var42[var24 + var11 * var46] < 1) {
-               var42[var24 + var11 * var46] = 1;
+   private void erode(int[] var42) {
+      Random var5 = new Random(this.seedFor(ERODE, 0L));
+      CombinedNoise var7 = new CombinedNoise(new OctaveNoise(var5, 8), new OctaveNoise(var5, 8));
+      CombinedNoise var49 = new CombinedNoise(new OctaveNoise(var5, 8), new OctaveNoise(var5, 8));
+
+      this.forEachTile((x0, z0, x1, z1) -> {
+         for(int var51 = x0; var51 < x1; ++var51) {
+            for(int var54 = z0; var54 < z1; ++var54) {
+               double var21 = var7.compute((double)(var51 << 1), (double)(var54 << 1)) / 8.0D;
+               int var12 = var49.compute((double)(var51 << 1), (double)(var54 << 1)) > 0.0D?1:0;
+               if(var21 > 2.0D) {
+                  int var23 = ((var42[var51 + var54 * this.width] - var12) / 2 << 1) + var12;
+                  var42[var51 + var54 * this.width] = var23;
+               }
             }
+         }
+      });
+   }
 
-            for(var26 = 0; var26 < var51; ++var26) {
-               var27 = (var26 * var5.depth + var11) * var5.width + var24;
-               var28 = 0;
-               if(var26 <= var23) {
-                  var28 = Block.DIRT.id;
+   private void soil(int[] var42) {
+      int var46 = this.width;
+      int var51 = this.height;
+      OctaveNoise var53 = new OctaveNoise(new Random(this.seedFor(SOIL, 0L)), 8);
+
+      this.forEachTile((x0, z0, x1, z1) -> {
+         for(int var24 = x0; var24 < x1; ++var24) {
+            for(int var11 = z0; var11 < z1; ++var11) {
+               int var12 = (int)(var53.compute((double)var24, (double)var11) / 24.0D) - 4;
+               int var23;
+               int var25 = (var23 = var42[var24 + var11 * var46] + this.waterLevel) + var12;
+               var42[var24 + var11 * var46] = Math.max(var23, var25);
+               if(var42[var24 + var11 * var46] > var51 - 2) {
+                  var42[var24 + var11 * var46] = var51 - 2;
                }
 
-               if(var26 <= var25) {
-                  var28 = Block.STONE.id;
+               if(var42[var24 + var11 * var46] < 1) {
+                  var42[var24 + var11 * var46] = 1;
                }
 
-               if(var26 == 0) {
-                  var28 = Block.LAVA.id;
-               }
+               for(int var26 = 0; var26 < var51; ++var26) {
+                  int var27 = (var26 * this.depth + var11) * this.width + var24;
+                  int var28 = 0;
+                  if(var26 <= var23) {
+                     var28 = Block.DIRT.id;
+                  }
+
+                  if(var26 <= var25) {
+                     var28 = Block.STONE.id;
+                  }
 
-               var5.blocks[var27] = (byte)var28;
+                  if(var26 == 0) {
+                     var28 = Block.LAVA.id;
+                  }
+
+                  this.blocks[var27] = (byte)var28;
+               }
             }
          }
-      }
+      });
+   }
 
-      this.progressBar.setText("Carving..");
-      boolean var45 = true;
-      boolean var44 = false;
-      var5 = this;
-      var48 = this.width;
-      var51 = this.depth;
-      var54 = this.height;
-      var24 = var48 * var51 * var54 / 256 / 64 << 1;
-
-      for(var11 = 0; var11 < var24; ++var11) {
-         var5.setProgress(var11 * 100 / (var24 - 1) / 4);
-         float var55 = var5.random.nextFloat() * (float)var48;
-         float var59 = var5.random.nextFloat() * (float)var54;
-         float var56 = var5.random.nextFloat() * (float)var51;
-         var26 = (int)((var5.random.nextFloat() + var5.random.nextFloat()) * 200.0F);
-         float var61 = var5.random.nextFloat() * 3.1415927F * 2.0F;
+   // caves only ever turn stone into air, so overlapping caves carve the same union in any order
+   private void carve() {
+      int var48 = this.width;
+      int var51 = this.depth;
+      int var54 = this.height;
+      int var24 = var48 * var51 * var54 / 256 / 64 << 1;
+
+      this.forEachFeature(var24, 0, 25, (var11) -> {
+         Random var5 = new Random(this.seedFor(CAVES, (long)var11));
+         float var55 = var5.nextFloat() * (float)var48;
+         float var59 = var5.nextFloat() * (float)var54;
+         float var56 = var5.nextFloat() * (float)var51;
+         int var26 = (int)((var5.nextFloat() + var5.nextFloat()) * 200.0F);
+         float var61 = var5.nextFloat() * 3.1415927F * 2.0F;
          float var64 = 0.0F;
-         float var29 = var5.random.nextFloat() * 3.1415927F * 2.0F;
+         float var29 = var5.nextFloat() * 3.1415927F * 2.0F;
          float var30 = 0.0F;
-         float var31 = var5.random.nextFloat() * var5.random.nextFloat();
+         float var31 = var5.nextFloat() * var5.nextFloat();
 
          for(int var32 = 0; var32 < var26; ++var32) {
             var55 += MathHelper.sin(var61) * MathHelper.cos(var29);
             var56 += MathHelper.cos(var61) * MathHelper.cos(var29);
             var59 += MathHelper.sin(var29);
             var61 += var64 * 0.2F;
-            var64 = (var64 *= 0.9F) + (var5.random.nextFloat() - var5.random.nextFloat());
+            var64 = (var64 *= 0.9F) + (var5.nextFloat() - var5.nextFloat());
             var29 = (var29 + var30 * 0.5F) * 0.5F;
-            var30 = (var30 *= 0.75F) + (var5.random.nextFloat() - var5.random.nextFloat());
-            if(var5.random.nextFloat() >= 0.25F) {
-               float var43 = var55 + (var5.random.nextFloat() * 4.0F - 2.0F) * 0.2F;
-               float var50 = var59 + (var5.random.nextFloat() * 4.0F - 2.0F) * 0.2F;
-               float var33 = var56 + (var5.random.nextFloat() * 4.0F - 2.0F) * 0.2F;
-               float var34 = ((float)var5.height - var50) / (float)var5.height;
+            var30 = (var30 *= 0.75F) + (var5.nextFloat() - var5.nextFloat());
+            if(var5.nextFloat() >= 0.25F) {
+               float var43 = var55 + (var5.nextFloat() * 4.0F - 2.0F) * 0.2F;
+               float var50 = var59 + (var5.nextFloat() * 4.0F - 2.0F) * 0.2F;
+               float var33 = var56 + (var5.nextFloat() * 4.0F - 2.0F) * 0.2F;
+               float var34 = ((float)this.height - var50) / (float)this.height;
                var34 = 1.2F + (var34 * 3.5F + 1.0F) * var31;
                var34 = MathHelper.sin((float)var32 * 3.1415927F / (float)var26) * var34;
 
@@ -175,10 +247,10 @@ public final class LevelGenerator {
                         float var38 = (float)var35 - var43;
                         float var39 = (float)var36 - var50;
                         float var40 = (float)var37 - var33;
-                        if(var38 * var38 + var39 * var39 * 2.0F + var40 * var40 < var34 * var34 && var35 >= 1 && var36 >= 1 && var37 >= 1 && var35 < var5.width - 1 && var36 < var5.height - 1 && var37 < var5.depth - 1) {
-                           int var66 = (var36 * var5.depth + var37) * var5.width + var35;
-                           if(var5.blocks[var66] == Block.STONE.id) {
-                              var5.blocks[var66] = 0;
+                        if(var38 * var38 + var39 * var39 * 2.0F + var40 * var40 < var34 * var34 && var35 >= 1 && var36 >= 1 && var37 >= 1 && var35 < this.width - 1 && var36 < this.height - 1 && var37 < this.depth - 1) {
+                           int var66 = (var36 * this.depth + var37) * this.width + var35;
+                           if(this.blocks[var66] == Block.STONE.id) {
+                              this.blocks[var66] = 0;
                            }
                         }
                      }
@@ -186,120 +258,123 @@ public final class LevelGenerator {
                }
             }
          }
-      }
+      });
+   }
 
-      this.populateOre(Block.COAL_ORE.id, 90, 1, 4);
-      this.populateOre(Block.IRON_ORE.id, 70, 2, 4);
-      this.populateOre(Block.GOLD_ORE.id, 50, 3, 4);
-      this.progressBar.setText("Watering..");
-      var5 = this;
-      var51 = Block.STATIONARY_WATER.id;
+   // floods depend on what earlier floods filled, so they stay on this thread
+   private void water() {
+      Random var5 = new Random(this.seedFor(WATER, 0L));
+      int var51 = Block.STATIONARY_WATER.id;
       this.setProgress(0);
 
-      for(var54 = 0; var54 < var5.width; ++var54) {
-         var5.flood(var54, var5.height / 2 - 1, 0, 0, var51);
-         var5.flood(var54, var5.height / 2 - 1, var5.depth - 1, 0, var51);
+      int var54;
+      for(var54 = 0; var54 < this.width; ++var54) {
+         this.flood(var54, this.height / 2 - 1, 0, 0, var51);
+         this.flood(var54, this.height / 2 - 1, this.depth - 1, 0, var51);
       }
 
-      for(var54 = 0; var54 < var5.depth; ++var54) {
-         var5.flood(0, var5.height / 2 - 1, var54, 0, var51);
-         var5.flood(var5.width - 1, var5.height / 2 - 1, var54, 0, var51);
+      for(var54 = 0; var54 < this.depth; ++var54) {
+         this.flood(0, this.height / 2 - 1, var54, 0, var51);
+         this.flood(this.width - 1, this.height / 2 - 1, var54, 0, var51);
       }
 
-      var54 = var5.width * var5.depth / 8000;
+      var54 = this.width * this.depth / 8000;
 
-      for(var24 = 0; var24 < var54; ++var24) {
+      for(int var24 = 0; var24 < var54; ++var24) {
          if(var24 % 100 == 0) {
-            var5.setProgress(var24 * 100 / (var54 - 1));
+            this.setProgress(var24 * 100 / (var54 - 1));
          }
 
-         var11 = var5.random.nextInt(var5.width);
-         var12 = var5.waterLevel - 1 - var5.random.nextInt(2);
-         var23 = var5.random.nextInt(var5.depth);
-         if(var5.blocks[(var12 * var5.depth + var23) * var5.width + var11] == 0) {
-            var5.flood(var11, var12, var23, 0, var51);
+         int var11 = var5.nextInt(this.width);
+         int var12 = this.waterLevel - 1 - var5.nextInt(2);
+         int var23 = var5.nextInt(this.depth);
+         if(this.blocks[(var12 * this.depth + var23) * this.width + var11] == 0) {
+            this.flood(var11, var12, var23, 0, var51);
          }
       }
 
-      var5.setProgress(100);
-      this.progressBar.setText("Melting..");
-      var5 = this;
-      var46 = this.width * this.depth * this.height / 20000;
+      this.setProgress(100);
+   }
 
-      for(var48 = 0; var48 < var46; ++var48) {
+   private void melt() {
+      Random var5 = new Random(this.seedFor(MELT, 0L));
+      int var46 = this.width * this.depth * this.height / 20000;
+
+      for(int var48 = 0; var48 < var46; ++var48) {
          if(var48 % 100 == 0) {
-            var5.setProgress(var48 * 100 / (var46 - 1));
+            this.setProgress(var48 * 100 / (var46 - 1));
          }
 
-         var51 = var5.random.nextInt(var5.width);
-         var54 = (int)(var5.random.nextFloat() * var5.random.nextFloat() * (float)(var5.waterLevel - 3));
-         var24 = var5.random.nextInt(var5.depth);
-         if(var5.blocks[(var54 * var5.depth + var24) * var5.width + var51] == 0) {
-            var5.flood(var51, var54, var24, 0, Block.STATIONARY_LAVA.id);
+         int var51 = var5.nextInt(this.width);
+         int var54 = (int)(var5.nextFloat() * var5.nextFloat() * (float)(this.waterLevel - 3));
+         int var24 = var5.nextInt(this.depth);
+         if(this.blocks[(var54 * this.depth + var24) * this.width + var51] == 0) {
+            this.flood(var51, var54, var24, 0, Block.STATIONARY_LAVA.id);
          }
       }
 
-      var5.setProgress(100);
-      this.progressBar.setText("Growing..");
-      var42 = var9;
-      var5 = this;
-      var46 = this.width;
-      var48 = this.depth;
-      var51 = this.height;
-      var53 = new OctaveNoise(this.random, 8);
-      OctaveNoise var58 = new OctaveNoise(this.random, 8);
-
-      int var63;
-      for(var11 = 0; var11 < var46; ++var11) {
-         var5.setProgress(var11 * 100 / (var5.width - 1));
-
-         for(var12 = 0; var12 < var48; ++var12) {
-            boolean var60 = var53.compute((double)var11, (double)var12) > 8.0D;
-            boolean var57 = var58.compute((double)var11, (double)var12) > 12.0D;
-            var27 = ((var26 = var42[var11 + var12 * var46]) * var5.depth + var12) * var5.width + var11;
-            if(((var28 = var5.blocks[((var26 + 1) * var5.depth + var12) * var5.width + var11] & 255) == Block.WATER.id || var28 == Block.STATIONARY_WATER.id) && var26 <= var51 / 2 - 1 && var57) {
-               var5.blocks[var27] = (byte)Block.GRAVEL.id;
-            }
+      this.setProgress(100);
+   }
 
-            if(var28 == 0) {
-               var63 = Block.GRASS.id;
-               if(var26 <= var51 / 2 - 1 && var60) {
-                  var63 = Block.SAND.id;
+   private void grow(int[] var42) {
+      int var46 = this.width;
+      int var51 = this.height;
+      Random var5 = new Random(this.seedFor(GROW, 0L));
+      OctaveNoise var53 = new OctaveNoise(var5, 8);
+      OctaveNoise var58 = new OctaveNoise(var5, 8);
+
+      this.forEachTile((x0, z0, x1, z1) -> {
+         for(int var11 = x0; var11 < x1; ++var11) {
+            for(int var12 = z0; var12 < z1; ++var12) {
+               boolean var60 = var53.compute((double)var11, (double)var12) > 8.0D;
+               boolean var57 = var58.compute((double)var11, (double)var12) > 12.0D;
+               int var26;
+               int var27 = ((var26 = var42[var11 + var12 * var46]) * this.depth + var12) * this.width + var11;
+               int var28;
+               if(((var28 = this.blocks[((var26 + 1) * this.depth + var12) * this.width + var11] & 255) == Block.WATER.id || var28 == Block.STATIONARY_WATER.id) && var26 <= var51 / 2 - 1 && var57) {
+                  this.blocks[var27] = (byte)Block.GRAVEL.id;
                }
 
-               var5.blocks[var27] = (byte)var63;
+               if(var28 == 0) {
+                  int var63 = Block.GRASS.id;
+                  if(var26 <= var51 / 2 - 1 && var60) {
+                     var63 = Block.SAND.id;
+                  }
+
+                  this.blocks[var27] = (byte)var63;
+               }
             }
          }
-      }
+      });
+   }
 
-      this.progressBar.setText("Planting..");
-      var42 = var9;
-      var5 = this;
-      var46 = this.width;
-      var48 = this.width * this.depth / 3000;
-
-      for(var51 = 0; var51 < var48; ++var51) {
-         var54 = var5.random.nextInt(2);
-         var5.setProgress(var51 * 50 / (var48 - 1));
-         var24 = var5.random.nextInt(var5.width);
-         var11 = var5.random.nextInt(var5.depth);
-
-         for(var12 = 0; var12 < 10; ++var12) {
-            var23 = var24;
-            var25 = var11;
-
-            for(var26 = 0; var26 < 5; ++var26) {
-               var23 += var5.random.nextInt(6) - var5.random.nextInt(6);
-               var25 += var5.random.nextInt(6) - var5.random.nextInt(6);
-               if((var54 < 2 || var5.random.nextInt(4) == 0) && var23 >= 0 && var25 >= 0 && var23 < var5.width && var25 < var5.depth) {
-                  var27 = var42[var23 + var25 * var46] + 1;
-                  if((var5.blocks[(var27 * var5.depth + var25) * var5.width + var23] & 255) == 0) {
-                     var63 = (var27 * var5.depth + var25) * var5.width + var23;
-                     if((var5.blocks[((var27 - 1) * var5.depth + var25) * var5.width + var23] & 255) == Block.GRASS.id) {
+   private void plantFlowers(int[] var42) {
+      Random var5 = new Random(this.seedFor(PLANT, 0L));
+      int var46 = this.width;
+      int var48 = this.width * this.depth / 3000;
+
+      for(int var51 = 0; var51 < var48; ++var51) {
+         int var54 = var5.nextInt(2);
+         this.setProgress(var51 * 50 / (var48 - 1));
+         int var24 = var5.nextInt(this.width);
+         int var11 = var5.nextInt(this.depth);
+
+         for(int var12 = 0; var12 < 10; ++var12) {
+            int var23 = var24;
+            int var25 = var11;
+
+            for(int var26 = 0; var26 < 5; ++var26) {
+               var23 += var5.nextInt(6) - var5.nextInt(6);
+               var25 += var5.nextInt(6) - var5.nextInt(6);
+               if((var54 < 2 || var5.nextInt(4) == 0) && var23 >= 0 && var25 >= 0 && var23 < this.width && var25 < this.depth) {
+                  int var27 = var42[var23 + var25 * var46] + 1;
+                  if((this.blocks[(var27 * this.depth + var25) * this.width + var23] & 255) == 0) {
+                     int var63 = (var27 * this.depth + var25) * this.width + var23;
+                     if((this.blocks[((var27 - 1) * this.depth + var25) * this.width + var23] & 255) == Block.GRASS.id) {
                         if(var54 == 0) {
-                           var5.blocks[var63] = (byte)Block.DANDELION.id;
+                           this.blocks[var63] = (byte)Block.DANDELION.id;
                         } else if(var54 == 1) {
-                           var5.blocks[var63] = (byte)Block.ROSE.id;
+                           this.blocks[var63] = (byte)Block.ROSE.id;
                         }
                      }
                   }
@@ -307,107 +382,93 @@ public final class LevelGenerator {
             }
          }
       }
+   }
 
-      var42 = var9;
-      var5 = this;
-      var46 = this.width;
-      var51 = this.width * this.depth * this.height / 2000;
-
-      for(var54 = 0; var54 < var51; ++var54) {
-         var24 = var5.random.nextInt(2);
-         var5.setProgress(var54 * 50 / (var51 - 1) + 50);
-         var11 = var5.random.nextInt(var5.width);
-         var12 = var5.random.nextInt(var5.height);
-         var23 = var5.random.nextInt(var5.depth);
-
-         for(var25 = 0; var25 < 20; ++var25) {
-            var26 = var11;
-            var27 = var12;
-            var28 = var23;
-
-            for(var63 = 0; var63 < 5; ++var63) {
-               var26 += var5.random.nextInt(6) - var5.random.nextInt(6);
-               var27 += var5.random.nextInt(2) - var5.random.nextInt(2);
-               var28 += var5.random.nextInt(6) - var5.random.nextInt(6);
-               if((var24 < 2 || var5.random.nextInt(4) == 0) && var26 >= 0 && var28 >= 0 && var27 >= 1 && var26 < var5.width && var28 < var5.depth && var27 < var42[var26 + var28 * var46] - 1 && (var5.blocks[(var27 * var5.depth + var28) * var5.width + var26] & 255) == 0) {
-                  int var62 = (var27 * var5.depth + var28) * var5.width + var26;
-                  if((var5.blocks[((var27 - 1) * var5.depth + var28) * var5.width + var26] & 255) == Block.STONE.id) {
+   private void plantMushrooms(int[] var42) {
+      Random var5 = new Random(this.seedFor(MUSHROOMS, 0L));
+      int var46 = this.width;
+      int var51 = this.width * this.depth * this.height / 2000;
+
+      for(int var54 = 0; var54 < var51; ++var54) {
+         int var24 = var5.nextInt(2);
+         this.setProgress(var54 * 50 / (var51 - 1) + 50);
+         int var11 = var5.nextInt(this.width);
+         int var12 = var5.nextInt(this.height);
+         int var23 = var5.nextInt(this.depth);
+
+         for(int var25 = 0; var25 < 20; ++var25) {
+            int var26 = var11;
+            int var27 = var12;
+            int var28 = var23;
+
+            for(int var63 = 0; var63 < 5; ++var63) {
+               var26 += var5.nextInt(6) - var5.nextInt(6);
+               var27 += var5.nextInt(2) - var5.nextInt(2);
+               var28 += var5.nextInt(6) - var5.nextInt(6);
+               if((var24 < 2 || var5.nextInt(4) == 0) && var26 >= 0 && var28 >= 0 && var27 >= 1 && var26 < this.width && var28 < this.depth && var27 < var42[var26 + var28 * var46] - 1 && (this.blocks[(var27 * this.depth + var28) * this.width + var26] & 255) == 0) {
+                  int var62 = (var27 * this.depth + var28) * this.width + var26;
+                  if((this.blocks[((var27 - 1) * this.depth + var28) * this.width + var26] & 255) == Block.STONE.id) {
                      if(var24 == 0) {
-                        var5.blocks[var62] = (byte)Block.BROWN_MUSHROOM.id;
+                        this.blocks[var62] = (byte)Block.BROWN_MUSHROOM.id;
                      } else if(var24 == 1) {
-                        var5.blocks[var62] = (byte)Block.RED_MUSHROOM.id;
+                        this.blocks[var62] = (byte)Block.RED_MUSHROOM.id;
                      }
                   }
                }
             }
          }
       }
+   }
 
-      Level var65;
-      (var65 = new Level()).waterLevel = this.waterLevel;
-      var65.setData(var2, 64, var3, this.blocks);
-      var65.createTime = System.currentTimeMillis();
-      var65.creator = var1;
-      var65.name = "A Nice World";
-      int[] var52 = var9;
-      Level var47 = var65;
-      var5 = this;
-      var48 = this.width;
-      var51 = this.width * this.depth / 4000;
-
-      for(var54 = 0; var54 < var51; ++var54) {
-         var5.setProgress(var54 * 50 / (var51 - 1) + 50);
-         var24 = var5.random.nextInt(var5.width);
-         var11 = var5.random.nextInt(var5.depth);
-
-         for(var12 = 0; var12 < 20; ++var12) {
-            var23 = var24;
-            var25 = var11;
-
-            for(var26 = 0; var26 < 20; ++var26) {
-               var23 += var5.random.nextInt(6) - var5.random.nextInt(6);
-               var25 += var5.random.nextInt(6) - var5.random.nextInt(6);
-               if(var23 >= 0 && var25 >= 0 && var23 < var5.width && var25 < var5.depth) {
-                  var27 = var52[var23 + var25 * var48] + 1;
-                  if(var5.random.nextInt(4) == 0) {
+   private void plantTrees(Level var47, int[] var52) {
+      Random var5 = new Random(this.seedFor(TREES, 0L));
+      // maybeGrowTree draws the trunk height from the level's random
+      Random levelRandom = var47.random;
+      var47.random = new Random(this.seedFor(TREES, 1L));
+      int var48 = this.width;
+      int var51 = this.width * this.depth / 4000;
+
+      for(int var54 = 0; var54 < var51; ++var54) {
+         this.setProgress(var54 * 50 / (var51 - 1) + 50);
+         int var24 = var5.nextInt(this.width);
+         int var11 = var5.nextInt(this.depth);
+
+         for(int var12 = 0; var12 < 20; ++var12) {
+            int var23 = var24;
+            int var25 = var11;
+
+            for(int var26 = 0; var26 < 20; ++var26) {
+               var23 += var5.nextInt(6) - var5.nextInt(6);
+               var25 += var5.nextInt(6) - var5.nextInt(6);
+               if(var23 >= 0 && var25 >= 0 && var23 < this.width && var25 < this.depth) {
+                  int var27 = var52[var23 + var25 * var48] + 1;
+                  if(var5.nextInt(4) == 0) {
                      var47.maybeGrowTree(var23, var27, var25);
                   }
                }
             }
          }
       }
-
-      // === NEW: Structure placement ===
-   // === NEW: Structure placement ===
-      this.progressBar.setText("Building structures..");
-      try {
-         Random structRand = new Random(this.random.nextLong() ^ 0x5F3759DFL);
-         StructureRegistry.INSTANCE.bootstrapDefaults();
-         StructureRegistry.INSTANCE.placeAll(var65, structRand);
-      } catch (Throwable t) {
-         t.printStackTrace();
-      }
-
-
-      return var65;
+      var47.random = levelRandom;
    }
 
-   private void populateOre(int var1, int var2, int var3, int var4) {
+   // veins of one ore only turn stone into that ore, so like caves they may run in any order
+   private void populateOre(int var1, int var2, int var3) {
       byte var25 = (byte)var1;
-      var4 = this.width;
+      int var4 = this.width;
       int var5 = this.depth;
       int var6 = this.height;
       int var7 = var4 * var5 * var6 / 256 / 64 * var2 / 100;
 
-      for(int var8 = 0; var8 < var7; ++var8) {
-         this.setProgress(var8 * 100 / (var7 - 1) / 4 + var3 * 100 / 4);
-         float var9 = this.random.nextFloat() * (float)var4;
-         float var10 = this.random.nextFloat() * (float)var6;
-         float var11 = this.random.nextFloat() * (float)var5;
-         int var12 = (int)((this.random.nextFloat() + this.random.nextFloat()) * 75.0F * (float)var2 / 100.0F);
-         float var13 = this.random.nextFloat() * 3.1415927F * 2.0F;
+      this.forEachFeature(var7, var3 * 100 / 4, (var3 + 1) * 100 / 4, (var8) -> {
+         Random random = new Random(this.seedFor(ORE + var1, (long)var8));
+         float var9 = random.nextFloat() * (float)var4;
+         float var10 = random.nextFloat() * (float)var6;
+         float var11 = random.nextFloat() * (float)var5;
+         int var12 = (int)((random.nextFloat() + random.nextFloat()) * 75.0F * (float)var2 / 100.0F);
+         float var13 = random.nextFloat() * 3.1415927F * 2.0F;
          float var14 = 0.0F;
-         float var15 = this.random.nextFloat() * 3.1415927F * 2.0F;
+         float var15 = random.nextFloat() * 3.1415927F * 2.0F;
          float var16 = 0.0F;
 
          for(int var17 = 0; var17 < var12; ++var17) {
@@ -415,9 +476,9 @@ public final class LevelGenerator {
             var11 += MathHelper.cos(var13) * MathHelper.cos(var15);
             var10 += MathHelper.sin(var15);
             var13 += var14 * 0.2F;
-            var14 = (var14 *= 0.9F) + (this.random.nextFloat() - this.random.nextFloat());
+            var14 = (var14 *= 0.9F) + (random.nextFloat() - random.nextFloat());
             var15 = (var15 + var16 * 0.5F) * 0.5F;
-            var16 = (var16 *= 0.9F) + (this.random.nextFloat() - this.random.nextFloat());
+            var16 = (var16 *= 0.9F) + (random.nextFloat() - random.nextFloat());
             float var18 = MathHelper.sin((float)var17 * 3.1415927F / (float)var12) * (float)var2 / 100.0F + 1.0F;
 
             for(int var19 = (int)(var9 - var18); var19 <= (int)(var9 + var18); ++var19) {
@@ -436,14 +497,74 @@ public final class LevelGenerator {
                }
             }
          }
-      }
-
+      });
    }
 
    private void setProgress(int var1) {
       this.progressBar.setProgress(var1);
    }
 
+   // --- parallel phases ---
+
+   private interface TileTask {
+      void run(int x0, int z0, int x1, int z1);
+   }
+
+   /** Run {@code task} over every TILE x TILE block of columns; progress 0..100. */
+   private void forEachTile(TileTask task) {
+      int tilesX = (this.width + TILE - 1) / TILE;
+      int tilesZ = (this.depth + TILE - 1) / TILE;
+      this.runAll(tilesX * tilesZ, 0, 100, (i) -> {
+         int x0 = i % tilesX * TILE, z0 = i / tilesX * TILE;
+         task.run(x0, z0, Math.min(this.width, x0 + TILE), Math.min(this.depth, z0 + TILE));
+      });
+   }
+
+   /** Run {@code feature} for indices 0..count-1; progress {@code from}..{@code to}. */
+   private void forEachFeature(int count, int from, int to, IntConsumer feature) {
+      this.runAll((count + FEATURES_PER_TASK - 1) / FEATURES_PER_TASK, from, to, (t) -> {
+         int end = Math.min(count, (t + 1) * FEATURES_PER_TASK);
+         for(int i = t * FEATURES_PER_TASK; i < end; ++i) {
+            feature.accept(i);
+         }
+      });
+   }
+
+   // tasks run on the pool; the progress bar is only ever touched from this thread
+   private void runAll(int count, int from, int to, IntConsumer task) {
+      if(this.pool == null) {
+         for(int i = 0; i < count; ++i) {
+            task.accept(i);
+            this.setProgress(from + (i + 1) * (to - from) / count);
+         }
+         return;
+      }
+
+      ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[count];
+      for(int i = 0; i < count; ++i) {
+         int index = i;
+         tasks[i] = this.pool.submit(() -> task.accept(index));
+      }
+      try {
+         for(int i = 0; i < count; ++i) {
+            tasks[i].join();
+            this.setProgress(from + (i + 1) * (to - from) / count);
+         }
+      } finally {
+         for(ForkJoinTask<?> t : tasks) {
+            t.cancel(false);
+         }
+      }
+   }
+
+   /** Seed of the stream for {@code phase}, item {@code index}; a SplitMix64 finaliser over both. */
+   private long seedFor(int phase, long index) {
+      long z = this.seed + (long)phase * 0x9E3779B97F4A7C15L + index * 0xC2B2AE3D27D4EB4FL;
+      z = (z ^ z >>> 30) * 0xBF58476D1CE4E5B9L;
+      z = (z ^ z >>> 27) * 0x94D049BB133111EBL;
+      return z ^ z >>> 31;
+   }
+
    private long flood(int var1, int var2, int var3, int var4, int var5) {
       byte var20 = (byte)var5;
       ArrayList var21 = new ArrayList();
@@ -0,0 +1,175 @@
+package net.classicremastered.minecraft.level.infinite;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background chunk generation shared by every {@link SimpleChunkManager}. Requests wait in
+ * a priority queue ordered by distance to the focus (the player's chunk); worker threads
+ * build them up to {@link SimpleChunk.State#DECORATED} and hand them back to their
+ * manager, whose level thread integrates them.
+ */
+public final class ChunkGenExecutor {
+
+    /** One requested chunk travelling through the pipeline. */
+    public static final class Task {
+        final SimpleChunkManager owner;
+        public final int cx, cz;
+        final long requestedAt = System.nanoTime();
+        volatile boolean cancelled;
+        SimpleChunk chunk;
+        InfiniteTerrainGenerator.HouseSite house;
+
+        Task(SimpleChunkManager owner, int cx, int cz) {
+            this.owner = owner;
+            this.cx = cx;
+            this.cz = cz;
+        }
+    }
+
+    private static ChunkGenExecutor shared;
+
+    private final Object lock = new Object();
+    private PriorityQueue<Task> queue;
+    private final AtomicInteger working = new AtomicInteger();
+    private SimpleChunkManager focusOwner;
+    private int focusX, focusZ;
+
+    // metrics (request -> decorated latency, written by workers)
+    private final AtomicInteger generatedCount = new AtomicInteger();
+    private volatile float avgLatencyMs;
+    private volatile float maxLatencyMs;
+
+    /** The process-wide executor, started on first use. */
+    public static synchronized ChunkGenExecutor shared() {
+        if (shared == null) {
+            shared = new ChunkGenExecutor(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+        }
+        return shared;
+    }
+
+    private ChunkGenExecutor(int threads) {
+        this.queue = new PriorityQueue<>(64, byDistance());
+        for (int i = 0; i < threads; i++) {
+            Thread t = new Thread(this::workLoop, "Chunk-Gen-" + (i + 1));
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            t.start();
+        }
+    }
+
+    private Comparator<Task> byDistance() {
+        final int fx = focusX, fz = focusZ;
+        return (a, b) -> Integer.compare(dist2(a, fx, fz), dist2(b, fx, fz));
+    }
+
+    private static int dist2(Task t, int fx, int fz) {
+        int dx = t.cx - fx, dz = t.cz - fz;
+        return dx * dx + dz * dz;
+    }
+
+    public void submit(Task t) {
+        synchronized (lock) {
+            queue.add(t);
+            lock.notify();
+        }
+    }
+
+    /** Drop a queued task. Returns false if a worker already picked it up. */
+    public boolean remove(Task t) {
+        t.cancelled = true;
+        synchronized (lock) {
+            return queue.remove(t);
+        }
+    }
+
+    /**
+     * Re-centre priorities on chunk (cx, cz) of {@code owner}'s world. Queued tasks farther
+     * than {@code dropRadius}, or belonging to another world, are cancelled and returned so
+     * the caller can forget them.
+     */
+    public List<Task> setFocus(SimpleChunkManager owner, int cx, int cz, int dropRadius) {
+        List<Task> dropped = new ArrayList<>();
+        synchronized (lock) {
+            if (owner == focusOwner && cx == focusX && cz == focusZ)
+                return dropped;
+            focusOwner = owner;
+            focusX = cx;
+            focusZ = cz;
+            PriorityQueue<Task> next = new PriorityQueue<>(Math.max(64, queue.size()), byDistance());
+            for (Task t : queue) {
+                if (t.owner != owner || Math.max(Math.abs(t.cx - cx), Math.abs(t.cz - cz)) > dropRadius) {
+                    t.cancelled = true;
+                    dropped.add(t);
+                } else {
+                    next.add(t);
+                }
+            }
+            queue = next;
+        }
+        return dropped;
+    }
+
+    private void workLoop() {
+        while (true) {
+            Task t;
+            synchronized (lock) {
+                while ((t = queue.poll()) == null) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                working.incrementAndGet();
+            }
+            try {
+                if (!t.cancelled) {
+                    t.owner.buildChunk(t);
+                    recordLatency((System.nanoTime() - t.requestedAt) / 1.0e6f);
+                }
+                t.owner.onBuilt(t);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                t.cancelled = true;
+                t.owner.onBuilt(t); // still hand it back so the request is forgotten
+            } finally {
+                working.decrementAndGet();
+            }
+        }
+    }
+
+    private void recordLatency(float ms) {
+        int n = generatedCount.incrementAndGet();
+        avgLatencyMs = n == 1 ? ms : avgLatencyMs * 0.95f + ms * 0.05f; // moving average
+        if (ms > maxLatencyMs)
+            maxLatencyMs = ms;
+    }
+
+    // --- Metrics ---
+
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    public int getWorking() {
+        return working.get();
+    }
+
+    public int getGeneratedCount() {
+        return generatedCount.get();
+    }
+
+    public float getAvgLatencyMs() {
+        return avgLatencyMs;
+    }
+
+    public float getMaxLatencyMs() {
+        return maxLatencyMs;
+    }
+}
@@ -0,0 +1,106 @@
+package net.classicremastered.minecraft.level.infinite;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Directory of {@link RegionFile}s ({@code r.<rx>.<rz>.region}) backing a
+ * SimpleChunkManager. Keeps a small LRU of open region files.
+ */
+public final class ChunkStorage implements Closeable {
+
+    private static final int MAX_OPEN = 16;
+
+    private final File dir;
+    private final LinkedHashMap<Long, RegionFile> open = new LinkedHashMap<>(MAX_OPEN, 0.75f, true);
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final Inflater inflater = new Inflater();
+    private byte[] scratch = new byte[64 * 1024];
+    private byte[] joined = new byte[0];
+
+    public ChunkStorage(File dir) {
+        this.dir = dir;
+    }
+
+    public File getDirectory() {
+        return dir;
+    }
+
+    public static String regionName(int rx, int rz) {
+        return "r." + rx + "." + rz + ".region";
+    }
+
+    private RegionFile region(int cx, int cz, boolean create) throws IOException {
+        int rx = cx >> 5, rz = cz >> 5;
+        long key = (((long) rx) << 32) | (rz & 0xffffffffL);
+        RegionFile r = open.get(key);
+        if (r != null)
+            return r;
+
+        File f = new File(dir, regionName(rx, rz));
+        if (!f.exists()) {
+            if (!create)
+                return null;
+            if (!dir.exists() && !dir.mkdirs())
+                throw new IOException("Failed to create " + dir);
+        }
+        r = new RegionFile(f);
+        open.put(key, r);
+        if (open.size() > MAX_OPEN) {
+            Iterator<Map.Entry<Long, RegionFile>> it = open.entrySet().iterator();
+            it.next().getValue().close();
+            it.remove();
+        }
+        return r;
+    }
+
+    /** Stored blocks for chunk (cx, cz), or null if it was never saved. */
+    public synchronized byte[] read(int cx, int cz, int length) throws IOException {
+        RegionFile r = region(cx, cz, false);
+        return r == null ? null : r.read(cx & 31, cz & 31, inflater, length);
+    }
+
+    /**
+     * Stored payload for chunk (cx, cz): {@code length} bytes of blocks, optionally
+     * followed by {@code extra} more (see {@link #write(int, int, byte[], byte[])}).
+     * Null if it was never saved.
+     */
+    public synchronized byte[] read(int cx, int cz, int length, int extra) throws IOException {
+        RegionFile r = region(cx, cz, false);
+        return r == null ? null : r.read(cx & 31, cz & 31, inflater, length, length + extra);
+    }
+
+    public synchronized void write(int cx, int cz, byte[] blocks) throws IOException {
+        write(cx, cz, blocks, null);
+    }
+
+    /** Store {@code blocks}, followed by {@code extra} when it is not null. */
+    public synchronized void write(int cx, int cz, byte[] blocks, byte[] extra) throws IOException {
+        byte[] data = blocks;
+        if (extra != null) {
+            if (joined.length != blocks.length + extra.length)
+                joined = new byte[blocks.length + extra.length];
+            System.arraycopy(blocks, 0, joined, 0, blocks.length);
+            System.arraycopy(extra, 0, joined, blocks.length, extra.length);
+            data = joined;
+        }
+        // deflate can expand incompressible input slightly
+        int bound = data.length + data.length / 1000 + 64;
+        if (scratch.length < bound)
+            scratch = new byte[bound];
+        region(cx, cz, true).write(cx & 31, cz & 31, data, deflater, scratch);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (RegionFile r : open.values())
+            r.close();
+        open.clear();
+    }
+}
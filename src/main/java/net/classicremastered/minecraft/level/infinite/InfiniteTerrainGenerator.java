@@ -41,17 +41,49 @@ public final class InfiniteTerrainGenerator {
      * Main entrypoint. corruptedFlat = true when Mode.FLAT.
      */
     public void generateChunk(SimpleChunk c, int worldX, int worldZ, boolean corruptedFlat, Level level) {
+        generateTerrain(c, worldX, worldZ, corruptedFlat);
+        if (!corruptedFlat) {
+            HouseSite house = decorate(c, worldX, worldZ, level != null);
+            if (house != null) {
+                spawnVillagers(c, house, level);
+            }
+        }
+        c.state = SimpleChunk.State.READY;
+    }
+
+    /**
+     * Base terrain only (noise, water, beaches). Touches nothing but {@code c}, so it is
+     * safe on a generation worker.
+     */
+    public void generateTerrain(SimpleChunk c, int worldX, int worldZ, boolean corruptedFlat) {
         if (corruptedFlat) {
             generateCorruptedFlat(c, worldX, worldZ);
         } else {
-            generateNormal(c, worldX, worldZ, level);
+            generateNormal(c, worldX, worldZ);
         }
+        c.state = SimpleChunk.State.GENERATED;
     }
 
-    /** Normal infinite terrain (classic terrain + ores + houses). */
-    private void generateNormal(SimpleChunk c, int worldX, int worldZ, Level level) {
-        final float SCALE = 1.3f;
+    /**
+     * Ores, trees and (optionally) house blocks. Worker-safe; villagers are left to
+     * {@link #spawnVillagers} on the level thread. Returns the house site, or null.
+     */
+    public HouseSite decorate(SimpleChunk c, int worldX, int worldZ, boolean houses) {
+        populateOreVeins(c, worldX, worldZ, Block.COAL_ORE.id, 8, 18, height - 6);
+        populateOreVeins(c, worldX, worldZ, Block.IRON_ORE.id, 6, 12, height - 12);
+        populateOreVeins(c, worldX, worldZ, Block.GOLD_ORE.id, 3, 8, height / 2);
+
         Random rand = new Random(seed ^ (worldX * 341873128712L + worldZ * 132897987541L));
+        decorateChunk(c, worldX, worldZ, rand);
+        HouseSite house = houses ? placeHouse(c, worldX, worldZ) : null;
+        c.meshed = false;
+        c.state = SimpleChunk.State.DECORATED;
+        return house;
+    }
+
+    /** Normal infinite terrain (classic terrain; ores, trees and houses come in decorate). */
+    private void generateNormal(SimpleChunk c, int worldX, int worldZ) {
+        final float SCALE = 1.3f;
 
         for (int lx = 0; lx < CHUNK; lx++) {
             int gx = worldX + lx;
@@ -110,14 +142,6 @@ public final class InfiniteTerrainGenerator {
             }
         }
 
-        populateOreVeins(c, worldX, worldZ, Block.COAL_ORE.id, 8, 18, height - 6);
-        populateOreVeins(c, worldX, worldZ, Block.IRON_ORE.id, 6, 12, height - 12);
-        populateOreVeins(c, worldX, worldZ, Block.GOLD_ORE.id, 3, 8, height / 2);
-
-        decorateChunk(c, worldX, worldZ, rand);
-        if (level != null) {
-            generateHouseIfSpawned(c, worldX, worldZ, rand, level);
-        }
         c.meshed = false;
     }
 
@@ -264,7 +288,19 @@ public final class InfiniteTerrainGenerator {
         return ys[ys.length / 2] + 1;
     }
 
-    private void generateHouseIfSpawned(SimpleChunk c, int worldX, int worldZ, Random rand, Level level) {
+    /** Where a generated house wants its villagers; produced on the worker, consumed on the level thread. */
+    public static final class HouseSite {
+        final int hx, hz, baseY, toSpawn;
+
+        HouseSite(int hx, int hz, int baseY, int toSpawn) {
+            this.hx = hx;
+            this.hz = hz;
+            this.baseY = baseY;
+            this.toSpawn = toSpawn;
+        }
+    }
+
+    private HouseSite placeHouse(SimpleChunk c, int worldX, int worldZ) {
         int cx = c.cx;
         int cz = c.cz;
         Random chunkRand = new Random(seed ^ (cx * 7919L + cz * 104729L));
@@ -343,38 +379,47 @@ public final class InfiniteTerrainGenerator {
                 c.blocks[SimpleChunk.idx(doorX & 15, padY + 1, doorZ & 15, height)] = 0;
                 c.blocks[SimpleChunk.idx(doorX & 15, padY + 2, doorZ & 15, height)] = 0;
 
-                // 6. Spawn Villagers
-                int baseY = padY + 1;
-                int minX = hx + 2, maxX = hx + W - 3;
-                int minZ = hz + 2, maxZ = hz + D - 3;
+                // 6. Villagers are spawned later, on the level thread
                 int toSpawn = 1 + (chunkRand.nextBoolean() ? (1 + chunkRand.nextInt(2)) : 0);
+                return new HouseSite(hx, hz, padY + 1, toSpawn);
+            }
+        }
+        return null;
+    }
 
-                for (int sx = minX; sx <= maxX && toSpawn > 0; sx++) {
-                    for (int sz = minZ; sz <= maxZ && toSpawn > 0; sz++) {
-                        int lx = sx & 15;
-                        int lz = sz & 15;
-
-                        if (c.blocks[SimpleChunk.idx(lx, baseY - 1, lz, height)] == (byte) Block.COBBLESTONE.id &&
-                            c.blocks[SimpleChunk.idx(lx, baseY, lz, height)] == 0 &&
-                            c.blocks[SimpleChunk.idx(lx, baseY + 1, lz, height)] == 0) {
-
-                            Villager v = new Villager(level, sx + 0.5F, baseY + 1, sz + 0.5F);
-
-                            float homeX = hx + W * 0.5f;
-                            float homeZ = hz + D * 0.5f;
-                            float homeY = baseY + 1;
-                            float radius = 2.5f;
-
-                            v.setHome(homeX, homeY, homeZ, radius);
-                            VillagerAI vai = new VillagerAI(homeX, homeY, homeZ, radius);
-                            vai.suppressRandomJump = true;
-                            vai.runSpeed = 0.8f;
-                            v.ai = vai;
-
-                            level.addEntity(v);
-                            toSpawn--;
-                        }
-                    }
+    /** Spawn the villagers for a house placed by {@link #decorate}. Level thread only. */
+    public void spawnVillagers(SimpleChunk c, HouseSite house, Level level) {
+        final int W = 7, D = 7;
+        int hx = house.hx, hz = house.hz;
+        int baseY = house.baseY;
+        int minX = hx + 2, maxX = hx + W - 3;
+        int minZ = hz + 2, maxZ = hz + D - 3;
+        int toSpawn = house.toSpawn;
+
+        for (int sx = minX; sx <= maxX && toSpawn > 0; sx++) {
+            for (int sz = minZ; sz <= maxZ && toSpawn > 0; sz++) {
+                int lx = sx & 15;
+                int lz = sz & 15;
+
+                if (c.blocks[SimpleChunk.idx(lx, baseY - 1, lz, height)] == (byte) Block.COBBLESTONE.id &&
+                    c.blocks[SimpleChunk.idx(lx, baseY, lz, height)] == 0 &&
+                    c.blocks[SimpleChunk.idx(lx, baseY + 1, lz, height)] == 0) {
+
+                    Villager v = new Villager(level, sx + 0.5F, baseY + 1, sz + 0.5F);
+
+                    float homeX = hx + W * 0.5f;
+                    float homeZ = hz + D * 0.5f;
+                    float homeY = baseY + 1;
+                    float radius = 2.5f;
+
+                    v.setHome(homeX, homeY, homeZ, radius);
+                    VillagerAI vai = new VillagerAI(homeX, homeY, homeZ, radius);
+                    vai.suppressRandomJump = true;
+                    vai.runSpeed = 0.8f;
+                    v.ai = vai;
+
+                    level.addEntity(v);
+                    toSpawn--;
                 }
             }
         }
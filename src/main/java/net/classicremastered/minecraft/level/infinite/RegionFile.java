@@ -0,0 +1,171 @@
+package net.classicremastered.minecraft.level.infinite;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.BitSet;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One 32x32-chunk region file, laid out like Anvil:
+ * <pre>
+ *   sector 0      1024 x int  location = (first sector &lt;&lt; 8) | sector count, 0 = absent
+ *   sector 1      1024 x int  last write time (seconds)
+ *   sector 2..    chunk records: int length, byte compression, payload
+ * </pre>
+ * Sectors are 4 KiB. Chunks are read and rewritten individually; a rewrite that no
+ * longer fits its sectors moves to the first free run (or the end of the file).
+ */
+public final class RegionFile implements Closeable {
+
+    public static final int CHUNKS = 32;
+    private static final int SECTOR = 4096;
+    private static final int HEADER_SECTORS = 2;
+    private static final int MAX_SECTORS = 255;
+    private static final byte COMPRESSION_DEFLATE = 2;
+
+    private final RandomAccessFile file;
+    private final int[] offsets = new int[CHUNKS * CHUNKS];
+    private final int[] timestamps = new int[CHUNKS * CHUNKS];
+    private final BitSet used = new BitSet();
+    private int sectorCount;
+
+    public RegionFile(File path) throws IOException {
+        this.file = new RandomAccessFile(path, "rw");
+
+        if (file.length() < HEADER_SECTORS * SECTOR) {
+            file.setLength(HEADER_SECTORS * SECTOR);
+        }
+        if ((file.length() & (SECTOR - 1)) != 0) {
+            file.setLength((file.length() | (SECTOR - 1)) + 1); // pad a torn tail
+        }
+        this.sectorCount = (int) (file.length() / SECTOR);
+        used.set(0, HEADER_SECTORS);
+
+        byte[] header = new byte[HEADER_SECTORS * SECTOR];
+        file.seek(0);
+        file.readFully(header);
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = readInt(header, i * 4);
+            timestamps[i] = readInt(header, SECTOR + i * 4);
+            int start = offsets[i] >>> 8, count = offsets[i] & 0xFF;
+            if (offsets[i] != 0 && start >= HEADER_SECTORS && start + count <= sectorCount) {
+                used.set(start, start + count);
+            } else {
+                offsets[i] = 0; // points outside the file: treat as missing
+            }
+        }
+    }
+
+    private static int index(int lx, int lz) {
+        return lx + lz * CHUNKS;
+    }
+
+    public boolean has(int lx, int lz) {
+        return offsets[index(lx, lz)] != 0;
+    }
+
+    /** Decompressed payload of the chunk at region-local (lx, lz), or null if absent. */
+    public synchronized byte[] read(int lx, int lz, Inflater inflater, int expectedLength) throws IOException {
+        return read(lx, lz, inflater, expectedLength, expectedLength);
+    }
+
+    /**
+     * As {@link #read(int, int, Inflater, int)}, accepting a payload of either
+     * {@code minLength} or {@code maxLength} bytes; the result is exactly that long.
+     */
+    public synchronized byte[] read(int lx, int lz, Inflater inflater, int minLength, int maxLength) throws IOException {
+        int loc = offsets[index(lx, lz)];
+        if (loc == 0)
+            return null;
+
+        file.seek((long) (loc >>> 8) * SECTOR);
+        int length = file.readInt();
+        if (length <= 1 || length > (loc & 0xFF) * SECTOR - 4)
+            throw new IOException("Bad chunk length " + length + " at " + lx + "," + lz);
+        byte compression = file.readByte();
+        if (compression != COMPRESSION_DEFLATE)
+            throw new IOException("Unknown chunk compression " + compression);
+        byte[] packed = new byte[length - 1];
+        file.readFully(packed);
+
+        byte[] out = new byte[maxLength];
+        inflater.reset();
+        inflater.setInput(packed);
+        try {
+            int n = inflater.inflate(out);
+            if (!inflater.finished() || (n != maxLength && n != minLength))
+                return null; // different height or truncated: regenerate
+            return n == maxLength ? out : java.util.Arrays.copyOf(out, n);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt chunk at " + lx + "," + lz, e);
+        }
+    }
+
+    /** Compress and store {@code data} for region-local (lx, lz). */
+    public synchronized void write(int lx, int lz, byte[] data, Deflater deflater, byte[] scratch) throws IOException {
+        deflater.reset();
+        deflater.setInput(data);
+        deflater.finish();
+        int packed = 0;
+        while (!deflater.finished()) {
+            if (packed == scratch.length)
+                throw new IOException("Chunk does not fit in " + scratch.length + " bytes");
+            packed += deflater.deflate(scratch, packed, scratch.length - packed);
+        }
+
+        int needed = (packed + 5 + SECTOR - 1) / SECTOR;
+        if (needed > MAX_SECTORS)
+            throw new IOException("Chunk too large: " + packed + " bytes");
+
+        int i = index(lx, lz);
+        int loc = offsets[i];
+        int start = loc >>> 8, count = loc & 0xFF;
+        if (loc == 0 || count != needed) {
+            if (loc != 0)
+                used.clear(start, start + count);
+            start = allocate(needed);
+        }
+
+        file.seek((long) start * SECTOR);
+        file.writeInt(packed + 1);
+        file.writeByte(COMPRESSION_DEFLATE);
+        file.write(scratch, 0, packed);
+
+        offsets[i] = (start << 8) | needed;
+        timestamps[i] = (int) (System.currentTimeMillis() / 1000L);
+        file.seek(i * 4L);
+        file.writeInt(offsets[i]);
+        file.seek(SECTOR + i * 4L);
+        file.writeInt(timestamps[i]);
+    }
+
+    // First free run of `count` sectors, growing the file if none.
+    private int allocate(int count) throws IOException {
+        int start = used.nextClearBit(HEADER_SECTORS);
+        while (start < sectorCount) {
+            int end = used.nextSetBit(start);
+            if (end < 0 || end - start >= count)
+                break; // fits here, or the run reaches the end of the file and can grow
+            start = used.nextClearBit(end);
+        }
+        used.set(start, start + count);
+        if (start + count > sectorCount) {
+            sectorCount = start + count;
+            file.setLength((long) sectorCount * SECTOR);
+        }
+        return start;
+    }
+
+    private static int readInt(byte[] b, int o) {
+        return (b[o] & 0xFF) << 24 | (b[o + 1] & 0xFF) << 16 | (b[o + 2] & 0xFF) << 8 | (b[o + 3] & 0xFF);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        file.close();
+    }
+}
@@ -1,17 +1,33 @@
 package net.classicremastered.minecraft.level.infinite;
 
+import net.classicremastered.minecraft.level.HeightMap;
+import net.classicremastered.minecraft.level.TickSections;
+import net.classicremastered.minecraft.level.liquid.FlowLevels;
+
 public final class SimpleChunk {
     public static final int SIZE = 16;
 
+    /** Generation pipeline: requested -> generated (terrain) -> decorated -> ready (in the world). */
+    public enum State { REQUESTED, GENERATED, DECORATED, READY }
+
     public final int cx;
     public final int cz;
     public final int height;
 
     public byte[] blocks;
     public byte[] light;
+    /** Finite-liquid flow levels packed per {@link FlowLevels}; null until one is stored. */
+    public byte[] flow;
+    /** Column heights of {@link #blocks}; rebuilt whenever the chunk enters the world. */
+    public final HeightMap heights;
+    /** Tickable-block counts per section of {@link #blocks}; rebuilt along with {@link #heights}. */
+    public final TickSections tickable;
 
     public boolean meshed;
     public boolean loaded;
+    /** Edited since it was generated or last written to region storage. */
+    public boolean dirty;
+    public volatile State state = State.REQUESTED;
 
     public long lastAccessTick = 0;
 
@@ -24,6 +40,8 @@ public final class SimpleChunk {
         this.height = height;
         this.blocks = new byte[SIZE * height * SIZE];
         this.light = new byte[SIZE * height * SIZE];
+        this.heights = new HeightMap(SIZE, SIZE, height);
+        this.tickable = new TickSections(SIZE, SIZE, height);
         this.meshed = false;
         this.loaded = false;
     }
@@ -51,6 +69,21 @@ public final class SimpleChunk {
         light[idx(x, y, z, height)] = (byte) value;
     }
 
+    /** Stored flow level at local (x, y, z), or -1 if none. */
+    public int getFlow(int x, int y, int z) {
+        return FlowLevels.get(flow, idx(x, y, z, height));
+    }
+
+    /** Store a flow level at local (x, y, z); negative clears it. */
+    public void setFlow(int x, int y, int z, int level) {
+        if (flow == null) {
+            if (level < 0)
+                return;
+            flow = new byte[FlowLevels.length(blocks.length)];
+        }
+        FlowLevels.set(flow, idx(x, y, z, height), level);
+    }
+
     public void clearCorruptionFlags() {
         corrupted26M = false;
         corrupted30M = false;
@@ -59,6 +92,9 @@ public final class SimpleChunk {
     public void resetArrays() {
         this.blocks = new byte[SIZE * height * SIZE];
         this.light = new byte[SIZE * height * SIZE];
+        this.flow = null;
+        this.heights.clear();
+        this.tickable.clear();
         this.meshed = false;
         this.loaded = false;
         this.lastAccessTick = 0;
@@ -69,6 +105,7 @@ public final class SimpleChunk {
     public void dispose() {
         this.blocks = null;
         this.light = null;
+        this.flow = null;
         this.loaded = false;
         this.meshed = false;
         corrupted26M = false;
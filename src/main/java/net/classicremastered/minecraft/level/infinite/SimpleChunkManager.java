@@ -1,9 +1,13 @@
 package net.classicremastered.minecraft.level.infinite;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
 
 import net.classicremastered.minecraft.Minecraft;
 import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.liquid.FlowLevels;
 import net.classicremastered.minecraft.level.tile.Block;
 
 public final class SimpleChunkManager {
@@ -16,6 +20,18 @@ public final class SimpleChunkManager {
     private final Mode mode;
     public Level level;
 
+    // Region files backing this world; null until it has been saved or loaded from disk.
+    private volatile ChunkStorage storage;
+    private static final int MAX_LOADED = 4096; // soft cap before inactive chunks are evicted harder
+
+    // Async generation: requests by key (level thread only) and chunks handed back by workers.
+    private final Map<Long, ChunkGenExecutor.Task> pending = new HashMap<>();
+    private final ConcurrentLinkedQueue<ChunkGenExecutor.Task> built = new ConcurrentLinkedQueue<>();
+    private boolean hasFocus;
+    private int focusX, focusZ;
+    private static final int SYNC_RADIUS = 1; // chunks around the focus that may still generate inline
+    private static final int DROP_RADIUS = 24; // queued requests farther than this are abandoned
+
     private static boolean warnedFarLands = false;
     private static int farlandsDamageCounter = 0;
 
@@ -35,6 +51,11 @@ public final class SimpleChunkManager {
     }
 
     public void restoreChunk(long key, byte[] blocks) {
+        restoreChunk(key, blocks, null);
+    }
+
+    /** As {@link #restoreChunk(long, byte[])}, with the chunk's packed flow levels (may be null). */
+    public void restoreChunk(long key, byte[] blocks, byte[] flow) {
         int cx = (int) (key >> 32);
         int cz = (int) (key & 0xffffffffL);
 
@@ -44,10 +65,16 @@ public final class SimpleChunkManager {
         }
 
         System.arraycopy(blocks, 0, c.blocks, 0, blocks.length);
+        if (flow != null && flow.length == FlowLevels.length(blocks.length)) {
+            c.flow = flow.clone();
+        }
         c.meshed = false;
         c.loaded = true;
+        c.dirty = true; // not in region storage yet
+        c.state = SimpleChunk.State.READY;
         c.lastAccessTick = 0L;
         map.put(key, c);
+        relight(c);
     }
 
     public boolean isChunkLoaded(int cx, int cz) {
@@ -59,18 +86,125 @@ public final class SimpleChunkManager {
         return map.get(key(cx, cz));
     }
 
+    /**
+     * Non-generating lookup for read-only queries: returns the chunk if it is ready,
+     * otherwise queues it for background generation and returns null (callers treat
+     * the column as air over bedrock). Chunks next to the focus are still built inline,
+     * and without a focus (no player yet) this behaves like {@link #getOrCreate}.
+     */
+    public SimpleChunk peek(int cx, int cz) {
+        SimpleChunk c = map.get(key(cx, cz));
+        if (c != null)
+            return c;
+        if (!hasFocus || (Math.abs(cx - focusX) <= SYNC_RADIUS && Math.abs(cz - focusZ) <= SYNC_RADIUS))
+            return getOrCreate(cx, cz);
+        request(cx, cz);
+        return null;
+    }
+
     public SimpleChunk getOrCreate(int cx, int cz) {
         long k = key(cx, cz);
         SimpleChunk c = map.get(k);
         if (c == null) {
+            ChunkGenExecutor.Task t = pending.remove(k);
+            if (t != null) {
+                ChunkGenExecutor.shared().remove(t); // building it here instead
+            }
             c = new SimpleChunk(cx, cz, height);
-            generateChunk(c);
+            if (readFromStorage(c)) {
+                c.state = SimpleChunk.State.READY;
+            } else {
+                generateChunk(c);
+            }
             map.put(k, c);
+            relight(c);
         }
         c.loaded = true;
         return c;
     }
 
+    // --- Async generation ---
+
+    /** Queue (cx, cz) for background generation if it is neither loaded nor queued. */
+    public void request(int cx, int cz) {
+        long k = key(cx, cz);
+        if (map.containsKey(k) || pending.containsKey(k))
+            return;
+        ChunkGenExecutor.Task t = new ChunkGenExecutor.Task(this, cx, cz);
+        pending.put(k, t);
+        ChunkGenExecutor.shared().submit(t);
+    }
+
+    /** Centre generation priority on the player's chunk. Level thread. */
+    public void setFocus(int cx, int cz) {
+        hasFocus = true;
+        focusX = cx;
+        focusZ = cz;
+        for (ChunkGenExecutor.Task t : ChunkGenExecutor.shared().setFocus(this, cx, cz, DROP_RADIUS)) {
+            pending.remove(key(t.cx, t.cz), t);
+        }
+    }
+
+    // Worker thread: storage read or terrain + decoration. Never touches the map.
+    void buildChunk(ChunkGenExecutor.Task t) {
+        SimpleChunk c = new SimpleChunk(t.cx, t.cz, height);
+        if (!readFromStorage(c)) {
+            int worldX = c.cx * SimpleChunk.SIZE;
+            int worldZ = c.cz * SimpleChunk.SIZE;
+            terrain.generateTerrain(c, worldX, worldZ, mode == Mode.FLAT);
+            if (mode != Mode.FLAT) {
+                t.house = terrain.decorate(c, worldX, worldZ, level != null);
+            }
+        }
+        c.state = SimpleChunk.State.DECORATED;
+        t.chunk = c;
+    }
+
+    void onBuilt(ChunkGenExecutor.Task t) {
+        built.add(t);
+    }
+
+    /**
+     * Level thread: move up to {@code budget} built chunks into the world (villagers,
+     * light) and report each through {@code onReady}. Returns how many were added.
+     */
+    public int integrateBuilt(int budget, Consumer<SimpleChunk> onReady) {
+        int n = 0;
+        ChunkGenExecutor.Task t;
+        while (n < budget && (t = built.poll()) != null) {
+            long k = key(t.cx, t.cz);
+            pending.remove(k, t);
+            SimpleChunk c = t.chunk;
+            if (t.cancelled || c == null || map.containsKey(k))
+                continue; // superseded by an inline build or abandoned
+            c.loaded = true;
+            if (level != null)
+                c.lastAccessTick = level.tickCount;
+            map.put(k, c);
+            if (t.house != null && level != null) {
+                terrain.spawnVillagers(c, t.house, level);
+            }
+            c.state = SimpleChunk.State.READY;
+            relight(c);
+            if (onReady != null)
+                onReady.accept(c);
+            n++;
+        }
+        return n;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /** One-line generation metrics for the debug overlay. */
+    public String getGenerationStats() {
+        ChunkGenExecutor ex = ChunkGenExecutor.shared();
+        return String.format("Chunks: %d loaded, %d pending (%d queued, %d working), gen %.1f ms avg / %.1f ms max",
+                map.size(), pending.size(), ex.getQueueDepth(), ex.getWorking(), ex.getAvgLatencyMs(),
+                ex.getMaxLatencyMs());
+    }
+
     public Collection<SimpleChunk> getLoadedChunksAround(int cx, int cz, int radius) {
         List<SimpleChunk> out = new ArrayList<>();
         for (int dx = -radius; dx <= radius; dx++) {
@@ -103,9 +237,122 @@ public final class SimpleChunkManager {
         int lx = x & (SimpleChunk.SIZE - 1);
         int lz = z & (SimpleChunk.SIZE - 1);
         SimpleChunk c = getOrCreate(cx, cz);
-        c.blocks[SimpleChunk.idx(lx, y, lz, height)] = id;
+        int i = SimpleChunk.idx(lx, y, lz, height);
+        c.tickable.update(c.blocks[i], id, lx, y, lz);
+        c.blocks[i] = id;
+        c.heights.update(c.blocks, lx, y, lz);
         c.meshed = false;
         c.loaded = true;
+        c.dirty = true;
+    }
+
+    // --- Region storage ---
+
+    public ChunkStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Attach region storage; chunks missing from the map are read from it before being
+     * generated, and unedited chunks already in memory are replaced by their stored copy.
+     */
+    public void setStorage(ChunkStorage storage) {
+        if (this.storage != null && this.storage != storage) {
+            try {
+                this.storage.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        this.storage = storage;
+
+        // chunks generated before storage was attached (e.g. around spawn while loading) may be stale
+        if (storage != null) {
+            for (SimpleChunk c : map.values()) {
+                if (!c.dirty && c.blocks != null && readFromStorage(c)) {
+                    c.meshed = false;
+                    relight(c);
+                }
+            }
+        }
+    }
+
+    private boolean readFromStorage(SimpleChunk c) {
+        if (storage == null)
+            return false;
+        try {
+            int n = c.blocks.length;
+            // blocks, then the packed flow levels if the chunk had any
+            byte[] data = storage.read(c.cx, c.cz, n, FlowLevels.length(n));
+            if (data == null)
+                return false;
+            System.arraycopy(data, 0, c.blocks, 0, n);
+            c.flow = data.length > n ? Arrays.copyOfRange(data, n, data.length) : null;
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace(); // unreadable chunk: fall back to the generator
+            return false;
+        }
+    }
+
+    /** Write every dirty chunk to region storage. Returns how many were written. */
+    public int saveDirty() throws IOException {
+        if (storage == null)
+            return 0;
+        int n = 0;
+        for (SimpleChunk c : map.values()) {
+            if (c.dirty && c.blocks != null) {
+                storage.write(c.cx, c.cz, c.blocks, c.flow);
+                c.dirty = false;
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Drop a chunk from memory, writing it out first if it was edited. Edited chunks
+     * are kept when there is no storage to write them to.
+     */
+    public boolean unload(SimpleChunk c) {
+        if (c.dirty) {
+            if (storage == null)
+                return false;
+            try {
+                storage.write(c.cx, c.cz, c.blocks, c.flow);
+                c.dirty = false;
+            } catch (IOException e) {
+                e.printStackTrace();
+                return false;
+            }
+        }
+        map.remove(key(c.cx, c.cz));
+        c.dispose();
+        return true;
+    }
+
+    /**
+     * Unload up to {@code max} chunks not accessed within {@code timeout} ticks. Above
+     * {@link #MAX_LOADED} chunks the per-call limit is lifted until back under the cap.
+     */
+    public int unloadInactive(long tick, int timeout, int max) {
+        int removed = 0;
+        List<SimpleChunk> idle = new ArrayList<>();
+        for (SimpleChunk c : map.values()) {
+            if (!c.isActive(tick, timeout))
+                idle.add(c);
+        }
+        if (map.size() > MAX_LOADED) {
+            idle.sort((a, b) -> Long.compare(a.lastAccessTick, b.lastAccessTick));
+            max = Math.max(max, map.size() - MAX_LOADED);
+        }
+        for (SimpleChunk c : idle) {
+            if (removed >= max)
+                break;
+            if (unload(c))
+                removed++;
+        }
+        return removed;
     }
 
     private void generateChunk(SimpleChunk c) {
@@ -125,6 +372,17 @@ public final class SimpleChunkManager {
         }
     }
 
+    // Seed block light once the chunk is reachable through the map.
+    private void relight(SimpleChunk c) {
+        if (c.blocks != null) {
+            c.heights.rebuild(c.blocks);
+            c.tickable.rebuild(c.blocks);
+        }
+        if (level != null && level.lightEngine != null) {
+            level.lightEngine.onChunkLoaded(c);
+        }
+    }
+
     public void markDirty(int cx, int cz) {
         SimpleChunk c = map.get(key(cx, cz));
         if (c != null) {
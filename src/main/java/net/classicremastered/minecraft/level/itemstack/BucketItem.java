@@ -97,8 +97,8 @@ public class BucketItem extends ToolItem {
                 int placeTile = (bucketType == 1) ? Block.WATER.id : Block.LAVA.id;
                 level.setTile(nx, ny, nz, placeTile);
                 
-                // Add to flowLevels map as level 0 (source) so it flows properly
-                level.flowLevels.put(Level.getCoordKey(nx, ny, nz), (byte) 0);
+                // Store flow level 0 (source) so it flows properly
+                level.setFlowLevel(nx, ny, nz, 0);
                 Block.blocks[placeTile].onPlace(level, nx, ny, nz);
 
                 level.playSound("random/pop", player, 0.5f, 1.0f);
@@ -0,0 +1,39 @@
+package net.classicremastered.minecraft.level.liquid;
+
+/**
+ * Packed finite-liquid flow state: one nibble per block, two blocks per byte, holding
+ * 0 for "no stored level" or the flow level + 1. Indexed like the block array it sits
+ * beside (the level's {@code blocks}, or a chunk's). Arrays are allocated on the first
+ * stored level, so a null array means nothing is stored.
+ */
+public final class FlowLevels {
+
+    /** Highest storable flow level. */
+    public static final int MAX = 14;
+
+    private FlowLevels() {
+    }
+
+    /** Bytes needed for {@code blocks} cells. */
+    public static int length(int blocks) {
+        return (blocks + 1) >> 1;
+    }
+
+    /** Stored level at {@code index}, or -1 if none (or {@code flow} is null). */
+    public static int get(byte[] flow, int index) {
+        if (flow == null)
+            return -1;
+        int b = flow[index >> 1];
+        return ((index & 1) == 0 ? b & 15 : b >> 4 & 15) - 1;
+    }
+
+    /** Store {@code level} (clamped to 0..{@link #MAX}) at {@code index}, or clear it if negative. */
+    public static void set(byte[] flow, int index, int level) {
+        int v = level < 0 ? 0 : Math.min(level, MAX) + 1;
+        int i = index >> 1;
+        if ((index & 1) == 0)
+            flow[i] = (byte) (flow[i] & 0xF0 | v);
+        else
+            flow[i] = (byte) (flow[i] & 0x0F | v << 4);
+    }
+}
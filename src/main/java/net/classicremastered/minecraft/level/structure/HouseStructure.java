@@ -2,6 +2,7 @@ package net.classicremastered.minecraft.level.structure;
 
 import java.util.Random;
 
+import net.classicremastered.minecraft.level.BlockEditBatch;
 import net.classicremastered.minecraft.level.Level;
 import net.classicremastered.minecraft.level.tile.Block;
 import net.classicremastered.minecraft.mob.Villager;
@@ -121,6 +122,7 @@ public final class HouseStructure implements Structure {
         if (targetY < 1 || targetY + H - 1 >= level.depth)
             return false; // depth, not height
         int padY = targetY - 1;
+        BlockEditBatch edits = new BlockEditBatch(W * D * (H + 4));
 
         // Terraform: fill upward to pad with cobble; clear build volume
         for (int dx = 0; dx < W; dx++) {
@@ -130,10 +132,10 @@ public final class HouseStructure implements Structure {
                 if (solid < 0)
                     return false;
                 for (int y = solid + 1; y <= padY; y++) {
-                    level.setTile(wx, y, wz, Block.COBBLESTONE.id);
+                    edits.set(wx, y, wz, Block.COBBLESTONE.id);
                 }
                 for (int y = targetY; y < targetY + H; y++) {
-                    level.setTile(wx, y, wz, 0);
+                    edits.set(wx, y, wz, 0);
                 }
             }
         }
@@ -141,7 +143,7 @@ public final class HouseStructure implements Structure {
         // Floor
         for (int dx = 0; dx < W; dx++)
             for (int dz = 0; dz < D; dz++)
-                level.setTile(x + dx, padY, z + dz, Block.COBBLESTONE.id);
+                edits.set(x + dx, padY, z + dz, Block.COBBLESTONE.id);
 
         // Walls
         for (int dy = 1; dy < H - 1; dy++) {
@@ -151,9 +153,9 @@ public final class HouseStructure implements Structure {
                     if (!wall)
                         continue;
                     if (dy == 2 && !(dz == D / 2 && dx == 0)) {
-                        level.setTile(x + dx, padY + dy, z + dz, Block.GLASS.id);
+                        edits.set(x + dx, padY + dy, z + dz, Block.GLASS.id);
                     } else {
-                        level.setTile(x + dx, padY + dy, z + dz, Block.WOOD.id);
+                        edits.set(x + dx, padY + dy, z + dz, Block.WOOD.id);
                     }
                 }
             }
@@ -162,13 +164,15 @@ public final class HouseStructure implements Structure {
         // Roof
         for (int dx = 0; dx < W; dx++)
             for (int dz = 0; dz < D; dz++)
-                level.setTile(x + dx, padY + H - 1, z + dz, Block.WOOD.id);
+                edits.set(x + dx, padY + H - 1, z + dz, Block.WOOD.id);
 
         // Door gap
         int doorX = x + W / 2;
         int doorZ = z;
-        level.setTile(doorX, padY + 1, doorZ, 0);
-        level.setTile(doorX, padY + 2, doorZ, 0);
+        edits.set(doorX, padY + 1, doorZ, 0);
+        edits.set(doorX, padY + 2, doorZ, 0);
+
+        level.applyEdits(edits);
 
         // Villagers
         int baseY = padY + 1;
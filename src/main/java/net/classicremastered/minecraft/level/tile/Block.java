@@ -12,6 +12,7 @@ import net.classicremastered.minecraft.model.Vec3D;
 import net.classicremastered.minecraft.particle.ParticleManager;
 import net.classicremastered.minecraft.particle.TerrainParticle;
 import net.classicremastered.minecraft.phys.AABB;
+import net.classicremastered.minecraft.phys.CollisionBuffer;
 import net.classicremastered.minecraft.player.Player;
 import net.classicremastered.minecraft.render.ShapeRenderer;
 import net.classicremastered.minecraft.render.TextureManager;
@@ -354,10 +355,40 @@ public class Block {
         return new AABB((float) x + x1, (float) y + y1, (float) z + z1, (float) x + x2, (float) y + y2, (float) z + z2);
     }
 
+    /**
+     * Whether a block class overrides {@link #getCollisionBox} without {@link #addCollisionBox}
+     * (mod blocks written against the old API); such blocks collide through the allocating call.
+     */
+    private static final ClassValue<Boolean> LEGACY_COLLISION = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                Class<?> get = type.getMethod("getCollisionBox", int.class, int.class, int.class).getDeclaringClass();
+                Class<?> add = type.getMethod("addCollisionBox", int.class, int.class, int.class, AABB.class,
+                        CollisionBuffer.class).getDeclaringClass();
+                return get != add && add.isAssignableFrom(get);
+            } catch (NoSuchMethodException e) {
+                return Boolean.FALSE;
+            }
+        }
+    };
+
+    /** Subclasses should override {@link #addCollisionBox} to match, or collision allocates. */
     public AABB getCollisionBox(int x, int y, int z) {
         return new AABB((float) x + x1, (float) y + y1, (float) z + z1, (float) x + x2, (float) y + y2, (float) z + z2);
     }
 
+    /** Allocation-free {@link #getCollisionBox}: append it to {@code out} if it touches {@code box}. */
+    public void addCollisionBox(int x, int y, int z, AABB box, CollisionBuffer out) {
+        if (LEGACY_COLLISION.get(getClass())) {
+            AABB own = getCollisionBox(x, y, z);
+            if (own != null)
+                out.addIfTouching(box, own.x0, own.y0, own.z0, own.x1, own.y1, own.z1);
+            return;
+        }
+        out.addIfTouching(box, (float) x + x1, (float) y + y1, (float) z + z1, (float) x + x2, (float) y + y2, (float) z + z2);
+    }
+
     public boolean isOpaque() {
         return true;
     }
@@ -527,6 +558,15 @@ public class Block {
         return 0;
     }
 
+    /**
+     * True if {@link #render} only emits vertices through the ShapeRenderer, so chunk
+     * meshes can be built for it off the GL thread. Blocks issuing GL calls directly
+     * return false and are drawn on the GL thread when the mesh is uploaded.
+     */
+    public boolean isMeshable() {
+        return true;
+    }
+
     // -------- Tool preference helpers (for Survival tool speeds) --------
 
     /** Pickaxe is best for these. */
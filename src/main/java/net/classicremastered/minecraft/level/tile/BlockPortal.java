@@ -5,6 +5,7 @@ import net.classicremastered.minecraft.level.Level;
 import net.classicremastered.minecraft.player.Player;
 import net.classicremastered.minecraft.render.ShapeRenderer;
 import net.classicremastered.minecraft.phys.AABB;
+import net.classicremastered.minecraft.phys.CollisionBuffer;
 
 public class BlockPortal extends Block {
 
@@ -33,6 +34,10 @@ public class BlockPortal extends Block {
         return null; // no collision, so player can step into it
     }
 
+    @Override
+    public void addCollisionBox(int x, int y, int z, AABB box, CollisionBuffer out) {
+    }
+
     @Override
     public void renderInside(ShapeRenderer sr, int x, int y, int z, int side) {
         // Simple purple tint effect for placeholder
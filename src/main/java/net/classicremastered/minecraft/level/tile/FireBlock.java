@@ -6,6 +6,7 @@ import org.lwjgl.opengl.GL11;
 
 import net.classicremastered.minecraft.level.Level;
 import net.classicremastered.minecraft.phys.AABB;
+import net.classicremastered.minecraft.phys.CollisionBuffer;
 import net.classicremastered.minecraft.render.ShapeRenderer;
 import net.classicremastered.minecraft.render.Tessellator;
 
@@ -94,9 +95,11 @@ public final class FireBlock extends Block {
     }
 
     @Override public boolean isSolid() { return false; }
+    @Override public boolean isMeshable() { return false; } // draws via GL11/Tessellator
     @Override public boolean isOpaque() { return false; }
     @Override public boolean isCube() { return true; }
     @Override public AABB getCollisionBox(int x, int y, int z) { return null; }
+    @Override public void addCollisionBox(int x, int y, int z, AABB box, CollisionBuffer out) {}
     @Override public AABB getSelectionBox(int x, int y, int z) {
         float inset = 0.01f;
         return new AABB(x + inset, y, z + inset, x + 1 - inset, y + 1, z + 1 - inset);
@@ -2,6 +2,7 @@ package net.classicremastered.minecraft.level.tile;
 
 import net.classicremastered.minecraft.level.Level;
 import net.classicremastered.minecraft.phys.AABB;
+import net.classicremastered.minecraft.phys.CollisionBuffer;
 import net.classicremastered.minecraft.render.ShapeRenderer;
 import net.classicremastered.util.MathHelper;
 
@@ -92,4 +93,9 @@ public class FlowerBlock extends Block {
 	{
 		return null;
 	}
+
+	@Override
+	public void addCollisionBox(int x, int y, int z, AABB box, CollisionBuffer out)
+	{
+	}
 }
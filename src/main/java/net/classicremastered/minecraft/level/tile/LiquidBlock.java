@@ -1,10 +1,12 @@
 package net.classicremastered.minecraft.level.tile;
 
+import java.util.ArrayDeque;
 import java.util.Random;
 
 import net.classicremastered.minecraft.level.Level;
 import net.classicremastered.minecraft.level.liquid.LiquidType;
 import net.classicremastered.minecraft.phys.AABB;
+import net.classicremastered.minecraft.phys.CollisionBuffer;
 import net.classicremastered.minecraft.render.ShapeRenderer;
 
 public class LiquidBlock extends Block {
@@ -43,7 +45,42 @@ public class LiquidBlock extends Block {
       level.addToTickNextTick(x, y, z, this.movingId);
    }
 
+   /**
+    * Cells {@link #flow} has filled and that still need their own update, per thread. The
+    * outermost {@link #update} drains them, so an instant flood is as deep on the heap as
+    * the area it covers but never deeper than one update on the stack.
+    */
+   private static final ThreadLocal<Spread> SPREAD = ThreadLocal.withInitial(Spread::new);
+
+   private static final class Spread {
+      final ArrayDeque<int[]> cells = new ArrayDeque<>();
+      boolean draining;
+   }
+
    public void update(Level level, int x, int y, int z, Random rand) {
+      Spread spread = SPREAD.get();
+      if (spread.draining) {
+         this.updateCell(level, x, y, z, rand);
+         return;
+      }
+      spread.draining = true;
+      try {
+         this.updateCell(level, x, y, z, rand);
+         int[] c;
+         while ((c = spread.cells.pollLast()) != null) {
+            // a neighbour may have turned the cell to stone, or sand fallen into it, since it was queued
+            if (level.getTile(c[1], c[2], c[3]) != c[0]) {
+               continue;
+            }
+            ((LiquidBlock) Block.blocks[c[0]]).updateCell(level, c[1], c[2], c[3], random);
+         }
+      } finally {
+         spread.cells.clear();
+         spread.draining = false;
+      }
+   }
+
+   private void updateCell(Level level, int x, int y, int z, Random rand) {
       if (this.type == LiquidType.LAVA) {
          for (int i = 0; i < 3; ++i) {
             int rx = x + rand.nextInt(3) - 1;
@@ -112,7 +149,7 @@ public class LiquidBlock extends Block {
       }
 
       if (targetLevel != currentLevel) {
-         level.flowLevels.put(Level.getCoordKey(x, y, z), (byte) targetLevel);
+         level.setFlowLevel(x, y, z, targetLevel);
          level.addToTickNextTick(x, y, z, this.movingId);
          level.updateNeighborsAt(x, y, z, this.movingId);
          return;
@@ -125,7 +162,7 @@ public class LiquidBlock extends Block {
          if (downTile == 0) {
             if (this.canFlow(level, x, y - 1, z)) {
                if (level.setTile(x, y - 1, z, this.movingId)) {
-                  level.flowLevels.put(Level.getCoordKey(x, y - 1, z), (byte) 1);
+                  level.setFlowLevel(x, y - 1, z, 1);
                   level.addToTickNextTick(x, y - 1, z, this.movingId);
                   flowedDown = true;
                }
@@ -133,7 +170,7 @@ public class LiquidBlock extends Block {
          } else if (Block.blocks[downTile] != null && Block.blocks[downTile].getLiquidType() == this.type) {
             int downLevel = level.getFlowLevel(x, y - 1, z);
             if (downLevel > 1) {
-               level.flowLevels.put(Level.getCoordKey(x, y - 1, z), (byte) 1);
+               level.setFlowLevel(x, y - 1, z, 1);
                level.addToTickNextTick(x, y - 1, z, this.movingId);
                flowedDown = true;
             } else {
@@ -162,9 +199,7 @@ public class LiquidBlock extends Block {
          return 1;
       }
 
-      long key = Level.getCoordKey(x, y, z);
-      Byte val = level.flowLevels.get(key);
-      if (val != null && val == 0) {
+      if (level.getStoredFlow(x, y, z) == 0) {
          return 0;
       }
       int tile = level.getTile(x, y, z);
@@ -189,10 +224,9 @@ public class LiquidBlock extends Block {
       if (tile <= 0 || Block.blocks[tile].getLiquidType() != this.type) {
          return 99;
       }
-      long key = Level.getCoordKey(x, y, z);
-      Byte val = level.flowLevels.get(key);
-      if (val != null) {
-         return val.intValue();
+      int val = level.getStoredFlow(x, y, z);
+      if (val >= 0) {
+         return val;
       }
       if (tile == this.stillId) {
          return 0;
@@ -208,14 +242,14 @@ public class LiquidBlock extends Block {
       if (tile == 0) {
          if (this.canFlow(level, x, y, z)) {
             if (level.setTile(x, y, z, this.movingId)) {
-               level.flowLevels.put(Level.getCoordKey(x, y, z), (byte) nextLevel);
+               level.setFlowLevel(x, y, z, nextLevel);
                level.addToTickNextTick(x, y, z, this.movingId);
             }
          }
       } else if (Block.blocks[tile] != null && Block.blocks[tile].getLiquidType() == this.type) {
          int curLevel = level.getFlowLevel(x, y, z);
          if (curLevel > nextLevel) {
-            level.flowLevels.put(Level.getCoordKey(x, y, z), (byte) nextLevel);
+            level.setFlowLevel(x, y, z, nextLevel);
             level.addToTickNextTick(x, y, z, this.movingId);
          }
       }
@@ -244,8 +278,8 @@ public class LiquidBlock extends Block {
            }
 
            if (level.setTile(x, y, z, this.movingId)) {
-               // 💧 Immediately update neighbor, no waiting
-               Block.blocks[this.movingId].update(level, x, y, z, random);
+               // 💧 update the new cell this tick too, once the current update returns
+               SPREAD.get().cells.addLast(new int[] { this.movingId, x, y, z });
                return true;
            }
        }
@@ -342,4 +376,9 @@ public class LiquidBlock extends Block {
 	{
 		return null;
 	}
+
+	@Override
+	public void addCollisionBox(int x, int y, int z, AABB box, CollisionBuffer out)
+	{
+	}
 }
@@ -14,6 +14,13 @@ public abstract class AI implements Serializable {
 
    public void tick(Level var1, Mob var2) {}
 
+   /**
+    * Read-only look at the world before this tick's {@link #tick}, which may run on a
+    * worker thread alongside other mobs' sensing. Implementations may only write this
+    * AI's own fields and must query entities through {@link Level#senseEntities}.
+    */
+   public void sense(Level var1, Mob var2) {}
+
    public void beforeRemove() {}
 
    public void hurt(Entity var1, int var2) {}
@@ -37,10 +37,18 @@ public class BasicAI extends AI {
     public float runMultiplier= 1.40f; // applied when running == true
     public float speedScale   = 1.00f; // global multiplier
     private final GoalSelector selector = new GoalSelector();
+    // set by sense() for this tick; live lookups are used when it is false
+    protected transient boolean sensed;
+    private transient Entity sensedThreat;
+    private transient List<Entity> senseList;
+    // BlockMap handle of attackTarget, taken when it was set
+    private transient Entity handleTarget;
+    private transient long targetHandle = -1L;
     
     @Override
     public void tick(Level level, Mob mob) {
         ++this.noActionTime;
+        this.dropLostTarget(level);
         Entity player;
         selector.tick(); // runs active goal
         if (this.noActionTime > 600 && this.random.nextInt(800) == 0 && (player = level.getPlayer()) != null) {
@@ -98,6 +106,63 @@ public class BasicAI extends AI {
                 }
             }
         }
+        this.sensed = false;
+    }
+
+    /** Forget attackTarget once it has left the level, even if it was never flagged removed. */
+    private void dropLostTarget(Level level) {
+        if (this.attackTarget == null || level.blockMap == null)
+            return;
+        if (this.attackTarget != this.handleTarget) {
+            this.handleTarget = this.attackTarget;
+            this.targetHandle = level.blockMap.handleOf(this.attackTarget);
+        }
+        // targets that were never in this level's map (-1) keep the old checks only
+        if (this.targetHandle != -1L && level.blockMap.resolve(this.targetHandle) != this.attackTarget)
+            this.attackTarget = null;
+    }
+
+    /** Looks up the villager flee threat ahead of {@link #tick}; subclasses add their own scans. */
+    @Override
+    public void sense(Level level, Mob mob) {
+        this.level = level;
+        this.mob = mob;
+        this.sensedThreat = null;
+        if (mob instanceof Villager && !((Villager) mob).isHostile()) {
+            this.sensedThreat = nearestThreat(level.senseEntities(mob, mob.bb.grow(8.0F, 4.0F, 8.0F), scratchList()));
+        }
+        this.sensed = true;
+    }
+
+    /** Per-AI list for {@link Level#senseEntities}, cleared. */
+    protected List<Entity> scratchList() {
+        if (this.senseList == null)
+            this.senseList = new java.util.ArrayList<>();
+        this.senseList.clear();
+        return this.senseList;
+    }
+
+    private Entity nearestThreat(List near) {
+        Entity nearestThreat = null;
+        float nearestDist2 = Float.MAX_VALUE;
+        if (near != null) {
+            for (Object o : near) {
+                if (o instanceof Zombie || o instanceof Skeleton) {
+                    Entity threat = (Entity) o;
+                    if (!threat.removed) {
+                        float dx = threat.x - this.mob.x;
+                        float dy = threat.y - this.mob.y;
+                        float dz = threat.z - this.mob.z;
+                        float dist2 = dx * dx + dy * dy + dz * dz;
+                        if (dist2 < nearestDist2) {
+                            nearestDist2 = dist2;
+                            nearestThreat = threat;
+                        }
+                    }
+                }
+            }
+        }
+        return nearestThreat;
     }
     public void addGoal(Goal g) {
         selector.addGoal(g);
@@ -109,26 +174,9 @@ public class BasicAI extends AI {
     protected boolean checkAndPerformFlee() {
         if (this.mob instanceof Villager && !((Villager) this.mob).isHostile()) {
             if (this.level == null) return false;
-            java.util.List near = this.level.findEntities(this.mob, this.mob.bb.grow(8.0F, 4.0F, 8.0F));
-            Entity nearestThreat = null;
-            float nearestDist2 = Float.MAX_VALUE;
-            if (near != null) {
-                for (Object o : near) {
-                    if (o instanceof Zombie || o instanceof Skeleton) {
-                        Entity threat = (Entity) o;
-                        if (!threat.removed) {
-                            float dx = threat.x - this.mob.x;
-                            float dy = threat.y - this.mob.y;
-                            float dz = threat.z - this.mob.z;
-                            float dist2 = dx * dx + dy * dy + dz * dz;
-                            if (dist2 < nearestDist2) {
-                                nearestDist2 = dist2;
-                                nearestThreat = threat;
-                            }
-                        }
-                    }
-                }
-            }
+            Entity nearestThreat = this.sensed ? this.sensedThreat
+                    : nearestThreat(this.level.findEntities(this.mob, this.mob.bb.grow(8.0F, 4.0F, 8.0F)));
+            if (nearestThreat != null && nearestThreat.removed) nearestThreat = null;
 
             if (nearestThreat != null) {
                 float dx = this.mob.x - nearestThreat.x;
@@ -3,6 +3,8 @@ package net.classicremastered.minecraft.mob.ai;
 import net.classicremastered.minecraft.Entity;
 import net.classicremastered.minecraft.entity.Arrow;
 import net.classicremastered.minecraft.model.Vec3D;
+import net.classicremastered.minecraft.path.Path;
+import net.classicremastered.minecraft.path.PathService;
 import net.classicremastered.util.MathHelper;
 
 public class BasicAttackAI extends BasicAI {
@@ -21,9 +23,15 @@ public class BasicAttackAI extends BasicAI {
     private int stuckTicks = 0;
     private float lastProgressX, lastProgressZ;
 
-    // Waypoint from micro BFS (grid cell) and time-to-live
+    // Waypoint from the micro path (grid cell) and time-to-live
     private int wpX = Integer.MIN_VALUE, wpY = Integer.MIN_VALUE, wpZ = Integer.MIN_VALUE;
     private int wpTTL = 0;
+    private transient Path wpPath; // micro path being followed; wp* is cell wpIndex of it
+    private int wpIndex;
+    private transient PathService.Agent pathAgent;
+    // sense(): line of sight to the target this tick is expected to chase
+    private transient Entity sensedTarget;
+    private transient boolean sensedLos;
 
     // ---- runmul helpers (scale both movement and turning) ----
     private static float clampf(float v, float lo, float hi) { return v < lo ? lo : (v > hi ? hi : v); }
@@ -99,6 +107,24 @@ public class BasicAttackAI extends BasicAI {
         return !e.removed;
     }
 
+    /** Casts the line-of-sight ray to the current or acquirable target ahead of the tick. */
+    @Override
+    public void sense(net.classicremastered.minecraft.level.Level level, net.classicremastered.minecraft.mob.Mob mob) {
+        super.sense(level, mob);
+        Entity target = this.attackTarget;
+        if (target == null || !isAliveEntity(target)) {
+            target = level.getPlayer();
+            if (target != null && (!isAliveEntity(target) || target.distanceToSqr(mob) >= 16.0F * 16.0F))
+                target = null;
+        }
+        this.sensedTarget = target;
+        this.sensedLos = target != null && hasLineOfSight(mob, target);
+    }
+
+    private boolean lineOfSight(Entity target) {
+        return this.sensed && target == this.sensedTarget ? this.sensedLos : hasLineOfSight(this.mob, target);
+    }
+
     public void bind(net.classicremastered.minecraft.level.Level level, net.classicremastered.minecraft.mob.Mob mob) {
         this.level = level;
         this.mob = mob;
@@ -107,7 +133,7 @@ public class BasicAttackAI extends BasicAI {
     private boolean scanForLocalStepUpTowardTarget(int radius) {
         if (this.mob == null || this.attackTarget == null || this.level == null) return false;
 
-        int sx = fi(mob.x), sy = fi(mob.y), sz = fi(mob.z);
+        int sx = fi(mob.x), sy = PathService.feetY(mob), sz = fi(mob.z);
         float best = Float.MAX_VALUE;
         int bx = 0, by = 0, bz = 0;
 
@@ -133,6 +159,7 @@ public class BasicAttackAI extends BasicAI {
 
         if (best < Float.MAX_VALUE) {
             wpX = bx; wpY = by; wpZ = bz;
+            wpPath = null;
             wpTTL = 40; // ~2 seconds
             return true;
         }
@@ -200,7 +227,7 @@ public class BasicAttackAI extends BasicAI {
         if (this.mob.xRot < -89f) this.mob.xRot = -89f;
         if (this.mob.xRot >  89f) this.mob.xRot =  89f;
 
-        boolean los = hasLineOfSight(this.mob, this.attackTarget);
+        boolean los = lineOfSight(this.attackTarget);
         boolean targetAbove = (this.attackTarget.y - this.mob.y) > 1.25f;
 
         // Stuck detection (no lateral progress while far)
@@ -224,8 +251,8 @@ public class BasicAttackAI extends BasicAI {
 
         // Plan a new waypoint when blocked or stuck
         if (!los || stuck) {
-            int tx = fi(attackTarget.x), ty = fi(attackTarget.y), tz = fi(attackTarget.z);
-            if (planMicroWaypointToward(tx, ty, tz, targetAbove)) {
+            int tx = fi(attackTarget.x), ty = PathService.feetY(attackTarget), tz = fi(attackTarget.z);
+            if (planMicroWaypointToward(tx, ty, tz)) {
                 this.runMultiplier = WAYPOINT_RUNMUL;
                 this.running = true;
                 followWaypoint();
@@ -272,7 +299,7 @@ public class BasicAttackAI extends BasicAI {
     public boolean attack(Entity target) {
         if (this.level == null || this.mob == null) return false;
         if (net.classicremastered.minecraft.util.CreativeModeHelper.isCreativePlayer(target)) return false;
-        if (!hasLineOfSight(this.mob, target)) return false;
+        if (!lineOfSight(target)) return false;
 
         this.mob.attackTime = 5;
         this.attackDelay = this.random.nextInt(20) + 10;
@@ -359,79 +386,34 @@ public class BasicAttackAI extends BasicAI {
         return false;
     }
 
-    /** Micro BFS in a small bubble to find next best 1×2 cell toward (tx,ty,tz). Upward moves are prioritized when targetAbove = true. */
-    private boolean planMicroWaypointToward(int tx, int ty, int tz, boolean targetAbove){
-        int sx = fi(mob.x), sy = fi(mob.y), sz = fi(mob.z);
-
-        final int RX=8, RY=3, RZ=8;
-        final int W = RX*2+1, H = RY*2+1, D = RZ*2+1;
-        final int MAX = W*H*D;
-
-        int[] qx = new int[MAX];
-        int[] qy = new int[MAX];
-        int[] qz = new int[MAX];
-        boolean[] vis = new boolean[MAX];
-        int[] parent = new int[MAX];
-
-        int head=0, tail=0;
-
-        int sidx = (0+RX) + (0+RY)*W + (0+RZ)*W*H;
-        qx[tail]=sx; qy[tail]=sy; qz[tail]=sz; parent[tail]=-1; vis[sidx]=true; tail++;
-
-        final int[][] DIRS_UP = {
-            { 0, 1, 0},{ 1, 1, 0},{-1, 1, 0},{ 0, 1, 1},{ 0, 1,-1},
-            { 1, 0, 0},{-1, 0, 0},{ 0, 0, 1},{ 0, 0,-1},
-            { 1,-1, 0},{-1,-1, 0},{ 0,-1, 1},{ 0,-1,-1}
-        };
-        final int[][] DIRS_FLAT = {
-            { 1, 0, 0},{-1, 0, 0},{ 0, 0, 1},{ 0, 0,-1},
-            { 0, 1, 0},{ 1, 1, 0},{-1, 1, 0},{ 0, 1, 1},{ 0, 1,-1},
-            { 1,-1, 0},{-1,-1, 0},{ 0,-1, 1},{ 0,-1,-1}
-        };
-        final int[][] DIRS = targetAbove ? DIRS_UP : DIRS_FLAT;
-
-        int bestI = -1; float bestH = Float.MAX_VALUE;
-        int budget = 1200;
-        while (head < tail && budget-- > 0){
-            int cx= qx[head], cy= qy[head], cz= qz[head];
-
-            float h = Math.abs(tx - cx) + Math.abs(ty - cy) + Math.abs(tz - cz);
-            if (h < bestH) { bestH = h; bestI = head; if (h <= 0.5f) break; }
-
-            for (int i=0;i<DIRS.length;i++){
-                int nx = cx + DIRS[i][0];
-                int ny = cy + DIRS[i][1];
-                int nz = cz + DIRS[i][2];
-
-                if (nx < sx-RX || nx > sx+RX || nz < sz-RZ || nz > sz+RZ || ny < sy-RY || ny > sy+RY) continue;
-
-                int ix = nx - sx, iy = ny - sy, iz = nz - sz;
-                int id = (ix+RX) + (iy+RY)*W + (iz+RZ)*W*H;
-                if (vis[id]) continue;
-
-                if (!walkable(nx, ny, nz)) continue;
-                if (wouldFallMoreThan1(nx, ny, nz)) continue;
-
-                qx[tail]=nx; qy[tail]=ny; qz[tail]=nz;
-                parent[tail]=head;
-                vis[id]=true;
-                tail++;
-                if (tail>=MAX) break;
-            }
-            head++;
-        }
+    /**
+     * Micro path in a small bubble toward (tx,ty,tz) from the level's shared pathfinder;
+     * if the target is out of reach, the route to the closest reachable cell.
+     */
+    private boolean planMicroWaypointToward(int tx, int ty, int tz){
+        int sx = fi(mob.x), sy = PathService.feetY(mob), sz = fi(mob.z);
 
-        if (bestI < 0) return false;
+        Path p = level.getPathService().find(sx, sy, sz, tx, ty, tz, agent(), 8, 1200, true);
+        if (p == null || p == PathService.BUSY || p.length() == 0) return false;
 
-        // unwind to get next step from start
-        int cur = bestI, par = parent[cur];
-        while (par >= 0 && parent[par] >= 0) { cur = par; par = parent[cur]; }
-        int nx = qx[cur], ny = qy[cur], nz = qz[cur];
+        wpPath = p;
+        wpIndex = 0;
+        wpX = p.getX(0); wpY = p.getY(0); wpZ = p.getZ(0);
+        wpTTL = 40; // ~2s
+        return true;
+    }
 
-        if (nx == sx && ny == sy && nz == sz) return false;
+    private PathService.Agent agent(){
+        if (pathAgent == null) pathAgent = PathService.Agent.of(mob, 1, false);
+        return pathAgent;
+    }
 
-        wpX = nx; wpY = ny; wpZ = nz;
-        wpTTL = 40; // ~2s
+    /** Move on to the next cell of the micro path, if any. */
+    private boolean advanceWaypoint(){
+        if (wpPath == null || wpIndex + 1 >= wpPath.length()) { wpPath = null; return false; }
+        wpIndex++;
+        wpX = wpPath.getX(wpIndex); wpY = wpPath.getY(wpIndex); wpZ = wpPath.getZ(wpIndex);
+        wpTTL = 40;
         return true;
     }
 
@@ -490,7 +472,7 @@ public class BasicAttackAI extends BasicAI {
         if (wpTTL <= 0) return false;
         wpTTL--;
 
-        if (!walkable(wpX, wpY, wpZ)) { wpTTL = 0; return false; }
+        if (!level.getPathService().canStand(agent(), wpX, wpY, wpZ)) { wpTTL = 0; wpPath = null; return false; }
 
         float dx = (wpX + 0.5f) - mob.x;
         float dz = (wpZ + 0.5f) - mob.z;
@@ -510,7 +492,7 @@ public class BasicAttackAI extends BasicAI {
         this.runMultiplier = WAYPOINT_RUNMUL;
 
         if (Math.abs(mob.x - (wpX + 0.5f)) < 0.2f && Math.abs(mob.z - (wpZ + 0.5f)) < 0.2f) {
-            wpTTL = 0;
+            if (!advanceWaypoint()) wpTTL = 0;
         }
         return true;
     }
@@ -5,6 +5,8 @@ import net.classicremastered.minecraft.entity.Arrow;
 import net.classicremastered.minecraft.level.Level;
 import net.classicremastered.minecraft.mob.Enderman;
 import net.classicremastered.minecraft.particle.SmokeParticle;
+import net.classicremastered.minecraft.path.Path;
+import net.classicremastered.minecraft.path.PathService;
 import net.classicremastered.minecraft.phys.AABB;
 import net.classicremastered.minecraft.player.Player;
 import net.classicremastered.util.MathHelper;
@@ -36,8 +38,10 @@ public final class EndermanAI extends BasicAI {
     // Pathfinding tuning
     private static final int PATH_RADIUS = 24; // search radius (blocks) for A* (local)
     private static final int PATH_MAX_NODES = 800; // cap for A*
-    private List<int[]> currentPath = null; // cached path (list of [tx,tz])
+    private transient Path currentPath = null; // cached path
+    private transient PathService.Agent pathAgent;
     private int pathIndex = 0;
+    private transient List<Entity> sensedArrows; // sense(): arrows in dodge range
     private static final int MAX_STEP_UP = 1; // max Y difference allowed when walking (classic-ish)
 
     // GOD-OF-MISS DODGE TUNING (kept from your aggressive dodge)
@@ -46,6 +50,18 @@ public final class EndermanAI extends BasicAI {
     private static final int DODGE_ANGLE_STEPS = 16;
     private static final float[] DODGE_HEIGHTS = new float[] { -1.5f, 0.0f, 1.5f, 3.0f };
 
+    @Override
+    public void sense(Level level, net.classicremastered.minecraft.mob.Mob mob) {
+        super.sense(level, mob);
+        if (sensedArrows == null)
+            sensedArrows = new ArrayList<>();
+        sensedArrows.clear();
+        if (mob.bb != null)
+            for (Entity e : level.senseEntities(mob, mob.bb.grow(24, 12, 24), scratchList()))
+                if (e instanceof Arrow)
+                    sensedArrows.add(e);
+    }
+
     // ----------------- CENTRALIZED TELEPORT FX -----------------
     /** Set pos, zero velocity, set cooldown, spawn teleport particles. */
     private void performTeleport(Enderman mob, float cx, float cy, float cz, int cooldown) {
@@ -263,7 +279,7 @@ public final class EndermanAI extends BasicAI {
 
         // --- Arrow dodge (aggressive) ---
         if (enderman.bb != null) {
-            List<Entity> nearby = level.findEntities(enderman, enderman.bb.grow(24, 12, 24));
+            List<Entity> nearby = sensed ? sensedArrows : level.findEntities(enderman, enderman.bb.grow(24, 12, 24));
             for (Entity e : nearby) {
                 if (!(e instanceof Arrow))
                     continue;
@@ -304,16 +320,19 @@ public final class EndermanAI extends BasicAI {
             int goalTz = (dry != null) ? dry[2] : rawGoalTz;
 
             // If we don't have a cached path, find one
-            if (currentPath == null || pathIndex >= (currentPath != null ? currentPath.size() : 0)) {
+            if (currentPath == null || pathIndex >= currentPath.length()) {
                 currentPath = findPathAvoidingWater(enderman, startTx, startTz, goalTx, goalTz, PATH_RADIUS,
                         PATH_MAX_NODES);
                 pathIndex = 0;
+                if (currentPath == PathService.BUSY) {
+                    currentPath = null; // shared node budget spent this tick; ask again next tick
+                    return;
+                }
             }
 
-            if (currentPath != null && pathIndex < currentPath.size()) {
-                int[] next = currentPath.get(pathIndex);
-                float tx = next[0] + 0.5f;
-                float tz = next[1] + 0.5f;
+            if (currentPath != null && pathIndex < currentPath.length()) {
+                float tx = currentPath.getX(pathIndex) + 0.5f;
+                float tz = currentPath.getZ(pathIndex) + 0.5f;
                 // steer towards next node
                 float sx = tx - enderman.x;
                 float sz = tz - enderman.z;
@@ -363,32 +382,14 @@ public final class EndermanAI extends BasicAI {
         }
     }
 
-    // --- PATHFINDER A* implementation (local grid) ---
-    private static final class Node {
-        int x, z;
-        int gx;
-        float f;
-        Node parent;
-
-        Node(int x, int z) {
-            this.x = x;
-            this.z = z;
-            this.gx = Integer.MAX_VALUE;
-            this.f = Float.MAX_VALUE;
-            this.parent = null;
-        }
-
-        public String key() {
-            return x + ":" + z;
-        }
-    }
+    // --- PATHFINDER: shared A* from the level's PathService ---
 
     /**
-     * Find a path on the XZ grid from start -> goal avoiding liquid and steep
-     * steps. Returns a list of [tx,tz] blocks (excluding start) or null if not
-     * found.
+     * Find a path on the level from start -> goal column avoiding liquid and steep
+     * steps. Returns the cells to walk (excluding start), null if not found, or
+     * {@link PathService#BUSY}.
      */
-    private List<int[]> findPathAvoidingWater(Enderman mob, int sx, int sz, int gx, int gz, int radius, int maxNodes) {
+    private Path findPathAvoidingWater(Enderman mob, int sx, int sz, int gx, int gz, int radius, int maxNodes) {
         if (mob == null || mob.level == null)
             return null;
         Level lvl = mob.level;
@@ -397,104 +398,10 @@ public final class EndermanAI extends BasicAI {
         if (!lvl.isInBounds(gx, 0, gz))
             return null;
 
-        // clamp search box
-        int minX = Math.max(0, Math.min(sx, gx) - radius);
-        int maxX = Math.min(lvl.width - 1, Math.max(sx, gx) + radius);
-        int minZ = Math.max(0, Math.min(sz, gz) - radius);
-        int maxZ = Math.min(lvl.height - 1, Math.max(sz, gz) + radius);
-
-        Comparator<Node> cmp = Comparator.comparingDouble(n -> n.f);
-        PriorityQueue<Node> open = new PriorityQueue<>(cmp);
-        Map<String, Node> all = new HashMap<>();
-        Set<String> closed = new HashSet<>();
-
-        Node start = new Node(sx, sz);
-        start.gx = 0;
-        start.f = heuristic(sx, sz, gx, gz);
-        open.add(start);
-        all.put(start.key(), start);
-
-        int nodes = 0;
-        int[][] neigh = new int[][] { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 }, { 1, 1 }, { 1, -1 }, { -1, 1 },
-                { -1, -1 } }; // 8-neigh
-
-        while (!open.isEmpty() && nodes < maxNodes) {
-            Node cur = open.poll();
-            if (cur == null)
-                break;
-            nodes++;
-            if (cur.x == gx && cur.z == gz) {
-                // reconstruct path
-                List<int[]> path = new ArrayList<>();
-                Node p = cur;
-                while (p != null && !(p.x == sx && p.z == sz)) {
-                    path.add(new int[] { p.x, p.z });
-                    p = p.parent;
-                }
-                Collections.reverse(path);
-                return path;
-            }
-
-            closed.add(cur.key());
-
-            for (int[] d : neigh) {
-                int nx = cur.x + d[0];
-                int nz = cur.z + d[1];
-                if (nx < minX || nx > maxX || nz < minZ || nz > maxZ)
-                    continue;
-                if (!lvl.isInBounds(nx, 0, nz))
-                    continue;
-
-                // candidate must be walkable: highest tile >0, solid below, not liquid at top
-                int ny = lvl.getHighestTile(nx, nz);
-                if (ny <= 0)
-                    continue;
-                if (!lvl.isSolidTile(nx, ny - 1, nz))
-                    continue;
-                // ensure step up/down not too large
-                int curY = lvl.getHighestTile(cur.x, cur.z);
-                if (Math.abs(ny - curY) > MAX_STEP_UP)
-                    continue;
-
-                float cost = (d[0] != 0 && d[1] != 0) ? 1.4142f : 1.0f; // diagonal cost
-                String key = nx + ":" + nz;
-                if (closed.contains(key))
-                    continue;
-
-                // reject if candidate AABB intersects liquid or blocks/entities
-                float cx = nx + 0.5f;
-                float cz = nz + 0.5f;
-                AABB candidate = buildCandidateBB(mob, cx, ny, cz);
-                if (candidateIntersectsLiquid(lvl, candidate))
-                    continue;
-                if (!lvl.isFree(candidate))
-                    continue;
-                if (lvl.getCubes(candidate).size() > 0)
-                    continue;
-
-                int ng = cur.gx + Math.round(cost * 10); // multiply to keep ints
-                Node node = all.get(key);
-                if (node == null) {
-                    node = new Node(nx, nz);
-                    all.put(node.key(), node);
-                }
-                if (ng < node.gx) {
-                    node.gx = ng;
-                    node.parent = cur;
-                    node.f = ng + Math.round(heuristic(nx, nz, gx, gz) * 10);
-                    open.remove(node); // remove if present to update priority
-                    open.add(node);
-                }
-            }
-        }
-
-        return null;
-    }
-
-    private float heuristic(int x, int z, int gx, int gz) {
-        float dx = gx - x;
-        float dz = gz - z;
-        return (float) Math.sqrt(dx * dx + dz * dz);
+        if (pathAgent == null)
+            pathAgent = PathService.Agent.of(mob, MAX_STEP_UP, true);
+        return lvl.getPathService().find(sx, PathService.feetY(mob), sz, gx, PathService.ANY_Y, gz, pathAgent, radius,
+                maxNodes, false);
     }
 
     // --- dodge code (same ideas as before) ---
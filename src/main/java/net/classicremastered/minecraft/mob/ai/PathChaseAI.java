@@ -30,6 +30,14 @@ public class PathChaseAI extends BasicAI {
         super.tick(level, mob);
     }
 
+    @Override
+    public void sense(Level level, Mob mob) {
+        super.sense(level, mob);
+        if (nav == null) nav = new PathNavigator(level);
+        Player target = level.getNearestPlayer(mob.x, mob.y, mob.z, chaseRange);
+        if (target != null && !target.removed) nav.sense(mob, target.x, target.y, target.z);
+    }
+
     @Override
     protected void update() {
         // --- navigation happens here so BasicAI.tick uses our xxa/yya/jumping ---
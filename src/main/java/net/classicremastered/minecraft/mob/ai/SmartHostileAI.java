@@ -12,6 +12,10 @@ public class SmartHostileAI extends BasicAttackAI {
 
     private int dodgeTicks = 0;
     private int avoidTicks = 0;
+    // sense(): arrows in dodge range, and the TNT check for the block the mob stood in
+    private transient java.util.List<Entity> sensedArrows;
+    private transient boolean sensedTnt;
+    private transient int tntX, tntY, tntZ;
 
     @Override
     protected void update() {
@@ -19,6 +23,19 @@ public class SmartHostileAI extends BasicAttackAI {
         // super.update() will call doAttack() → we hook in there via overrides
     }
 
+    @Override
+    public void sense(net.classicremastered.minecraft.level.Level level, net.classicremastered.minecraft.mob.Mob mob) {
+        super.sense(level, mob);
+        if (this.sensedArrows == null)
+            this.sensedArrows = new java.util.ArrayList<>();
+        this.sensedArrows.clear();
+        for (Entity e : level.senseEntities(mob, mob.bb.grow(6.0F, 3.0F, 6.0F), scratchList()))
+            if (e instanceof Arrow)
+                this.sensedArrows.add(e);
+        tntX = fi(mob.x); tntY = fi(mob.y); tntZ = fi(mob.z);
+        sensedTnt = nearTnt(tntX, tntY, tntZ);
+    }
+
     @Override
     protected void doAttack() {
         // if a big cliff is ahead, don't commit to straight chase
@@ -37,7 +54,7 @@ public class SmartHostileAI extends BasicAttackAI {
 
         // Arrow dodge: if an arrow within 6 blocks approaches, strafe for a short burst
         if (level != null && mob != null) {
-            java.util.List list = level.findEntities(mob, mob.bb.grow(6.0F, 3.0F, 6.0F));
+            java.util.List list = sensed ? sensedArrows : level.findEntities(mob, mob.bb.grow(6.0F, 3.0F, 6.0F));
             if (list != null) {
                 for (Object o : list) {
                     if (!(o instanceof Arrow)) continue;
@@ -61,14 +78,7 @@ public class SmartHostileAI extends BasicAttackAI {
         // TNT avoidance (static): if TNT block within 3 blocks, back away a bit
         if (level != null && mob != null) {
             int bx = fi(mob.x), by = fi(mob.y), bz = fi(mob.z);
-            final int R = 3;
-            boolean nearTnt = false;
-            for (int dy = -R; dy <= R && !nearTnt; dy++)
-                for (int dz = -R; dz <= R && !nearTnt; dz++)
-                    for (int dx = -R; dx <= R && !nearTnt; dx++) {
-                        int id = level.getTile(bx + dx, by + dy, bz + dz);
-                        if (id == Block.TNT.id) nearTnt = true;
-                    }
+            boolean nearTnt = sensed && bx == tntX && by == tntY && bz == tntZ ? sensedTnt : nearTnt(bx, by, bz);
             if (nearTnt) {
                 avoidTicks = 12;
                 // gentle backpedal
@@ -103,6 +113,15 @@ public class SmartHostileAI extends BasicAttackAI {
 
     private static int fi(float f) { return (int)Math.floor(f); }
 
+    private boolean nearTnt(int bx, int by, int bz) {
+        final int R = 3;
+        for (int dy = -R; dy <= R; dy++)
+            for (int dz = -R; dz <= R; dz++)
+                for (int dx = -R; dx <= R; dx++)
+                    if (level.getTile(bx + dx, by + dy, bz + dz) == Block.TNT.id) return true;
+        return false;
+    }
+
     private boolean wouldFallMoreThan1(int x,int y,int z){
         if (solid(x,y-1,z)) return false;
         if (solid(x,y-2,z)) return false;
@@ -0,0 +1,241 @@
+package net.classicremastered.minecraft.net;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import net.classicremastered.minecraft.Minecraft;
+import net.classicremastered.minecraft.gui.ErrorScreen;
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.LevelIO;
+import net.classicremastered.minecraft.level.tile.Block;
+import net.classicremastered.minecraft.level.tile.Tile$SoundType;
+import net.classicremastered.net.PacketHandler;
+
+/**
+ * Applies packets from the server to the client's level, players and HUD.
+ */
+public class ClientPacketHandler implements PacketHandler
+{
+	public ClientPacketHandler(NetworkManager netManager)
+	{
+		this.netManager = netManager;
+	}
+
+	private final NetworkManager netManager;
+
+	@Override
+	public void onIdentification(byte protocol, String name, String motd, byte userType)
+	{
+		Minecraft minecraft = netManager.minecraft;
+
+		minecraft.progressBar.setTitle(name);
+		minecraft.progressBar.setText(motd);
+		minecraft.player.userType = userType;
+	}
+
+	@Override
+	public void onLevelInit()
+	{
+		netManager.minecraft.setLevel(null);
+		netManager.levelData = new ByteArrayOutputStream();
+	}
+
+	@Override
+	public void onLevelData(short length, byte[] data, byte percent)
+	{
+		netManager.minecraft.progressBar.setProgress(percent);
+		netManager.levelData.write(data, 0, length);
+	}
+
+	@Override
+	public void onLevelFinalize(short width, short depth, short height)
+	{
+		try {
+			netManager.levelData.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+
+		byte[] blocks = LevelIO.decompress(new ByteArrayInputStream(netManager.levelData.toByteArray()));
+		netManager.levelData = null;
+
+		Level level = new Level();
+		level.setNetworkMode(true);
+		level.setData(width, depth, height, blocks);
+
+		netManager.minecraft.setLevel(level);
+		netManager.minecraft.online = false;
+		netManager.levelLoaded = true;
+	}
+
+	@Override
+	public void onBlockChange(short x, short y, short z, byte blockId)
+	{
+		Minecraft minecraft = netManager.minecraft;
+		Level level = minecraft.level;
+
+		if(level == null)
+		{
+			return;
+		}
+
+		int oldBlockId = level.getTile(x, y, z);
+
+		if(!level.netSetTile(x, y, z, blockId))
+		{
+			return;
+		}
+
+		if(oldBlockId > 0 && blockId == 0) // Broken
+		{
+			Block block = Block.blocks[oldBlockId];
+
+			if(block != null)
+			{
+				playStepSound(level, block, x, y, z);
+
+				if(minecraft.particleManager != null)
+				{
+					block.spawnBreakParticles(level, x, y, z, minecraft.particleManager);
+				}
+			}
+		} else if(blockId > 0) { // Placed
+			Block block = Block.blocks[blockId];
+
+			if(block != null)
+			{
+				playStepSound(level, block, x, y, z);
+			}
+		}
+	}
+
+	private static void playStepSound(Level level, Block block, int x, int y, int z)
+	{
+		if(block.stepsound != Tile$SoundType.none)
+		{
+			float volume = (block.stepsound.getVolume() + 1.0F) / 2.0F;
+			float pitch = block.stepsound.getPitch() * 0.8F;
+
+			level.playSound(block.stepsound.pool, x + 0.5F, y + 0.5F, z + 0.5F, volume, pitch);
+		}
+	}
+
+	@Override
+	public void onSpawnPlayer(byte id, String name, short x, short y, short z, byte yaw, byte pitch)
+	{
+		Minecraft minecraft = netManager.minecraft;
+
+		if(id >= 0)
+		{
+			yaw = (byte)(yaw + 128);
+			y = (short)(y - 22);
+
+			NetworkPlayer player = new NetworkPlayer(minecraft, id, name, x, y, z, (yaw * 360) / 256.0F, (pitch * 360) / 256.0F);
+
+			netManager.players.put(id, player);
+			minecraft.level.addEntity(player);
+		} else {
+			minecraft.level.setSpawnPos(x / 32, y / 32, z / 32, (yaw * 320 / 256));
+			minecraft.player.moveTo(x / 32.0F, y / 32.0F, z / 32.0F, (yaw * 360) / 256.0F, (pitch * 360) / 256.0F);
+		}
+	}
+
+	@Override
+	public void onPositionRotation(byte id, short x, short y, short z, byte yaw, byte pitch)
+	{
+		if(id < 0)
+		{
+			netManager.minecraft.player.moveTo(x / 32.0F, y / 32.0F, z / 32.0F, (yaw * 360) / 256.0F, (pitch * 360) / 256.0F);
+		} else {
+			yaw = (byte)(yaw + 128);
+			y = (short)(y - 22);
+
+			NetworkPlayer player = netManager.players.get(id);
+
+			if(player != null)
+			{
+				player.teleport(x, y, z, (yaw * 360) / 256.0F, (pitch * 360) / 256.0F);
+			}
+		}
+	}
+
+	@Override
+	public void onPositionRotationUpdate(byte id, byte dx, byte dy, byte dz, byte yaw, byte pitch)
+	{
+		if(id >= 0)
+		{
+			yaw = (byte)(yaw + 128);
+
+			NetworkPlayer player = netManager.players.get(id);
+
+			if(player != null)
+			{
+				player.queue(dx, dy, dz, (yaw * 360) / 256.0F, (pitch * 360) / 256.0F);
+			}
+		}
+	}
+
+	@Override
+	public void onRotationUpdate(byte id, byte yaw, byte pitch)
+	{
+		if(id >= 0)
+		{
+			yaw = (byte)(yaw + 128);
+
+			NetworkPlayer player = netManager.players.get(id);
+
+			if(player != null)
+			{
+				player.queue((yaw * 360) / 256.0F, (pitch * 360) / 256.0F);
+			}
+		}
+	}
+
+	@Override
+	public void onPositionUpdate(byte id, byte dx, byte dy, byte dz)
+	{
+		NetworkPlayer player;
+
+		if(id >= 0 && (player = netManager.players.get(id)) != null)
+		{
+			player.queue(dx, dy, dz);
+		}
+	}
+
+	@Override
+	public void onDespawnPlayer(byte id)
+	{
+		NetworkPlayer player;
+
+		if(id >= 0 && (player = netManager.players.remove(id)) != null)
+		{
+			player.clear();
+			netManager.minecraft.level.removeEntity(player);
+		}
+	}
+
+	@Override
+	public void onChatMessage(byte id, String message)
+	{
+		if(id < 0)
+		{
+			netManager.minecraft.hud.addChat("&e" + message);
+		} else {
+			netManager.minecraft.hud.addChat(message);
+		}
+	}
+
+	@Override
+	public void onDisconnect(String reason)
+	{
+		netManager.netHandler.close();
+		netManager.minecraft.setCurrentScreen(new ErrorScreen("Connection lost", reason));
+	}
+
+	@Override
+	public void onUpdatePlayerType(byte userType)
+	{
+		netManager.minecraft.player.userType = userType;
+	}
+}
@@ -23,6 +23,8 @@ public class NetworkManager
 
 		players = new HashMap<Byte, NetworkPlayer>();
 
+		handler = new ClientPacketHandler(this);
+
 		new ServerConnectThread(this, server, port, username, key, minecraft).start();
 	}
 
@@ -30,6 +32,8 @@ public class NetworkManager
 
 	public NetworkHandler netHandler;
 
+	public ClientPacketHandler handler;
+
 	public Minecraft minecraft;
 
 	public boolean successful = false;
@@ -39,7 +43,7 @@ public class NetworkManager
 
 	public void sendBlockChange(int x, int y, int z, int mode, int block)
 	{
-		netHandler.send(PacketType.PLAYER_SET_BLOCK, new Object[] {x, y, z, mode, block});
+		netHandler.sendSetBlock(x, y, z, mode, block);
 	}
 
 	public void error(Exception e)
@@ -28,7 +28,7 @@ public class ServerConnectThread extends Thread
 			netManager.netHandler = new NetworkHandler(server, port);
 			netManager.netHandler.netManager = netManager;
 
-			netManager.netHandler.send(PacketType.IDENTIFICATION, new Object[]{Byte.valueOf(Constants.PROTOCOL_VERSION), this.username, this.key, Integer.valueOf(Constants.CLIENT_TYPE)});
+			netManager.netHandler.sendIdentification(Constants.PROTOCOL_VERSION, this.username, this.key, Constants.CLIENT_TYPE);
 
 			netManager.successful = true;
 		} catch (Exception var3) {
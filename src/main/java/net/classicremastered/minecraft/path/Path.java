@@ -0,0 +1,39 @@
+package net.classicremastered.minecraft.path;
+
+/**
+ * A route from {@link PathService}: the cells to stand in, from the first step
+ * (the start cell is left out) to the goal, or to the closest cell reached when the
+ * search was partial. Paths are shared through the service's cache; never modify one.
+ */
+public final class Path {
+
+    private final long[] cells;
+    /** True if the last cell is the goal. */
+    public final boolean complete;
+
+    Path(long[] cells, boolean complete) {
+        this.cells = cells;
+        this.complete = complete;
+    }
+
+    public int length() {
+        return cells.length;
+    }
+
+    /** Packed cell, see {@link net.classicremastered.minecraft.level.Level#getCoordKey}. */
+    public long getCell(int i) {
+        return cells[i];
+    }
+
+    public int getX(int i) {
+        return PathService.unpackX(cells[i]);
+    }
+
+    public int getY(int i) {
+        return PathService.unpackY(cells[i]);
+    }
+
+    public int getZ(int i) {
+        return PathService.unpackZ(cells[i]);
+    }
+}
@@ -19,15 +19,34 @@ public final class PathNavigator {
     private float wx, wy, wz;
     private boolean hasWaypoint = false;
 
+    // route from the level's PathService; the greedy step is only the fallback
+    private Path path;
+    private int pathIndex;
+    private PathService.Agent agent;
+
+    // sense(): steer()'s straight-line check, valid for exactly this goal and mob pose
+    private boolean hasSensed, sensedClear;
+    private float sgx, sgy, sgz, smx, smy, smz, smYaw;
+
     public PathNavigator(Level level) { this.level = level; }
 
     public PathNavigator setGoal(float x, float y, float z) {
+        // same goal cell: keep following the current route
+        boolean moved = !hasGoal || fl(x) != fl(gx) || fl(y) != fl(gy) || fl(z) != fl(gz);
         this.gx = x; this.gy = y; this.gz = z;
         this.hasGoal = true;
-        this.hasWaypoint = false;
+        if (moved) { hasWaypoint = false; path = null; }
         return this;
     }
-    public void clearGoal() { hasGoal = false; hasWaypoint = false; }
+    /** Run steer()'s straight-line check for goal (x,y,z) ahead of time; only reads the level. */
+    public void sense(Mob mob, float x, float y, float z) {
+        sensedClear = hasLineOfSightFlat(mob.x, mob.y + mob.heightOffset, mob.z, x, y, z) && !unsafeDropAhead(mob);
+        sgx = x; sgy = y; sgz = z;
+        smx = mob.x; smy = mob.y; smz = mob.z; smYaw = mob.yRot;
+        hasSensed = true;
+    }
+
+    public void clearGoal() { hasGoal = false; hasWaypoint = false; path = null; }
     public boolean hasGoal() { return hasGoal; }
 
     public Result steer(Mob mob) {
@@ -39,13 +58,17 @@ public final class PathNavigator {
         }
 
         // Go straight if clear and not a >1-block drop
-        if (hasLineOfSightFlat(mob.x, mob.y + mob.heightOffset, mob.z, gx, gy, gz)
-                && !unsafeDropAhead(mob)) {
+        boolean clear = hasSensed && gx == sgx && gy == sgy && gz == sgz
+                && mob.x == smx && mob.y == smy && mob.z == smz && mob.yRot == smYaw
+                ? sensedClear
+                : hasLineOfSightFlat(mob.x, mob.y + mob.heightOffset, mob.z, gx, gy, gz) && !unsafeDropAhead(mob);
+        hasSensed = false;
+        if (clear) {
             hasWaypoint = false;
             return steerTo(mob, gx, gy, gz, stepUpAhead(mob));
         }
 
-        if (!hasWaypoint || reached(mob, wx, wz)) pickGreedyNeighbor(mob);
+        if (!hasWaypoint || reached(mob, wx, wz)) pickWaypoint(mob);
 
         if (!hasWaypoint) return steerTo(mob, gx, gy, gz, stepUpAhead(mob));
         return steerTo(mob, wx, wy, wz, stepUpAhead(mob));
@@ -87,10 +110,31 @@ public final class PathNavigator {
         return drop >= 2; // avoid dropping 2+ blocks
     }
 
+    /** Next cell of the service route, planning a new one when it runs out. */
+    private void pickWaypoint(Mob mob) {
+        if (agent == null) agent = PathService.Agent.of(mob, 1, false);
+        if (path != null && pathIndex < path.length()
+                && !level.getPathService().canStand(agent, path.getX(pathIndex), path.getY(pathIndex), path.getZ(pathIndex)))
+            path = null; // level changed under the route
+        if (path == null || pathIndex >= path.length()) {
+            Path p = level.getPathService().find(fl(mob.x), PathService.feetY(mob), fl(mob.z),
+                    fl(gx), PathService.ANY_Y, fl(gz), agent, 16, 400, true);
+            path = (p == null || p == PathService.BUSY || p.length() == 0) ? null : p;
+            pathIndex = 0;
+        }
+        if (path == null) { pickGreedyNeighbor(mob); return; }
+
+        wx = path.getX(pathIndex) + 0.5F; wy = path.getY(pathIndex) + 0.001F; wz = path.getZ(pathIndex) + 0.5F;
+        pathIndex++;
+        hasWaypoint = true;
+    }
+
+    private static int fl(float v) { return (int)Math.floor(v); }
+
     /** Greedy 8-dir step; allows ±1 Y. Bias upward if goal is ≥2 blocks above. */
     private void pickGreedyNeighbor(Mob mob) {
         int mx = (int)Math.floor(mob.x);
-        int my = (int)Math.floor(mob.y + 0.01F);
+        int my = PathService.feetY(mob);
         int mz = (int)Math.floor(mob.z);
 
         boolean goalMuchHigher = (gy - my) >= 2.0F;
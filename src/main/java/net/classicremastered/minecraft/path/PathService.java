@@ -0,0 +1,472 @@
+package net.classicremastered.minecraft.path;
+
+import java.util.Arrays;
+
+import net.classicremastered.minecraft.Entity;
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.liquid.LiquidType;
+import net.classicremastered.minecraft.level.tile.Block;
+
+/**
+ * Shared A* pathfinder for mob AI; one per level, see {@link Level#getPathService()}.
+ * <p>
+ * Cells are packed longs ({@link Level#getCoordKey}). The open set is a binary heap of
+ * node indices over an open-addressing node table, all pooled per thread, so a search
+ * allocates nothing but its result. Every search on a level draws on one node budget
+ * per tick; once it is spent {@link #find} returns {@link #BUSY} and the caller should
+ * keep its fallback steering and ask again next tick. Results are cached briefly by
+ * (start cell, goal cell, agent) and re-checked against the level before reuse.
+ */
+public final class PathService {
+
+    /** Nodes expanded per level tick, summed over every mob. */
+    public static final int NODE_BUDGET_PER_TICK = 8000;
+    /** Goal y wildcard: any standable cell in the goal column will do. */
+    public static final int ANY_Y = Integer.MIN_VALUE;
+    /** Returned instead of a path when this tick's node budget is spent. */
+    public static final Path BUSY = new Path(new long[0], false);
+
+    private static final Path NO_PATH = new Path(new long[0], false); // cached negative result
+    private static final int CACHE_SIZE = 64; // direct-mapped
+    private static final int CACHE_TICKS = 20;
+
+    // step costs, x10 so diagonals stay integral
+    private static final int COST_STRAIGHT = 10;
+    private static final int COST_DIAGONAL = 14;
+    private static final int COST_STEP_UP = 6;
+    private static final int COST_DROP = 5; // per block
+
+    private static final int[] DX = { 1, -1, 0, 0, 1, 1, -1, -1 };
+    private static final int[] DZ = { 0, 0, 1, -1, 1, -1, 1, -1 };
+
+    // per block id
+    private static final boolean[] BLOCKS_MOVEMENT = new boolean[256];
+    private static final boolean[] LIQUID = new boolean[256];
+
+    static {
+        for (int id = 1; id < 256; id++) {
+            Block b = Block.blocks[id];
+            if (b == null)
+                continue;
+            BLOCKS_MOVEMENT[id] = b.getCollisionBox(0, 0, 0) != null;
+            LIQUID[id] = b.getLiquidType() != LiquidType.NOT_LIQUID;
+        }
+    }
+
+    private static final ThreadLocal<Search> SEARCH = ThreadLocal.withInitial(Search::new);
+
+    /** Walker shape: footprint and height in cells, the largest drop it takes, and whether liquid is off limits. */
+    public static final class Agent {
+        public final int width, height, maxDrop;
+        public final boolean avoidLiquid;
+        final int key;
+
+        public Agent(int width, int height, int maxDrop, boolean avoidLiquid) {
+            this.width = Math.max(1, Math.min(width, 15));
+            this.height = Math.max(1, Math.min(height, 15));
+            this.maxDrop = Math.max(0, Math.min(maxDrop, 15));
+            this.avoidLiquid = avoidLiquid;
+            this.key = this.width | this.height << 4 | this.maxDrop << 8 | (avoidLiquid ? 1 << 12 : 0);
+        }
+
+        /** Cells covered by {@code e}'s bounding box. */
+        public static Agent of(Entity e, int maxDrop, boolean avoidLiquid) {
+            return new Agent((int) Math.ceil(e.bbWidth - 0.01F), (int) Math.ceil(e.bbHeight - 0.01F), maxDrop,
+                    avoidLiquid);
+        }
+    }
+
+    private final Level level;
+
+    // guarded by this
+    private int budgetTick = Integer.MIN_VALUE;
+    private int budget;
+    private final long[] cacheStart = new long[CACHE_SIZE];
+    private final long[] cacheGoal = new long[CACHE_SIZE];
+    private final int[] cacheKey = new int[CACHE_SIZE];
+    private final int[] cacheTick = new int[CACHE_SIZE];
+    private final Path[] cachePath = new Path[CACHE_SIZE];
+    private long searches, expanded, cacheHits, busy;
+
+    public PathService(Level level) {
+        this.level = level;
+    }
+
+    /** Cell y a mob stands in. */
+    public static int feetY(Entity e) {
+        return (int) Math.floor(e.bb.y0 + 0.01F);
+    }
+
+    static int unpackX(long key) {
+        return (int) (key >> 38);
+    }
+
+    static int unpackY(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    static int unpackZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+
+    /**
+     * Route from (sx, sy, sz) to (gx, gy, gz) within {@code radius} blocks (horizontally)
+     * of the box around both ends, expanding at most {@code maxNodes} nodes. If
+     * {@code partial}, a search that misses the goal returns the route to the closest
+     * cell it reached instead of null.
+     *
+     * @return the path, null if there is none, or {@link #BUSY}
+     */
+    public Path find(int sx, int sy, int sz, int gx, int gy, int gz, Agent agent, int radius, int maxNodes,
+            boolean partial) {
+        long start = Level.getCoordKey(sx, sy, sz);
+        long goal = Level.getCoordKey(gx, gy == ANY_Y ? 0 : gy, gz);
+        int key = agent.key | (gy == ANY_Y ? 1 << 13 : 0) | (partial ? 1 << 14 : 0) | (radius & 0xFF) << 16;
+        int slot = cacheSlot(start, goal, key);
+
+        int grant;
+        synchronized (this) {
+            int tick = level.tickCount;
+            if (cachePath[slot] != null && cacheStart[slot] == start && cacheGoal[slot] == goal
+                    && cacheKey[slot] == key && tick - cacheTick[slot] < CACHE_TICKS) {
+                Path p = cachePath[slot];
+                if (p == NO_PATH) {
+                    cacheHits++;
+                    return null;
+                }
+                if (stillWalkable(p, agent)) {
+                    cacheHits++;
+                    return p;
+                }
+                cachePath[slot] = null;
+            }
+            if (budgetTick != tick) {
+                budgetTick = tick;
+                budget = NODE_BUDGET_PER_TICK;
+            }
+            grant = Math.min(maxNodes, budget);
+            if (grant <= 0) {
+                busy++;
+                return BUSY;
+            }
+            budget -= grant;
+        }
+
+        Search s = SEARCH.get();
+        Path p = s.run(this, sx, sy, sz, gx, gy, gz, agent, radius, grant, partial);
+        boolean starved = s.exhausted && grant < maxNodes;
+
+        synchronized (this) {
+            if (budgetTick == level.tickCount)
+                budget += grant - s.expanded; // hand back what we did not use
+            searches++;
+            expanded += s.expanded;
+            if (starved) {
+                // cut short by the shared budget, not by the level: keep out of the cache
+                if (p == null)
+                    busy++;
+                return p != null ? p : BUSY;
+            }
+            cacheStart[slot] = start;
+            cacheGoal[slot] = goal;
+            cacheKey[slot] = key;
+            cacheTick[slot] = level.tickCount;
+            cachePath[slot] = p != null ? p : NO_PATH;
+        }
+        return p;
+    }
+
+    /** True if {@code agent} can stand at (x, y, z): room for its body and ground under it. */
+    public boolean canStand(Agent agent, int x, int y, int z) {
+        return bodyFits(agent, x, y, z) && ground(x, y - 1, z);
+    }
+
+    /** Searches, nodes expanded, cache hits and budget refusals so far. */
+    public synchronized String getStats() {
+        return searches + " searches, " + expanded + " nodes, " + cacheHits + " cache hits, " + busy + " busy";
+    }
+
+    private static int cacheSlot(long start, long goal, int key) {
+        long h = start * 0x9E3779B97F4A7C15L ^ goal * 0xC2B2AE3D27D4EB4FL ^ key;
+        return (int) (h ^ h >>> 29) & (CACHE_SIZE - 1);
+    }
+
+    private boolean stillWalkable(Path p, Agent agent) {
+        for (int i = 0; i < p.length(); i++) {
+            long c = p.getCell(i);
+            if (!canStand(agent, unpackX(c), unpackY(c), unpackZ(c)))
+                return false;
+        }
+        return true;
+    }
+
+    // --- cell tests ---
+
+    private boolean open(Agent a, int x, int y, int z) {
+        if (y < 0 || !level.isInBounds(x, Math.min(y, level.depth - 1), z))
+            return false;
+        int id = level.getTile(x, y, z);
+        return !BLOCKS_MOVEMENT[id] && !(a.avoidLiquid && LIQUID[id]);
+    }
+
+    private boolean ground(int x, int y, int z) {
+        return y >= 0 && BLOCKS_MOVEMENT[level.getTile(x, y, z)];
+    }
+
+    // one horizontal layer of the footprint
+    private boolean layerOpen(Agent a, int x, int y, int z) {
+        int r = a.width >> 1;
+        for (int dz = -r; dz <= r; dz++) {
+            for (int dx = -r; dx <= r; dx++) {
+                if (!open(a, x + dx, y, z + dz))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean bodyFits(Agent a, int x, int y, int z) {
+        for (int i = 0; i < a.height; i++) {
+            if (!layerOpen(a, x, y + i, z))
+                return false;
+        }
+        return true;
+    }
+
+    /** Per-thread search state, reused across searches. */
+    private static final class Search {
+        private static final int CLOSED = -1;
+        private static final int NEW = -2;
+
+        // node table: open addressing, slots live while slotStamp == stamp
+        private long[] slotKey = new long[4096];
+        private int[] slotNode = new int[4096];
+        private int[] slotStamp = new int[4096];
+        private int stamp;
+
+        // nodes
+        private long[] nodeKey = new long[1024];
+        private int[] nodeG = new int[1024];
+        private int[] nodeF = new int[1024];
+        private int[] nodeH = new int[1024];
+        private int[] nodeParent = new int[1024];
+        private int[] nodeHeap = new int[1024]; // heap position, CLOSED or NEW
+        private int nodeCount;
+
+        // binary min-heap of node indices by (f, h)
+        private int[] heap = new int[1024];
+        private int heapSize;
+
+        int expanded;
+        boolean exhausted;
+
+        Path run(PathService svc, int sx, int sy, int sz, int gx, int gy, int gz, Agent a, int radius, int maxNodes,
+                boolean partial) {
+            reset();
+            int minX = Math.min(sx, gx) - radius, maxX = Math.max(sx, gx) + radius;
+            int minZ = Math.min(sz, gz) - radius, maxZ = Math.max(sz, gz) + radius;
+
+            int first = node(Level.getCoordKey(sx, sy, sz));
+            nodeG[first] = 0;
+            nodeH[first] = h(sx, sy, sz, gx, gy, gz);
+            nodeF[first] = nodeH[first];
+            nodeParent[first] = -1;
+            push(first);
+            int best = first;
+
+            while (heapSize > 0) {
+                if (expanded >= maxNodes) {
+                    exhausted = true;
+                    break;
+                }
+                int cur = pop();
+                nodeHeap[cur] = CLOSED;
+                expanded++;
+                long ck = nodeKey[cur];
+                int x = unpackX(ck), y = unpackY(ck), z = unpackZ(ck);
+                if (x == gx && z == gz && (gy == ANY_Y || y == gy))
+                    return build(cur, true);
+                if (nodeH[cur] < nodeH[best] || (nodeH[cur] == nodeH[best] && nodeG[cur] < nodeG[best]))
+                    best = cur;
+
+                for (int d = 0; d < 8; d++) {
+                    int nx = x + DX[d], nz = z + DZ[d];
+                    if (nx < minX || nx > maxX || nz < minZ || nz > maxZ)
+                        continue;
+                    boolean diagonal = d >= 4;
+                    int ny = step(svc, a, x, y, z, nx, nz, diagonal);
+                    if (ny == Integer.MIN_VALUE)
+                        continue;
+                    int g = nodeG[cur] + (diagonal ? COST_DIAGONAL : COST_STRAIGHT)
+                            + (ny > y ? COST_STEP_UP : (y - ny) * COST_DROP);
+                    int n = node(Level.getCoordKey(nx, ny, nz));
+                    if (nodeHeap[n] == CLOSED || (nodeHeap[n] != NEW && g >= nodeG[n]))
+                        continue;
+                    nodeG[n] = g;
+                    nodeParent[n] = cur;
+                    if (nodeHeap[n] == NEW) {
+                        nodeH[n] = h(nx, ny, nz, gx, gy, gz);
+                        nodeF[n] = g + nodeH[n];
+                        push(n);
+                    } else {
+                        nodeF[n] = g + nodeH[n];
+                        up(nodeHeap[n]);
+                    }
+                }
+            }
+            return partial && best != first ? build(best, false) : null;
+        }
+
+        // y of the cell reached by walking from (x, y, z) into column (nx, nz), or MIN_VALUE
+        private static int step(PathService svc, Agent a, int x, int y, int z, int nx, int nz, boolean diagonal) {
+            if (svc.bodyFits(a, nx, y, nz)) {
+                if (diagonal && !(svc.bodyFits(a, nx, y, z) && svc.bodyFits(a, x, y, nz)))
+                    return Integer.MIN_VALUE; // no cutting corners
+                int ny = y;
+                while (!svc.ground(nx, ny - 1, nz)) {
+                    if (y - ny >= a.maxDrop || !svc.layerOpen(a, nx, ny - 1, nz))
+                        return Integer.MIN_VALUE;
+                    ny--;
+                }
+                return ny;
+            }
+            // one-block step up: room overhead to jump, and room on top of the step
+            if (!diagonal && svc.ground(nx, y, nz) && svc.layerOpen(a, x, y + a.height, z)
+                    && svc.bodyFits(a, nx, y + 1, nz))
+                return y + 1;
+            return Integer.MIN_VALUE;
+        }
+
+        private static int h(int x, int y, int z, int gx, int gy, int gz) {
+            int dx = Math.abs(gx - x), dz = Math.abs(gz - z);
+            int hxz = COST_STRAIGHT * Math.max(dx, dz) + (COST_DIAGONAL - COST_STRAIGHT) * Math.min(dx, dz);
+            return gy == ANY_Y ? hxz : hxz + COST_DROP * Math.abs(gy - y);
+        }
+
+        private Path build(int end, boolean complete) {
+            int n = 0;
+            for (int i = end; nodeParent[i] >= 0; i = nodeParent[i])
+                n++;
+            long[] cells = new long[n];
+            for (int i = end; nodeParent[i] >= 0; i = nodeParent[i])
+                cells[--n] = nodeKey[i];
+            return new Path(cells, complete);
+        }
+
+        private void reset() {
+            if (++stamp == 0) {
+                Arrays.fill(slotStamp, 0);
+                stamp = 1;
+            }
+            nodeCount = 0;
+            heapSize = 0;
+            expanded = 0;
+            exhausted = false;
+        }
+
+        // node index for a cell, created as NEW on first sight
+        private int node(long key) {
+            int mask = slotKey.length - 1;
+            int i = (int) (key * 0x9E3779B97F4A7C15L >>> 40) & mask;
+            while (slotStamp[i] == stamp) {
+                if (slotKey[i] == key)
+                    return slotNode[i];
+                i = (i + 1) & mask;
+            }
+            if (nodeCount == nodeKey.length)
+                growNodes();
+            int n = nodeCount++;
+            nodeKey[n] = key;
+            nodeHeap[n] = NEW;
+            slotKey[i] = key;
+            slotNode[i] = n;
+            slotStamp[i] = stamp;
+            if (nodeCount * 2 > slotKey.length)
+                growTable();
+            return n;
+        }
+
+        private void growNodes() {
+            int cap = nodeKey.length * 2;
+            nodeKey = Arrays.copyOf(nodeKey, cap);
+            nodeG = Arrays.copyOf(nodeG, cap);
+            nodeF = Arrays.copyOf(nodeF, cap);
+            nodeH = Arrays.copyOf(nodeH, cap);
+            nodeParent = Arrays.copyOf(nodeParent, cap);
+            nodeHeap = Arrays.copyOf(nodeHeap, cap);
+            heap = Arrays.copyOf(heap, cap);
+        }
+
+        private void growTable() {
+            int cap = slotKey.length * 2;
+            slotKey = new long[cap];
+            slotNode = new int[cap];
+            slotStamp = new int[cap];
+            stamp = 1;
+            int mask = cap - 1;
+            for (int n = 0; n < nodeCount; n++) {
+                int i = (int) (nodeKey[n] * 0x9E3779B97F4A7C15L >>> 40) & mask;
+                while (slotStamp[i] == stamp)
+                    i = (i + 1) & mask;
+                slotKey[i] = nodeKey[n];
+                slotNode[i] = n;
+                slotStamp[i] = stamp;
+            }
+        }
+
+        // --- heap ---
+
+        private boolean less(int a, int b) {
+            return nodeF[a] < nodeF[b] || (nodeF[a] == nodeF[b] && nodeH[a] < nodeH[b]);
+        }
+
+        private void push(int n) {
+            heap[heapSize] = n;
+            nodeHeap[n] = heapSize;
+            up(heapSize++);
+        }
+
+        private int pop() {
+            int top = heap[0];
+            int last = heap[--heapSize];
+            if (heapSize > 0) {
+                heap[0] = last;
+                nodeHeap[last] = 0;
+                down(0);
+            }
+            return top;
+        }
+
+        private void up(int i) {
+            int n = heap[i];
+            while (i > 0) {
+                int p = (i - 1) >> 1;
+                if (!less(n, heap[p]))
+                    break;
+                heap[i] = heap[p];
+                nodeHeap[heap[i]] = i;
+                i = p;
+            }
+            heap[i] = n;
+            nodeHeap[n] = i;
+        }
+
+        private void down(int i) {
+            int n = heap[i];
+            while (true) {
+                int c = 2 * i + 1;
+                if (c >= heapSize)
+                    break;
+                if (c + 1 < heapSize && less(heap[c + 1], heap[c]))
+                    c++;
+                if (!less(heap[c], n))
+                    break;
+                heap[i] = heap[c];
+                nodeHeap[heap[i]] = i;
+                i = c;
+            }
+            heap[i] = n;
+            nodeHeap[n] = i;
+        }
+    }
+}
@@ -60,6 +60,36 @@ public class AABB implements Serializable {
       return new AABB(var4, var5, var6, var7, var8, var9);
    }
 
+   /** {@link #expand} into {@code out} instead of a new box. */
+   public AABB expand(float var1, float var2, float var3, AABB out) {
+      out.set(this);
+      if(var1 < 0.0F) {
+         out.x0 += var1;
+      }
+
+      if(var1 > 0.0F) {
+         out.x1 += var1;
+      }
+
+      if(var2 < 0.0F) {
+         out.y0 += var2;
+      }
+
+      if(var2 > 0.0F) {
+         out.y1 += var2;
+      }
+
+      if(var3 < 0.0F) {
+         out.z0 += var3;
+      }
+
+      if(var3 > 0.0F) {
+         out.z1 += var3;
+      }
+
+      return out;
+   }
+
    public AABB grow(float var1, float var2, float var3) {
       float var4 = this.x0 - var1;
       float var5 = this.y0 - var2;
@@ -211,6 +241,16 @@ public class AABB implements Serializable {
       return new AABB(this.x0, this.y0, this.z0, this.x1, this.y1, this.z1);
    }
 
+   public AABB set(AABB var1) {
+      this.x0 = var1.x0;
+      this.y0 = var1.y0;
+      this.z0 = var1.z0;
+      this.x1 = var1.x1;
+      this.y1 = var1.y1;
+      this.z1 = var1.z1;
+      return this;
+   }
+
    public MovingObjectPosition clip(Vec3D var1, Vec3D var2) {
       Vec3D var3 = var1.getXIntersection(var2, this.x0);
       Vec3D var4 = var1.getXIntersection(var2, this.x1);
@@ -0,0 +1,114 @@
+package net.classicremastered.minecraft.phys;
+
+import java.util.Arrays;
+
+/**
+ * Reusable list of collision boxes packed as floats (x0, y0, z0, x1, y1, z1 per box).
+ * <p>
+ * Filled by {@code Level.getCubes(AABB, CollisionBuffer)} and clipped against with
+ * {@link #clipX}/{@link #clipY}/{@link #clipZ}, which match {@link AABB#clipXCollide}
+ * etc. exactly. One instance per thread via {@link #get()}; the scratch boxes are for
+ * the caller's own bookkeeping during a single sweep.
+ */
+public final class CollisionBuffer {
+
+    private static final ThreadLocal<CollisionBuffer> LOCAL = ThreadLocal.withInitial(CollisionBuffer::new);
+
+    private float[] boxes = new float[6 * 64];
+    private int size;
+
+    /** Scratch boxes for a sweep: query volume, start and stepped positions. */
+    public final AABB query = new AABB(0.0F, 0.0F, 0.0F, 0.0F, 0.0F, 0.0F);
+    public final AABB start = new AABB(0.0F, 0.0F, 0.0F, 0.0F, 0.0F, 0.0F);
+    public final AABB stepped = new AABB(0.0F, 0.0F, 0.0F, 0.0F, 0.0F, 0.0F);
+
+    /** The calling thread's buffer. */
+    public static CollisionBuffer get() {
+        return LOCAL.get();
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Append the box if it touches {@code box} (same test as {@link AABB#intersectsInner}). */
+    public void addIfTouching(AABB box, float x0, float y0, float z0, float x1, float y1, float z1) {
+        if (x1 >= box.x0 && x0 <= box.x1 && y1 >= box.y0 && y0 <= box.y1 && z1 >= box.z0 && z0 <= box.z1) {
+            add(x0, y0, z0, x1, y1, z1);
+        }
+    }
+
+    public void add(float x0, float y0, float z0, float x1, float y1, float z1) {
+        int o = size * 6;
+        if (o == boxes.length)
+            boxes = Arrays.copyOf(boxes, o * 2);
+        float[] b = boxes;
+        b[o] = x0;
+        b[o + 1] = y0;
+        b[o + 2] = z0;
+        b[o + 3] = x1;
+        b[o + 4] = y1;
+        b[o + 5] = z1;
+        size++;
+    }
+
+    /** Box {@code i} as a new AABB, for callers that still want objects. */
+    public AABB toAABB(int i) {
+        int o = i * 6;
+        float[] b = boxes;
+        return new AABB(b[o], b[o + 1], b[o + 2], b[o + 3], b[o + 4], b[o + 5]);
+    }
+
+    /** Clip movement {@code d} of {@code m} along X against every box. */
+    public float clipX(AABB m, float d) {
+        float[] b = boxes;
+        for (int i = 0, n = size * 6; i < n; i += 6) {
+            if (m.y1 > b[i + 1] && m.y0 < b[i + 4] && m.z1 > b[i + 2] && m.z0 < b[i + 5]) {
+                float g;
+                if (d > 0.0F && m.x1 <= b[i] && (g = b[i] - m.x1) < d)
+                    d = g;
+                if (d < 0.0F && m.x0 >= b[i + 3] && (g = b[i + 3] - m.x0) > d)
+                    d = g;
+            }
+        }
+        return d;
+    }
+
+    /** Clip movement {@code d} of {@code m} along Y against every box. */
+    public float clipY(AABB m, float d) {
+        float[] b = boxes;
+        for (int i = 0, n = size * 6; i < n; i += 6) {
+            if (m.x1 > b[i] && m.x0 < b[i + 3] && m.z1 > b[i + 2] && m.z0 < b[i + 5]) {
+                float g;
+                if (d > 0.0F && m.y1 <= b[i + 1] && (g = b[i + 1] - m.y1) < d)
+                    d = g;
+                if (d < 0.0F && m.y0 >= b[i + 4] && (g = b[i + 4] - m.y0) > d)
+                    d = g;
+            }
+        }
+        return d;
+    }
+
+    /** Clip movement {@code d} of {@code m} along Z against every box. */
+    public float clipZ(AABB m, float d) {
+        float[] b = boxes;
+        for (int i = 0, n = size * 6; i < n; i += 6) {
+            if (m.x1 > b[i] && m.x0 < b[i + 3] && m.y1 > b[i + 1] && m.y0 < b[i + 4]) {
+                float g;
+                if (d > 0.0F && m.z1 <= b[i + 2] && (g = b[i + 2] - m.z1) < d)
+                    d = g;
+                if (d < 0.0F && m.z0 >= b[i + 5] && (g = b[i + 5] - m.z0) > d)
+                    d = g;
+            }
+        }
+        return d;
+    }
+}
@@ -6,6 +6,7 @@ import net.classicremastered.minecraft.player.Player;
 import net.classicremastered.util.MathHelper;
 
 import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL13;
 
 public final class Chunk {
 
@@ -23,6 +24,8 @@ public final class Chunk {
     boolean[] dirty = new boolean[2];
     public boolean loaded;
     public boolean inBuildQueue = false;
+    /** Last upload drew nothing in any pass; culled without a frustum test. */
+    public boolean empty = false;
 
     public Chunk(Level var1, int var2, int var3, int var4, int var5, int var6) {
         this.level = var1;
@@ -35,65 +38,75 @@ public final class Chunk {
         this.setAllDirty();
     }
 
+    private static final MeshBuffer syncMesh = new MeshBuffer();
+    // bumped for every snapshot taken; meshes older than the last upload are dropped
+    private int buildVersion = 0;
+    private int uploadedVersion = 0;
+
+    /** Rebuild synchronously on the GL thread (snapshot, mesh, upload). */
     public final void update() {
-        if (this.level == null)
+        ChunkSnapshot snap = this.snapshot();
+        if (snap == null)
             return;
+        syncMesh.reset();
+        ChunkMesher.mesh(snap, syncMesh);
+        syncMesh.chunk = this;
+        syncMesh.version = this.buildVersion;
+        this.upload(syncMesh);
+        syncMesh.reset();
+    }
+
+    /** GL thread: capture this chunk's neighbourhood for meshing, or null once disposed. */
+    final ChunkSnapshot snapshot() {
+        if (this.level == null)
+            return null;
+        ++this.buildVersion;
+        return ChunkSnapshot.capture(this.level, this.x, this.y, this.z);
+    }
+
+    final int getBuildVersion() {
+        return this.buildVersion;
+    }
+
+    /**
+     * GL thread: compile a finished mesh into this chunk's display lists. Stale meshes
+     * (an equal or newer one is already uploaded) and disposed chunks are ignored.
+     */
+    final boolean upload(MeshBuffer mesh) {
+        if (this.level == null || mesh.version <= this.uploadedVersion)
+            return false;
+        this.uploadedVersion = mesh.version;
         ++chunkUpdates;
-        int x0 = this.x;
-        int y0 = this.y;
-        int z0 = this.z;
-        int x1 = this.x + this.width;
-        int y1 = this.y + this.height;
-        int z1 = this.z + this.depth;
-
-        // mark both passes dirty
-        for (int p = 0; p < 2; ++p) {
-            this.dirty[p] = true;
-        }
 
-        for (int pass = 0; pass < 2; ++pass) {
-            boolean anyOtherPass = false;
-            boolean drewSomething = false;
+        boolean drewAny = false;
+        for (int pass = 0; pass < MeshBuffer.PASSES; ++pass) {
+            if (!mesh.drewSomething(pass)) {
+                this.dirty[pass] = true;
+                continue;
+            }
+            drewAny = true;
 
             GL11.glNewList(this.baseListId + pass, GL11.GL_COMPILE);
-            renderer.begin();
-
-            for (int x = x0; x < x1; ++x) {
-                for (int y = y0; y < y1; ++y) {
-                    for (int z = z0; z < z1; ++z) {
-                        int id = this.level.getTile(x, y, z);
-                        if (id <= 0)
-                            continue;
-                        Block b = Block.blocks[id];
-                        if (b == null)
-                            continue;
-
-                        // Force: water = pass 1, lava = pass 0
-                        int renderPass = b.getRenderPass();
-                        if (b.getLiquidType() == net.classicremastered.minecraft.level.liquid.LiquidType.WATER) {
-                            renderPass = 1;
-                        } else if (b.getLiquidType() == net.classicremastered.minecraft.level.liquid.LiquidType.LAVA) {
-                            renderPass = 0;
-                        }
-
-                        if (renderPass != pass) {
-                            anyOtherPass = true;
-                        } else {
-                            drewSomething |= b.render(this.level, x, y, z, renderer);
-                        }
-                    }
+            renderer.draw(mesh.getData(pass), mesh.getVertexCount(pass));
+
+            // blocks that draw straight through GL (fire) are rendered live from the level,
+            // with their brightness already in the colour
+            int[] glOnly = mesh.getGlOnly(pass);
+            if (mesh.getGlOnlyCount(pass) > 0)
+                GL13.glMultiTexCoord2f(GL13.GL_TEXTURE1, LightMap.s(15), LightMap.t(LightMap.ROW_FULLBRIGHT));
+            for (int i = 0, n = mesh.getGlOnlyCount(pass) * 3; i < n; i += 3) {
+                Block b = Block.blocks[this.level.getTile(glOnly[i], glOnly[i + 1], glOnly[i + 2])];
+                if (b != null && !b.isMeshable()) {
+                    renderer.begin();
+                    b.render(this.level, glOnly[i], glOnly[i + 1], glOnly[i + 2], renderer);
+                    renderer.end();
                 }
             }
-
-            renderer.end();
             GL11.glEndList();
-
-            if (drewSomething) {
-                this.dirty[pass] = false;
-            }
-            if (!anyOtherPass)
-                break;
+            this.dirty[pass] = false;
         }
+        this.empty = !drewAny;
+        return true;
     }
 
     public final float distanceSquared(Player var1) {
@@ -114,6 +127,15 @@ public final class Chunk {
         this.level = null;
     }
 
+    /** Dispose and free the two display lists; only for chunks that own theirs (infinite worlds). */
+    public final void release() {
+        this.dispose();
+        if (this.baseListId >= 0) {
+            GL11.glDeleteLists(this.baseListId, 2);
+            this.baseListId = -1;
+        }
+    }
+
     public final int appendLists(int[] out, int idx, int pass) {
         if (!this.visible)
             return idx;
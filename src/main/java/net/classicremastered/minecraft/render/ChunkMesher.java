@@ -0,0 +1,140 @@
+package net.classicremastered.minecraft.render;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.classicremastered.minecraft.level.liquid.LiquidType;
+import net.classicremastered.minecraft.level.tile.Block;
+
+/**
+ * Builds chunk geometry on worker threads. The GL thread captures a
+ * {@link ChunkSnapshot}, workers turn it into a {@link MeshBuffer}, and the GL thread
+ * uploads finished meshes into the chunk's display lists a few per frame.
+ */
+public final class ChunkMesher {
+
+    private final ExecutorService workers;
+    private final ConcurrentLinkedQueue<MeshBuffer> completed = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<MeshBuffer> spare = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /** One snapshot view per meshing thread; building a Level is too costly to do per chunk. */
+    private static final ThreadLocal<SnapshotLevel> VIEWS = ThreadLocal.withInitial(SnapshotLevel::new);
+
+    public ChunkMesher() {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger ids = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "Chunk-Mesher-" + ids.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    /** Queue a snapshot of {@code chunk} taken at build {@code version}. */
+    public void submit(Chunk chunk, ChunkSnapshot snap, int version) {
+        inFlight.incrementAndGet();
+        workers.execute(() -> {
+            MeshBuffer out = spare.poll();
+            if (out == null)
+                out = new MeshBuffer();
+            try {
+                mesh(snap, out);
+                out.chunk = chunk;
+                out.version = version;
+                completed.add(out);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                out.reset();
+                spare.add(out);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    /** GL thread: upload up to {@code budget} finished meshes. Returns how many were uploaded. */
+    public int uploadCompleted(int budget) {
+        int n = 0;
+        MeshBuffer m;
+        while (n < budget && (m = completed.poll()) != null) {
+            if (m.chunk.upload(m))
+                n++;
+            m.reset();
+            spare.add(m);
+        }
+        return n;
+    }
+
+    /** Snapshots submitted but not yet meshed. */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /** Meshes waiting for upload. */
+    public int getCompletedCount() {
+        return completed.size();
+    }
+
+    /** Mesh a snapshot on the calling thread. Pure: touches neither GL nor the live level. */
+    public static void mesh(ChunkSnapshot snap, MeshBuffer out) {
+        SnapshotLevel view = VIEWS.get();
+        try {
+            mesh(snap, view, out);
+        } finally {
+            view.bind(null);
+        }
+    }
+
+    static void mesh(ChunkSnapshot snap, SnapshotLevel view, MeshBuffer out) {
+        view.bind(snap, out);
+        ShapeRenderer renderer = new ShapeRenderer(out);
+        int x0 = snap.x0, y0 = snap.y0, z0 = snap.z0;
+
+        for (int pass = 0; pass < MeshBuffer.PASSES; ++pass) {
+            boolean anyOtherPass = false;
+            boolean drewSomething = false;
+            out.setPass(pass);
+            renderer.begin();
+
+            for (int x = x0; x < x0 + 16; ++x) {
+                for (int y = y0; y < y0 + 16; ++y) {
+                    for (int z = z0; z < z0 + 16; ++z) {
+                        int id = view.getTile(x, y, z);
+                        if (id <= 0)
+                            continue;
+                        Block b = Block.blocks[id];
+                        if (b == null)
+                            continue;
+
+                        // Force: water = pass 1, lava = pass 0
+                        int renderPass = b.getRenderPass();
+                        if (b.getLiquidType() == LiquidType.WATER) {
+                            renderPass = 1;
+                        } else if (b.getLiquidType() == LiquidType.LAVA) {
+                            renderPass = 0;
+                        }
+
+                        if (renderPass != pass) {
+                            anyOtherPass = true;
+                        } else if (!b.isMeshable()) {
+                            out.addGlOnly(x, y, z);
+                            drewSomething = true;
+                        } else {
+                            out.setFullbright(); // until the block asks for a brightness
+                            drewSomething |= b.render(view, x, y, z, renderer);
+                        }
+                    }
+                }
+            }
+
+            renderer.end();
+            if (drewSomething)
+                out.markDrawn();
+            if (!anyOtherPass)
+                break;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package net.classicremastered.minecraft.render;
+
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.tile.Block;
+
+/**
+ * Immutable copy of the blocks, block light and sky exposure around one 16³ chunk,
+ * captured on the game thread so the mesher can run without touching the live level.
+ * <p>
+ * The margin is two blocks rather than one because liquid top faces test the
+ * neighbours of their neighbours.
+ */
+public final class ChunkSnapshot {
+
+    public static final int MARGIN = 2;
+    public static final int SIZE = 16 + 2 * MARGIN;
+
+    static final byte IN_BOUNDS = 1;
+    static final byte LIT = 2;
+
+    /** World origin of the chunk (not of the snapshot). */
+    public final int x0, y0, z0;
+    final byte[] tiles = new byte[SIZE * SIZE * SIZE];
+    final byte[] light = new byte[SIZE * SIZE * SIZE];
+    final byte[] flags = new byte[SIZE * SIZE * SIZE];
+    final float sky;
+    final float dayFactor;
+
+    private ChunkSnapshot(int x0, int y0, int z0, float sky, float dayFactor) {
+        this.x0 = x0;
+        this.y0 = y0;
+        this.z0 = z0;
+        this.sky = sky;
+        this.dayFactor = dayFactor;
+    }
+
+    static int index(int sx, int sy, int sz) {
+        return (sy * SIZE + sz) * SIZE + sx;
+    }
+
+    /** Copy the neighbourhood of the chunk at (x0,y0,z0). Must run on the game thread. */
+    public static ChunkSnapshot capture(Level level, int x0, int y0, int z0) {
+        float sky = level.lightEngine != null ? level.lightEngine.getSkyLight() : 1.0f;
+        ChunkSnapshot s = new ChunkSnapshot(x0, y0, z0, sky, level.getDaylightBrightness());
+        int bx = x0 - MARGIN, by = y0 - MARGIN, bz = z0 - MARGIN;
+
+        for (int sz = 0; sz < SIZE; sz++) {
+            for (int sx = 0; sx < SIZE; sx++) {
+                int wx = bx + sx, wz = bz + sz;
+                // sky exposure walks down from the top row: lit until the first blocker
+                boolean lit = level.isLit(wx, by + SIZE - 1, wz);
+                for (int sy = SIZE - 1; sy >= 0; sy--) {
+                    int wy = by + sy;
+                    int i = index(sx, sy, sz);
+                    int id = level.getTile(wx, wy, wz);
+                    s.tiles[i] = (byte) id;
+                    s.light[i] = (byte) level.getBlockLight(wx, wy, wz);
+                    boolean inBounds = level.isInBounds(wx, wy, wz);
+                    byte f = 0;
+                    if (inBounds)
+                        f |= IN_BOUNDS;
+                    // outside the level each implementation has its own answer; ask it directly
+                    if (inBounds ? lit : level.isLit(wx, wy, wz))
+                        f |= LIT;
+                    s.flags[i] = f;
+
+                    Block b = Block.blocks[id];
+                    if (b != null && b.isOpaque())
+                        lit = false;
+                }
+            }
+        }
+        return s;
+    }
+
+    boolean contains(int x, int y, int z) {
+        int sx = x - x0 + MARGIN, sy = y - y0 + MARGIN, sz = z - z0 + MARGIN;
+        return sx >= 0 && sy >= 0 && sz >= 0 && sx < SIZE && sy < SIZE && sz < SIZE;
+    }
+
+    int indexOf(int x, int y, int z) {
+        return index(x - x0 + MARGIN, y - y0 + MARGIN, z - z0 + MARGIN);
+    }
+}
@@ -36,12 +36,29 @@ public final class LevelRenderer {
     public float cracks;
 
     public boolean waterReady = false;
-    private int lightingCooldown = 0;
-    private float lastDayFactor = -1f;
+    /** Day/night brightness, applied when chunk lists are drawn. */
+    public final LightMap lightMap = new LightMap();
 
     // === Infinite world cache ===
-    public final Map<Long, Chunk> infiniteCache = new HashMap<>();
+    // access-ordered: every slice in view is touched each frame, so the eldest are the ones to evict
+    public final Map<Long, Chunk> infiniteCache = new LinkedHashMap<>(1024, 0.75F, true);
     private final ArrayDeque<Chunk> dirtyQueue = new ArrayDeque<>();
+    /** Upper bound on the infinite render distance, in chunks. */
+    public int maxViewChunks = 16;
+    private static final int CACHE_MARGIN = 2; // chunks kept past the view ring before eviction
+    private Frustrum frustum;
+    private Chunk[] drawList = new Chunk[256];
+    private int drawCount;
+    // last frame's counts, for the debug line
+    public int chunksResident;
+    public int chunksCulled;
+    public int chunksEmpty;
+
+    // === Off-thread meshing ===
+    public final ChunkMesher mesher = new ChunkMesher();
+    private static final int SUBMIT_BUDGET = 12; // snapshots captured per frame
+    private static final int UPLOAD_BUDGET = 8; // finished meshes compiled per frame
+    private static final int MAX_IN_FLIGHT = 64;
 
     private static long key3(int cx, int sy, int cz) {
         return ((((long) cx) << 32) ^ (cz & 0xffffffffL)) ^ (((long) sy) << 56);
@@ -59,17 +76,40 @@ public final class LevelRenderer {
         return (level instanceof LevelInfiniteFlat) || (level instanceof LevelInfiniteTerrain);
     }
 
-    public void markDirty(int cx, int sy, int cz) {
-        Chunk c = infiniteCache.get(key3(cx, sy, cz));
-        if (c != null) {
-            c.setAllDirty();
-            if (!c.inBuildQueue) {
-                c.inBuildQueue = true;
-                dirtyQueue.add(c);
-            }
+    /** Infinite render radius in chunks: out to the fog for the current render distance, capped. */
+    public int getViewChunks() {
+        int fogEnd = 512 >> (minecraft.settings.viewDistance << 1); // as Renderer.fogEnd
+        return Math.max(2, Math.min(maxViewChunks, (fogEnd >> 4) + 1));
+    }
+
+    /**
+     * This frame's frustum. Finite chunks are clipped right away; infinite slices are
+     * tested as {@link #sortChunks} walks the view ring.
+     */
+    public void clip(Frustrum f) {
+        this.frustum = f;
+        if (!isInfiniteLevel() && chunkCache != null) {
+            for (Chunk c : chunkCache) c.clip(f);
         }
     }
 
+    /** Counters for the F3 line; empty for finite worlds. */
+    public String getCacheStats() {
+        if (!isInfiniteLevel()) return "";
+        return ", " + chunksResident + " resident, " + chunksCulled + " culled, " + chunksEmpty + " empty";
+    }
+
+    private void releaseInfiniteCache() {
+        for (Chunk c : infiniteCache.values()) c.release();
+        infiniteCache.clear();
+        drawCount = 0;
+    }
+
+    public void markDirty(int cx, int sy, int cz) {
+        // the old lists stay visible until the rebuilt mesh is uploaded
+        markDirty(infiniteCache.get(key3(cx, sy, cz)));
+    }
+
     public void markDirty(Chunk c) {
         if (c != null && !c.inBuildQueue) {
             c.inBuildQueue = true;
@@ -77,21 +117,30 @@ public final class LevelRenderer {
         }
     }
 
+    /** Snapshot {@code c} and hand it to the mesher; the result is uploaded by {@link #updateSomeChunks}. */
+    public void rebuild(Chunk c) {
+        ChunkSnapshot snap = c.snapshot();
+        if (snap != null) {
+            mesher.submit(c, snap, c.getBuildVersion());
+        }
+    }
+
     public void updateSomeChunks() {
-        int budget = 3;
-        while (!dirtyQueue.isEmpty() && budget-- > 0) {
+        int budget = SUBMIT_BUDGET;
+        while (!dirtyQueue.isEmpty() && budget-- > 0 && mesher.getInFlight() < MAX_IN_FLIGHT) {
             Chunk c = dirtyQueue.poll();
             if (c != null) {
                 c.inBuildQueue = false;
-                c.update();
+                rebuild(c);
             }
         }
+        mesher.uploadCompleted(UPLOAD_BUDGET);
     }
 
     // === Refresh ===
     public final void refresh() {
         if (isInfiniteLevel()) {
-            infiniteCache.clear();
+            releaseInfiniteCache();
             dirtyQueue.clear();
             if (chunkCache != null) {
                 for (Chunk c : chunkCache) if (c != null) c.dispose();
@@ -104,6 +153,7 @@ public final class LevelRenderer {
         }
 
         // finite path
+        releaseInfiniteCache();
         if (this.chunkCache != null) {
             for (Chunk c : this.chunkCache) if (c != null) c.dispose();
         }
@@ -150,40 +200,16 @@ public final class LevelRenderer {
  // === Sort & Draw ===
     public final int sortChunks(Player pl, int pass) {
         updateSomeChunks();
+        if (pass == 0) lightMap.update(level);
 
         if (isInfiniteLevel()) {
-            final int pcx = (int) Math.floor(pl.x / 16.0);
-            final int pcz = (int) Math.floor(pl.z / 16.0);
-            final int view = 8;
-            final int slicesY = (this.level.depth + 15) >> 4;
+            if (pass == 0) collectInfinite(pl);
 
             int len = 0;
-            this.buffer.clear();
-
-            for (int ring = 0; ring <= view; ring++) {
-                for (int dx = -ring; dx <= ring; dx++) {
-                    for (int dz = -ring; dz <= ring; dz++) {
-                        if (Math.max(Math.abs(dx), Math.abs(dz)) != ring) continue;
-
-                        final int cx = pcx + dx, cz = pcz + dz;
-                        for (int sy = 0; sy < slicesY; sy++) {
-                            final long k = key3(cx, sy, cz);
-                            Chunk c = infiniteCache.get(k);
-                            if (c == null) {
-                                int baseId = GL11.glGenLists(2); // one for terrain/lava, one for water
-                                c = new Chunk(this.level, (cx << 4), (sy << 4), (cz << 4), 16, baseId);
-                                c.setAllDirty();
-                                c.inBuildQueue = true;
-                                infiniteCache.put(k, c);
-                                dirtyQueue.add(c);
-                            }
-                            c.visible = true;
-                            len = c.appendLists(this.chunkDataCache, len, pass);
-                        }
-                    }
-                }
-            }
+            for (int i = 0; i < drawCount; i++)
+                len = drawList[i].appendLists(this.chunkDataCache, len, pass);
 
+            this.buffer.clear();
             if (len > 0) {
                 this.buffer.put(this.chunkDataCache, 0, len);
                 this.buffer.flip();
@@ -198,7 +224,9 @@ public final class LevelRenderer {
                             this.textureManager.load("/water.png"));
                 }
 
+                lightMap.enable();
                 GL11.glCallLists(this.buffer);
+                lightMap.disable();
             }
             return len;
         }
@@ -223,11 +251,77 @@ public final class LevelRenderer {
             this.buffer.put(this.chunkDataCache, 0, len);
             this.buffer.flip();
             GL11.glBindTexture(GL11.GL_TEXTURE_2D, this.textureManager.load("/terrain.png"));
+            lightMap.enable();
             GL11.glCallLists(this.buffer);
+            lightMap.disable();
         }
         return len;
     }
 
+    /**
+     * Walk the view ring nearest first: create and queue missing slices, collect the
+     * ones worth drawing into {@link #drawList} (both passes use it), then evict the
+     * least recently seen slices past the cache bound.
+     */
+    private void collectInfinite(Player pl) {
+        final int pcx = (int) Math.floor(pl.x / 16.0);
+        final int pcz = (int) Math.floor(pl.z / 16.0);
+        final int view = getViewChunks();
+        final int slicesY = (this.level.depth + 15) >> 4;
+        int culled = 0, empty = 0;
+        drawCount = 0;
+
+        for (int ring = 0; ring <= view; ring++) {
+            for (int dx = -ring; dx <= ring; dx++) {
+                for (int dz = -ring; dz <= ring; dz++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dz)) != ring) continue;
+
+                    final int cx = pcx + dx, cz = pcz + dz;
+                    for (int sy = 0; sy < slicesY; sy++) {
+                        final long k = key3(cx, sy, cz);
+                        Chunk c = infiniteCache.get(k);
+                        if (c == null) {
+                            int baseId = GL11.glGenLists(2); // one for terrain/lava, one for water
+                            c = new Chunk(this.level, (cx << 4), (sy << 4), (cz << 4), 16, baseId);
+                            c.setAllDirty();
+                            c.inBuildQueue = true;
+                            infiniteCache.put(k, c);
+                            dirtyQueue.add(c);
+                        }
+                        if (c.empty) {
+                            c.visible = false;
+                            empty++;
+                            continue;
+                        }
+                        if (frustum != null) c.clip(frustum);
+                        else c.visible = true;
+                        if (!c.visible) {
+                            culled++;
+                            continue;
+                        }
+                        if (drawCount == drawList.length) drawList = Arrays.copyOf(drawList, drawCount * 2);
+                        drawList[drawCount++] = c;
+                    }
+                }
+            }
+        }
+
+        int side = 2 * (view + CACHE_MARGIN) + 1;
+        int bound = side * side * slicesY;
+        if (infiniteCache.size() > bound) {
+            Iterator<Chunk> it = infiniteCache.values().iterator();
+            while (infiniteCache.size() > bound && it.hasNext()) {
+                Chunk c = it.next();
+                it.remove();
+                c.release();
+            }
+        }
+
+        chunksResident = infiniteCache.size();
+        chunksCulled = culled;
+        chunksEmpty = empty;
+    }
+
     public final void queueChunks(int x0, int y0, int z0, int x1, int y1, int z1) {
         if (isInfiniteLevel()) return;
 
@@ -253,18 +347,6 @@ public final class LevelRenderer {
         }
     }
 
-    public void onTimeOfDayMaybeChanged() {
-        if (level == null) return;
-        float f = level.getDayFactor();
-        if (lightingCooldown > 0) { lightingCooldown--; return; }
-        if (lastDayFactor < 0f) { lastDayFactor = f; return; }
-        if (Math.abs(f - lastDayFactor) > 0.10f) {
-            lastDayFactor = f;
-            lightingCooldown = 5;
-            refresh();
-        }
-    }
-
     public void renderEntities(float partial) {
         if (level == null) return;
         for (Entity e : level.entityList) {
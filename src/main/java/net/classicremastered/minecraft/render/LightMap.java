@@ -0,0 +1,98 @@
+package net.classicremastered.minecraft.render;
+
+import java.nio.ByteBuffer;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL13;
+
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.LightEngine;
+
+/**
+ * Time-of-day lighting applied when chunks are drawn rather than baked into them.
+ * <p>
+ * Chunk vertices carry only face shading in their colour plus a second texture
+ * coordinate naming their light cell: block light 0..15 along s, and a row along t
+ * for shaded, sky-lit or fullbright. This 16x4 texture on unit 1 holds
+ * {@link LightEngine#brightness} for every cell at the current time and multiplies it
+ * in, so a day/night change re-uploads 64 texels instead of re-meshing the world.
+ */
+public final class LightMap {
+
+    public static final int ROW_SHADED = 0;
+    public static final int ROW_LIT = 1;
+    public static final int ROW_FULLBRIGHT = 2;
+    private static final int ROWS = 4; // power of two; row 3 is unused
+
+    private final ByteBuffer texels = BufferUtils.createByteBuffer(16 * ROWS * 4);
+    private int textureId = -1;
+    private float lastSky = -1f;
+    private float lastDayFactor = -1f;
+
+    /** Texture s coordinate of {@code blockLight}. */
+    public static float s(int blockLight) {
+        return (blockLight + 0.5F) / 16.0F;
+    }
+
+    /** Texture t coordinate of {@code row}. */
+    public static float t(int row) {
+        return (row + 0.5F) / ROWS;
+    }
+
+    /** GL thread: bring the texture up to date with the level's current sky and day factor. */
+    public void update(Level level) {
+        float sky = level.lightEngine != null ? level.lightEngine.getSkyLight() : 1.0f;
+        float day = level.getDaylightBrightness();
+        if (textureId == -1) {
+            textureId = GL11.glGenTextures();
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL11.GL_CLAMP);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL11.GL_CLAMP);
+            fill(sky, day);
+            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, 16, ROWS, 0, GL11.GL_RGBA,
+                    GL11.GL_UNSIGNED_BYTE, texels);
+        } else if (Math.abs(sky - lastSky) > 0.001f || Math.abs(day - lastDayFactor) > 0.001f) {
+            fill(sky, day);
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+            GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, 0, 0, 16, ROWS, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE,
+                    texels);
+        }
+    }
+
+    private void fill(float sky, float day) {
+        lastSky = sky;
+        lastDayFactor = day;
+        texels.clear();
+        for (int row = 0; row < ROWS; row++) {
+            for (int bl = 0; bl < 16; bl++) {
+                float br = row == ROW_SHADED ? LightEngine.brightness(bl, false, sky, day)
+                        : row == ROW_LIT ? LightEngine.brightness(bl, true, sky, day) : 1.0f;
+                byte v = (byte) Math.round(br * 255.0f);
+                texels.put(v).put(v).put(v).put((byte) -1);
+            }
+        }
+        texels.flip();
+    }
+
+    /** Bind on unit 1 for the chunk lists that follow; the active unit is left at 0. */
+    public void enable() {
+        if (textureId == -1)
+            return;
+        GL13.glActiveTexture(GL13.GL_TEXTURE1);
+        GL11.glEnable(GL11.GL_TEXTURE_2D);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+        GL11.glTexEnvi(GL11.GL_TEXTURE_ENV, GL11.GL_TEXTURE_ENV_MODE, GL11.GL_MODULATE);
+        GL13.glActiveTexture(GL13.GL_TEXTURE0);
+    }
+
+    public void disable() {
+        if (textureId == -1)
+            return;
+        GL13.glActiveTexture(GL13.GL_TEXTURE1);
+        GL11.glDisable(GL11.GL_TEXTURE_2D);
+        GL13.glActiveTexture(GL13.GL_TEXTURE0);
+    }
+}
@@ -0,0 +1,117 @@
+package net.classicremastered.minecraft.render;
+
+import java.util.Arrays;
+
+/**
+ * GL-free chunk geometry: one interleaved float array per render pass (texture,
+ * colour, position, then the {@link LightMap} coordinate), plus the positions of
+ * blocks that can only be drawn on the GL thread.
+ */
+public final class MeshBuffer {
+
+    public static final int PASSES = 2;
+    public static final int FLOATS_PER_VERTEX = 10; // u, v, r, g, b, x, y, z, light s, light t
+
+    private final float[][] data = new float[PASSES][];
+    private final int[] floats = new int[PASSES];
+    private final int[][] glOnly = new int[PASSES][];
+    private final int[] glOnlyLength = new int[PASSES];
+    private final boolean[] drewSomething = new boolean[PASSES];
+    private int pass;
+    private float lightS = LightMap.s(15), lightT = LightMap.t(LightMap.ROW_FULLBRIGHT);
+
+    /** Chunk this mesh belongs to and the chunk build version it was captured at. */
+    Chunk chunk;
+    int version;
+
+    public MeshBuffer() {
+        for (int p = 0; p < PASSES; p++) {
+            data[p] = new float[FLOATS_PER_VERTEX * 1024];
+            glOnly[p] = new int[3 * 8];
+        }
+    }
+
+    public void reset() {
+        Arrays.fill(floats, 0);
+        Arrays.fill(glOnlyLength, 0);
+        Arrays.fill(drewSomething, false);
+        pass = 0;
+        setFullbright();
+        chunk = null;
+        version = 0;
+    }
+
+    /** Select the pass subsequent vertices go to. */
+    public void setPass(int pass) {
+        this.pass = pass;
+    }
+
+    /** Light cell for the vertices that follow: block light 0..15 and whether it sees the sky. */
+    public void setLight(int blockLight, boolean lit) {
+        lightS = LightMap.s(blockLight);
+        lightT = LightMap.t(lit ? LightMap.ROW_LIT : LightMap.ROW_SHADED);
+    }
+
+    /** Following vertices keep their colour as is. */
+    public void setFullbright() {
+        lightS = LightMap.s(15);
+        lightT = LightMap.t(LightMap.ROW_FULLBRIGHT);
+    }
+
+    public void vertex(float u, float v, float r, float g, float b, float x, float y, float z) {
+        float[] d = data[pass];
+        int n = floats[pass];
+        if (n + FLOATS_PER_VERTEX > d.length) {
+            d = data[pass] = Arrays.copyOf(d, d.length * 2);
+        }
+        d[n] = u;
+        d[n + 1] = v;
+        d[n + 2] = r;
+        d[n + 3] = g;
+        d[n + 4] = b;
+        d[n + 5] = x;
+        d[n + 6] = y;
+        d[n + 7] = z;
+        d[n + 8] = lightS;
+        d[n + 9] = lightT;
+        floats[pass] = n + FLOATS_PER_VERTEX;
+    }
+
+    /** Record a block that must be rendered on the GL thread at upload time. */
+    public void addGlOnly(int x, int y, int z) {
+        int[] d = glOnly[pass];
+        int n = glOnlyLength[pass];
+        if (n + 3 > d.length) {
+            d = glOnly[pass] = Arrays.copyOf(d, d.length * 2);
+        }
+        d[n] = x;
+        d[n + 1] = y;
+        d[n + 2] = z;
+        glOnlyLength[pass] = n + 3;
+    }
+
+    public void markDrawn() {
+        drewSomething[pass] = true;
+    }
+
+    public boolean drewSomething(int pass) {
+        return drewSomething[pass];
+    }
+
+    public float[] getData(int pass) {
+        return data[pass];
+    }
+
+    public int getVertexCount(int pass) {
+        return floats[pass] / FLOATS_PER_VERTEX;
+    }
+
+    public int[] getGlOnly(int pass) {
+        return glOnly[pass];
+    }
+
+    /** Number of GL-only blocks (not ints) recorded for the pass. */
+    public int getGlOnlyCount(int pass) {
+        return glOnlyLength[pass] / 3;
+    }
+}
@@ -3,11 +3,14 @@ package net.classicremastered.minecraft.render;
 import java.nio.FloatBuffer;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL13;
 
 public final class ShapeRenderer {
 
-   private FloatBuffer buffer = BufferUtils.createFloatBuffer(524288);
-   private float[] data = new float[524288];
+   private final FloatBuffer buffer;
+   private final float[] data;
+   // when set, vertices are appended here instead of being drawn (off-thread meshing)
+   private final MeshBuffer capture;
    private int vertices = 0;
    private float u;
    private float v;
@@ -22,7 +25,25 @@ public final class ShapeRenderer {
    public static ShapeRenderer instance = new ShapeRenderer();
 
 
+   public ShapeRenderer() {
+      this(null);
+   }
+
+   /** Capture renderer: records full vertices into {@code capture} and never touches GL. */
+   public ShapeRenderer(MeshBuffer capture) {
+      this.capture = capture;
+      this.buffer = capture == null ? BufferUtils.createFloatBuffer(524288) : null;
+      this.data = capture == null ? new float[524288] : null;
+   }
+
+
    public final void end() {
+      if(this.capture != null) {
+         this.vertices = 0;
+         this.length = 0;
+         return;
+      }
+
       if(this.vertices > 0) {
          this.buffer.clear();
          this.buffer.put(this.data, 0, this.length);
@@ -62,15 +83,57 @@ public final class ShapeRenderer {
 
    private void clear() {
       this.vertices = 0;
-      this.buffer.clear();
+      if(this.buffer != null) {
+         this.buffer.clear();
+      }
       this.length = 0;
    }
 
+   /**
+    * Draw captured {@link MeshBuffer} quads, uploading at most one buffer's worth per
+    * call. The light coordinate goes to texture unit 1 for {@link LightMap}.
+    */
+   public final void draw(float[] vertexData, int vertexCount) {
+      int stride = MeshBuffer.FLOATS_PER_VERTEX;
+      int strideBytes = stride << 2;
+      int maxQuadVerts = (524288 / stride) & ~3;
+      for(int start = 0; start < vertexCount; start += maxQuadVerts) {
+         int count = Math.min(maxQuadVerts, vertexCount - start);
+         this.buffer.clear();
+         this.buffer.put(vertexData, start * stride, count * stride);
+         this.buffer.position(0);
+         GL11.glTexCoordPointer(2, strideBytes, this.buffer);
+         this.buffer.position(2);
+         GL11.glColorPointer(3, strideBytes, this.buffer);
+         this.buffer.position(5);
+         GL11.glVertexPointer(3, strideBytes, this.buffer);
+         this.buffer.position(8);
+         GL13.glClientActiveTexture(GL13.GL_TEXTURE1);
+         GL11.glTexCoordPointer(2, strideBytes, this.buffer);
+         GL11.glEnableClientState('\u8078');
+         GL13.glClientActiveTexture(GL13.GL_TEXTURE0);
+         GL11.glEnableClientState('\u8074');
+         GL11.glEnableClientState('\u8078');
+         GL11.glEnableClientState('\u8076');
+         GL11.glDrawArrays(7, 0, count);
+         GL11.glDisableClientState('\u8074');
+         GL11.glDisableClientState('\u8078');
+         GL11.glDisableClientState('\u8076');
+         GL13.glClientActiveTexture(GL13.GL_TEXTURE1);
+         GL11.glDisableClientState('\u8078');
+         GL13.glClientActiveTexture(GL13.GL_TEXTURE0);
+      }
+      this.buffer.clear();
+   }
+
    public final void begin() {
       this.clear();
       this.color = false;
       this.texture = false;
       this.noColor = false;
+      if(this.capture != null) {
+         this.r = this.g = this.b = 1.0F; // uncoloured vertices draw white, as with the default GL colour
+      }
    }
 
    public final void color(float var1, float var2, float var3) {
@@ -98,6 +161,11 @@ public final class ShapeRenderer {
    }
 
    public final void vertex(float var1, float var2, float var3) {
+      if(this.capture != null) {
+         this.capture.vertex(this.u, this.v, this.r, this.g, this.b, var1, var2, var3);
+         return;
+      }
+
       if(this.texture) {
          this.data[this.length++] = this.u;
          this.data[this.length++] = this.v;
@@ -151,7 +219,9 @@ public final class ShapeRenderer {
    }
 
    public final void normal(float var1, float var2, float var3) {
-      GL11.glNormal3f(var1, var2, var3);
+      if(this.capture == null) {
+         GL11.glNormal3f(var1, var2, var3);
+      }
    }
 
 }
@@ -0,0 +1,72 @@
+package net.classicremastered.minecraft.render;
+
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.LightEngine;
+
+/**
+ * Read-only Level view over a {@link ChunkSnapshot}, so block render code can run on a
+ * mesher thread. Everything block rendering asks for is answered from the snapshot;
+ * cells outside it read as air.
+ * <p>
+ * While bound to a mesh, {@link #getBrightness} hands the light cell to the mesh as its
+ * {@link LightMap} coordinate and answers 1, so vertex colours carry only face shading.
+ */
+final class SnapshotLevel extends Level {
+
+    private static final long serialVersionUID = 0L;
+
+    private ChunkSnapshot snap;
+    private MeshBuffer mesh;
+
+    void bind(ChunkSnapshot snap) {
+        bind(snap, null);
+    }
+
+    void bind(ChunkSnapshot snap, MeshBuffer mesh) {
+        this.snap = snap;
+        this.mesh = mesh;
+    }
+
+    @Override
+    public int getTile(int x, int y, int z) {
+        return snap.contains(x, y, z) ? snap.tiles[snap.indexOf(x, y, z)] & 255 : 0;
+    }
+
+    @Override
+    public boolean isInBounds(int x, int y, int z) {
+        return snap.contains(x, y, z) && (snap.flags[snap.indexOf(x, y, z)] & ChunkSnapshot.IN_BOUNDS) != 0;
+    }
+
+    @Override
+    public boolean isLit(int x, int y, int z) {
+        return !snap.contains(x, y, z) || (snap.flags[snap.indexOf(x, y, z)] & ChunkSnapshot.LIT) != 0;
+    }
+
+    @Override
+    public boolean hasBlockLight(int x, int y, int z) {
+        return snap.contains(x, y, z);
+    }
+
+    @Override
+    public int getBlockLight(int x, int y, int z) {
+        return snap.contains(x, y, z) ? snap.light[snap.indexOf(x, y, z)] : 0;
+    }
+
+    @Override
+    public void setBlockLight(int x, int y, int z, int value) {
+    }
+
+    @Override
+    public float getBrightness(int x, int y, int z) {
+        if (mesh != null) {
+            mesh.setLight(getBlockLight(x, y, z), isLit(x, y, z));
+            return 1.0f;
+        }
+        return LightEngine.brightness(getBlockLight(x, y, z), isLit(x, y, z), snap.sky, snap.dayFactor);
+    }
+
+    @Override
+    public float getDaylightBrightness() {
+        return snap != null ? snap.dayFactor : super.getDaylightBrightness();
+    }
+}
@@ -0,0 +1,269 @@
+package net.classicremastered.minecraft.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tick and frame profiler. Fixed sections are timed with {@link System#nanoTime} and
+ * summed per tick (or per frame); {@link #endTick} and {@link #endFrame} push the sums
+ * into a ring of the last {@link #HISTORY} samples for mean/p50/p99, and stream them
+ * as JFR events when a recording is running. Entity ticks are also summed per class.
+ * <p>
+ * Game thread only. While {@link #enabled} is false, {@link #start} returns 0 and every
+ * other call returns at once.
+ */
+public final class Profiler {
+
+    /** Samples kept per section. */
+    public static final int HISTORY = 256;
+
+    /** Off unless started with {@code -Dmcraft.profiler=true} or toggled in the debug screen. */
+    public static boolean enabled = Boolean.getBoolean("mcraft.profiler");
+
+    private static final List<Section> SECTIONS = new ArrayList<>();
+
+    public static final Section TICK = new Section("tick", null, false);
+    public static final Section NETWORK = new Section("network", TICK, false);
+    public static final Section ENTITIES = new Section("entities", TICK, false);
+    public static final Section SENSE = new Section("ai sense", ENTITIES, false);
+    public static final Section LEVEL = new Section("level", TICK, false);
+    public static final Section CHUNK_LOADING = new Section("chunk loading", LEVEL, false);
+    public static final Section SCHEDULED = new Section("scheduled ticks", LEVEL, false);
+    public static final Section RANDOM_UPDATES = new Section("random updates", LEVEL, false);
+    public static final Section DESPAWN = new Section("despawn", LEVEL, false);
+    public static final Section SPAWNER = new Section("mob spawner", LEVEL, false);
+    public static final Section PARTICLES = new Section("particles", TICK, false);
+    public static final Section FRAME = new Section("frame", null, true);
+    public static final Section CHUNK_UPDATES = new Section("chunk updates", FRAME, true);
+
+    private static final Map<Class<?>, EntityClass> ENTITY_CLASSES = new HashMap<>();
+    private static int tickPos, tickSamples;
+    private static int framePos, frameSamples;
+    private static boolean jfr = true;
+
+    private Profiler() {
+    }
+
+    /** One timed section; {@code parent} only affects how it is listed. */
+    public static final class Section {
+        public final String name;
+        public final Section parent;
+        public final int depth;
+        final boolean frame;
+        final long[] ring = new long[HISTORY];
+        long current;
+
+        Section(String name, Section parent, boolean frame) {
+            this.name = name;
+            this.parent = parent;
+            this.depth = parent == null ? 0 : parent.depth + 1;
+            this.frame = frame;
+            SECTIONS.add(this);
+        }
+
+        /** Mean nanoseconds per sample over the history. */
+        public long mean() {
+            int n = samples(this);
+            long sum = 0;
+            for (int i = 0; i < n; i++)
+                sum += ring[i];
+            return n == 0 ? 0 : sum / n;
+        }
+
+        /** Nanoseconds at percentile {@code p} (0..1) over the history. */
+        public long percentile(double p) {
+            int n = samples(this);
+            if (n == 0)
+                return 0;
+            long[] sorted = Arrays.copyOf(ring, n);
+            Arrays.sort(sorted);
+            return sorted[Math.min(n - 1, (int) (n * p))];
+        }
+    }
+
+    /** Tick cost of one entity class. */
+    public static final class EntityClass {
+        public final String name;
+        final long[] ring = new long[HISTORY];
+        long current;
+        int currentCount;
+        /** Entities of this class ticked in the last tick. */
+        public int count;
+
+        EntityClass(String name) {
+            this.name = name;
+        }
+
+        /** Mean nanoseconds per tick over the history. */
+        public long mean() {
+            int n = tickSamples;
+            long sum = 0;
+            for (int i = 0; i < n; i++)
+                sum += ring[i];
+            return n == 0 ? 0 : sum / n;
+        }
+    }
+
+    /** Start time for {@link #end}, or 0 when disabled. */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /** Add the time since {@code start} to {@code section}. */
+    public static void end(Section section, long start) {
+        if (start != 0L)
+            section.current += System.nanoTime() - start;
+    }
+
+    /** Add the time since {@code start} to the tick cost of {@code type}. */
+    public static void entity(Class<?> type, long start) {
+        if (start == 0L)
+            return;
+        long nanos = System.nanoTime() - start;
+        EntityClass c = ENTITY_CLASSES.get(type);
+        if (c == null)
+            ENTITY_CLASSES.put(type, c = new EntityClass(type.getSimpleName()));
+        c.current += nanos;
+        c.currentCount++;
+    }
+
+    /** Close the current tick: record the tick sections and entity classes. */
+    public static void endTick() {
+        if (!enabled)
+            return;
+        for (Section s : SECTIONS) {
+            if (!s.frame)
+                record(s, tickPos);
+        }
+        for (EntityClass c : ENTITY_CLASSES.values()) {
+            c.ring[tickPos] = c.current;
+            c.count = c.currentCount;
+            if (jfr && c.currentCount > 0)
+                emitEntity(c);
+            c.current = 0;
+            c.currentCount = 0;
+        }
+        tickPos = (tickPos + 1) % HISTORY;
+        tickSamples = Math.min(tickSamples + 1, HISTORY);
+    }
+
+    /** Close the current frame: record the frame sections. */
+    public static void endFrame() {
+        if (!enabled)
+            return;
+        for (Section s : SECTIONS) {
+            if (s.frame)
+                record(s, framePos);
+        }
+        framePos = (framePos + 1) % HISTORY;
+        frameSamples = Math.min(frameSamples + 1, HISTORY);
+    }
+
+    /** Drop all history, e.g. when the profiler is switched on. */
+    public static void reset() {
+        for (Section s : SECTIONS) {
+            Arrays.fill(s.ring, 0L);
+            s.current = 0;
+        }
+        ENTITY_CLASSES.clear();
+        tickPos = tickSamples = framePos = frameSamples = 0;
+    }
+
+    /** Sections in listing order: every parent before its children. */
+    public static List<Section> sections() {
+        return SECTIONS;
+    }
+
+    /** Entity classes, most expensive first. */
+    public static List<EntityClass> entityClasses() {
+        List<EntityClass> out = new ArrayList<>(ENTITY_CLASSES.values());
+        out.sort((a, b) -> Long.compare(b.mean(), a.mean()));
+        return out;
+    }
+
+    private static int samples(Section s) {
+        return s.frame ? frameSamples : tickSamples;
+    }
+
+    private static void record(Section s, int pos) {
+        s.ring[pos] = s.current;
+        if (jfr && s.current > 0)
+            emitSection(s);
+        s.current = 0;
+    }
+
+    // Jfr is loaded on first use; a runtime without jdk.jfr just stops emitting
+    private static void emitSection(Section s) {
+        try {
+            Jfr.section(s.name, s.frame, s.current);
+        } catch (LinkageError e) {
+            jfr = false;
+        }
+    }
+
+    private static void emitEntity(EntityClass c) {
+        try {
+            Jfr.entity(c.name, c.currentCount, c.current);
+        } catch (LinkageError e) {
+            jfr = false;
+        }
+    }
+
+    private static final class Jfr {
+        private static final jdk.jfr.EventType SECTION = jdk.jfr.EventType.getEventType(SectionEvent.class);
+        private static final jdk.jfr.EventType ENTITY = jdk.jfr.EventType.getEventType(EntityEvent.class);
+
+        static void section(String name, boolean frame, long nanos) {
+            if (!SECTION.isEnabled())
+                return;
+            SectionEvent e = new SectionEvent();
+            e.section = name;
+            e.frame = frame;
+            e.time = nanos;
+            e.commit();
+        }
+
+        static void entity(String name, int count, long nanos) {
+            if (!ENTITY.isEnabled())
+                return;
+            EntityEvent e = new EntityEvent();
+            e.entityClass = name;
+            e.count = count;
+            e.time = nanos;
+            e.commit();
+        }
+    }
+
+    @jdk.jfr.Name("mcraft.ProfilerSection")
+    @jdk.jfr.Label("Profiler Section")
+    @jdk.jfr.Category({ "Minecraft Classic", "Profiler" })
+    @jdk.jfr.Description("Time spent in one profiler section during one tick or frame")
+    @jdk.jfr.StackTrace(false)
+    static final class SectionEvent extends jdk.jfr.Event {
+        @jdk.jfr.Label("Section")
+        String section;
+        @jdk.jfr.Label("Frame Section")
+        boolean frame;
+        @jdk.jfr.Label("Time")
+        @jdk.jfr.Timespan(jdk.jfr.Timespan.NANOSECONDS)
+        long time;
+    }
+
+    @jdk.jfr.Name("mcraft.ProfilerEntityClass")
+    @jdk.jfr.Label("Profiler Entity Class")
+    @jdk.jfr.Category({ "Minecraft Classic", "Profiler" })
+    @jdk.jfr.Description("Time spent ticking the entities of one class during one tick")
+    @jdk.jfr.StackTrace(false)
+    static final class EntityEvent extends jdk.jfr.Event {
+        @jdk.jfr.Label("Entity Class")
+        String entityClass;
+        @jdk.jfr.Label("Count")
+        int count;
+        @jdk.jfr.Label("Time")
+        @jdk.jfr.Timespan(jdk.jfr.Timespan.NANOSECONDS)
+        long time;
+    }
+}
@@ -3,12 +3,23 @@ package net.classicremastered.nbt;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Named tags in insertion order. Small compounds (most entities) are a pair of short
+ * arrays searched linearly; a hash index is only built once a compound grows past
+ * {@link #INDEX_AT} entries.
+ */
 public class CompoundTag extends Tag {
-    private final Map<String, Tag> value = new HashMap<>();
+    private static final int INDEX_AT = 8;
+
+    private String[] names = new String[4];
+    private Tag[] tags = new Tag[4];
+    private int size;
+    private Map<String, Integer> index; // name -> slot, for large compounds only
 
     public CompoundTag(String name) {
         super(name);
@@ -21,59 +32,101 @@ public class CompoundTag extends Tag {
 
     @Override
     public void write(DataOutput out) throws IOException {
-        for (Tag tag : value.values()) {
-            Tag.writeNamedTag(tag, out);
+        for (int i = 0; i < size; i++) {
+            Tag.writeNamedTag(tags[i], out);
         }
         out.writeByte(0); // TAG_End ID
     }
 
     @Override
     public void read(DataInput in) throws IOException {
-        value.clear();
+        clear();
         Tag tag;
         while ((tag = Tag.readNamedTag(in)).getId() != 0) {
-            value.put(tag.getName(), tag);
+            put(tag);
         }
     }
 
     public Collection<Tag> getAllTags() {
-        return value.values();
+        return Arrays.asList(tags).subList(0, size);
+    }
+
+    public int size() {
+        return size;
     }
 
     public void put(Tag tag) {
-        value.put(tag.getName(), tag);
+        String name = tag.getName();
+        int i = slot(name);
+        if (i >= 0) {
+            tags[i] = tag;
+            return;
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            tags = Arrays.copyOf(tags, size * 2);
+        }
+        names[size] = name;
+        tags[size] = tag;
+        if (index != null) {
+            index.put(name, size);
+        } else if (size + 1 > INDEX_AT) {
+            index = new HashMap<>();
+            for (int n = 0; n <= size; n++)
+                index.put(names[n], n);
+        }
+        size++;
+    }
+
+    private int slot(String name) {
+        if (index != null) {
+            Integer i = index.get(name);
+            return i == null ? -1 : i;
+        }
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name))
+                return i;
+        }
+        return -1;
+    }
+
+    private void clear() {
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(tags, 0, size, null);
+        size = 0;
+        index = null;
     }
 
     public void putByte(String name, byte b) {
-        value.put(name, new ByteTag(name, b));
+        put(new ByteTag(name, b));
     }
 
     public void putShort(String name, short s) {
-        value.put(name, new ShortTag(name, s));
+        put(new ShortTag(name, s));
     }
 
     public void putInt(String name, int i) {
-        value.put(name, new IntTag(name, i));
+        put(new IntTag(name, i));
     }
 
     public void putLong(String name, long l) {
-        value.put(name, new LongTag(name, l));
+        put(new LongTag(name, l));
     }
 
     public void putFloat(String name, float f) {
-        value.put(name, new FloatTag(name, f));
+        put(new FloatTag(name, f));
     }
 
     public void putDouble(String name, double d) {
-        value.put(name, new DoubleTag(name, d));
+        put(new DoubleTag(name, d));
     }
 
     public void putByteArray(String name, byte[] bytes) {
-        value.put(name, new ByteArrayTag(name, bytes));
+        put(new ByteArrayTag(name, bytes));
     }
 
     public void putString(String name, String s) {
-        value.put(name, new StringTag(name, s));
+        put(new StringTag(name, s));
     }
 
     public void putBoolean(String name, boolean b) {
@@ -81,51 +134,60 @@ public class CompoundTag extends Tag {
     }
 
     public boolean hasKey(String name) {
-        return value.containsKey(name);
+        return slot(name) >= 0;
     }
 
     public Tag get(String name) {
-        return value.get(name);
+        int i = slot(name);
+        return i < 0 ? null : tags[i];
     }
 
     public byte getByte(String name) {
-        if (!value.containsKey(name)) return 0;
-        return ((ByteTag) value.get(name)).value;
+        Tag t = get(name);
+        if (t == null) return 0;
+        return ((ByteTag) t).value;
     }
 
     public short getShort(String name) {
-        if (!value.containsKey(name)) return 0;
-        return ((ShortTag) value.get(name)).value;
+        Tag t = get(name);
+        if (t == null) return 0;
+        return ((ShortTag) t).value;
     }
 
     public int getInt(String name) {
-        if (!value.containsKey(name)) return 0;
-        return ((IntTag) value.get(name)).value;
+        Tag t = get(name);
+        if (t == null) return 0;
+        return ((IntTag) t).value;
     }
 
     public long getLong(String name) {
-        if (!value.containsKey(name)) return 0;
-        return ((LongTag) value.get(name)).value;
+        Tag t = get(name);
+        if (t == null) return 0;
+        return ((LongTag) t).value;
     }
 
     public float getFloat(String name) {
-        if (!value.containsKey(name)) return 0.0f;
-        return ((FloatTag) value.get(name)).value;
+        Tag t = get(name);
+        if (t == null) return 0.0f;
+        return ((FloatTag) t).value;
     }
 
     public double getDouble(String name) {
-        if (!value.containsKey(name)) return 0.0;
-        return ((DoubleTag) value.get(name)).value;
+        Tag t = get(name);
+        if (t == null) return 0.0;
+        return ((DoubleTag) t).value;
     }
 
     public byte[] getByteArray(String name) {
-        if (!value.containsKey(name)) return new byte[0];
-        return ((ByteArrayTag) value.get(name)).value;
+        Tag t = get(name);
+        if (t == null) return new byte[0];
+        return ((ByteArrayTag) t).value;
     }
 
     public String getString(String name) {
-        if (!value.containsKey(name)) return "";
-        return ((StringTag) value.get(name)).value;
+        Tag t = get(name);
+        if (t == null) return "";
+        return ((StringTag) t).value;
     }
 
     public boolean getBoolean(String name) {
@@ -133,31 +195,42 @@ public class CompoundTag extends Tag {
     }
 
     public CompoundTag getCompound(String name) {
-        if (!value.containsKey(name)) return new CompoundTag(name);
-        return (CompoundTag) value.get(name);
+        Tag t = get(name);
+        if (t == null) return new CompoundTag(name);
+        return (CompoundTag) t;
     }
 
     public ListTag getList(String name) {
-        if (!value.containsKey(name)) return new ListTag(name);
-        return (ListTag) value.get(name);
+        Tag t = get(name);
+        if (t == null) return new ListTag(name);
+        return (ListTag) t;
     }
 
     @Override
     public String toString() {
-        return "" + value.size() + " entries";
+        return "" + size + " entries";
     }
 
     @Override
     public boolean equals(Object obj) {
         if (super.equals(obj)) {
             CompoundTag o = (CompoundTag) obj;
-            return value.equals(o.value);
+            if (size != o.size)
+                return false;
+            for (int i = 0; i < size; i++) {
+                if (!tags[i].equals(o.get(names[i])))
+                    return false;
+            }
+            return true;
         }
         return false;
     }
 
     @Override
     public int hashCode() {
-        return super.hashCode() ^ value.hashCode();
+        int h = 0; // order-independent, like a map's
+        for (int i = 0; i < size; i++)
+            h += names[i].hashCode() ^ tags[i].hashCode();
+        return super.hashCode() ^ h;
     }
 }
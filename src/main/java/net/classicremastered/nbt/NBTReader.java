@@ -0,0 +1,190 @@
+package net.classicremastered.nbt;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+/**
+ * Pull reader over an NBT stream; nothing is materialised unless asked for.
+ * <p>
+ * Walk a compound with {@link #next} until it returns {@link Tag#END}. For each entry,
+ * read the payload with the matching {@code read*} method, or {@link #skip} it. A list
+ * is opened with {@link #beginList}, after which its elements are read back to back
+ * as payloads of {@link #listType()}; there is no end marker.
+ *
+ * <pre>
+ * r.beginRoot();
+ * for (byte t; (t = r.next()) != Tag.END;) {
+ *     if (t == Tag.INT &amp;&amp; r.name().equals("Size")) size = r.readInt();
+ *     else r.skip(t);
+ * }
+ * </pre>
+ */
+public final class NBTReader {
+
+    private final DataInput in;
+    private String name;
+    private byte listType;
+
+    public NBTReader(DataInput in) {
+        this.in = in;
+    }
+
+    /** Read the root compound's header and return its name. */
+    public String beginRoot() throws IOException {
+        byte id = in.readByte();
+        if (id != Tag.COMPOUND)
+            throw new IOException("Root tag is not a CompoundTag");
+        return in.readUTF();
+    }
+
+    /** Header of the next entry in the current compound: its type, or {@link Tag#END} at the close. */
+    public byte next() throws IOException {
+        byte id = in.readByte();
+        if (id == Tag.END) {
+            name = null;
+            return id;
+        }
+        if (id < 0 || id > Tag.LONG_ARRAY)
+            throw new IOException("Invalid NBT tag ID: " + id);
+        name = in.readUTF();
+        return id;
+    }
+
+    /** Name of the entry last returned by {@link #next}. */
+    public String name() {
+        return name;
+    }
+
+    public byte readByte() throws IOException {
+        return in.readByte();
+    }
+
+    public boolean readBoolean() throws IOException {
+        return in.readByte() != 0;
+    }
+
+    public short readShort() throws IOException {
+        return in.readShort();
+    }
+
+    public int readInt() throws IOException {
+        return in.readInt();
+    }
+
+    public long readLong() throws IOException {
+        return in.readLong();
+    }
+
+    public float readFloat() throws IOException {
+        return in.readFloat();
+    }
+
+    public double readDouble() throws IOException {
+        return in.readDouble();
+    }
+
+    public String readString() throws IOException {
+        return in.readUTF();
+    }
+
+    public byte[] readByteArray() throws IOException {
+        byte[] b = new byte[checkLength(in.readInt())];
+        in.readFully(b);
+        return b;
+    }
+
+    /**
+     * Read a byte array payload into {@code dst}. Returns the stored length; bytes
+     * that do not fit are skipped, so a result other than {@code dst.length} means
+     * the data did not match the buffer.
+     */
+    public int readByteArray(byte[] dst) throws IOException {
+        int len = checkLength(in.readInt());
+        int n = Math.min(len, dst.length);
+        in.readFully(dst, 0, n);
+        skipBytes(len - n);
+        return len;
+    }
+
+    public int[] readIntArray() throws IOException {
+        int[] v = new int[checkLength(in.readInt())];
+        for (int i = 0; i < v.length; i++)
+            v[i] = in.readInt();
+        return v;
+    }
+
+    public long[] readLongArray() throws IOException {
+        long[] v = new long[checkLength(in.readInt())];
+        for (int i = 0; i < v.length; i++)
+            v[i] = in.readLong();
+        return v;
+    }
+
+    /** Open a list payload: returns its size; the element type is {@link #listType()}. */
+    public int beginList() throws IOException {
+        listType = in.readByte();
+        return checkLength(in.readInt());
+    }
+
+    /** Element type of the list last opened with {@link #beginList}. */
+    public byte listType() {
+        return listType;
+    }
+
+    /** Materialise a payload of {@code type} as a tag named after the current entry. */
+    public Tag readTag(byte type) throws IOException {
+        Tag tag = Tag.newTag(type, name);
+        tag.read(in);
+        return tag;
+    }
+
+    /** Skip a payload of {@code type} (and its whole subtree) without building it. */
+    public void skip(byte type) throws IOException {
+        switch (type) {
+            case Tag.END: return;
+            case Tag.BYTE: skipBytes(1); return;
+            case Tag.SHORT: skipBytes(2); return;
+            case Tag.INT:
+            case Tag.FLOAT: skipBytes(4); return;
+            case Tag.LONG:
+            case Tag.DOUBLE: skipBytes(8); return;
+            case Tag.BYTE_ARRAY: skipBytes(checkLength(in.readInt())); return;
+            case Tag.STRING: skipBytes(in.readUnsignedShort()); return;
+            case Tag.INT_ARRAY: skipBytes(checkLength(in.readInt()) * 4L); return;
+            case Tag.LONG_ARRAY: skipBytes(checkLength(in.readInt()) * 8L); return;
+            case Tag.LIST: {
+                byte t = in.readByte();
+                int n = checkLength(in.readInt());
+                for (int i = 0; i < n; i++)
+                    skip(t);
+                return;
+            }
+            case Tag.COMPOUND: {
+                byte t;
+                while ((t = in.readByte()) != Tag.END) {
+                    skipBytes(in.readUnsignedShort()); // name
+                    skip(t);
+                }
+                return;
+            }
+            default: throw new IOException("Invalid NBT tag ID: " + type);
+        }
+    }
+
+    private void skipBytes(long n) throws IOException {
+        while (n > 0) {
+            int s = in.skipBytes((int) Math.min(n, Integer.MAX_VALUE));
+            if (s <= 0) {
+                in.readByte(); // skipBytes may stall before EOF
+                s = 1;
+            }
+            n -= s;
+        }
+    }
+
+    private static int checkLength(int len) throws IOException {
+        if (len < 0)
+            throw new IOException("Negative NBT length " + len);
+        return len;
+    }
+}
@@ -0,0 +1,153 @@
+package net.classicremastered.nbt;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Writes NBT straight to a stream, without building a {@link Tag} tree first.
+ * <p>
+ * Inside a compound every value takes a name; inside a list (see {@link #beginList})
+ * the name is ignored and may be null, and exactly the declared number of elements
+ * must follow before {@link #endList}. The output is the same as writing the
+ * equivalent tree with {@link NBTIO#write}.
+ *
+ * <pre>
+ * w.beginCompound("Root");
+ * w.writeInt("Size", 3);
+ * w.beginList("Pos", Tag.FLOAT, 3);
+ * w.writeFloat(null, x); w.writeFloat(null, y); w.writeFloat(null, z);
+ * w.endList();
+ * w.endCompound();
+ * </pre>
+ */
+public final class NBTWriter {
+
+    private final DataOutput out;
+
+    // open containers: list element type (0 = compound) and elements still owed
+    private byte[] listType = new byte[16];
+    private int[] remaining = new int[16];
+    private int depth;
+
+    public NBTWriter(DataOutput out) {
+        this.out = out;
+    }
+
+    public void beginCompound(String name) throws IOException {
+        header(Tag.COMPOUND, name);
+        push((byte) 0, 0);
+    }
+
+    public void endCompound() throws IOException {
+        if (depth == 0 || listType[depth - 1] != 0)
+            throw new IllegalStateException("endCompound outside a compound");
+        out.writeByte(0);
+        depth--;
+    }
+
+    /** Open a list of {@code size} elements of {@code type}; each element is written with a null name. */
+    public void beginList(String name, byte type, int size) throws IOException {
+        header(Tag.LIST, name);
+        out.writeByte(type);
+        out.writeInt(size);
+        push(type == 0 ? -1 : type, size);
+    }
+
+    public void endList() {
+        if (depth == 0 || listType[depth - 1] == 0)
+            throw new IllegalStateException("endList outside a list");
+        if (remaining[depth - 1] != 0)
+            throw new IllegalStateException(remaining[depth - 1] + " list elements missing");
+        depth--;
+    }
+
+    public void writeByte(String name, int v) throws IOException {
+        header(Tag.BYTE, name);
+        out.writeByte(v);
+    }
+
+    public void writeBoolean(String name, boolean v) throws IOException {
+        writeByte(name, v ? 1 : 0);
+    }
+
+    public void writeShort(String name, int v) throws IOException {
+        header(Tag.SHORT, name);
+        out.writeShort(v);
+    }
+
+    public void writeInt(String name, int v) throws IOException {
+        header(Tag.INT, name);
+        out.writeInt(v);
+    }
+
+    public void writeLong(String name, long v) throws IOException {
+        header(Tag.LONG, name);
+        out.writeLong(v);
+    }
+
+    public void writeFloat(String name, float v) throws IOException {
+        header(Tag.FLOAT, name);
+        out.writeFloat(v);
+    }
+
+    public void writeDouble(String name, double v) throws IOException {
+        header(Tag.DOUBLE, name);
+        out.writeDouble(v);
+    }
+
+    public void writeString(String name, String v) throws IOException {
+        header(Tag.STRING, name);
+        out.writeUTF(v == null ? "" : v);
+    }
+
+    public void writeByteArray(String name, byte[] v) throws IOException {
+        writeByteArray(name, v, 0, v == null ? 0 : v.length);
+    }
+
+    public void writeByteArray(String name, byte[] v, int off, int len) throws IOException {
+        header(Tag.BYTE_ARRAY, name);
+        out.writeInt(len);
+        if (len > 0)
+            out.write(v, off, len);
+    }
+
+    public void writeIntArray(String name, int[] v) throws IOException {
+        header(Tag.INT_ARRAY, name);
+        int len = v == null ? 0 : v.length;
+        out.writeInt(len);
+        for (int i = 0; i < len; i++)
+            out.writeInt(v[i]);
+    }
+
+    /** Write an existing tag (and its subtree) under {@code name}. */
+    public void writeTag(String name, Tag tag) throws IOException {
+        header(tag.getId(), name);
+        tag.write(out);
+    }
+
+    private void header(byte type, String name) throws IOException {
+        if (depth > 0 && listType[depth - 1] != 0) {
+            int top = depth - 1;
+            if (listType[top] != type)
+                throw new IllegalStateException("List of " + Tag.getTagName(listType[top]) + " got "
+                        + Tag.getTagName(type));
+            if (remaining[top] == 0)
+                throw new IllegalStateException("Too many list elements");
+            remaining[top]--;
+            return;
+        }
+        out.writeByte(type);
+        out.writeUTF(name == null ? "" : name);
+    }
+
+    private void push(byte type, int size) {
+        if (depth == listType.length) {
+            listType = Arrays.copyOf(listType, depth * 2);
+            remaining = Arrays.copyOf(remaining, depth * 2);
+        }
+        listType[depth] = type;
+        remaining[depth] = size;
+        depth++;
+    }
+}
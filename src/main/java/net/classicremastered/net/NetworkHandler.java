@@ -21,6 +21,7 @@ public final class NetworkHandler {
    private Socket sock;
    private boolean unused = false;
    private byte[] stringBytes = new byte[64];
+   private final PacketCodec codec = new PacketCodec();
 
 
    public NetworkHandler(String var1, int var2) throws IOException {
@@ -63,6 +64,65 @@ public final class NetworkHandler {
       this.channel = null;
    }
 
+   /**
+    * Decode up to {@code max} complete packets from {@link #in} into {@code handler},
+    * stopping early if the handler closes the connection. Returns the number decoded.
+    */
+   public final int receive(PacketHandler handler, int max) throws IOException {
+      this.in.flip();
+      int n = 0;
+      try {
+         while(n < max && this.connected && this.codec.decode(this.in, handler)) {
+            ++n;
+         }
+      } finally {
+         this.in.compact();
+      }
+
+      return n;
+   }
+
+   public final void sendIdentification(int protocol, String name, String key, int userType) {
+      if(this.connected) {
+         try {
+            PacketCodec.writeIdentification(this.out, protocol, name, key, userType);
+         } catch (Exception var6) {
+            this.netManager.error(var6);
+         }
+      }
+   }
+
+   public final void sendSetBlock(int x, int y, int z, int mode, int block) {
+      if(this.connected) {
+         try {
+            PacketCodec.writeSetBlock(this.out, x, y, z, mode, block);
+         } catch (Exception var7) {
+            this.netManager.error(var7);
+         }
+      }
+   }
+
+   public final void sendPositionRotation(int id, int x, int y, int z, int yaw, int pitch) {
+      if(this.connected) {
+         try {
+            PacketCodec.writePositionRotation(this.out, id, x, y, z, yaw, pitch);
+         } catch (Exception var8) {
+            this.netManager.error(var8);
+         }
+      }
+   }
+
+   public final void sendChatMessage(int id, String message) {
+      if(this.connected) {
+         try {
+            PacketCodec.writeChatMessage(this.out, id, message);
+         } catch (Exception var4) {
+            this.netManager.error(var4);
+         }
+      }
+   }
+
+   /** Generic boxed form; prefer the typed {@code send*} methods. */
    public final void send(PacketType var1, Object ... var2) {
       if(this.connected) {
          this.out.put(var1.opcode);
@@ -121,6 +181,7 @@ public final class NetworkHandler {
       }
    }
 
+   /** Generic boxed form; {@link #receive} decodes without boxing. */
    public Object readObject(Class var1) {
       if(!this.connected) {
          return null;
@@ -0,0 +1,228 @@
+package net.classicremastered.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import net.classicremastered.minecraft.net.PacketType;
+
+/**
+ * Typed wire codec for the classic protocol, laid out as in {@link PacketType}.
+ * <p>
+ * Decoding goes through a table of per-opcode {@link Decoder}s that read the fields
+ * straight out of the buffer and make one {@link PacketHandler} call; the static
+ * {@code write*} methods are the matching encoders. Nothing is boxed either way.
+ * Strings are 64 bytes padded with spaces; level data chunks are 1024 bytes.
+ * <p>
+ * An instance holds the scratch buffers used while decoding and is not thread-safe.
+ */
+public final class PacketCodec {
+
+    /** Reads the body of one packet (opcode already consumed) and hands it to the handler. */
+    public interface Decoder {
+        void decode(ByteBuffer in, PacketCodec codec, PacketHandler handler);
+    }
+
+    public static final int STRING_LENGTH = 64;
+    public static final int CHUNK_LENGTH = 1024;
+
+    private static final Decoder[] DECODERS = new Decoder[256];
+    private static final int[] LENGTHS = new int[256];
+
+    private final byte[] stringBytes = new byte[STRING_LENGTH];
+    private final byte[] chunk = new byte[CHUNK_LENGTH];
+
+    static {
+        register(PacketType.IDENTIFICATION, (in, c, h) -> h.onIdentification(in.get(), c.readString(in),
+                c.readString(in), in.get()));
+        register(PacketType.packets[1], (in, c, h) -> h.onPing());
+        register(PacketType.LEVEL_INIT, (in, c, h) -> h.onLevelInit());
+        register(PacketType.LEVEL_DATA, (in, c, h) -> {
+            short length = in.getShort();
+            in.get(c.chunk);
+            h.onLevelData(length, c.chunk, in.get());
+        });
+        register(PacketType.LEVEL_FINALIZE, (in, c, h) -> h.onLevelFinalize(in.getShort(), in.getShort(),
+                in.getShort()));
+        register(PacketType.PLAYER_SET_BLOCK, (in, c, h) -> h.onSetBlock(in.getShort(), in.getShort(),
+                in.getShort(), in.get(), in.get()));
+        register(PacketType.BLOCK_CHANGE, (in, c, h) -> h.onBlockChange(in.getShort(), in.getShort(),
+                in.getShort(), in.get()));
+        register(PacketType.SPAWN_PLAYER, (in, c, h) -> h.onSpawnPlayer(in.get(), c.readString(in),
+                in.getShort(), in.getShort(), in.getShort(), in.get(), in.get()));
+        register(PacketType.POSITION_ROTATION, (in, c, h) -> h.onPositionRotation(in.get(), in.getShort(),
+                in.getShort(), in.getShort(), in.get(), in.get()));
+        register(PacketType.POSITION_ROTATION_UPDATE, (in, c, h) -> h.onPositionRotationUpdate(in.get(), in.get(),
+                in.get(), in.get(), in.get(), in.get()));
+        register(PacketType.POSITION_UPDATE, (in, c, h) -> h.onPositionUpdate(in.get(), in.get(), in.get(),
+                in.get()));
+        register(PacketType.ROTATION_UPDATE, (in, c, h) -> h.onRotationUpdate(in.get(), in.get(), in.get()));
+        register(PacketType.DESPAWN_PLAYER, (in, c, h) -> h.onDespawnPlayer(in.get()));
+        register(PacketType.CHAT_MESSAGE, (in, c, h) -> h.onChatMessage(in.get(), c.readString(in)));
+        register(PacketType.DISCONNECT, (in, c, h) -> h.onDisconnect(c.readString(in)));
+        register(PacketType.UPDATE_PLAYER_TYPE, (in, c, h) -> h.onUpdatePlayerType(in.get()));
+    }
+
+    private static void register(PacketType type, Decoder decoder) {
+        DECODERS[type.opcode & 0xFF] = decoder;
+        LENGTHS[type.opcode & 0xFF] = type.length;
+    }
+
+    /**
+     * Decode the packet at the buffer's position if all of it has arrived. Returns false,
+     * leaving the buffer untouched, when it is still incomplete.
+     *
+     * @throws IOException on an unknown opcode
+     */
+    public boolean decode(ByteBuffer in, PacketHandler handler) throws IOException {
+        if (!in.hasRemaining())
+            return false;
+        int op = in.get(in.position()) & 0xFF;
+        Decoder d = DECODERS[op];
+        if (d == null)
+            throw new IOException("Bad command: " + (byte) op);
+        if (in.remaining() < LENGTHS[op] + 1)
+            return false;
+        in.get();
+        d.decode(in, this, handler);
+        return true;
+    }
+
+    private String readString(ByteBuffer in) {
+        in.get(stringBytes);
+        int end = STRING_LENGTH;
+        while (end > 0 && (stringBytes[end - 1] & 0xFF) <= ' ')
+            end--;
+        return new String(stringBytes, 0, end, StandardCharsets.UTF_8).trim();
+    }
+
+    // --- encoders; each writes opcode and body ---
+
+    public static void writeIdentification(ByteBuffer out, int protocol, String name, String key, int userType) {
+        out.put(PacketType.IDENTIFICATION.opcode);
+        out.put((byte) protocol);
+        writeString(out, name);
+        writeString(out, key);
+        out.put((byte) userType);
+    }
+
+    public static void writePing(ByteBuffer out) {
+        out.put(PacketType.packets[1].opcode);
+    }
+
+    public static void writeLevelInit(ByteBuffer out) {
+        out.put(PacketType.LEVEL_INIT.opcode);
+    }
+
+    /** One level data chunk: {@code length} bytes of {@code data} from {@code off}, zero padded. */
+    public static void writeLevelData(ByteBuffer out, byte[] data, int off, int length, int percent) {
+        out.put(PacketType.LEVEL_DATA.opcode);
+        out.putShort((short) length);
+        out.put(data, off, length);
+        for (int i = length; i < CHUNK_LENGTH; i++)
+            out.put((byte) 0);
+        out.put((byte) percent);
+    }
+
+    public static void writeLevelFinalize(ByteBuffer out, int width, int depth, int height) {
+        out.put(PacketType.LEVEL_FINALIZE.opcode);
+        out.putShort((short) width);
+        out.putShort((short) depth);
+        out.putShort((short) height);
+    }
+
+    public static void writeSetBlock(ByteBuffer out, int x, int y, int z, int mode, int block) {
+        out.put(PacketType.PLAYER_SET_BLOCK.opcode);
+        out.putShort((short) x);
+        out.putShort((short) y);
+        out.putShort((short) z);
+        out.put((byte) mode);
+        out.put((byte) block);
+    }
+
+    public static void writeBlockChange(ByteBuffer out, int x, int y, int z, int block) {
+        out.put(PacketType.BLOCK_CHANGE.opcode);
+        out.putShort((short) x);
+        out.putShort((short) y);
+        out.putShort((short) z);
+        out.put((byte) block);
+    }
+
+    public static void writeSpawnPlayer(ByteBuffer out, int id, String name, int x, int y, int z, int yaw,
+            int pitch) {
+        out.put(PacketType.SPAWN_PLAYER.opcode);
+        out.put((byte) id);
+        writeString(out, name);
+        out.putShort((short) x);
+        out.putShort((short) y);
+        out.putShort((short) z);
+        out.put((byte) yaw);
+        out.put((byte) pitch);
+    }
+
+    public static void writePositionRotation(ByteBuffer out, int id, int x, int y, int z, int yaw, int pitch) {
+        out.put(PacketType.POSITION_ROTATION.opcode);
+        out.put((byte) id);
+        out.putShort((short) x);
+        out.putShort((short) y);
+        out.putShort((short) z);
+        out.put((byte) yaw);
+        out.put((byte) pitch);
+    }
+
+    public static void writePositionRotationUpdate(ByteBuffer out, int id, int dx, int dy, int dz, int yaw,
+            int pitch) {
+        out.put(PacketType.POSITION_ROTATION_UPDATE.opcode);
+        out.put((byte) id);
+        out.put((byte) dx);
+        out.put((byte) dy);
+        out.put((byte) dz);
+        out.put((byte) yaw);
+        out.put((byte) pitch);
+    }
+
+    public static void writePositionUpdate(ByteBuffer out, int id, int dx, int dy, int dz) {
+        out.put(PacketType.POSITION_UPDATE.opcode);
+        out.put((byte) id);
+        out.put((byte) dx);
+        out.put((byte) dy);
+        out.put((byte) dz);
+    }
+
+    public static void writeRotationUpdate(ByteBuffer out, int id, int yaw, int pitch) {
+        out.put(PacketType.ROTATION_UPDATE.opcode);
+        out.put((byte) id);
+        out.put((byte) yaw);
+        out.put((byte) pitch);
+    }
+
+    public static void writeDespawnPlayer(ByteBuffer out, int id) {
+        out.put(PacketType.DESPAWN_PLAYER.opcode);
+        out.put((byte) id);
+    }
+
+    public static void writeChatMessage(ByteBuffer out, int id, String message) {
+        out.put(PacketType.CHAT_MESSAGE.opcode);
+        out.put((byte) id);
+        writeString(out, message);
+    }
+
+    public static void writeDisconnect(ByteBuffer out, String reason) {
+        out.put(PacketType.DISCONNECT.opcode);
+        writeString(out, reason);
+    }
+
+    public static void writeUpdatePlayerType(ByteBuffer out, int userType) {
+        out.put(PacketType.UPDATE_PLAYER_TYPE.opcode);
+        out.put((byte) userType);
+    }
+
+    /** Write {@code s} as a 64-byte UTF-8 field, cut or padded with spaces. */
+    public static void writeString(ByteBuffer out, String s) {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        int n = Math.min(STRING_LENGTH, b.length);
+        out.put(b, 0, n);
+        for (int i = n; i < STRING_LENGTH; i++)
+            out.put((byte) ' ');
+    }
+}
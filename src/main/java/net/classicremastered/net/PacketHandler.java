@@ -0,0 +1,60 @@
+package net.classicremastered.net;
+
+/**
+ * Receives decoded packets from {@link PacketCodec}, one typed call per opcode with
+ * the fields as primitives. Every method defaults to ignoring the packet.
+ * <p>
+ * Positions are fixed-point (1/32 block) absolute or relative, angles are 1/256 of a
+ * turn, and player id -1 means the local player, as on the wire.
+ */
+public interface PacketHandler {
+
+    default void onIdentification(byte protocol, String name, String motd, byte userType) {
+    }
+
+    default void onPing() {
+    }
+
+    default void onLevelInit() {
+    }
+
+    /** {@code data} holds {@code length} valid bytes and is only valid during the call. */
+    default void onLevelData(short length, byte[] data, byte percent) {
+    }
+
+    default void onLevelFinalize(short width, short depth, short height) {
+    }
+
+    default void onSetBlock(short x, short y, short z, byte mode, byte block) {
+    }
+
+    default void onBlockChange(short x, short y, short z, byte block) {
+    }
+
+    default void onSpawnPlayer(byte id, String name, short x, short y, short z, byte yaw, byte pitch) {
+    }
+
+    default void onPositionRotation(byte id, short x, short y, short z, byte yaw, byte pitch) {
+    }
+
+    default void onPositionRotationUpdate(byte id, byte dx, byte dy, byte dz, byte yaw, byte pitch) {
+    }
+
+    default void onPositionUpdate(byte id, byte dx, byte dy, byte dz) {
+    }
+
+    default void onRotationUpdate(byte id, byte yaw, byte pitch) {
+    }
+
+    default void onDespawnPlayer(byte id) {
+    }
+
+    default void onChatMessage(byte id, String message) {
+    }
+
+    default void onDisconnect(String reason) {
+    }
+
+    default void onUpdatePlayerType(byte userType) {
+    }
+}
@@ -1,6 +1,7 @@
 package net.classicremastered.toolkit.mapedit3d;
 
 import net.classicremastered.minecraft.MovingObjectPosition;
+import net.classicremastered.minecraft.level.BlockEditBatch;
 import net.classicremastered.minecraft.level.Level;
 import net.classicremastered.minecraft.level.LevelIO;
 import net.classicremastered.minecraft.level.tile.Block;
@@ -210,6 +211,7 @@ public final class Classic3DMapEditorApp {
             int id = place ? selectedBlockId : 0;
             // 2D/3D + shape brush
             int r = Math.max(1, brushSize);
+            BlockEditBatch edits = new BlockEditBatch();
             if (mode2D) {
                 for (int dy=-r+1; dy<=r-1; dy++)
                     for (int dx=-r+1; dx<=r-1; dx++) {
@@ -219,15 +221,16 @@ public final class Classic3DMapEditorApp {
                         if (viewPlane==ViewPlane.YZ) { y=by+dy; z=bz+dx; }
                         if (!active.isInBounds(x,y,z)) continue;
                         if (brushRound && (dx*dx + dy*dy) > (r-1)*(r-1)) continue;
-                        active.setTile(x,y,z,id);
+                        edits.set(x,y,z,id);
                     }
             } else {
                 // 3D cube centered on (bx,by,bz)
                 for (int z=bz-r+1; z<=bz+r-1; z++)
                     for (int y=by-r+1; y<=by+r-1; y++)
                         for (int x=bx-r+1; x<=bx+r-1; x++)
-                            if (active.isInBounds(x,y,z)) active.setTile(x,y,z,id);
+                            if (active.isInBounds(x,y,z)) edits.set(x,y,z,id);
             }
+            active.applyEdits(edits);
             repaint();
         }
 
@@ -984,6 +987,7 @@ public final class Classic3DMapEditorApp {
         BufferedImage img = javax.imageio.ImageIO.read(in);
         int W = Math.min(img.getWidth(),  (viewPlane==ViewPlane.YZ)?active.depth:active.width);
         int H = Math.min(img.getHeight(), (viewPlane==ViewPlane.XZ)?active.depth:active.height);
+        BlockEditBatch edits = new BlockEditBatch(W * H);
         for (int y=0; y<H; y++) for (int x=0; x<W; x++) {
             int a = (img.getRGB(x,y) >>> 24) & 255;
             int id = (a==0) ? 0 : selectedBlockId;
@@ -993,8 +997,9 @@ public final class Classic3DMapEditorApp {
                 case XZ: ry=viewLayer; rz=active.depth-1-y; break;
                 case YZ: rx=viewLayer; rz=active.depth-1-x; break;
             }
-            if (active.isInBounds(rx,ry,rz)) active.setTile(rx,ry,rz,id);
+            if (active.isInBounds(rx,ry,rz)) edits.set(rx,ry,rz,id);
         }
+        active.applyEdits(edits);
         map2D.repaint();
     }
 
@@ -1004,14 +1009,16 @@ public final class Classic3DMapEditorApp {
         BufferedImage img = javax.imageio.ImageIO.read(in);
         int W = Math.min(img.getWidth(),  active.width);
         int D = Math.min(img.getHeight(), active.depth);
+        BlockEditBatch edits = new BlockEditBatch(W * D * active.height);
         for (int z=0; z<D; z++) for (int x=0; x<W; x++) {
             int rgb = img.getRGB(x,z);
             int gray = ((rgb>>16)&255 + (rgb>>8)&255 + (rgb&255)) / 3;
             int h = (int) Math.round((gray/255.0) * (active.height-1));
             for (int y=0; y<active.height; y++) {
-                active.setTile(x,y,z, y<=h ? selectedBlockId : 0);
+                edits.set(x,y,z, y<=h ? selectedBlockId : 0);
             }
         }
+        active.applyEdits(edits);
         map2D.repaint();
     }
     public void exportFullHDScreenshot(File out) throws Exception {
@@ -1134,6 +1141,7 @@ public final class Classic3DMapEditorApp {
         pz = Math.max(0, Math.min(active.depth  - 1, pz));
 
         int r = Math.max(1, brushSize);
+        BlockEditBatch edits = new BlockEditBatch();
 
         if (!mode2D) {
             // 3D cube brush
@@ -1143,7 +1151,8 @@ public final class Classic3DMapEditorApp {
             for (int y = y0; y <= y1; y++)
                 for (int z = z0; z <= z1; z++)
                     for (int x = x0; x <= x1; x++)
-                        active.setTile(x, y, z, place ? selectedBlockId : 0);
+                        edits.set(x, y, z, place ? selectedBlockId : 0);
+            active.applyEdits(edits);
             return;
         }
 
@@ -1158,7 +1167,7 @@ public final class Classic3DMapEditorApp {
                     for (int xx = x0; xx <= x1; xx++) {
                         int dx1 = xx - px, dz1 = zz - pz;
                         if (brushRound && (dx1*dx1 + dz1*dz1) > rr) continue;
-                        if (active.isInBounds(xx, y, zz)) active.setTile(xx, y, zz, place ? selectedBlockId : 0);
+                        if (active.isInBounds(xx, y, zz)) edits.set(xx, y, zz, place ? selectedBlockId : 0);
                     }
                 break;
             }
@@ -1171,7 +1180,7 @@ public final class Classic3DMapEditorApp {
                     for (int xx = x0; xx <= x1; xx++) {
                         int dx1 = xx - px, dy0 = yy - py;
                         if (brushRound && (dx1*dx1 + dy0*dy0) > rr) continue;
-                        if (active.isInBounds(xx, yy, z)) active.setTile(xx, yy, z, place ? selectedBlockId : 0);
+                        if (active.isInBounds(xx, yy, z)) edits.set(xx, yy, z, place ? selectedBlockId : 0);
                     }
                 break;
             }
@@ -1184,11 +1193,12 @@ public final class Classic3DMapEditorApp {
                     for (int zz = z0; zz <= z1; zz++) {
                         int dz1 = zz - pz, dy0 = yy - py;
                         if (brushRound && (dz1*dz1 + dy0*dy0) > rr) continue;
-                        if (active.isInBounds(x, yy, zz)) active.setTile(x, yy, zz, place ? selectedBlockId : 0);
+                        if (active.isInBounds(x, yy, zz)) edits.set(x, yy, zz, place ? selectedBlockId : 0);
                     }
                 break;
             }
         }
+        active.applyEdits(edits);
     }
 
 
@@ -5,8 +5,7 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.*;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -14,7 +13,10 @@ import java.util.List;
 import java.util.Set;
 import java.util.Collections;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import net.classicremastered.minecraft.level.Level;
+import net.classicremastered.minecraft.level.tile.Block;
 
 public final class ClassicServer {
     private static final int PORT = 25565;
@@ -23,8 +25,21 @@ public final class ClassicServer {
     private static final int DEPTH = 256;
     
     private final byte[] blocks = new byte[WIDTH * HEIGHT * DEPTH];
+    // join stream shared by all joiners; guarded, like 'blocks', by this server's monitor
+    private final LevelSnapshotCache snapshot = new LevelSnapshotCache(blocks, this);
     private final List<ClientHandler> clients = new ArrayList<>();
     private final boolean[] playerIdPool = new boolean[128]; // IDs 0-127
+    private NetworkCore network;
+
+    // --- simulation mode: a real Level, ticked at 20 TPS, owns 'blocks' ---
+    private final boolean simulate;
+    private final boolean headless;
+    private Level level;
+    private TickLoop tickLoop;
+    private final ConcurrentLinkedQueue<Runnable> tickTasks = new ConcurrentLinkedQueue<>();
+    // BLOCK_CHANGE packets produced this tick; tick thread only, under this server's monitor
+    private byte[] tickChanges = new byte[8 * 256];
+    private int tickChangesSize;
 
     private final Set<String> admins = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
     private final Set<String> bannedPlayers = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
@@ -79,16 +94,42 @@ public final class ClassicServer {
     private JList<String> playersList;
     private JTextField chatInputField;
 
+    /**
+     * Usage: {@code ClassicServer [nogui] [simulate]}. {@code nogui} runs without Swing,
+     * taking console commands on stdin; {@code simulate} hosts a real {@link Level}
+     * with block physics and mobs instead of a static block array.
+     */
     public static void main(String[] args) {
+        boolean nogui = false;
+        boolean simulate = false;
+        for (String arg : args) {
+            if (arg.equalsIgnoreCase("nogui"))
+                nogui = true;
+            else if (arg.equalsIgnoreCase("simulate"))
+                simulate = true;
+        }
+        if (nogui) {
+            ClassicServer server = new ClassicServer(simulate, true);
+            server.start();
+            server.readConsole();
+            return;
+        }
+        final boolean sim = simulate;
         SwingUtilities.invokeLater(() -> {
-            ClassicServer server = new ClassicServer();
+            ClassicServer server = new ClassicServer(sim, false);
             server.createAndShowGUI();
-            // Start server socket in a background thread
-            new Thread(server::start, "Server-Socket-Thread").start();
+            // Network loops run on their own threads
+            server.start();
         });
     }
 
     public ClassicServer() {
+        this(false, false);
+    }
+
+    public ClassicServer(boolean simulate, boolean headless) {
+        this.simulate = simulate;
+        this.headless = headless;
         loadConfig();
         // Generate a flat world:
         // Stone up to y = 30
@@ -111,6 +152,37 @@ public final class ClassicServer {
                 }
             }
         }
+
+        if (simulate) {
+            level = new Level();
+            level.setData(WIDTH, HEIGHT, DEPTH, blocks); // shares 'blocks', so joins see the live level
+            level.changeListener = this::levelChanged;
+            tickLoop = new TickLoop(new String[] { "input", "level", "entities", "broadcast" },
+                    new Runnable[] { this::runTickTasks, this::tickLevel, this::tickEntities, this::flushTickChanges },
+                    this::log);
+        }
+    }
+
+    // stdin console for nogui mode
+    private void readConsole() {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty())
+                    continue;
+                if (line.startsWith("/"))
+                    handleConsoleCommand(line);
+                else
+                    broadcastServerChat(line);
+            }
+        } catch (IOException e) {
+            log("[ClassicServer] Console closed: " + e.getMessage());
+        }
+        // stdin closed (e.g. started in the background): keep serving
+        try {
+            Thread.currentThread().join();
+        } catch (InterruptedException ignored) {}
     }
 
     private void createAndShowGUI() {
@@ -188,6 +260,7 @@ public final class ClassicServer {
 
     private void log(String message) {
         System.out.println(message);
+        if (headless) return;
         SwingUtilities.invokeLater(() -> {
             if (logArea != null) {
                 logArea.append(message + "\n");
@@ -197,6 +270,7 @@ public final class ClassicServer {
     }
 
     private void syncPlayersList() {
+        if (headless) return;
         SwingUtilities.invokeLater(() -> {
             if (playersListModel != null) {
                 playersListModel.clear();
@@ -210,26 +284,20 @@ public final class ClassicServer {
     }
 
     public void start() {
-        log("[ClassicServer] Starting Minecraft Classic Server on port " + PORT + "...");
-        try (ServerSocket serverSocket = new ServerSocket(PORT)) {
-            log("[ClassicServer] Bound to port " + PORT + ". Waiting for players...");
-            while (true) {
-                Socket socket = serverSocket.accept();
-                log("[ClassicServer] Incoming connection from " + socket.getRemoteSocketAddress());
-                
-                synchronized (clients) {
-                    int id = getNextPlayerId();
-                    if (id == -1) {
-                        log("[ClassicServer] Server is full! Rejecting client.");
-                        sendDisconnect(socket, "Server is full!");
-                        socket.close();
-                        continue;
-                    }
-                    playerIdPool[id] = true;
-                    ClientHandler handler = new ClientHandler(socket, (byte) id);
-                    clients.add(handler);
-                    handler.start();
-                }
+        start(PORT);
+    }
+
+    /** Bind {@code port} (0 = any free port) and serve from the selector loops. */
+    public void start(int port) {
+        log("[ClassicServer] Starting Minecraft Classic Server on port " + port + "...");
+        int loops = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        network = new NetworkCore(new NetListener(), loops);
+        try {
+            network.start(port);
+            log("[ClassicServer] Bound to port " + network.getPort() + " (" + loops + " network loops). Waiting for players...");
+            if (tickLoop != null) {
+                tickLoop.start();
+                log("[ClassicServer] Simulating the level at " + TickLoop.TPS + " TPS.");
             }
         } catch (IOException e) {
             log("[ClassicServer] Server encountered an error: " + e.getMessage());
@@ -237,6 +305,56 @@ public final class ClassicServer {
         }
     }
 
+    public void stop() {
+        if (network != null)
+            network.stop();
+        if (tickLoop != null)
+            tickLoop.stop();
+    }
+
+    /** TPS, MSPT and per-phase tick times, or null when not simulating. */
+    public String getTickStats() {
+        return tickLoop != null ? tickLoop.getStats() : null;
+    }
+
+    public int getPort() {
+        return network != null ? network.getPort() : -1;
+    }
+
+    /** Routes network events to the per-player handlers. Runs on the network loops. */
+    private final class NetListener implements NetworkCore.Listener {
+        @Override
+        public void connected(Connection c) {
+            log("[ClassicServer] Incoming connection from " + c.getRemoteAddress());
+            synchronized (clients) {
+                int id = getNextPlayerId();
+                if (id == -1) {
+                    log("[ClassicServer] Server is full! Rejecting client.");
+                    sendDisconnect(c, "Server is full!");
+                    return;
+                }
+                playerIdPool[id] = true;
+                ClientHandler handler = new ClientHandler(c, (byte) id);
+                c.attachment = handler;
+                clients.add(handler);
+            }
+        }
+
+        @Override
+        public void packet(Connection c, int opcode, ByteBuffer payload) {
+            ClientHandler handler = (ClientHandler) c.attachment;
+            if (handler != null)
+                handler.handlePacket(opcode, payload);
+        }
+
+        @Override
+        public void disconnected(Connection c, String reason) {
+            ClientHandler handler = (ClientHandler) c.attachment;
+            if (handler != null)
+                handler.disconnect();
+        }
+    }
+
     private int getNextPlayerId() {
         for (int i = 0; i < playerIdPool.length; i++) {
             if (!playerIdPool[i]) return i;
@@ -250,14 +368,16 @@ public final class ClassicServer {
         }
     }
 
-    private void sendDisconnect(Socket s, String reason) {
-        if (s == null) return;
+    /** Queue a DISCONNECT packet and close once it has been written. */
+    private void sendDisconnect(Connection c, String reason) {
+        if (c == null) return;
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
         try {
-            OutputStream out = s.getOutputStream();
-            out.write(14); // Disconnect opcode
-            writeString(out, reason);
-            out.flush();
+            baos.write(14); // Disconnect opcode
+            writeString(baos, reason);
         } catch (IOException ignored) {}
+        c.send(baos.toByteArray());
+        c.closeAfterFlush(reason);
     }
 
     // Packet serialization helper
@@ -269,14 +389,9 @@ public final class ClassicServer {
         out.write(padded);
     }
 
-    private static String readString(InputStream in) throws IOException {
+    private static String readString(ByteBuffer in) {
         byte[] bytes = new byte[64];
-        int read = 0;
-        while (read < 64) {
-            int r = in.read(bytes, read, 64 - read);
-            if (r == -1) throw new EOFException();
-            read += r;
-        }
+        in.get(bytes);
         return new String(bytes, StandardCharsets.UTF_8).trim();
     }
 
@@ -285,13 +400,6 @@ public final class ClassicServer {
         out.write(val & 0xFF);
     }
 
-    private static short readShort(InputStream in) throws IOException {
-        int b1 = in.read();
-        int b2 = in.read();
-        if ((b1 | b2) < 0) throw new EOFException();
-        return (short) ((b1 << 8) + b2);
-    }
-
     private static void writeInt(OutputStream out, int val) throws IOException {
         out.write((val >>> 24) & 0xFF);
         out.write((val >>> 16) & 0xFF);
@@ -303,9 +411,87 @@ public final class ClassicServer {
         if (x >= 0 && x < WIDTH && y >= 0 && y < HEIGHT && z >= 0 && z < DEPTH) {
             int index = (y * DEPTH + z) * WIDTH + x;
             blocks[index] = blockType;
+            snapshot.recordChange(x, y, z, blockType);
+        }
+    }
+
+    // --- simulation tick phases, all on the tick thread ---
+
+    private void runTickTasks() {
+        synchronized (this) {
+            Runnable r;
+            while ((r = tickTasks.poll()) != null) {
+                r.run();
+            }
         }
     }
 
+    private void tickLevel() {
+        synchronized (this) {
+            level.tick();
+        }
+    }
+
+    private void tickEntities() {
+        synchronized (this) {
+            level.tickEntities();
+        }
+    }
+
+    // Send everything the level wrote this tick as one batch of BLOCK_CHANGE packets.
+    private void flushTickChanges() {
+        byte[] batch;
+        synchronized (this) {
+            if (tickChangesSize == 0)
+                return;
+            batch = Arrays.copyOf(tickChanges, tickChangesSize);
+            tickChangesSize = 0;
+        }
+        broadcast(batch);
+    }
+
+    // Level.changeListener; called under this server's monitor by the phases above
+    private void levelChanged(int x, int y, int z, int id) {
+        snapshot.recordChange(x, y, z, (byte) id);
+        if (tickChangesSize + 8 > tickChanges.length)
+            tickChanges = Arrays.copyOf(tickChanges, tickChanges.length * 2);
+        writeBlockChange(tickChanges, tickChangesSize, x, y, z, (byte) id);
+        tickChangesSize += 8;
+    }
+
+    // A player's edit, applied with full block physics. The client already shows its
+    // own edit; if the level refuses it, tell the client what is really there.
+    private void applyPlayerEdit(ClientHandler from, int x, int y, int z, byte block) {
+        int id = block & 0xFF;
+        boolean valid = id == 0 || (id < Block.blocks.length && Block.blocks[id] != null);
+        if (valid && level.setTile(x, y, z, id)) {
+            if (id != 0)
+                Block.blocks[id].onPlace(level, x, y, z); // as the client does: starts liquids, drops sand
+            return; // reaches everyone, the editor included, with this tick's changes
+        }
+        if (level.isInBounds(x, y, z)) {
+            byte[] fix = new byte[8];
+            writeBlockChange(fix, 0, x, y, z, (byte) level.getTile(x, y, z));
+            from.sendPacket(fix);
+        }
+    }
+
+    private static void writeBlockChange(byte[] p, int o, int x, int y, int z, byte block) {
+        p[o] = 6; // Block change opcode
+        p[o + 1] = (byte) (x >> 8);
+        p[o + 2] = (byte) x;
+        p[o + 3] = (byte) (y >> 8);
+        p[o + 4] = (byte) y;
+        p[o + 5] = (byte) (z >> 8);
+        p[o + 6] = (byte) z;
+        p[o + 7] = block;
+    }
+
+    /** Level snapshot rebuild count and cost. */
+    public String getSnapshotStats() {
+        return snapshot.getStats();
+    }
+
     private void broadcast(byte[] packet) {
         synchronized (clients) {
             for (ClientHandler client : clients) {
@@ -343,9 +529,21 @@ public final class ClassicServer {
         String cmd = parts[0].substring(1).toLowerCase();
         
         if (cmd.equals("help")) {
-            log("[Console] Available commands: /help, /kick, /ban, /mute, /unmute, /admin, /deadmin, /spawnfake, /removefake");
+            log("[Console] Available commands: /help, /kick, /ban, /mute, /unmute, /admin, /deadmin, /spawnfake, /removefake, /tps, /stop");
             return;
         }
+
+        if (cmd.equals("tps")) {
+            String stats = getTickStats();
+            log("[Console] " + (stats != null ? stats : "Not simulating; start with 'simulate' for tick stats."));
+            return;
+        }
+
+        if (cmd.equals("stop")) {
+            log("[Console] Stopping server.");
+            stop();
+            System.exit(0);
+        }
         
         if (cmd.equals("kick")) {
             if (parts.length < 2) {
@@ -358,7 +556,7 @@ public final class ClassicServer {
             if (target == null) {
                 log("[Console] Player not found: " + targetName);
             } else {
-                sendDisconnect(target.socket, reason);
+                sendDisconnect(target.conn, reason);
                 target.disconnect();
                 broadcastServerChat("&e" + target.username + " was kicked: " + reason);
             }
@@ -375,7 +573,7 @@ public final class ClassicServer {
             
             ClientHandler target = findClient(targetName);
             if (target != null) {
-                sendDisconnect(target.socket, "Banned: " + reason);
+                sendDisconnect(target.conn, "Banned: " + reason);
                 target.disconnect();
             }
             broadcastServerChat("&e" + targetName + " was banned: " + reason);
@@ -488,7 +686,7 @@ public final class ClassicServer {
 
     private void removeFakePlayer(String name) {
         ClientHandler fake = findClient(name);
-        if (fake == null || fake.socket != null) {
+        if (fake == null || fake.conn != null) {
             log("[ClassicServer] Fake player not found: " + name);
             return;
         }
@@ -496,25 +694,24 @@ public final class ClassicServer {
         fake.disconnect();
     }
 
-    private class ClientHandler extends Thread {
-        private final Socket socket;
+    /** Per-player state; packets arrive on the connection's network loop. */
+    private class ClientHandler {
+        private final Connection conn;
         private final byte playerId;
-        private String username = "Player";
-        private boolean connected = true;
-        
-        private InputStream in;
-        private OutputStream out;
+        private volatile String username = "Player";
+        private volatile boolean connected = true;
+        private volatile boolean ready; // level sent, may receive broadcasts
 
         private short px, py, pz;
         private byte pyaw, ppitch;
 
-        public ClientHandler(Socket socket, byte playerId) {
-            this.socket = socket;
+        public ClientHandler(Connection conn, byte playerId) {
+            this.conn = conn;
             this.playerId = playerId;
         }
 
         public ClientHandler(String username, byte playerId) {
-            this.socket = null;
+            this.conn = null;
             this.playerId = playerId;
             this.username = username;
             this.connected = true;
@@ -525,30 +722,27 @@ public final class ClassicServer {
             this.ppitch = 0;
         }
 
-        public synchronized void sendPacket(byte[] packet) {
-            if (!connected || socket == null || out == null) return;
-            try {
-                out.write(packet);
-                out.flush();
-            } catch (IOException e) {
-                log("[ClassicServer] Failed to send packet to " + username + ": " + e.getMessage());
-                disconnect();
-            }
+        /** Queue a packet; never blocks. Slow clients are dropped by the connection. */
+        public void sendPacket(byte[] packet) {
+            if (!ready || conn == null) return;
+            conn.send(packet);
         }
 
         private void disconnect() {
-            if (!connected) return;
-            connected = false;
-            try {
-                if (socket != null) socket.close();
-            } catch (IOException ignored) {}
-            
+            synchronized (this) {
+                if (!connected) return;
+                connected = false;
+            }
+            ready = false;
+            if (conn != null) conn.closeAfterFlush("Disconnected");
+
             synchronized (clients) {
                 clients.remove(this);
                 releasePlayerId(playerId);
             }
 
-            log("[ClassicServer] " + username + " disconnected.");
+            String reason = conn != null && conn.closeReason != null ? " (" + conn.closeReason + ")" : "";
+            log("[ClassicServer] " + username + " disconnected." + reason);
             syncPlayersList();
             
             // Broadcast despawn packet
@@ -571,229 +765,219 @@ public final class ClassicServer {
             } catch (IOException ignored) {}
         }
 
-        @Override
-        public void run() {
+        /** One framed packet from the client; {@code in} holds exactly its fields. */
+        void handlePacket(int op, ByteBuffer in) {
+            if (!connected) return;
             try {
-                in = socket.getInputStream();
-                out = socket.getOutputStream();
-
-                // 1) Read IDENTIFICATION from client
-                int opcode = in.read();
-                if (opcode != 0) {
-                    log("[ClassicServer] Unexpected opcode: " + opcode + ". Disconnecting client.");
-                    disconnect();
-                    return;
-                }
-                int protocolVer = in.read();
-                username = readString(in);
-                String verificationKey = readString(in);
-                int clientType = in.read();
-
-                log("[ClassicServer] Client username: " + username + " (Protocol version: " + protocolVer + ")");
-                
-                if (bannedPlayers.contains(username.toLowerCase())) {
-                    log("[ClassicServer] Banned player " + username + " tried to connect. Rejecting.");
-                    sendDisconnect(socket, "You are banned!");
-                    disconnect();
-                    return;
-                }
-
-                synchronized (admins) {
-                    if (admins.isEmpty()) {
-                        admins.add(username.toLowerCase());
-                        saveSetToFile("admins.txt", admins);
-                        log("[ClassicServer] admins.txt was empty. Auto-promoted " + username + " to admin.");
-                    }
-                }
-
-                syncPlayersList();
-
-                // 2) Write IDENTIFICATION back to client
-                out.write(0); // identification opcode
-                out.write(7); // protocol version
-                writeString(out, "Classic Remastered Server");
-                writeString(out, "Direct Multiplayer Connect Host");
-                out.write(0x00); // UserType: normal player
-                out.flush();
-
-                // 3) Send Level Initialization
-                out.write(2); // Level init opcode
-                out.flush();
-
-                // 4) GZIP compress the level blocks
-                ByteArrayOutputStream levelBytes = new ByteArrayOutputStream();
-                try (GZIPOutputStream gzos = new GZIPOutputStream(levelBytes);
-                     DataOutputStream dos = new DataOutputStream(gzos)) {
-                    dos.writeInt(blocks.length);
-                    dos.write(blocks);
-                }
-                byte[] compressedLevel = levelBytes.toByteArray();
-
-                // Stream level chunks
-                int offset = 0;
-                while (offset < compressedLevel.length) {
-                    int length = Math.min(1024, compressedLevel.length - offset);
-                    out.write(3); // Level data opcode
-                    writeShort(out, (short) length);
-                    
-                    byte[] chunk = new byte[1024];
-                    System.arraycopy(compressedLevel, offset, chunk, 0, length);
-                    out.write(chunk);
-
-                    offset += length;
-                    int percent = (int) (((long) offset * 100) / compressedLevel.length);
-                    out.write((byte) percent);
-                    out.flush();
-                }
-
-                // 5) Finalize Level
-                out.write(4); // Level finalize opcode
-                writeShort(out, (short) WIDTH);
-                writeShort(out, (short) HEIGHT);
-                writeShort(out, (short) DEPTH);
-                out.flush();
-
-                // 6) Spawn player locally
-                px = (short) (128 * 32);
-                py = (short) (33.625 * 32);
-                pz = (short) (128 * 32);
-                pyaw = 0;
-                ppitch = 0;
-
-                // Send self-spawn packet (id -1 tells the client its own spawn point)
-                ByteArrayOutputStream selfSpawn = new ByteArrayOutputStream();
-                selfSpawn.write(7); // Spawn opcode
-                selfSpawn.write(-1); // ID -1 for self spawn
-                writeString(selfSpawn, username);
-                writeShort(selfSpawn, px);
-                writeShort(selfSpawn, py);
-                writeShort(selfSpawn, pz);
-                selfSpawn.write(pyaw);
-                selfSpawn.write(ppitch);
-                sendPacket(selfSpawn.toByteArray());
-
-                // Broadcast spawn packet of new player to all existing clients
-                ByteArrayOutputStream newPlayerSpawn = new ByteArrayOutputStream();
-                newPlayerSpawn.write(7);
-                newPlayerSpawn.write(playerId);
-                writeString(newPlayerSpawn, username);
-                writeShort(newPlayerSpawn, px);
-                writeShort(newPlayerSpawn, py);
-                writeShort(newPlayerSpawn, pz);
-                newPlayerSpawn.write(pyaw);
-                newPlayerSpawn.write(ppitch);
-                broadcastExclude(newPlayerSpawn.toByteArray(), playerId);
-
-                // Send existing player spawns to the new player
-                synchronized (clients) {
-                    for (ClientHandler other : clients) {
-                        if (other.playerId != this.playerId) {
-                            ByteArrayOutputStream otherSpawn = new ByteArrayOutputStream();
-                            otherSpawn.write(7);
-                            otherSpawn.write(other.playerId);
-                            writeString(otherSpawn, other.username);
-                            writeShort(otherSpawn, other.px);
-                            writeShort(otherSpawn, other.py);
-                            writeShort(otherSpawn, other.pz);
-                            otherSpawn.write(other.pyaw);
-                            otherSpawn.write(other.ppitch);
-                            sendPacket(otherSpawn.toByteArray());
-                        }
+                if (!ready) {
+                    if (op != 0) {
+                        log("[ClassicServer] Unexpected opcode: " + op + ". Disconnecting client.");
+                        disconnect();
+                        return;
                     }
+                    join(in);
+                    return;
                 }
-
-                // Announcement Chat
-                sendGlobalChat("&e" + username + " joined the game.");
-
-                // 7) Read incoming packets
-                while (connected) {
-                    int op = in.read();
-                    if (op == -1) break; // EOF
-
-                    switch (op) {
-                        case 5: { // PLAYER_SET_BLOCK
-                            short bx = readShort(in);
-                            short by = readShort(in);
-                            short bz = readShort(in);
-                            byte mode = (byte) in.read();
-                            byte blockType = (byte) in.read();
-                            
-                            byte finalBlock = (mode == 0) ? (byte) 0 : blockType;
-                            updateBlock(bx, by, bz, finalBlock);
-
-                            // Broadcast BLOCK_CHANGE
-                            ByteArrayOutputStream blockChange = new ByteArrayOutputStream();
-                            blockChange.write(6); // Block change opcode
-                            writeShort(blockChange, bx);
-                            writeShort(blockChange, by);
-                            writeShort(blockChange, bz);
-                            blockChange.write(finalBlock);
-                            broadcast(blockChange.toByteArray());
-                            break;
-                        }
-                        case 8: { // POSITION_ROTATION
-                            byte id = (byte) in.read(); // will be -1
-                            short cx = readShort(in);
-                            short cy = readShort(in);
-                            short cz = readShort(in);
-                            byte cyaw = (byte) in.read();
-                            byte cpitch = (byte) in.read();
-
-                            px = cx;
-                            py = cy;
-                            pz = cz;
-                            pyaw = cyaw;
-                            ppitch = cpitch;
-
-                            // Re-broadcast position rotation to others under this client's real id
-                            ByteArrayOutputStream posUpdate = new ByteArrayOutputStream();
-                            posUpdate.write(8);
-                            posUpdate.write(playerId);
-                            writeShort(posUpdate, cx);
-                            writeShort(posUpdate, cy);
-                            writeShort(posUpdate, cz);
-                            posUpdate.write(cyaw);
-                            posUpdate.write(cpitch);
-                            broadcastExclude(posUpdate.toByteArray(), playerId);
+                switch (op) {
+                    case 5: { // PLAYER_SET_BLOCK
+                        short bx = in.getShort();
+                        short by = in.getShort();
+                        short bz = in.getShort();
+                        byte mode = in.get();
+                        byte blockType = in.get();
+                        
+                        byte finalBlock = (mode == 0) ? (byte) 0 : blockType;
+                        if (simulate) {
+                            tickTasks.add(() -> applyPlayerEdit(this, bx, by, bz, finalBlock));
                             break;
                         }
-                        case 13: { // CHAT_MESSAGE
-                            byte id = (byte) in.read(); // will be -1
-                            String msg = readString(in);
-
-                            if (msg.startsWith("/")) {
-                                handleCommand(msg);
+                        updateBlock(bx, by, bz, finalBlock);
+
+                        // Broadcast BLOCK_CHANGE
+                        ByteArrayOutputStream blockChange = new ByteArrayOutputStream();
+                        blockChange.write(6); // Block change opcode
+                        writeShort(blockChange, bx);
+                        writeShort(blockChange, by);
+                        writeShort(blockChange, bz);
+                        blockChange.write(finalBlock);
+                        broadcast(blockChange.toByteArray());
+                        break;
+                    }
+                    case 8: { // POSITION_ROTATION
+                        byte id = in.get(); // will be -1
+                        short cx = in.getShort();
+                        short cy = in.getShort();
+                        short cz = in.getShort();
+                        byte cyaw = in.get();
+                        byte cpitch = in.get();
+
+                        px = cx;
+                        py = cy;
+                        pz = cz;
+                        pyaw = cyaw;
+                        ppitch = cpitch;
+
+                        // Re-broadcast position rotation to others under this client's real id
+                        ByteArrayOutputStream posUpdate = new ByteArrayOutputStream();
+                        posUpdate.write(8);
+                        posUpdate.write(playerId);
+                        writeShort(posUpdate, cx);
+                        writeShort(posUpdate, cy);
+                        writeShort(posUpdate, cz);
+                        posUpdate.write(cyaw);
+                        posUpdate.write(cpitch);
+                        broadcastExclude(posUpdate.toByteArray(), playerId);
+                        break;
+                    }
+                    case 13: { // CHAT_MESSAGE
+                        byte id = in.get(); // will be -1
+                        String msg = readString(in);
+
+                        if (msg.startsWith("/")) {
+                            handleCommand(msg);
+                        } else {
+                            if (mutedPlayers.contains(username.toLowerCase())) {
+                                sendSystemMessage("&cYou are muted and cannot chat.");
                             } else {
-                                if (mutedPlayers.contains(username.toLowerCase())) {
-                                    sendSystemMessage("&cYou are muted and cannot chat.");
-                                } else {
-                                    // Formatted message
-                                    String formatted = "<" + username + "> " + msg;
-                                    log("[Chat] " + formatted);
-
-                                    ByteArrayOutputStream chatMsg = new ByteArrayOutputStream();
-                                    chatMsg.write(13);
-                                    chatMsg.write(playerId);
-                                    writeString(chatMsg, formatted);
-                                    broadcast(chatMsg.toByteArray());
-                                }
+                                // Formatted message
+                                String formatted = "<" + username + "> " + msg;
+                                log("[Chat] " + formatted);
+
+                                ByteArrayOutputStream chatMsg = new ByteArrayOutputStream();
+                                chatMsg.write(13);
+                                chatMsg.write(playerId);
+                                writeString(chatMsg, formatted);
+                                broadcast(chatMsg.toByteArray());
                             }
-                            break;
                         }
-                        default:
-                            // Unknown packet, skip matching bytes or disconnect
-                            log("[ClassicServer] Unknown client opcode: " + op + ". Disconnecting.");
-                            disconnect();
-                            return;
+                        break;
                     }
+                    default:
+                        // Unknown packet, skip matching bytes or disconnect
+                        log("[ClassicServer] Unknown client opcode: " + op + ". Disconnecting.");
+                        disconnect();
                 }
             } catch (IOException e) {
                 log("[ClassicServer] Handler error for " + username + ": " + e.getMessage());
-            } finally {
                 disconnect();
             }
         }
 
+        // IDENTIFICATION received: send the level, spawn everyone, then go live.
+        private void join(ByteBuffer in) throws IOException {
+            int protocolVer = in.get();
+            username = readString(in);
+            String verificationKey = readString(in);
+            int clientType = in.get();
+
+            log("[ClassicServer] Client username: " + username + " (Protocol version: " + protocolVer + ")");
+            
+            if (bannedPlayers.contains(username.toLowerCase())) {
+                log("[ClassicServer] Banned player " + username + " tried to connect. Rejecting.");
+                sendDisconnect(conn, "You are banned!");
+                disconnect();
+                return;
+            }
+
+            synchronized (admins) {
+                if (admins.isEmpty()) {
+                    admins.add(username.toLowerCase());
+                    saveSetToFile("admins.txt", admins);
+                    log("[ClassicServer] admins.txt was empty. Auto-promoted " + username + " to admin.");
+                }
+            }
+
+            syncPlayersList();
+
+            ByteArrayOutputStream head = new ByteArrayOutputStream();
+
+            // 1) IDENTIFICATION back to client
+            head.write(0); // identification opcode
+            head.write(7); // protocol version
+            writeString(head, "Classic Remastered Server");
+            writeString(head, "Direct Multiplayer Connect Host");
+            head.write(0x00); // UserType: normal player
+
+            // 2) Level Initialization
+            head.write(2); // Level init opcode
+
+            // 3) Level data comes pre-framed from the shared snapshot
+
+            // 4) Finalize Level
+            ByteArrayOutputStream tail = new ByteArrayOutputStream();
+            tail.write(4); // Level finalize opcode
+            writeShort(tail, (short) WIDTH);
+            writeShort(tail, (short) HEIGHT);
+            writeShort(tail, (short) DEPTH);
+
+            // 5) Spawn player locally
+            px = (short) (128 * 32);
+            py = (short) (33.625 * 32);
+            pz = (short) (128 * 32);
+            pyaw = 0;
+            ppitch = 0;
+
+            // Self-spawn packet (id -1 tells the client its own spawn point)
+            tail.write(7); // Spawn opcode
+            tail.write(-1); // ID -1 for self spawn
+            writeString(tail, username);
+            writeShort(tail, px);
+            writeShort(tail, py);
+            writeShort(tail, pz);
+            tail.write(pyaw);
+            tail.write(ppitch);
+
+            // Queue the stream and go live in one hold of the level lock: edits before
+            // it are in the snapshot's patch, edits after it reach us as broadcasts.
+            while (true) {
+                snapshot.refresh();
+                synchronized (ClassicServer.this) {
+                    ByteBuffer[] level = snapshot.capture();
+                    if (level == null)
+                        continue; // dropped by a burst of edits, rebuild
+                    conn.send(head.toByteArray());
+                    conn.send(level[0]);
+                    conn.send(level[1]);
+                    conn.send(tail.toByteArray());
+                    ready = true;
+                    break;
+                }
+            }
+
+            // Broadcast spawn packet of new player to all existing clients
+            ByteArrayOutputStream newPlayerSpawn = new ByteArrayOutputStream();
+            newPlayerSpawn.write(7);
+            newPlayerSpawn.write(playerId);
+            writeString(newPlayerSpawn, username);
+            writeShort(newPlayerSpawn, px);
+            writeShort(newPlayerSpawn, py);
+            writeShort(newPlayerSpawn, pz);
+            newPlayerSpawn.write(pyaw);
+            newPlayerSpawn.write(ppitch);
+            broadcastExclude(newPlayerSpawn.toByteArray(), playerId);
+
+            // Send existing player spawns to the new player
+            synchronized (clients) {
+                for (ClientHandler other : clients) {
+                    if (other.playerId != this.playerId && (other.ready || other.conn == null)) {
+                        ByteArrayOutputStream otherSpawn = new ByteArrayOutputStream();
+                        otherSpawn.write(7);
+                        otherSpawn.write(other.playerId);
+                        writeString(otherSpawn, other.username);
+                        writeShort(otherSpawn, other.px);
+                        writeShort(otherSpawn, other.py);
+                        writeShort(otherSpawn, other.pz);
+                        otherSpawn.write(other.pyaw);
+                        otherSpawn.write(other.ppitch);
+                        sendPacket(otherSpawn.toByteArray());
+                    }
+                }
+            }
+
+            // Announcement Chat
+            sendGlobalChat("&e" + username + " joined the game.");
+        }
+
         private void sendSystemMessage(String msg) {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
             try {
@@ -812,7 +996,7 @@ public final class ClassicServer {
             
             // Common non-admin commands:
             if (cmd.equals("help")) {
-                sendSystemMessage("&eAvailable commands: /help, /msg, /me");
+                sendSystemMessage("&eAvailable commands: /help, /msg, /me, /tps");
                 if (admins.contains(username.toLowerCase())) {
                     sendSystemMessage("&cAdmin commands: /kick, /ban, /mute, /unmute, /admin, /deadmin, /spawnfake, /removefake");
                 }
@@ -834,6 +1018,14 @@ public final class ClassicServer {
                 }
                 return;
             }
+            if (cmd.equals("tps")) {
+                if (tickLoop == null) {
+                    sendSystemMessage("&eThis server does not simulate the level.");
+                } else {
+                    sendSystemMessage(String.format("&eTPS %.1f, MSPT %.2f", tickLoop.getTps(), tickLoop.getMspt()));
+                }
+                return;
+            }
             if (cmd.equals("me")) {
                 if (parts.length < 2) {
                     sendSystemMessage("&cUsage: /me <action>");
@@ -862,7 +1054,7 @@ public final class ClassicServer {
                 if (target == null) {
                     sendSystemMessage("&cPlayer not found: " + targetName);
                 } else {
-                    sendDisconnect(target.socket, reason);
+                    sendDisconnect(target.conn, reason);
                     target.disconnect();
                     sendGlobalChat("&e" + target.username + " was kicked: " + reason);
                 }
@@ -879,7 +1071,7 @@ public final class ClassicServer {
                 
                 ClientHandler target = findClient(targetName);
                 if (target != null) {
-                    sendDisconnect(target.socket, "Banned: " + reason);
+                    sendDisconnect(target.conn, "Banned: " + reason);
                     target.disconnect();
                 }
                 sendGlobalChat("&e" + targetName + " was banned: " + reason);
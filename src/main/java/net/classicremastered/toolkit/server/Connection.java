@@ -0,0 +1,175 @@
+package net.classicremastered.toolkit.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import net.classicremastered.minecraft.net.PacketType;
+
+/**
+ * One client socket on a {@link NetworkCore} event loop.
+ * <p>
+ * Inbound bytes are framed by {@link PacketType#length}; outbound packets are queued
+ * from any thread and written by the loop with gathering writes. A client that lets
+ * more than {@link #MAX_QUEUED_BYTES} pile up, or takes nothing for
+ * {@link #STALL_MILLIS} while data is waiting, is dropped as a slow consumer instead
+ * of holding everyone else up.
+ */
+public final class Connection {
+
+    /** Outbound bytes allowed in flight; a full join stream is well under this. */
+    public static final int MAX_QUEUED_BYTES = 8 << 20;
+    /** How long queued data may sit without the socket accepting a byte. */
+    public static final long STALL_MILLIS = 10_000L;
+    private static final int MAX_GATHER = 64;
+
+    final SocketChannel channel;
+    final NetworkCore.Loop loop;
+    SelectionKey key;
+    final ByteBuffer in = ByteBuffer.allocate(4096);
+
+    private final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+    private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+    private int queuedBytes;
+    private long lastProgress = System.nanoTime(); // last write that moved bytes, or empty queue
+    private boolean flushScheduled;
+    private boolean closeWhenFlushed;
+    private volatile boolean closed;
+    String closeReason;
+    boolean finished; // loop thread only: socket closed and listener told
+
+    /** Owner state, e.g. the server's per-player handler. */
+    public volatile Object attachment;
+
+    Connection(SocketChannel channel, NetworkCore.Loop loop) {
+        this.channel = channel;
+        this.loop = loop;
+    }
+
+    /** Queue a framed packet. Returns false if the connection is closed or was just dropped. */
+    public boolean send(byte[] packet) {
+        return send(ByteBuffer.wrap(packet));
+    }
+
+    /** Queue {@code packet} as-is; it is consumed, so never hand the same buffer to two connections. */
+    public boolean send(ByteBuffer packet) {
+        synchronized (out) {
+            if (closed || closeWhenFlushed)
+                return false;
+            boolean stalled = !out.isEmpty() && System.nanoTime() - lastProgress > STALL_MILLIS * 1_000_000L;
+            if (!stalled && queuedBytes + packet.remaining() <= MAX_QUEUED_BYTES) {
+                if (out.isEmpty())
+                    lastProgress = System.nanoTime();
+                out.add(packet);
+                queuedBytes += packet.remaining();
+                if (!flushScheduled) {
+                    flushScheduled = true;
+                    loop.scheduleFlush(this);
+                }
+                return true;
+            }
+        }
+        close("Slow consumer");
+        return false;
+    }
+
+    /** Close once everything already queued has been written (e.g. after a disconnect packet). */
+    public void closeAfterFlush(String reason) {
+        synchronized (out) {
+            if (closed || closeWhenFlushed)
+                return;
+            closeWhenFlushed = true;
+            closeReason = reason;
+            if (!flushScheduled) {
+                flushScheduled = true;
+                loop.scheduleFlush(this);
+            }
+        }
+    }
+
+    /** Drop the connection now, discarding anything still queued. */
+    public void close(String reason) {
+        if (markClosed(reason))
+            loop.execute(() -> loop.closeNow(this));
+    }
+
+    boolean markClosed(String reason) {
+        synchronized (out) {
+            if (closed)
+                return false;
+            closed = true;
+            if (closeReason == null)
+                closeReason = reason;
+            out.clear();
+            queuedBytes = 0;
+            return true;
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public int getQueuedBytes() {
+        synchronized (out) {
+            return queuedBytes;
+        }
+    }
+
+    public String getRemoteAddress() {
+        try {
+            return String.valueOf(channel.getRemoteAddress());
+        } catch (IOException e) {
+            return "?";
+        }
+    }
+
+    // --- loop side ---
+
+    static final int DRAINED = 0, BLOCKED = 1, CLOSE = 2;
+
+    /**
+     * Write as much as the socket takes. DRAINED: queue empty; BLOCKED: socket full,
+     * wait for OP_WRITE; CLOSE: the connection should be closed now.
+     */
+    int flush() throws IOException {
+        while (true) {
+            int n = 0;
+            long total = 0;
+            synchronized (out) {
+                if (closed)
+                    return CLOSE;
+                for (ByteBuffer b : out) {
+                    gather[n++] = b;
+                    total += b.remaining();
+                    if (n == MAX_GATHER)
+                        break;
+                }
+                if (n == 0) {
+                    flushScheduled = false;
+                    if (closeWhenFlushed) {
+                        closed = true;
+                        return CLOSE;
+                    }
+                    return DRAINED;
+                }
+            }
+            long written = channel.write(gather, 0, n);
+            Arrays.fill(gather, 0, n, null);
+            synchronized (out) {
+                if (closed)
+                    return CLOSE;
+                queuedBytes -= (int) written;
+                if (written > 0)
+                    lastProgress = System.nanoTime();
+                while (!out.isEmpty() && !out.peek().hasRemaining())
+                    out.poll();
+            }
+            if (written < total)
+                return BLOCKED; // flushScheduled stays set until the socket drains
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package net.classicremastered.toolkit.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Shared, pre-framed join stream for {@link ClassicServer}.
+ * <p>
+ * Holds the level as ready-to-send LEVEL_DATA packets (gzip, 1024-byte chunks) plus
+ * a patch log of BLOCK_CHANGE packets for edits made since the snapshot was taken.
+ * Joiners get both as read-only views of shared arrays, so a join copies nothing.
+ * Past {@link #MAX_PATCH} edits the snapshot is dropped and the next joiner rebuilds
+ * it, outside the level lock and only once however many players join together.
+ * <p>
+ * {@link #recordChange} and {@link #capture} must be called under the level lock
+ * that guards the block array.
+ */
+final class LevelSnapshotCache {
+
+    /** Block changes patched onto a snapshot before it is dropped. */
+    static final int MAX_PATCH = 4096;
+    private static final int CHANGE_SIZE = 8; // BLOCK_CHANGE: opcode + 3 shorts + block
+
+    private final byte[] blocks;
+    private final Object levelLock;
+
+    // guarded by levelLock; patch bytes below patchSize never change once written
+    private byte[] framed; // LEVEL_DATA packets of the snapshot, null = none
+    private boolean building; // blocks copied, snapshot not yet installed
+    private byte[] patch = new byte[CHANGE_SIZE * 256];
+    private int patchSize;
+
+    private final Object buildLock = new Object();
+    private int builds;
+    private long buildNanos;
+
+    LevelSnapshotCache(byte[] blocks, Object levelLock) {
+        this.blocks = blocks;
+        this.levelLock = levelLock;
+    }
+
+    /** Note a block change that has just been applied to the level. */
+    void recordChange(int x, int y, int z, byte block) {
+        if (framed == null && !building)
+            return; // no snapshot to patch; the next build copies the blocks fresh
+        if (patchSize >= CHANGE_SIZE * MAX_PATCH && !building) {
+            framed = null; // too far behind, rebuild on the next join
+            resetPatch();
+            return;
+        }
+        if (patchSize + CHANGE_SIZE > patch.length)
+            patch = Arrays.copyOf(patch, patch.length * 2); // old views keep the old array
+        byte[] p = patch;
+        int o = patchSize;
+        p[o] = 6; // Block change opcode
+        p[o + 1] = (byte) (x >> 8);
+        p[o + 2] = (byte) x;
+        p[o + 3] = (byte) (y >> 8);
+        p[o + 4] = (byte) y;
+        p[o + 5] = (byte) (z >> 8);
+        p[o + 6] = (byte) z;
+        p[o + 7] = block;
+        patchSize = o + CHANGE_SIZE;
+    }
+
+    private void resetPatch() {
+        patch = new byte[CHANGE_SIZE * 256]; // never overwrite bytes a queued view may still send
+        patchSize = 0;
+    }
+
+    /**
+     * Framed join stream (LEVEL_DATA packets, then BLOCK_CHANGE patch) as fresh
+     * read-only views, or null if there is no snapshot; call {@link #refresh} first.
+     */
+    ByteBuffer[] capture() {
+        if (framed == null)
+            return null;
+        return new ByteBuffer[] {
+            ByteBuffer.wrap(framed).asReadOnlyBuffer(),
+            ByteBuffer.wrap(patch, 0, patchSize).asReadOnlyBuffer()
+        };
+    }
+
+    /** Build the snapshot if there is none. Call without holding the level lock. */
+    void refresh() throws IOException {
+        synchronized (levelLock) {
+            if (framed != null)
+                return;
+        }
+        synchronized (buildLock) {
+            byte[] copy;
+            synchronized (levelLock) {
+                if (framed != null)
+                    return; // built by another joiner while we waited
+                copy = blocks.clone();
+                building = true;
+                resetPatch(); // from here on the patch is relative to 'copy'
+            }
+
+            long t0 = System.nanoTime();
+            byte[] built = null;
+            try {
+                built = frame(copy);
+            } finally {
+                synchronized (levelLock) {
+                    framed = built; // same lock hold as 'building', so no edit goes unlogged
+                    building = false;
+                    if (built == null)
+                        resetPatch();
+                }
+            }
+            buildNanos += System.nanoTime() - t0;
+            builds++;
+        }
+    }
+
+    /** Snapshot rebuilds so far and their total time. */
+    String getStats() {
+        synchronized (buildLock) {
+            return builds + " builds, " + (builds == 0 ? 0 : buildNanos / builds / 1000000L) + " ms avg";
+        }
+    }
+
+    // gzip(int length + blocks) split into framed LEVEL_DATA packets
+    private static byte[] frame(byte[] level) throws IOException {
+        ByteArrayOutputStream levelBytes = new ByteArrayOutputStream(level.length / 16);
+        try (GZIPOutputStream gzos = new GZIPOutputStream(levelBytes, 65536);
+             DataOutputStream dos = new DataOutputStream(gzos)) {
+            dos.writeInt(level.length);
+            dos.write(level);
+        }
+        byte[] compressed = levelBytes.toByteArray();
+
+        int packets = (compressed.length + 1023) / 1024;
+        byte[] out = new byte[packets * 1028];
+        int offset = 0;
+        int o = 0;
+        while (offset < compressed.length) {
+            int length = Math.min(1024, compressed.length - offset);
+            out[o] = 3; // Level data opcode
+            out[o + 1] = (byte) (length >> 8);
+            out[o + 2] = (byte) length;
+            System.arraycopy(compressed, offset, out, o + 3, length);
+            offset += length;
+            out[o + 1027] = (byte) (((long) offset * 100) / compressed.length);
+            o += 1028;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,252 @@
+package net.classicremastered.toolkit.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import net.classicremastered.minecraft.net.PacketType;
+
+/**
+ * Non-blocking socket core for {@link ClassicServer}: a small pool of selector loops,
+ * each owning a share of the connections. Loop 0 also accepts.
+ * <p>
+ * All {@link Listener} callbacks for a connection arrive on its loop thread, in order.
+ * Sends may come from any thread; see {@link Connection#send}.
+ */
+public final class NetworkCore {
+
+    public interface Listener {
+        void connected(Connection c);
+
+        /**
+         * One framed packet. {@code payload} is positioned at the first field and
+         * limited to {@link PacketType#length} bytes; it is only valid during the call.
+         */
+        void packet(Connection c, int opcode, ByteBuffer payload);
+
+        void disconnected(Connection c, String reason);
+    }
+
+    private final Listener listener;
+    private final Loop[] loops;
+    private ServerSocketChannel server;
+    private int nextLoop;
+    private volatile boolean running;
+
+    public NetworkCore(Listener listener, int loopCount) {
+        this.listener = listener;
+        this.loops = new Loop[Math.max(1, loopCount)];
+    }
+
+    /** Bind and start the loops. */
+    public void start(int port) throws IOException {
+        running = true;
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new Loop(i);
+        }
+        server = ServerSocketChannel.open();
+        server.configureBlocking(false);
+        server.bind(new InetSocketAddress(port), 256);
+        Loop acceptor = loops[0];
+        server.register(acceptor.selector, SelectionKey.OP_ACCEPT);
+        for (Loop l : loops) {
+            l.thread.start();
+        }
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public void stop() {
+        running = false;
+        for (Loop l : loops) {
+            if (l != null)
+                l.selector.wakeup();
+        }
+        try {
+            if (server != null)
+                server.close();
+        } catch (IOException ignored) {}
+    }
+
+    private void accept() throws IOException {
+        SocketChannel ch;
+        while ((ch = server.accept()) != null) {
+            ch.configureBlocking(false);
+            ch.socket().setTcpNoDelay(true);
+            // keep backlog in our queue, where the slow-consumer policy can see it
+            ch.socket().setSendBufferSize(64 * 1024);
+            Loop l = loops[nextLoop];
+            nextLoop = (nextLoop + 1) % loops.length;
+            Connection c = new Connection(ch, l);
+            l.execute(() -> l.register(c));
+        }
+    }
+
+    /** One selector thread. */
+    final class Loop implements Runnable {
+        final Selector selector;
+        final Thread thread;
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<Connection> flushes = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean woken = new AtomicBoolean();
+
+        Loop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "Server-Net-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void execute(Runnable r) {
+            tasks.add(r);
+            wake();
+        }
+
+        void scheduleFlush(Connection c) {
+            flushes.add(c);
+            wake();
+        }
+
+        private void wake() {
+            if (woken.compareAndSet(false, true))
+                selector.wakeup();
+        }
+
+        void register(Connection c) {
+            try {
+                c.key = c.channel.register(selector, SelectionKey.OP_READ, c);
+            } catch (IOException e) {
+                closeNow(c);
+                return;
+            }
+            listener.connected(c);
+        }
+
+        void closeNow(Connection c) {
+            if (c.finished)
+                return;
+            c.finished = true;
+            if (c.key != null)
+                c.key.cancel();
+            try {
+                c.channel.close();
+            } catch (IOException ignored) {}
+            c.markClosed("Closed");
+            listener.disconnected(c, c.closeReason);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select(1000L);
+                } catch (IOException e) {
+                    break;
+                }
+                woken.set(false);
+
+                Runnable r;
+                while ((r = tasks.poll()) != null) {
+                    r.run();
+                }
+                Connection c;
+                while ((c = flushes.poll()) != null) {
+                    flush(c);
+                }
+
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey k = it.next();
+                    it.remove();
+                    if (!k.isValid())
+                        continue;
+                    if (k.isAcceptable()) {
+                        try {
+                            accept();
+                        } catch (IOException ignored) {}
+                        continue;
+                    }
+                    Connection conn = (Connection) k.attachment();
+                    if (k.isWritable())
+                        flush(conn);
+                    if (k.isValid() && k.isReadable())
+                        read(conn);
+                }
+            }
+            for (SelectionKey k : selector.keys()) {
+                if (k.attachment() instanceof Connection conn) {
+                    conn.markClosed("Server stopping");
+                    closeNow(conn);
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {}
+        }
+
+        private void flush(Connection c) {
+            if (c.key == null || !c.key.isValid())
+                return;
+            int state;
+            try {
+                state = c.flush();
+            } catch (IOException e) {
+                c.markClosed("Write failed: " + e.getMessage());
+                closeNow(c);
+                return;
+            }
+            if (state == Connection.CLOSE) {
+                closeNow(c);
+            } else if (state == Connection.BLOCKED) {
+                c.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            } else {
+                c.key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        private void read(Connection c) {
+            ByteBuffer in = c.in;
+            int n;
+            try {
+                n = c.channel.read(in);
+            } catch (IOException e) {
+                c.markClosed("Read failed: " + e.getMessage());
+                closeNow(c);
+                return;
+            }
+            if (n < 0) {
+                c.markClosed("End of stream");
+                closeNow(c);
+                return;
+            }
+            in.flip();
+            while (in.hasRemaining() && !c.isClosed()) {
+                int start = in.position();
+                int opcode = in.get(start) & 0xFF;
+                PacketType type = PacketType.packets[opcode];
+                if (type == null) {
+                    c.markClosed("Unknown opcode " + opcode);
+                    break;
+                }
+                int end = start + 1 + type.length;
+                if (end > in.limit())
+                    break; // wait for the rest of the packet
+                int limit = in.limit();
+                in.limit(end).position(start + 1);
+                listener.packet(c, opcode, in);
+                in.limit(limit).position(end);
+            }
+            in.compact();
+            if (c.isClosed())
+                closeNow(c);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package net.classicremastered.toolkit.server;
+
+import java.util.function.Consumer;
+
+/**
+ * Fixed-rate 20 TPS loop for {@link ClassicServer}'s simulation mode.
+ * <p>
+ * A tick is a list of named phases, each timed on its own. A late loop runs ticks
+ * back to back to catch up; past {@link #MAX_CATCH_UP} ticks behind it logs an
+ * overload warning and drops the backlog instead of spiralling. A phase that throws
+ * an exception is logged and the tick carries on with the next one; an error such as
+ * running out of stack or heap ends the loop rather than being ticked through.
+ * The thread has the default stack: instant liquid flow spreads from a work stack on
+ * the heap, not by recursion.
+ * <p>
+ * TPS, MSPT and per-phase times are averaged over the last {@link #WINDOW} ticks and
+ * may be read from any thread.
+ */
+final class TickLoop implements Runnable {
+
+    static final int TPS = 20;
+    static final long TICK_NANOS = 1_000_000_000L / TPS;
+    /** Ticks the loop may run late before the backlog is dropped (2 s). */
+    static final int MAX_CATCH_UP = 40;
+    /** Ticks the statistics are averaged over (5 s). */
+    static final int WINDOW = 100;
+
+    private final String[] names;
+    private final Runnable[] phases;
+    private final Consumer<String> log;
+    private final Thread thread;
+    private volatile boolean running;
+
+    // guarded by this; ring buffers over the last WINDOW ticks
+    private final long[] tickStart = new long[WINDOW];
+    private final long[] tickNanos = new long[WINDOW];
+    private final long[][] phaseNanos;
+    private int ticks;
+    private long skippedTicks;
+    private long lateTicks; // ticks that took longer than TICK_NANOS
+
+    TickLoop(String[] names, Runnable[] phases, Consumer<String> log) {
+        this.names = names;
+        this.phases = phases;
+        this.log = log;
+        this.phaseNanos = new long[phases.length][WINDOW];
+        this.thread = new Thread(this, "Server-Tick");
+    }
+
+    void start() {
+        running = true;
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        thread.interrupt();
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        long[] took = new long[phases.length];
+        while (running) {
+            long now = System.nanoTime();
+            if (now < next) {
+                try {
+                    Thread.sleep((next - now) / 1_000_000L, (int) ((next - now) % 1_000_000L));
+                } catch (InterruptedException ignored) {}
+                continue;
+            }
+            long behind = (now - next) / TICK_NANOS;
+            if (behind > MAX_CATCH_UP) {
+                log.accept("[ClassicServer] Can't keep up! Running " + (now - next) / 1_000_000L + " ms behind, skipping "
+                        + behind + " ticks");
+                synchronized (this) {
+                    skippedTicks += behind;
+                }
+                next = now;
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < phases.length; i++) {
+                long t0 = System.nanoTime();
+                try {
+                    phases[i].run();
+                } catch (RuntimeException e) {
+                    log.accept("[ClassicServer] Tick phase '" + names[i] + "' failed: " + e);
+                    e.printStackTrace();
+                }
+                took[i] = System.nanoTime() - t0;
+            }
+            long end = System.nanoTime();
+            record(start, end - start, took);
+            next += TICK_NANOS;
+        }
+    }
+
+    private synchronized void record(long start, long nanos, long[] took) {
+        int slot = ticks % WINDOW;
+        tickStart[slot] = start;
+        tickNanos[slot] = nanos;
+        for (int i = 0; i < took.length; i++) {
+            phaseNanos[i][slot] = took[i];
+        }
+        if (nanos > TICK_NANOS)
+            lateTicks++;
+        ticks++;
+    }
+
+    /** Ticks per second over the window, at most {@link #TPS}. */
+    synchronized double getTps() {
+        int n = Math.min(ticks, WINDOW);
+        if (n < 2)
+            return 0.0;
+        long first = tickStart[(ticks - n) % WINDOW];
+        long last = tickStart[(ticks - 1) % WINDOW];
+        return Math.min(TPS, (n - 1) * 1e9 / Math.max(1L, last - first));
+    }
+
+    /** Mean milliseconds per tick over the window. */
+    synchronized double getMspt() {
+        return mean(tickNanos) / 1e6;
+    }
+
+    /** Mean milliseconds per tick spent in phase {@code i}. */
+    synchronized double getPhaseMillis(int i) {
+        return mean(phaseNanos[i]) / 1e6;
+    }
+
+    synchronized long getTickCount() {
+        return ticks;
+    }
+
+    /** One-line summary, e.g. for the /tps command. */
+    synchronized String getStats() {
+        StringBuilder sb = new StringBuilder();
+        long max = 0;
+        for (int i = 0; i < Math.min(ticks, WINDOW); i++) {
+            max = Math.max(max, tickNanos[i]);
+        }
+        sb.append(String.format("TPS %.1f, MSPT %.2f (max %.2f) |", getTps(), getMspt(), max / 1e6));
+        for (int i = 0; i < names.length; i++) {
+            sb.append(String.format(" %s %.2f", names[i], getPhaseMillis(i)));
+        }
+        sb.append(" | ").append(ticks).append(" ticks, ").append(lateTicks).append(" over budget, ")
+                .append(skippedTicks).append(" skipped");
+        return sb.toString();
+    }
+
+    private double mean(long[] ring) {
+        int n = Math.min(ticks, WINDOW);
+        if (n == 0)
+            return 0.0;
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += ring[i];
+        }
+        return (double) sum / n;
+    }
+}